@@ -0,0 +1,100 @@
+package org.example.riskwarningsystembackend.common;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 公司风险评分工具类。
+ * <p>
+ * 根据法律纠纷数、营收、利润和税务评级计算法律、财务、信用风险等级、综合风险等级及风险原因。
+ * 公司写入数据库时（JPA 保存与 CSV 批量导入）统一使用该类计算并持久化结果，读取时不再重复计算。
+ * 营收和利润使用 {@link FinancialValueParser} 解析后的金额判断，因此 "0.00"、"0万" 与 "0" 一样视为零，
+ * "#N/A" 等无法解析的文本与空值一样视为缺失。
+ */
+public final class CompanyRiskScorer {
+
+    /**
+     * 高风险
+     */
+    public static final String HIGH = "高";
+
+    /**
+     * 中风险
+     */
+    public static final String MEDIUM = "中";
+
+    /**
+     * 低风险
+     */
+    public static final String LOW = "低";
+
+    private CompanyRiskScorer() {
+    }
+
+    /**
+     * 公司风险评估结果。
+     *
+     * @param lawRisk     法律风险等级：法律纠纷数 >500 为高，>100 为中，其余为低
+     * @param financeRisk 财务风险等级：营收和利润金额均有值且不为零时为低，否则为高
+     * @param creditRisk  信用风险等级：税务评级为 A 时为低，否则为中
+     * @param riskLevel   综合风险等级：财务风险为高时为高，否则同法律风险等级
+     * @param riskRank    综合风险等级的排序值：高为 3，中为 2，低为 1
+     * @param riskReason     风险原因说明
+     * @param highRisk       是否属于高风险公司：法律纠纷数超过100，或营收/利润金额为零或缺失
+     * @param highRiskReason 高风险企业分析中展示的原因：法律诉讼与财务数据缺失，以“；”连接，均无时为空字符串
+     */
+    public record Assessment(String lawRisk, String financeRisk, String creditRisk, String riskLevel,
+                             int riskRank, String riskReason, boolean highRisk, String highRiskReason) {
+    }
+
+    /**
+     * 计算公司的风险评估结果。
+     *
+     * @param legalDisputeCount 法律纠纷数，可为 null
+     * @param revenueAmount     营收金额（{@link FinancialValueParser#parseAmount} 的结果），可为 null
+     * @param profitAmount      利润金额（{@link FinancialValueParser#parseAmount} 的结果），可为 null
+     * @param taxRating         税务评级，可为 null
+     * @return 风险评估结果
+     */
+    public static Assessment assess(Integer legalDisputeCount, BigDecimal revenueAmount, BigDecimal profitAmount, String taxRating) {
+        int disputes = legalDisputeCount != null ? legalDisputeCount : 0;
+        String lawRisk = disputes > 500 ? HIGH : (disputes > 100 ? MEDIUM : LOW);
+
+        boolean financialDataMissing = isFinancialDataMissing(revenueAmount, profitAmount);
+        String financeRisk = financialDataMissing ? HIGH : LOW;
+
+        String creditRisk = "A".equals(taxRating) ? LOW : MEDIUM; // 假设非A为中等风险。
+
+        String riskLevel = HIGH.equals(financeRisk) ? HIGH : lawRisk;
+        int riskRank = HIGH.equals(riskLevel) ? 3 : (MEDIUM.equals(riskLevel) ? 2 : 1);
+
+        List<String> reasons = new ArrayList<>();
+        if (HIGH.equals(lawRisk) || MEDIUM.equals(lawRisk)) {
+            reasons.add("存在 " + disputes + " 起法律诉讼");
+        }
+        if (HIGH.equals(financeRisk)) {
+            reasons.add("关键财务数据缺失");
+        }
+        String highRiskReason = String.join("；", reasons);
+        if (MEDIUM.equals(creditRisk)) {
+            reasons.add("税务评级非A级");
+        }
+        String riskReason = reasons.isEmpty() ? "无明显风险" : String.join("，", reasons);
+
+        boolean highRisk = disputes > 100 || financialDataMissing;
+
+        return new Assessment(lawRisk, financeRisk, creditRisk, riskLevel, riskRank, riskReason, highRisk, highRiskReason);
+    }
+
+    /**
+     * 判断关键财务数据是否缺失：营收或利润金额为零或无法解析。
+     *
+     * @param revenueAmount 营收金额，可为 null
+     * @param profitAmount  利润金额，可为 null
+     * @return 缺失时返回 true
+     */
+    public static boolean isFinancialDataMissing(BigDecimal revenueAmount, BigDecimal profitAmount) {
+        return revenueAmount == null || revenueAmount.signum() == 0 || profitAmount == null || profitAmount.signum() == 0;
+    }
+}
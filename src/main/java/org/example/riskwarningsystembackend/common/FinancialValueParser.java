@@ -0,0 +1,120 @@
+package org.example.riskwarningsystembackend.common;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 财务数值解析工具类。
+ * <p>
+ * 公司数据中的注册资本、实缴资本、营收、资产、利润、员工人数和股价指数以文本形式导入，
+ * 常见写法如 "60000万人民币"、"4017.41万美元"、"103.57亿"、"-1.2万"、"0"，以及 "#N/A"、"--"、"天眼查未查到" 等无效值。
+ * 本类将其解析为数值（金额统一换算为“元”），供写入数值列使用；无法识别的文本解析为 null，原始文本另行保留。
+ */
+public final class FinancialValueParser {
+
+    /**
+     * 未注明币种时的默认币种
+     */
+    public static final String DEFAULT_CURRENCY = "人民币";
+
+    /**
+     * 币种列的最大长度，与 company_info 表的定义一致
+     */
+    private static final int MAX_CURRENCY_LENGTH = 16;
+
+    private static final BigDecimal TEN_THOUSAND = new BigDecimal("10000");
+    private static final BigDecimal HUNDRED_MILLION = new BigDecimal("100000000");
+
+    /**
+     * 数值 + 可选单位（万/亿，可带“元”）+ 可选币种（非 ASCII 文字，如“美元”），整段文本必须完整匹配。
+     */
+    private static final Pattern AMOUNT_PATTERN =
+            Pattern.compile("^([-+]?\\d+(?:\\.\\d+)?)\\s*(万|亿)?元?\\s*([^\\x00-\\x7F]*)$");
+
+    private FinancialValueParser() {
+    }
+
+    /**
+     * 解析金额文本并换算为“元”，保留两位小数。
+     *
+     * @param text 金额文本，如 "103.57亿"、"200万人民币"、"0"
+     * @return 以元为单位的金额，无法解析时为 null
+     */
+    public static BigDecimal parseAmount(String text) {
+        Matcher matcher = match(text);
+        if (matcher == null) {
+            return null;
+        }
+        BigDecimal amount = new BigDecimal(matcher.group(1));
+        String unit = matcher.group(2);
+        if ("万".equals(unit)) {
+            amount = amount.multiply(TEN_THOUSAND);
+        } else if ("亿".equals(unit)) {
+            amount = amount.multiply(HUNDRED_MILLION);
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 解析金额文本中的币种。
+     *
+     * @param text 金额文本，如 "4017.41万美元"
+     * @return 币种名称；金额有效但未注明币种时为 {@link #DEFAULT_CURRENCY}；无法解析时为 null
+     */
+    public static String parseCurrency(String text) {
+        Matcher matcher = match(text);
+        if (matcher == null) {
+            return null;
+        }
+        String currency = matcher.group(3);
+        if (currency.isEmpty()) {
+            return DEFAULT_CURRENCY;
+        }
+        return currency.length() > MAX_CURRENCY_LENGTH ? currency.substring(0, MAX_CURRENCY_LENGTH) : currency;
+    }
+
+    /**
+     * 解析整数文本（如员工人数），忽略首尾空白。
+     *
+     * @param text 整数文本
+     * @return 整数值，为空或无法解析时为 null
+     */
+    public static Integer parseCount(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(text.strip());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析小数文本（如股价/大盘指数），支持科学计数法。
+     *
+     * @param text 小数文本，如 "0.00049245"、"1.2E-5"
+     * @return 数值，为空或无法解析时为 null
+     */
+    public static Double parseDecimal(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            double value = Double.parseDouble(text.strip());
+            return Double.isFinite(value) ? value : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Matcher match(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        Matcher matcher = AMOUNT_PATTERN.matcher(text.strip());
+        return matcher.matches() ? matcher : null;
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.riskwarningsystembackend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 缓存配置类，为仪表盘接口提供按条目数和存活时间淘汰的本地缓存。
+ * 缓存内容在公司数据或公司关系变更后由 {@link org.example.riskwarningsystembackend.service.DashboardCacheService} 立即清除，
+ * 存活时间只作为兜底。
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * 关键指标缓存
+     */
+    public static final String KEY_METRICS_CACHE = "dashboard.keyMetrics";
+
+    /**
+     * 风险分布缓存
+     */
+    public static final String RISK_DISTRIBUTION_CACHE = "dashboard.riskDistribution";
+
+    /**
+     * 行业健康度缓存
+     */
+    public static final String INDUSTRY_HEALTH_CACHE = "dashboard.industryHealth";
+
+    /**
+     * 供应链风险缓存
+     */
+    public static final String SUPPLY_CHAIN_RISK_CACHE = "dashboard.supplyChainRisk";
+
+    /**
+     * 风险地图缓存
+     */
+    public static final String RISK_MAP_CACHE = "dashboard.riskMap";
+
+    /**
+     * 知识图谱缓存
+     */
+    public static final String COMPANY_GRAPH_CACHE = "dashboard.companyGraph";
+
+    /**
+     * 依赖公司数据的全部仪表盘缓存
+     */
+    public static final List<String> DASHBOARD_CACHES = List.of(KEY_METRICS_CACHE, RISK_DISTRIBUTION_CACHE,
+            INDUSTRY_HEALTH_CACHE, SUPPLY_CHAIN_RISK_CACHE, RISK_MAP_CACHE, COMPANY_GRAPH_CACHE);
+
+    /**
+     * 创建基于 Caffeine 的缓存管理器，启用命中率等统计。
+     *
+     * @param maxSize    每个缓存的最大条目数
+     * @param ttlSeconds 条目写入后的存活时间（秒）
+     * @return 缓存管理器
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${dashboard.cache.max-size:500}") long maxSize,
+                                     @Value("${dashboard.cache.ttl-seconds:300}") long ttlSeconds) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats());
+        cacheManager.setCacheNames(DASHBOARD_CACHES);
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
@@ -1,7 +1,7 @@
 package org.example.riskwarningsystembackend.config;
 
 import lombok.extern.slf4j.Slf4j;
-import org.example.riskwarningsystembackend.service.DataInitial.CompanyRelationService;
+import org.example.riskwarningsystembackend.service.DataInitial.CompanyRelationRebuildCoordinator;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -18,15 +18,15 @@ import org.springframework.stereotype.Component;
 @Order(3)
 public class CompanyRelationDataLoader implements CommandLineRunner {
 
-    private final CompanyRelationService companyRelationService;
+    private final CompanyRelationRebuildCoordinator companyRelationRebuildCoordinator;
 
     /**
      * 构造函数
      *
-     * @param companyRelationService 公司关系服务实例，用于执行公司关系重建操作
+     * @param companyRelationRebuildCoordinator 公司关系重建调度器，保证启动时的重建不会与其他重建并发执行
      */
-    public CompanyRelationDataLoader(CompanyRelationService companyRelationService) {
-        this.companyRelationService = companyRelationService;
+    public CompanyRelationDataLoader(CompanyRelationRebuildCoordinator companyRelationRebuildCoordinator) {
+        this.companyRelationRebuildCoordinator = companyRelationRebuildCoordinator;
     }
 
     /**
@@ -46,7 +46,7 @@ public class CompanyRelationDataLoader implements CommandLineRunner {
         try {
             log.info("应用启动：正在触发初始公司关系构建...");
             long startTime = System.currentTimeMillis();
-            companyRelationService.rebuildCompanyRelations();
+            companyRelationRebuildCoordinator.rebuildNow("application startup");
             long endTime = System.currentTimeMillis();
             log.info("初始公司关系构建成功完成，耗时 {} 毫秒。", endTime - startTime);
         } catch (Exception e) {
@@ -0,0 +1,46 @@
+package org.example.riskwarningsystembackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 新闻来源配置
+ * 对应 monitor.sources.&lt;来源标识&gt;.* 配置项，每个来源的调度、并发配额以及页面提取规则
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "monitor")
+public class NewsSourceProperties {
+
+    private Map<String, Source> sources = new LinkedHashMap<>(); // 来源标识 → 来源配置
+
+    /**
+     * 单个新闻来源的配置
+     * 选择器类配置项仅用于按配置登记的来源，以 Spring Bean 实现的来源只使用调度和并发配置
+     */
+    @Data
+    public static class Source {
+        private boolean enabled = true; // 是否启用
+        private String name; // 来源名称，作为文章作者保存，未配置时使用来源标识
+        private String cron = "0 0 2 * * ?"; // 定时爬取的 Cron 表达式，"-" 表示不定时爬取
+        private boolean runOnStartup = true; // 应用启动完成后是否立即爬取一次
+        private int fetchWorkers; // 抓取详情页的并发数，0 表示使用流水线的默认值
+        private int maxListPages = 20; // 增量爬取最多翻阅的列表页数
+        private int initialListPages = 1; // 没有水位线（首次爬取）时翻阅的列表页数
+
+        private String listUrl; // 列表第一页地址
+        private String listPageUrl; // 后续列表页地址模板，{page} 替换为页码，未配置时只爬第一页
+        private String listItemSelector; // 列表中每篇文章的选择器
+        private String linkSelector = "a"; // 文章链接在列表项内的选择器
+        private String titleAttribute = "title"; // 链接上保存标题的属性，属性为空时取链接文本
+        private String dateSelector = "span"; // 发布日期在列表项内的选择器
+        private String dateFormat = "yyyy-MM-dd"; // 发布日期格式
+        private String contentSelector; // 详情页正文的选择器
+        private String keywordsSelector = "meta[name=Keywords]"; // 详情页关键字元数据的选择器，取其 content 属性作为标签
+        private String imageBaseUrl; // 以 "/" 开头的图片地址所用的站点地址，未配置时按详情页地址补全
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.riskwarningsystembackend.config;
 
+import jakarta.servlet.DispatcherType;
 import org.example.riskwarningsystembackend.security.JwtAuthenticationFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -74,6 +75,9 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 // 配置请求授权规则
                 .authorizeHttpRequests(authz -> authz
+                        // 0. 异步分派（SSE 推送连接结束时）和错误分派沿用原请求已通过的鉴权，
+                        //    JWT 过滤器不会在这些分派中重新认证，不放行会在连接关闭时误报拒绝访问
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         // 1. 明确放行认证和错误处理相关的API
                         .requestMatchers("/api/auth/**", "/error").permitAll()
                         // 2. 明确保护所有其他的API请求
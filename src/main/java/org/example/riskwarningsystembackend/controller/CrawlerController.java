@@ -0,0 +1,43 @@
+package org.example.riskwarningsystembackend.controller;
+
+import org.example.riskwarningsystembackend.common.RestResult;
+import org.example.riskwarningsystembackend.dto.monitoring.CrawlPipelineStatusDTO;
+import org.example.riskwarningsystembackend.service.MonitorNetworkService;
+import org.example.riskwarningsystembackend.service.crawler.ArticleCrawlPipeline;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 新闻爬虫控制器，提供爬取流水线的运行状态查询接口。
+ */
+@RestController
+@RequestMapping("/api/monitoring/crawler")
+public class CrawlerController {
+
+    private final ArticleCrawlPipeline crawlPipeline;
+    private final MonitorNetworkService monitorNetworkService;
+
+    /**
+     * 构造方法注入文章爬取流水线和网络信息监测服务。
+     *
+     * @param crawlPipeline         文章爬取流水线
+     * @param monitorNetworkService 网络信息监测服务，提供已登记的新闻来源
+     */
+    public CrawlerController(ArticleCrawlPipeline crawlPipeline, MonitorNetworkService monitorNetworkService) {
+        this.crawlPipeline = crawlPipeline;
+        this.monitorNetworkService = monitorNetworkService;
+    }
+
+    /**
+     * 获取每个已登记新闻来源当前（或最近一次）爬取的各阶段处理量、队列深度、吞吐量以及最近的死信。
+     *
+     * @return 各来源的流水线状态，按登记顺序排列
+     */
+    @GetMapping("/status")
+    public RestResult<List<CrawlPipelineStatusDTO>> getStatus() {
+        return RestResult.success(monitorNetworkService.getSourceIds().stream().map(crawlPipeline::getStatus).toList());
+    }
+}
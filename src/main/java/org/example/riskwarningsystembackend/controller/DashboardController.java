@@ -5,12 +5,23 @@ import org.example.riskwarningsystembackend.dto.*;
 import org.example.riskwarningsystembackend.dto.dashboard.RiskMapDTO;
 import org.example.riskwarningsystembackend.dto.dashboard.*;
 import org.example.riskwarningsystembackend.dto.supplychain.SupplyChainRiskDTO;
+import org.example.riskwarningsystembackend.security.JwtTokenProvider;
+import org.example.riskwarningsystembackend.service.DashboardCacheService;
+import org.example.riskwarningsystembackend.service.DashboardOverviewService;
 import org.example.riskwarningsystembackend.service.DashboardService;
+import org.example.riskwarningsystembackend.service.DashboardStreamService;
+import org.example.riskwarningsystembackend.service.RiskMapService;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -23,14 +34,76 @@ import java.util.List;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardCacheService dashboardCacheService;
+    private final RiskMapService riskMapService;
+    private final DashboardOverviewService dashboardOverviewService;
+    private final DashboardStreamService dashboardStreamService;
+    private final JwtTokenProvider jwtTokenProvider;
 
     /**
      * 构造函数注入 DashboardService 实例。
      *
-     * @param dashboardService 提供仪表盘相关业务逻辑的服务类
+     * @param dashboardService         提供仪表盘相关业务逻辑的服务类
+     * @param dashboardCacheService    仪表盘缓存服务，提供缓存统计信息
+     * @param riskMapService           风险地图服务，提供按视口聚合的地图数据
+     * @param dashboardOverviewService 仪表盘总览服务，在一次请求中并发计算多个组件
+     * @param dashboardStreamService   仪表盘增量推送服务，通过 SSE 广播数据变更
+     * @param jwtTokenProvider         JWT令牌提供者，签发推送专用的短期令牌
      */
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, DashboardCacheService dashboardCacheService,
+                               RiskMapService riskMapService, DashboardOverviewService dashboardOverviewService,
+                               DashboardStreamService dashboardStreamService, JwtTokenProvider jwtTokenProvider) {
         this.dashboardService = dashboardService;
+        this.dashboardCacheService = dashboardCacheService;
+        this.riskMapService = riskMapService;
+        this.dashboardOverviewService = dashboardOverviewService;
+        this.dashboardStreamService = dashboardStreamService;
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
+
+    /**
+     * 签发仪表盘推送专用的短期令牌。
+     * 浏览器的 EventSource 无法设置 Authorization 请求头，客户端先调用本接口，
+     * 再以 /api/dashboard/stream?access_token=令牌 建立连接。
+     *
+     * @param authentication 当前登录用户
+     * @return 推送令牌及其有效期（秒）
+     */
+    @PostMapping("/stream-token")
+    public RestResult<StreamTokenDTO> createStreamToken(Authentication authentication) {
+        return RestResult.success(new StreamTokenDTO(jwtTokenProvider.generateStreamToken(authentication.getName()),
+                jwtTokenProvider.getStreamTokenSeconds()));
+    }
+
+    /**
+     * 订阅仪表盘增量推送（SSE），取代对各读接口的轮询。
+     * 事件类型包括 company、riskArticle、relations 和 resync；收到 resync 时应重新拉取全量数据。
+     * 断线重连时通过 Last-Event-ID 请求头（或 lastEventId 参数）续传错过的事件。
+     * <p>
+     * 可以使用 Authorization 请求头认证；浏览器 EventSource 则使用 access_token 参数传递 {@link #createStreamToken} 签发的令牌。
+     * 推送令牌有效期很短，只在建立连接时校验；EventSource 出错后应重新获取令牌，以 lastEventId 参数建立新连接。
+     *
+     * @param lastEventIdHeader 浏览器 EventSource 自动携带的最后事件ID
+     * @param lastEventId       可选参数。无法设置请求头的客户端通过此参数传递最后事件ID
+     * @return SSE 连接
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDeltas(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                                   @RequestParam(required = false) Long lastEventId) {
+        return dashboardStreamService.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    /**
+     * 在一次请求中获取多个仪表盘组件的数据。
+     * 各组件并发计算并有单独的超时时间，部分组件失败或超时时其余组件仍正常返回，每个组件附带状态和耗时。
+     *
+     * @param widgets 可选参数。组件名称列表（如 keyMetrics、riskDistribution、industryHealth、supplyChainRisk、
+     *                riskAnalysis、riskMap、riskMapViewport、revenueRanking、capitalDistribution），为空时返回首屏默认组件
+     * @return 返回封装了各组件结果的 RestResult 对象
+     */
+    @GetMapping("/overview")
+    public RestResult<DashboardOverviewDTO> getOverview(@RequestParam(required = false) List<String> widgets) {
+        return RestResult.success(dashboardOverviewService.getOverview(widgets));
     }
 
     /**
@@ -88,6 +161,27 @@ public class DashboardController {
         return RestResult.success(dashboardService.getRiskAnalysis(pageRequest));
     }
 
+    /**
+     * 获取营业额排名数据。
+     *
+     * @param limit 返回的公司数量，默认值为 10，最大 100
+     * @return 返回封装了营业额排名数据的 RestResult 对象
+     */
+    @GetMapping("/revenue-ranking")
+    public RestResult<List<RevenueRankingDTO>> getRevenueRanking(@RequestParam(defaultValue = "10") int limit) {
+        return RestResult.success(dashboardService.getRevenueRanking(limit));
+    }
+
+    /**
+     * 获取注册资本分布数据。
+     *
+     * @return 返回封装了注册资本分布数据的 RestResult 对象
+     */
+    @GetMapping("/capital-distribution")
+    public RestResult<CapitalDistributionDTO> getCapitalDistribution() {
+        return RestResult.success(dashboardService.getCapitalDistribution());
+    }
+
     /**
      * 获取风险地图数据。
      *
@@ -98,6 +192,57 @@ public class DashboardController {
         return RestResult.success(dashboardService.getRiskMap());
     }
 
+    /**
+     * 按视口获取风险地图数据：低缩放级别返回网格聚合结果，高缩放级别返回单个公司。
+     *
+     * @param west  视口西边界经度，默认 -180
+     * @param south 视口南边界纬度，默认 -85
+     * @param east  视口东边界经度，默认 180
+     * @param north 视口北边界纬度，默认 85
+     * @param zoom  缩放级别，默认值为 4，最大 18
+     * @return 返回封装了视口风险地图数据的 RestResult 对象
+     */
+    @GetMapping("/risk-map/viewport")
+    public RestResult<RiskMapViewportDTO> getRiskMapViewport(
+            @RequestParam(defaultValue = "-180") double west,
+            @RequestParam(defaultValue = "-85") double south,
+            @RequestParam(defaultValue = "180") double east,
+            @RequestParam(defaultValue = "85") double north,
+            @RequestParam(defaultValue = "4") int zoom) {
+        return RestResult.success(riskMapService.getViewport(west, south, east, north, zoom));
+    }
+
+    /**
+     * 查找距中心点一定范围内的公司及其直接关系，用于评估台风、电网故障等区域性事件对产业链的影响。
+     *
+     * @param latitude      中心点纬度
+     * @param longitude     中心点经度
+     * @param radiusKm      半径（公里），最大 2000
+     * @param limit         最多返回的公司数量，默认值为 200，最大 1000
+     * @param relationTypes 可选参数。返回关系的类型（如 partner、supplier），为空时返回所有类型
+     * @return 返回封装了区域影响分析结果的 RestResult 对象
+     */
+    @GetMapping("/risk-map/radius")
+    public RestResult<SpatialImpactDTO> findCompaniesWithinRadius(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam double radiusKm,
+            @RequestParam(defaultValue = "200") int limit,
+            @RequestParam(required = false) List<String> relationTypes) {
+        return RestResult.success(riskMapService.findWithinRadius(latitude, longitude, radiusKm, limit, relationTypes));
+    }
+
+    /**
+     * 查找位于多边形区域内的公司及其直接关系。
+     *
+     * @param query 多边形区域查询请求，包含顶点列表、关系类型筛选和返回数量上限
+     * @return 返回封装了区域影响分析结果的 RestResult 对象
+     */
+    @PostMapping("/risk-map/region")
+    public RestResult<SpatialImpactDTO> findCompaniesWithinRegion(@RequestBody RegionQueryDTO query) {
+        return RestResult.success(riskMapService.findWithinRegion(query));
+    }
+
     /**
      * 获取知识图谱数据的API接口。
      *
@@ -111,4 +256,35 @@ public class DashboardController {
             @RequestParam(required = false) String keyword) {
         return RestResult.success(dashboardService.getCompanyKnowledgeGraph(companyId, keyword));
     }
+
+    /**
+     * 以指定公司为中心按跳数展开关系子图的API接口。
+     * 服务端对跳数、节点数和边数设有上限，超出部分会被截断，并在节点上标记是否还有更多关系。
+     *
+     * @param companyId     中心公司ID
+     * @param depth         最大跳数，默认为2
+     * @param maxNodes      最多返回的节点数，默认为200
+     * @param maxEdges      最多返回的边数，默认为500
+     * @param relationTypes 可选参数。允许的关系类型（如 partner、supplier），按优先级排列
+     * @return 邻域子图数据
+     */
+    @GetMapping("/graph/expand")
+    public RestResult<CompanyNeighborhoodDTO> expandCompanyNeighborhood(
+            @RequestParam Long companyId,
+            @RequestParam(defaultValue = "2") int depth,
+            @RequestParam(defaultValue = "200") int maxNodes,
+            @RequestParam(defaultValue = "500") int maxEdges,
+            @RequestParam(required = false) List<String> relationTypes) {
+        return RestResult.success(dashboardService.expandCompanyNeighborhood(companyId, depth, maxNodes, maxEdges, relationTypes));
+    }
+
+    /**
+     * 获取仪表盘缓存的统计信息。
+     *
+     * @return 各缓存的条目数、命中、未命中及淘汰统计
+     */
+    @GetMapping("/cache-stats")
+    public RestResult<List<CacheStatsDTO>> getCacheStats() {
+        return RestResult.success(dashboardCacheService.getStats());
+    }
 }
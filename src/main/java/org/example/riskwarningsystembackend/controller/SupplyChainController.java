@@ -4,14 +4,20 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.riskwarningsystembackend.common.RestResult;
 import org.example.riskwarningsystembackend.dto.PaginatedResponseDTO;
 import org.example.riskwarningsystembackend.dto.supplychain.CompanyListDTO;
+import org.example.riskwarningsystembackend.dto.supplychain.RelationRebuildStatusDTO;
+import org.example.riskwarningsystembackend.dto.supplychain.SuggestionDTO;
 import org.example.riskwarningsystembackend.dto.supplychain.SupplyChainSummaryDTO;
 import org.example.riskwarningsystembackend.entity.CompanyInfo;
+import org.example.riskwarningsystembackend.service.DataInitial.CompanyRelationRebuildCoordinator;
 import org.example.riskwarningsystembackend.service.DataInitial.CompanyRelationService;
 import org.example.riskwarningsystembackend.service.SupplyChainService;
+import org.example.riskwarningsystembackend.service.search.TypeaheadService;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * 供应链相关接口控制器，提供公司信息的增删改查、分页查询、统计摘要等功能。
@@ -23,16 +29,25 @@ public class SupplyChainController {
 
     private final SupplyChainService supplyChainService;
     private final CompanyRelationService companyRelationService;
+    private final CompanyRelationRebuildCoordinator companyRelationRebuildCoordinator;
+    private final TypeaheadService typeaheadService;
 
     /**
      * 构造方法注入依赖的服务类。
      *
-     * @param supplyChainService     供应链服务类，用于处理公司信息相关的业务逻辑
-     * @param companyRelationService 公司关系服务类，用于重建公司之间的关联关系
+     * @param supplyChainService                供应链服务类，用于处理公司信息相关的业务逻辑
+     * @param companyRelationService            公司关系服务类，用于维护公司之间的关联关系
+     * @param companyRelationRebuildCoordinator 公司关系重建调度器，用于异步执行全量重建及关系图刷新
+     * @param typeaheadService                  公司与产品名称联想服务
      */
-    public SupplyChainController(SupplyChainService supplyChainService, CompanyRelationService companyRelationService) {
+    public SupplyChainController(SupplyChainService supplyChainService,
+                                 CompanyRelationService companyRelationService,
+                                 CompanyRelationRebuildCoordinator companyRelationRebuildCoordinator,
+                                 TypeaheadService typeaheadService) {
         this.supplyChainService = supplyChainService;
         this.companyRelationService = companyRelationService;
+        this.companyRelationRebuildCoordinator = companyRelationRebuildCoordinator;
+        this.typeaheadService = typeaheadService;
     }
 
     /**
@@ -56,20 +71,50 @@ public class SupplyChainController {
     }
 
     /**
-     * 分页获取公司列表，支持关键词搜索。
+     * 分页获取公司列表，支持关键词搜索、按风险等级筛选及排序。
      *
-     * @param keyword  搜索关键词（可选）
-     * @param page     当前页码，默认为1
-     * @param pageSize 每页数据量，默认为10
+     * @param keyword     搜索关键词（可选）
+     * @param riskLevel   综合风险等级筛选（高/中/低，可选）
+     * @param lawRisk     法律风险等级筛选（可选）
+     * @param financeRisk 财务风险等级筛选（可选）
+     * @param creditRisk  信用风险等级筛选（可选）
+     * @param sortBy      排序方式：risk 按综合风险从高到低，name 按名称；默认有关键词时按匹配质量，否则按ID
+     * @param page        当前页码，默认为1
+     * @param pageSize    每页数据量，默认为10
      * @return 分页后的公司列表数据及分页信息
      */
     @GetMapping("/companies")
     public RestResult<PaginatedResponseDTO<CompanyListDTO>> getCompanies(
             @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String riskLevel,
+            @RequestParam(required = false) String lawRisk,
+            @RequestParam(required = false) String financeRisk,
+            @RequestParam(required = false) String creditRisk,
+            @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int pageSize) {
-        PageRequest pageRequest = PageRequest.of(page - 1, pageSize);
-        return RestResult.success(supplyChainService.getCompanies(keyword, pageRequest));
+        Sort sort = switch (sortBy == null ? "" : sortBy) {
+            case "risk" -> Sort.by(Sort.Order.desc("riskRank"), Sort.Order.asc("id"));
+            case "name" -> Sort.by("name", "id");
+            default -> Sort.unsorted();
+        };
+        PageRequest pageRequest = PageRequest.of(page - 1, pageSize, sort);
+        return RestResult.success(supplyChainService.getCompanies(keyword, riskLevel, lawRisk, financeRisk, creditRisk, pageRequest));
+    }
+
+    /**
+     * 搜索框输入联想：返回名称或简称以输入内容开头的公司和产品，直接由内存快照回答，不访问数据库。
+     *
+     * @param q     输入的前缀
+     * @param type  只返回某一类型（company 或 product，可选）
+     * @param limit 最多返回的结果数，默认为10，最大为20
+     * @return 联想结果列表
+     */
+    @GetMapping("/suggest")
+    public RestResult<List<SuggestionDTO>> suggest(@RequestParam String q,
+                                                   @RequestParam(required = false) String type,
+                                                   @RequestParam(defaultValue = "10") int limit) {
+        return RestResult.success(typeaheadService.suggest(q, type, limit));
     }
 
     /**
@@ -97,7 +142,8 @@ public class SupplyChainController {
     @PostMapping("/companies")
     public RestResult<CompanyInfo> createCompany(@RequestBody CompanyInfo companyInfo) {
         CompanyInfo createdCompany = supplyChainService.createCompany(companyInfo);
-        triggerRelationRebuild("company creation");
+        triggerRelationUpdate("company creation", () -> companyRelationService.applyCompanyProductChange(
+                createdCompany.getId(), Set.of(), companyRelationService.collectMajorProducts(createdCompany)));
         return new RestResult<>(201, "创建成功", createdCompany);
     }
 
@@ -110,9 +156,12 @@ public class SupplyChainController {
      */
     @PutMapping("/companies/{id}")
     public RestResult<CompanyInfo> updateCompany(@PathVariable Long id, @RequestBody CompanyInfo companyDetails) {
+        // 在更新前记录原有的主营产品，用于计算关系的增量变化
+        Set<String> oldProducts = companyRelationService.collectMajorProducts(supplyChainService.getCompanyById(id));
         CompanyInfo updatedCompany = supplyChainService.updateCompany(id, companyDetails);
         if (updatedCompany != null) {
-            triggerRelationRebuild("company update");
+            triggerRelationUpdate("company update", () -> companyRelationService.applyCompanyProductChange(
+                    id, oldProducts, companyRelationService.collectMajorProducts(updatedCompany)));
             return RestResult.success(updatedCompany);
         } else {
             return RestResult.failure(404, "Company not found");
@@ -128,25 +177,59 @@ public class SupplyChainController {
     @DeleteMapping("/companies/{id}")
     public RestResult<Void> deleteCompany(@PathVariable Long id) {
         supplyChainService.deleteCompany(id);
-        triggerRelationRebuild("company deletion");
+        triggerRelationUpdate("company deletion", () -> companyRelationService.removeRelationsForCompany(id));
         return RestResult.success();
     }
 
     /**
-     * 在公司信息发生变更时触发公司关系的重建操作。
+     * 请求一次公司关系全量重建。
+     * 重建在后台异步执行，短时间内的多次请求会被合并为一次。
+     *
+     * @return 提交请求后的重建状态
+     */
+    @PostMapping("/relations/rebuild")
+    public RestResult<RelationRebuildStatusDTO> requestRelationRebuild() {
+        companyRelationRebuildCoordinator.requestRebuild("manual request");
+        return RestResult.success(companyRelationRebuildCoordinator.getStatus());
+    }
+
+    /**
+     * 获取公司关系全量重建的运行状态。
+     *
+     * @return 包含最近一次运行时间、耗时及是否有待执行请求的状态信息
+     */
+    @GetMapping("/relations/rebuild-status")
+    public RestResult<RelationRebuildStatusDTO> getRelationRebuildStatus() {
+        return RestResult.success(companyRelationRebuildCoordinator.getStatus());
+    }
+
+    /**
+     * 在公司信息发生变更时增量更新公司关系。
      * <p>
-     * 此方法会在公司创建、更新或删除后被调用，以确保公司之间的关联关系是最新的。
-     * 如果重建过程中出现异常，仅记录日志而不中断主流程。
+     * 此方法会在公司创建、更新或删除后被调用，仅调整与该公司相关的关系，而不是全量重建整张关系表。
+     * 无论关系是否变化，公司本身（如名称）已发生变更，因此随后都会请求刷新内存中的关系图；
+     * 刷新经调度器防抖合并，连续的多次变更只会重新加载一次。
+     * 如果更新过程中出现异常，仅记录日志而不中断主流程。
      *
-     * @param triggerSource 触发重建的原因描述，如 "company creation"、"company update" 等
+     * @param triggerSource 触发更新的原因描述，如 "company creation"、"company update" 等
+     * @param update        具体的增量更新操作
      */
-    private void triggerRelationRebuild(String triggerSource) {
+    private void triggerRelationUpdate(String triggerSource, Runnable update) {
         try {
-            log.info("触发公司关系重建: {}", triggerSource);
-            companyRelationService.rebuildCompanyRelations();
+            log.info("触发公司关系增量更新: {}", triggerSource);
+            // 先取开始次数再取运行状态：更新期间开始的重建由次数变化发现，更新前已在运行的由运行状态发现
+            long rebuildsStarted = companyRelationRebuildCoordinator.getStartedCount();
+            boolean rebuildRunning = companyRelationRebuildCoordinator.isRunning();
+            update.run();
+            // 与更新重叠的全量重建可能在更新提交前读取了快照，切换影子表后会覆盖本次增量结果
+            // （更新删除的也可能是切换前的旧表中的行），因此需要再重建一次
+            if (rebuildRunning || companyRelationRebuildCoordinator.getStartedCount() != rebuildsStarted) {
+                companyRelationRebuildCoordinator.requestRebuild(triggerSource + " during rebuild");
+            }
         } catch (Exception e) {
-            log.error("未能重建公司关系 {}. 原因: {}", triggerSource, e.getMessage());
+            log.error("未能更新公司关系 {}. 原因: {}", triggerSource, e.getMessage());
             // 不重新抛出异常，因为主要操作已成功执行。
         }
+        companyRelationRebuildCoordinator.requestGraphRefresh(triggerSource);
     }
 }
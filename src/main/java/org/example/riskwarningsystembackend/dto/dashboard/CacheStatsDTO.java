@@ -0,0 +1,20 @@
+package org.example.riskwarningsystembackend.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 缓存统计数据传输对象
+ * 用于封装单个缓存的条目数、命中、未命中及淘汰次数
+ */
+@Data
+@AllArgsConstructor
+public class CacheStatsDTO {
+    private String name; // 缓存名称
+    private long size; // 当前条目数（估算值）
+    private long hitCount; // 命中次数
+    private long missCount; // 未命中次数
+    private double hitRate; // 命中率
+    private long evictionCount; // 因容量或过期被淘汰的条目数
+    private long invalidationCount; // 因数据变更被清空的次数
+}
@@ -0,0 +1,17 @@
+package org.example.riskwarningsystembackend.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 注册资本分布数据传输对象
+ * 用于封装按注册资本分段的公司数量
+ */
+@Data
+@AllArgsConstructor
+public class CapitalDistributionDTO {
+    private List<String> categories; // 注册资本分段
+    private List<Long> values; // 公司数量
+}
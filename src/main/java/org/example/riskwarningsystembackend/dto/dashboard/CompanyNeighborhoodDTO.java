@@ -0,0 +1,38 @@
+package org.example.riskwarningsystembackend.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 公司多跳邻域数据传输对象
+ * 用于封装以某公司为中心、按跳数展开的关系子图，以及子图是否被截断的信息
+ */
+@Data
+@AllArgsConstructor
+public class CompanyNeighborhoodDTO {
+    private String centerId; // 中心公司ID
+    private int depth; // 实际使用的最大跳数
+    private int maxNodes; // 实际使用的节点数上限
+    private int maxEdges; // 实际使用的边数上限
+    private boolean truncated; // 是否因节点数或边数上限而截断
+    private List<Node> nodes; // 节点列表
+    private List<CompanyGraphDTO.Edge> edges; // 边列表
+
+    /**
+     * 邻域节点数据类
+     * 在图谱节点的基础上增加距中心的跳数和未返回的关系数
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Node {
+        private String id; // 节点ID
+        private String label; // 节点标签
+        private int size; // 节点大小
+        private int depth; // 距中心公司的跳数
+        private int degree; // 符合筛选条件的关系总数
+        private int hiddenRelations; // 未在本次结果中返回的关系数
+        private boolean hasMore; // 是否还有更多关系可以展开
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.riskwarningsystembackend.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 仪表盘增量推送数据传输对象
+ * 用于封装通过 SSE 推送给仪表盘的一条增量变更，事件ID单调递增，可用于断线后续传
+ */
+@Data
+@AllArgsConstructor
+public class DashboardDeltaDTO {
+    private long id; // 事件ID
+    private String type; // 事件类型：company 公司变更，riskArticle 新风险文章，relations 关系重建完成，resync 需要重新拉取全量数据
+    private LocalDateTime time; // 事件时间
+    private Object payload; // 事件内容，随事件类型不同而不同
+
+    /**
+     * 公司变更内容
+     */
+    @Data
+    @AllArgsConstructor
+    public static class CompanyChange {
+        private String changeType; // 变更类型：CREATED、UPDATED、DELETED、BULK_LOADED
+        private String companyId; // 公司ID，批量导入时为空
+        private String name; // 公司名称，删除或批量导入时为空
+        private String riskLevel; // 综合风险等级，删除或批量导入时为空
+        private boolean highRisk; // 是否属于高风险分析列表
+        private long riskVersion; // 变更后的风险快照版本号
+        private long high; // 变更后的高风险公司数量
+        private long medium; // 变更后的中风险公司数量
+        private long low; // 变更后的低风险公司数量
+    }
+
+    /**
+     * 新风险文章内容
+     */
+    @Data
+    @AllArgsConstructor
+    public static class RiskArticle {
+        private Long articleId; // 文章ID
+        private String title; // 文章标题
+        private LocalDate date; // 发布日期
+        private String riskSource; // 风险来源
+        private String relatedCompany; // 相关公司
+        private String relatedProduct; // 相关产品
+    }
+
+    /**
+     * 关系重建完成内容
+     */
+    @Data
+    @AllArgsConstructor
+    public static class RelationsRebuilt {
+        private int companyCount; // 关系图中的公司数量
+        private int storedRelationCount; // 关系图中已存储的关系数量
+    }
+}
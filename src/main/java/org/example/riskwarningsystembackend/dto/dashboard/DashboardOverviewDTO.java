@@ -0,0 +1,29 @@
+package org.example.riskwarningsystembackend.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 仪表盘总览数据传输对象
+ * 用于在一次请求中返回多个仪表盘组件的数据，每个组件单独记录状态和耗时，部分组件失败时其余组件仍正常返回
+ */
+@Data
+@AllArgsConstructor
+public class DashboardOverviewDTO {
+    private long durationMs; // 整个请求的耗时（毫秒）
+    private Map<String, Widget> widgets; // 各组件的结果，按请求顺序排列
+
+    /**
+     * 单个组件的结果
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Widget {
+        private String status; // 状态：ok 成功，error 失败，timeout 超时
+        private long durationMs; // 组件耗时（毫秒），超时时为超时时间
+        private Object data; // 组件数据，失败或超时时为空
+        private String error; // 失败原因，成功时为空
+    }
+}
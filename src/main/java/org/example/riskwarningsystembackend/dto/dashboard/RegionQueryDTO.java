@@ -0,0 +1,27 @@
+package org.example.riskwarningsystembackend.dto.dashboard;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 多边形区域查询请求数据传输对象
+ */
+@Data
+public class RegionQueryDTO {
+
+    /**
+     * 多边形顶点列表，每个顶点为 [经度, 纬度]，至少 3 个顶点，首尾无需重复
+     */
+    private List<List<Double>> polygon;
+
+    /**
+     * 返回关系的类型筛选，为空时返回所有类型
+     */
+    private List<String> relationTypes;
+
+    /**
+     * 最多返回的公司数量，为空时使用默认值
+     */
+    private Integer limit;
+}
@@ -0,0 +1,20 @@
+package org.example.riskwarningsystembackend.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 营业额排名数据传输对象
+ * 用于封装按营业额排序的公司信息
+ */
+@Data
+@AllArgsConstructor
+public class RevenueRankingDTO {
+    private Long id; // 公司ID
+    private String name; // 公司名称
+    private String industry; // 所属行业
+    private BigDecimal revenue; // 营业额（元）
+    private String revenueText; // 营业额原始文本
+}
@@ -0,0 +1,51 @@
+package org.example.riskwarningsystembackend.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 风险地图视口数据传输对象
+ * 用于封装某个经纬度范围和缩放级别下的风险地图数据：低缩放级别返回网格聚合结果，高缩放级别返回单个公司
+ */
+@Data
+@AllArgsConstructor
+public class RiskMapViewportDTO {
+    private String mode; // 返回模式：clusters 为聚合结果，points 为单个公司
+    private int zoom; // 实际使用的缩放级别
+    private int gridLevel; // 聚合所用的网格级别
+    private long version; // 风险数据版本号
+    private int total; // 视口内的公司数量（聚合模式下按格子统计，可能略大于精确值）
+    private List<Cluster> clusters; // 聚合结果，返回单个公司时为空列表
+    private List<Point> points; // 单个公司，返回聚合结果时为空列表
+
+    /**
+     * 网格聚合数据类
+     * 表示一个网格格子内公司的数量及各风险等级的分布
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Cluster {
+        private double longitude; // 格子内公司的重心经度
+        private double latitude; // 格子内公司的重心纬度
+        private int count; // 公司数量
+        private int high; // 高风险公司数量
+        private int medium; // 中风险公司数量
+        private int low; // 低风险公司数量
+    }
+
+    /**
+     * 单个公司数据类
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Point {
+        private String id; // 公司ID
+        private String name; // 公司名称
+        private double longitude; // 经度
+        private double latitude; // 纬度
+        private String risk; // 风险等级
+        private String levelClass; // 风险等级对应的样式类
+    }
+}
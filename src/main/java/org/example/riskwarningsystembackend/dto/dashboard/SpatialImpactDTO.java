@@ -0,0 +1,53 @@
+package org.example.riskwarningsystembackend.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 区域影响分析数据传输对象
+ * 用于封装位于某个圆形或多边形区域内的公司、其风险等级分布，以及这些公司的直接关系
+ */
+@Data
+@AllArgsConstructor
+public class SpatialImpactDTO {
+    private int matchedCount; // 区域内的公司总数
+    private boolean truncated; // 公司或关系是否因数量上限而未全部返回
+    private int high; // 区域内高风险公司数量
+    private int medium; // 区域内中风险公司数量
+    private int low; // 区域内低风险公司数量
+    private int affectedOutsideCount; // 与返回的公司直接相关、但位于区域外的公司数量
+    private List<Company> companies; // 区域内的公司
+    private List<Relation> relations; // 返回的公司的直接关系
+
+    /**
+     * 区域内公司数据类
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Company {
+        private String id; // 公司ID
+        private String name; // 公司名称
+        private double longitude; // 经度
+        private double latitude; // 纬度
+        private Double distanceKm; // 距中心点的距离（公里），多边形查询时为空
+        private String risk; // 风险等级
+        private int relationCount; // 直接关系总数
+    }
+
+    /**
+     * 直接关系数据类
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Relation {
+        private String source; // 区域内公司的ID
+        private String target; // 关系另一端公司的ID
+        private String targetName; // 关系另一端公司的名称
+        private String product; // 共享产品
+        private String label; // 关系名称
+        private String type; // 关系类型
+        private boolean targetInRegion; // 关系另一端公司是否也位于区域内
+    }
+}
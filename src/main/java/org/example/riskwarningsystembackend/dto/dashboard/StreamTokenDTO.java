@@ -0,0 +1,15 @@
+package org.example.riskwarningsystembackend.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 仪表盘推送令牌数据传输对象
+ * 用于封装浏览器 EventSource 建立推送连接时使用的短期令牌
+ */
+@Data
+@AllArgsConstructor
+public class StreamTokenDTO {
+    private String token; // 推送令牌，作为 access_token 参数传递
+    private long expiresIn; // 令牌有效期（秒），只需在有效期内建立连接
+}
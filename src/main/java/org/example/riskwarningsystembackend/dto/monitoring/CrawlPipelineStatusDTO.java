@@ -0,0 +1,53 @@
+package org.example.riskwarningsystembackend.dto.monitoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 新闻爬取流水线状态数据传输对象
+ * 用于返回某个新闻来源当前（或最近一次）爬取的各阶段吞吐量、队列深度以及最近的死信记录
+ */
+@Data
+@AllArgsConstructor
+public class CrawlPipelineStatusDTO {
+    private String source; // 新闻来源标识
+    private boolean running; // 是否正在爬取
+    private LocalDateTime startedAt; // 本次（或最近一次）爬取的开始时间，从未运行时为空
+    private long durationMs; // 已运行或总耗时（毫秒）
+    private long submitted; // 提交到流水线的文章数
+    private List<Stage> stages; // 各阶段统计，按流水线顺序排列
+    private List<DeadLetter> deadLetters; // 最近的死信记录，最新的在前
+
+    /**
+     * 单个阶段的统计
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Stage {
+        private String name; // 阶段名称：fetch 抓取、parse 解析、identify 风险识别、persist 保存
+        private int workers; // 工作线程数
+        private long processed; // 已处理的文章数
+        private long dropped; // 无需继续处理的文章数（如正文为空）
+        private long failed; // 处理失败的文章数
+        private int queueDepth; // 当前输入队列深度
+        private int maxQueueDepth; // 输入队列的最大深度
+        private long busyMs; // 各工作线程累计处理耗时（毫秒）
+        private double throughputPerSecond; // 吞吐量（文章数/秒），按运行时长计算
+    }
+
+    /**
+     * 一条死信：某篇文章在某个阶段重试后仍失败
+     */
+    @Data
+    @AllArgsConstructor
+    public static class DeadLetter {
+        private LocalDateTime time; // 失败时间
+        private String stage; // 失败的阶段
+        private String url; // 文章链接
+        private String title; // 文章标题
+        private String error; // 失败原因
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.riskwarningsystembackend.dto.supplychain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 公司关系重建状态数据传输对象
+ * 用于展示后台关系重建调度器的运行状态
+ */
+@Data
+@AllArgsConstructor
+public class RelationRebuildStatusDTO {
+    private boolean running; // 是否正在重建
+    private boolean pending; // 是否有等待执行的重建请求
+    private LocalDateTime lastRequestedAt; // 最近一次收到重建请求的时间
+    private LocalDateTime lastStartedAt; // 最近一次重建开始时间
+    private LocalDateTime lastFinishedAt; // 最近一次重建结束时间
+    private Long lastDurationMs; // 最近一次重建耗时（毫秒）
+    private String lastTrigger; // 最近一次触发重建的原因
+    private String lastError; // 最近一次重建失败的原因，成功时为空
+    private long requestCount; // 累计收到的重建请求数
+    private long coalescedCount; // 被合并的重建请求数
+    private long completedCount; // 累计成功完成的重建次数
+    private long failedCount; // 累计失败的重建次数
+}
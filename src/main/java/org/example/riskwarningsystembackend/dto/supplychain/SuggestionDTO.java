@@ -0,0 +1,17 @@
+package org.example.riskwarningsystembackend.dto.supplychain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 名称联想结果数据传输对象
+ * 用于封装搜索框输入时返回的公司或产品候选项
+ */
+@Data
+@AllArgsConstructor
+public class SuggestionDTO {
+    private String type; // 对象类型（company 公司、product 产品）
+    private Long id; // 公司ID或产品节点ID
+    private String name; // 名称
+    private String matched; // 与输入前缀匹配的名称或简称
+}
@@ -2,6 +2,10 @@ package org.example.riskwarningsystembackend.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.example.riskwarningsystembackend.common.CompanyRiskScorer;
+import org.example.riskwarningsystembackend.common.FinancialValueParser;
+
+import java.math.BigDecimal;
 
 /**
  * CompanyInfo 实体类，用于映射数据库中的 company_info 表。
@@ -13,7 +17,8 @@ import lombok.Data;
 public class CompanyInfo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "company_info_seq")
+    @SequenceGenerator(name = "company_info_seq", sequenceName = "company_info_seq", allocationSize = 50)
     private Long id; // 主键ID
 
     @Column(name = "name", length = 512)
@@ -71,6 +76,34 @@ public class CompanyInfo {
     @Column(name = "stock_price_index")
     private String stockPriceIndex; // 股价指数
 
+    // 数值化财务数据（写入时由 FinancialValueParser 从上面的原始文本解析，金额单位为元）
+    @Column(name = "registered_capital_amount", precision = 20, scale = 2)
+    private BigDecimal registeredCapitalAmount; // 注册资金金额
+
+    @Column(name = "registered_capital_currency", length = 16)
+    private String registeredCapitalCurrency; // 注册资金币种
+
+    @Column(name = "paid_in_capital_amount", precision = 20, scale = 2)
+    private BigDecimal paidInCapitalAmount; // 实缴资本金额
+
+    @Column(name = "paid_in_capital_currency", length = 16)
+    private String paidInCapitalCurrency; // 实缴资本币种
+
+    @Column(name = "revenue_amount", precision = 20, scale = 2)
+    private BigDecimal revenueAmount; // 营业额金额
+
+    @Column(name = "assets_amount", precision = 20, scale = 2)
+    private BigDecimal assetsAmount; // 资产金额
+
+    @Column(name = "profit_amount", precision = 20, scale = 2)
+    private BigDecimal profitAmount; // 利润金额
+
+    @Column(name = "employee_count_value")
+    private Integer employeeCountValue; // 员工数量数值
+
+    @Column(name = "stock_price_index_value")
+    private Double stockPriceIndexValue; // 股价指数数值
+
     // 风险与评级
     @Column(name = "qualification_certificate_count")
     private Integer qualificationCertificateCount; // 资质证件数量
@@ -93,4 +126,56 @@ public class CompanyInfo {
 
     @Column(name = "longitude")
     private Double longitude; // 经度
+
+    // 派生风险（写入时由 CompanyRiskScorer 计算）
+    @Column(name = "law_risk", length = 8)
+    private String lawRisk; // 法律风险等级
+
+    @Column(name = "finance_risk", length = 8)
+    private String financeRisk; // 财务风险等级
+
+    @Column(name = "credit_risk", length = 8)
+    private String creditRisk; // 信用风险等级
+
+    @Column(name = "risk_level", length = 8)
+    private String riskLevel; // 综合风险等级
+
+    @Column(name = "risk_rank")
+    private Integer riskRank; // 综合风险等级排序值（高3、中2、低1）
+
+    @Column(name = "risk_reason", length = 512)
+    private String riskReason; // 风险原因
+
+    @Column(name = "high_risk")
+    private Boolean highRisk; // 是否为高风险公司
+
+    @Column(name = "high_risk_reason", length = 512)
+    private String highRiskReason; // 高风险企业分析中展示的原因
+
+    /**
+     * 在插入或更新前根据当前字段重新计算派生列：数值化财务数据和派生风险。
+     */
+    @PrePersist
+    @PreUpdate
+    void computeDerivedColumns() {
+        this.registeredCapitalAmount = FinancialValueParser.parseAmount(registeredCapital);
+        this.registeredCapitalCurrency = FinancialValueParser.parseCurrency(registeredCapital);
+        this.paidInCapitalAmount = FinancialValueParser.parseAmount(paidInCapital);
+        this.paidInCapitalCurrency = FinancialValueParser.parseCurrency(paidInCapital);
+        this.revenueAmount = FinancialValueParser.parseAmount(revenue);
+        this.assetsAmount = FinancialValueParser.parseAmount(assets);
+        this.profitAmount = FinancialValueParser.parseAmount(profit);
+        this.employeeCountValue = FinancialValueParser.parseCount(employeeCount);
+        this.stockPriceIndexValue = FinancialValueParser.parseDecimal(stockPriceIndex);
+
+        CompanyRiskScorer.Assessment assessment = CompanyRiskScorer.assess(legalDisputeCount, revenueAmount, profitAmount, taxRating);
+        this.lawRisk = assessment.lawRisk();
+        this.financeRisk = assessment.financeRisk();
+        this.creditRisk = assessment.creditRisk();
+        this.riskLevel = assessment.riskLevel();
+        this.riskRank = assessment.riskRank();
+        this.riskReason = assessment.riskReason();
+        this.highRisk = assessment.highRisk();
+        this.highRiskReason = assessment.highRiskReason();
+    }
 }
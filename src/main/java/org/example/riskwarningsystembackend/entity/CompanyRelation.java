@@ -19,7 +19,8 @@ import java.util.Objects;
 public class CompanyRelation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "company_relations_seq")
+    @SequenceGenerator(name = "company_relations_seq", sequenceName = "company_relations_seq", allocationSize = 50)
     private Long id; // 主键
 
     @Column(name = "company_one_id", nullable = false)
@@ -20,7 +20,8 @@ public class CompanySimulationData {
      * 主键ID，自动生成
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "company_simulation_data_seq")
+    @SequenceGenerator(name = "company_simulation_data_seq", sequenceName = "company_simulation_data_seq", allocationSize = 50)
     @JsonIgnore
     private Long id;
 
@@ -16,7 +16,8 @@ public class KRI {
      * 主键ID，自动生成
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kri_seq")
+    @SequenceGenerator(name = "kri_seq", sequenceName = "kri_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -19,7 +19,8 @@ public class MaterialData {
      * 使用数据库自动生成的主键策略
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "material_data_seq")
+    @SequenceGenerator(name = "material_data_seq", sequenceName = "material_data_seq", allocationSize = 50)
     private Long id;
 
     /**
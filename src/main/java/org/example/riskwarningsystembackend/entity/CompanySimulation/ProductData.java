@@ -19,7 +19,8 @@ public class ProductData {
      * 产品数据的唯一标识符，主键，自动生成
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_data_seq")
+    @SequenceGenerator(name = "product_data_seq", sequenceName = "product_data_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -0,0 +1,42 @@
+package org.example.riskwarningsystembackend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * 爬取水位线实体类
+ * 记录每个新闻来源最近一次完整爬取时列表中最新的文章，增量爬取翻页到该文章为止
+ */
+@Data
+@Entity
+@Table(name = "crawl_watermarks")
+public class CrawlWatermark {
+
+    /**
+     * 新闻来源标识
+     */
+    @Id
+    @Column(length = 64)
+    private String source;
+
+    /**
+     * 最新文章的链接地址
+     */
+    @Column(name = "last_url", nullable = false, length = 1024)
+    private String lastUrl;
+
+    /**
+     * 最新文章的发布日期
+     */
+    @Column(name = "last_date")
+    private LocalDate lastDate;
+
+    /**
+     * 水位线更新时间
+     */
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
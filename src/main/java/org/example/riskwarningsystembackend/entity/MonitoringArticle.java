@@ -1,11 +1,16 @@
 package org.example.riskwarningsystembackend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.util.HexFormat;
 import java.util.List;
 
 /**
@@ -56,6 +61,13 @@ public class MonitoringArticle {
      */
     private String url;
 
+    /**
+     * 文章链接地址的哈希值，在保存前根据链接计算，用于爬取时批量判断文章是否已存在
+     */
+    @Column(name = "url_hash", length = 32)
+    @JsonIgnore
+    private String urlHash;
+
     /**
      * 文章图片链接
      */
@@ -103,4 +115,27 @@ public class MonitoringArticle {
     @Column(nullable = false)
     private String content;
 
+    /**
+     * 在插入或更新前根据文章链接重新计算链接哈希。
+     */
+    @PrePersist
+    @PreUpdate
+    void computeUrlHash() {
+        this.urlHash = url == null ? null : hashUrl(url);
+    }
+
+    /**
+     * 计算文章链接的哈希值（UTF-8 编码的 MD5 小写十六进制），与数据库中 md5(url) 的结果一致。
+     *
+     * @param url 文章链接地址
+     * @return 32 位十六进制哈希值
+     */
+    public static String hashUrl(String url) {
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            return HexFormat.of().formatHex(md5.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前运行环境不支持 MD5", e);
+        }
+    }
 }
@@ -15,7 +15,8 @@ import lombok.NoArgsConstructor;
 public class ProductEdge {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_edges_seq")
+    @SequenceGenerator(name = "product_edges_seq", sequenceName = "product_edges_seq", allocationSize = 50)
     private Long id; // 主键
 
     @Column(name = "parent_id", nullable = false)
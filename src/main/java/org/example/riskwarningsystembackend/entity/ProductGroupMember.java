@@ -0,0 +1,42 @@
+package org.example.riskwarningsystembackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 产品分组成员实体类，用于映射数据库中的 product_group_members 表。
+ * 每条记录表示某公司以某产品为主营产品，即属于该产品的“竞争”分组。
+ * 分组内任意两家公司之间的“竞争”关系在查询时展开，不再逐对存储，
+ * 因此存储规模随生产公司数量线性增长，而非平方增长。
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(ProductGroupMember.Key.class)
+@Table(name = "product_group_members")
+public class ProductGroupMember {
+
+    @Id
+    @Column(name = "product_name", length = 512, nullable = false)
+    private String productName; // 产品名称（分组）
+
+    @Id
+    @Column(name = "company_id", nullable = false)
+    private Long companyId; // 公司ID
+
+    /**
+     * 产品分组成员的复合主键
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String productName; // 产品名称
+        private Long companyId; // 公司ID
+    }
+}
@@ -17,7 +17,8 @@ public class ProductInfo {
      * 使用数据库自增策略生成唯一标识
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_info_seq")
+    @SequenceGenerator(name = "product_info_seq", sequenceName = "product_info_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -15,7 +15,8 @@ import lombok.NoArgsConstructor;
 public class ProductNode {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_nodes_seq")
+    @SequenceGenerator(name = "product_nodes_seq", sequenceName = "product_nodes_seq", allocationSize = 50)
     private Long id; // 主键ID
 
     @Column(name = "name", nullable = false, unique = true)
@@ -0,0 +1,49 @@
+package org.example.riskwarningsystembackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 公司数据变更事件。
+ * <p>
+ * 公司信息被创建、更新、删除或批量导入后发布，供依赖公司数据的缓存和预计算结果（如行业聚合）失效或增量更新。
+ * 监听方应使用 {@code @TransactionalEventListener(fallbackExecution = true)}，保证在事务提交后才读取新数据。
+ */
+@Getter
+@AllArgsConstructor
+public class CompanyDataChangedEvent {
+
+    /**
+     * 变更类型
+     */
+    public enum ChangeType {
+        /**
+         * 新建公司
+         */
+        CREATED,
+        /**
+         * 更新公司
+         */
+        UPDATED,
+        /**
+         * 删除公司
+         */
+        DELETED,
+        /**
+         * 批量导入，涉及的公司不逐一列出
+         */
+        BULK_LOADED
+    }
+
+    private final ChangeType changeType; // 变更类型
+    private final Long companyId; // 发生变更的公司ID，批量导入时为 null
+
+    /**
+     * 创建一个批量导入事件。
+     *
+     * @return 批量导入事件
+     */
+    public static CompanyDataChangedEvent bulkLoaded() {
+        return new CompanyDataChangedEvent(ChangeType.BULK_LOADED, null);
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.riskwarningsystembackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 公司关系变更事件。
+ * <p>
+ * 内存中的公司关系图刷新为新版本后发布（全量重建或单个公司的增量维护之后），
+ * 供依赖关系数据的缓存失效。
+ */
+@Getter
+@AllArgsConstructor
+public class CompanyRelationsChangedEvent {
+
+    private final int companyCount; // 新版本关系图中的公司数量
+    private final int storedRelationCount; // 新版本关系图中已存储的关系数量
+}
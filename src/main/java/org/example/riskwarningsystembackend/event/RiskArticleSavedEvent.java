@@ -0,0 +1,23 @@
+package org.example.riskwarningsystembackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * 风险文章保存事件。
+ * <p>
+ * 爬取或手工录入的风险类监控文章保存后发布，供仪表盘推送等需要及时获知新风险的组件使用。
+ */
+@Getter
+@AllArgsConstructor
+public class RiskArticleSavedEvent {
+
+    private final Long articleId; // 文章ID
+    private final String title; // 文章标题
+    private final LocalDate date; // 发布日期
+    private final String riskSource; // 风险来源（命中的风险关键词）
+    private final String relatedCompany; // 相关公司
+    private final String relatedProduct; // 相关产品
+}
@@ -0,0 +1,177 @@
+package org.example.riskwarningsystembackend.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量导入数据访问类。
+ * <p>
+ * 在 PostgreSQL 上通过 PgJDBC 的 CopyManager 执行 {@code COPY ... FROM STDIN}，
+ * 将数据行以 CSV 格式流式写入数据库，不创建任何 JPA 实体；
+ * 在其他数据库（如测试库）上自动退化为分批执行的 JDBC 批量插入。
+ * 使用当前事务绑定的连接，因此可以与调用方的事务一起提交或回滚。
+ */
+@Slf4j
+@Repository
+public class BulkCopyRepository {
+
+    private static final int FLUSH_THRESHOLD_BYTES = 64 * 1024;
+    private static final int JDBC_BATCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+
+    /**
+     * 构造函数，注入数据源。
+     *
+     * @param dataSource 数据源
+     */
+    public BulkCopyRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * 数据行的接收方，由 {@link RowProducer} 逐行调用。
+     */
+    @FunctionalInterface
+    public interface RowSink {
+        /**
+         * 写入一行数据，值的顺序须与导入时指定的列顺序一致。
+         *
+         * @param values 一行的各列值，允许为 null
+         * @throws SQLException 写入数据库失败时抛出
+         */
+        void accept(Object... values) throws SQLException;
+    }
+
+    /**
+     * 数据行的生产方，例如逐行读取 CSV 文件并写入 {@link RowSink}。
+     */
+    @FunctionalInterface
+    public interface RowProducer {
+        /**
+         * 依次产生所有数据行。
+         *
+         * @param sink 数据行接收方
+         * @throws Exception 读取源数据或写入失败时抛出
+         */
+        void produce(RowSink sink) throws Exception;
+    }
+
+    /**
+     * 将数据行批量导入指定表。
+     *
+     * @param table    目标表名
+     * @param columns  目标列名，顺序与每行值的顺序一致
+     * @param producer 数据行生产方
+     * @return 导入的行数
+     * @throws Exception 读取源数据或写入数据库失败时抛出
+     */
+    public long copyIn(String table, List<String> columns, RowProducer producer) throws Exception {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                return copyInPostgres(connection.unwrap(PGConnection.class), table, columns, producer);
+            }
+            log.info("当前数据库不支持 COPY，使用 JDBC 批量插入导入表 {}。", table);
+            return batchInsert(connection, table, columns, producer);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * 使用 COPY FROM STDIN 流式导入。数据先写入一个较小的缓冲区，满后立即发送给数据库，内存占用与总行数无关。
+     */
+    private long copyInPostgres(PGConnection connection, String table, List<String> columns, RowProducer producer) throws Exception {
+        String sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+        CopyIn copyIn = connection.getCopyAPI().copyIn(sql);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(FLUSH_THRESHOLD_BYTES * 2);
+        StringBuilder line = new StringBuilder(256);
+        try {
+            producer.produce(values -> {
+                checkColumnCount(columns, values);
+                line.setLength(0);
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) line.append(',');
+                    appendCsvValue(line, values[i]);
+                }
+                line.append('\n');
+                buffer.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+                if (buffer.size() >= FLUSH_THRESHOLD_BYTES) {
+                    copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                    buffer.reset();
+                }
+            });
+            if (buffer.size() > 0) {
+                copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+            }
+            return copyIn.endCopy();
+        } catch (Exception e) {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 非 PostgreSQL 数据库上的退化实现：分批执行 JDBC 批量插入。
+     */
+    private long batchInsert(Connection connection, String table, List<String> columns, RowProducer producer) throws Exception {
+        String placeholders = String.join(", ", Collections.nCopies(columns.size(), "?"));
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" + placeholders + ")";
+        long[] count = {0};
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            producer.produce(values -> {
+                checkColumnCount(columns, values);
+                for (int i = 0; i < values.length; i++) {
+                    statement.setObject(i + 1, values[i]);
+                }
+                statement.addBatch();
+                if (++count[0] % JDBC_BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            });
+            if (count[0] % JDBC_BATCH_SIZE != 0) {
+                statement.executeBatch();
+            }
+        }
+        return count[0];
+    }
+
+    /**
+     * 按 COPY 的 CSV 格式追加一个值：null 输出为不带引号的空字段，
+     * 空字符串及包含分隔符、引号或换行的值加双引号并转义内部引号。
+     */
+    private void appendCsvValue(StringBuilder line, Object value) {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean needsQuote = text.isEmpty() || text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0 || text.equals("\\.");
+        if (!needsQuote) {
+            line.append(text);
+            return;
+        }
+        line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    private void checkColumnCount(List<String> columns, Object[] values) {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("数据行的列数 " + values.length + " 与目标列数 " + columns.size() + " 不一致");
+        }
+    }
+}
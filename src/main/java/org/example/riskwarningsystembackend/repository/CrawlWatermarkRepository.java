@@ -0,0 +1,7 @@
+package org.example.riskwarningsystembackend.repository;
+
+import org.example.riskwarningsystembackend.entity.CrawlWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CrawlWatermarkRepository extends JpaRepository<CrawlWatermark, String> {
+}
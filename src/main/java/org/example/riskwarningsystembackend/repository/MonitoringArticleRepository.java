@@ -3,16 +3,18 @@ package org.example.riskwarningsystembackend.repository;
 import org.example.riskwarningsystembackend.entity.MonitoringArticle;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.Set;
 
 public interface MonitoringArticleRepository extends JpaRepository<MonitoringArticle, Long>, JpaSpecificationExecutor<MonitoringArticle> {
     /**
-     * 根据标题和发布日期查找文章，用于防止重复插入。
-     * @param title 文章标题
-     * @param date 发布日期
-     * @return 可选的文章实体
+     * 在给定的链接哈希中找出已保存过的，用一次索引查询判断整页文章是否已存在，防止重复插入。
+     * @param urlHashes 文章链接哈希（见 {@link MonitoringArticle#hashUrl}）
+     * @return 已存在的链接哈希
      */
-    Optional<MonitoringArticle> findByTitleAndDate(String title, LocalDate date);
-}
\ No newline at end of file
+    @Query("SELECT a.urlHash FROM MonitoringArticle a WHERE a.urlHash IN :urlHashes")
+    Set<String> findExistingUrlHashes(@Param("urlHashes") Collection<String> urlHashes);
+}
@@ -0,0 +1,17 @@
+package org.example.riskwarningsystembackend.repository.company;
+
+/**
+ * 按注册资本分段统计的公司数量投影。
+ */
+public interface CapitalBucketProjection {
+
+    /**
+     * @return 分段下标，从 0 开始
+     */
+    Integer getBucket();
+
+    /**
+     * @return 该分段的公司数量
+     */
+    Long getCompanyCount();
+}
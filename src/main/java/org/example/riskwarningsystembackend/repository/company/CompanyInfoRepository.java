@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,124 +24,171 @@ public interface CompanyInfoRepository extends JpaRepository<CompanyInfo, Long>
      */
     Optional<CompanyInfo> findByName(String name);
 
+    // 用于行业健康状况与供应链风险
+
     /**
-     * 查询所有非空且非空字符串的行业种类数量。
-     * @return 不重复的行业数量
+     * 按行业分组，一次性统计每个行业的公司数量、法律纠纷数与舆情数的总和及非空数量、财务风险公司数量。
+     * 行业为空或空字符串的公司也各自成组，便于调用方按不同口径汇总。
+     * @return 各行业的聚合结果
      */
-    @Query("SELECT COUNT(DISTINCT c.industry) FROM CompanyInfo c WHERE c.industry IS NOT NULL AND c.industry <> ''")
-    long countDistinctIndustry();
+    @Query("SELECT c.industry AS industry, COUNT(c) AS companyCount, " +
+            "SUM(c.legalDisputeCount) AS legalDisputeSum, COUNT(c.legalDisputeCount) AS legalDisputeCount, " +
+            "SUM(c.publicOpinionCount) AS publicOpinionSum, COUNT(c.publicOpinionCount) AS publicOpinionCount, " +
+            "SUM(CASE WHEN c.revenueAmount IS NULL OR c.revenueAmount = 0 OR c.profitAmount IS NULL OR c.profitAmount = 0 THEN 1 ELSE 0 END) AS financialRiskCount " +
+            "FROM CompanyInfo c GROUP BY c.industry")
+    List<IndustryAggregateProjection> aggregateByIndustry();
 
-    // 用于风险分布
+    // 用于风险分析
 
     /**
-     * 统计法律纠纷数大于等于指定值的公司数量。
-     * @param count 法律纠纷数下限
-     * @return 满足条件的公司数量
+     * 查询高风险公司（法律纠纷数超过100，或营收/利润金额为零或缺失）并分页返回，用于高风险企业分析。
+     * 使用写入时计算的 high_risk 列，按ID排序时可走部分索引 idx_company_info_high_risk。
+     * @param pageable 分页参数
+     * @return 高风险公司分页结果
      */
-    long countByLegalDisputeCountGreaterThanEqual(int count);
+    @Query("SELECT c FROM CompanyInfo c WHERE c.highRisk = true")
+    Page<CompanyInfo> findHighRiskCompanies(Pageable pageable);
+
+    // 用于财务统计
 
     /**
-     * 统计法律纠纷数在指定区间内的公司数量。
-     * @param start 起始值（包含）
-     * @param end 结束值（包含）
-     * @return 满足条件的公司数量
+     * 按营业额（已换算为元）从高到低分页查询公司，营业额无法解析的公司不参与排名。
+     * @param pageable 分页参数
+     * @return 按营业额降序、ID升序排列的公司分页结果
      */
-    long countByLegalDisputeCountBetween(int start, int end);
+    Page<CompanyInfo> findByRevenueAmountIsNotNullOrderByRevenueAmountDescIdAsc(Pageable pageable);
 
     /**
-     * 统计法律纠纷数小于等于指定值的公司数量。
-     * @param count 法律纠纷数上限
-     * @return 满足条件的公司数量
+     * 按注册资本（人民币）分段统计公司数量。
+     * 分段下标：0 为 100 万以下，1 为 100~500 万，2 为 500~1000 万，3 为 1000~5000 万，4 为 5000 万~1 亿，5 为 1 亿及以上；
+     * 注册资本无法解析或币种不是人民币的公司不参与统计。
+     * @return 各分段的公司数量，没有公司的分段不出现在结果中
      */
-    long countByLegalDisputeCountLessThanEqual(int count);
+    @Query(value = "SELECT width_bucket(registered_capital_amount, ARRAY[1000000, 5000000, 10000000, 50000000, 100000000]::NUMERIC[]) AS bucket, " +
+            "COUNT(*) AS companyCount FROM company_info " +
+            "WHERE registered_capital_currency = '人民币' AND registered_capital_amount IS NOT NULL " +
+            "GROUP BY bucket ORDER BY bucket", nativeQuery = true)
+    List<CapitalBucketProjection> countByRegisteredCapitalBucket();
 
-    // 用于行业健康状况
+    // 用于供应链搜索
 
     /**
-     * 获取公司数量最多的前15个行业的名称列表。
-     * 使用原生SQL查询实现。
-     * @return 行业名称列表
+     * 查询所有公司构建检索索引所需的字段。
+     * @return 所有公司的ID、名称和行业投影列表
      */
-    @Query(value = "SELECT industry FROM company_info WHERE industry IS NOT NULL AND industry <> '' GROUP BY industry ORDER BY COUNT(id) DESC LIMIT 15", nativeQuery = true)
-    List<String> findTop15IndustriesByCompanyCount();
+    @Query("SELECT c.id AS id, c.name AS name, c.industry AS industry FROM CompanyInfo c")
+    List<CompanySearchProjection> findAllSearchFields();
 
     /**
-     * 根据行业名称计算该行业的平均法律纠纷数。
-     * @param industry 行业名称
-     * @return 平均法律纠纷数（Double类型，可能为null）
+     * 查询单个公司构建检索索引所需的字段。
+     * @param id 公司ID
+     * @return 公司的ID、名称和行业投影，不存在时为空
      */
-    @Query("SELECT AVG(c.legalDisputeCount) FROM CompanyInfo c WHERE c.industry = :industry")
-    Double findAverageLegalDisputesByIndustry(@Param("industry") String industry);
-
-    // 用于供应链风险
+    @Query("SELECT c.id AS id, c.name AS name, c.industry AS industry FROM CompanyInfo c WHERE c.id = :id")
+    Optional<CompanySearchProjection> findSearchFieldsById(@Param("id") Long id);
 
     /**
-     * 根据行业关键字计算该行业的平均舆情数量。
-     * @param industry 行业关键字
-     * @return 平均舆情数量（Double类型，可能为null）
+     * 在给定的公司ID范围内按写入时计算的风险等级列筛选公司ID，用于对检索索引的结果做进一步筛选。
+     * 为 null 的条件不参与筛选。
+     * @param ids 候选公司ID
+     * @param riskLevel 综合风险等级
+     * @param lawRisk 法律风险等级
+     * @param financeRisk 财务风险等级
+     * @param creditRisk 信用风险等级
+     * @return 满足条件的公司ID
      */
-    @Query("SELECT AVG(c.publicOpinionCount) FROM CompanyInfo c WHERE c.industry LIKE %:industry%")
-    Double findAveragePublicOpinionByIndustry(@Param("industry") String industry);
+    @Query("SELECT c.id FROM CompanyInfo c WHERE c.id IN :ids " +
+            "AND (:riskLevel IS NULL OR c.riskLevel = :riskLevel) " +
+            "AND (:lawRisk IS NULL OR c.lawRisk = :lawRisk) " +
+            "AND (:financeRisk IS NULL OR c.financeRisk = :financeRisk) " +
+            "AND (:creditRisk IS NULL OR c.creditRisk = :creditRisk)")
+    List<Long> filterIdsByRisk(@Param("ids") Collection<Long> ids,
+                               @Param("riskLevel") String riskLevel,
+                               @Param("lawRisk") String lawRisk,
+                               @Param("financeRisk") String financeRisk,
+                               @Param("creditRisk") String creditRisk);
 
     /**
-     * 统计指定行业中的财务风险公司数量（营收或利润为0或为空）。
-     * @param industry 行业关键字
-     * @return 财务风险公司数量
+     * 在给定的公司ID范围内按写入时计算的风险等级列筛选公司，并按分页参数排序、分页返回结果。
+     * 为 null 的条件不参与筛选。
+     * @param ids 候选公司ID
+     * @param riskLevel 综合风险等级
+     * @param lawRisk 法律风险等级
+     * @param financeRisk 财务风险等级
+     * @param creditRisk 信用风险等级
+     * @param pageable 分页及排序参数
+     * @return 匹配的公司信息分页结果
      */
-    @Query("SELECT count(c) FROM CompanyInfo c WHERE (c.revenue = '0' OR c.profit = '0' OR c.revenue IS NULL OR c.profit IS NULL) AND c.industry LIKE %:industry%")
-    long countFinancialRiskCompaniesByIndustry(@Param("industry") String industry);
+    @Query("SELECT c FROM CompanyInfo c WHERE c.id IN :ids " +
+            "AND (:riskLevel IS NULL OR c.riskLevel = :riskLevel) " +
+            "AND (:lawRisk IS NULL OR c.lawRisk = :lawRisk) " +
+            "AND (:financeRisk IS NULL OR c.financeRisk = :financeRisk) " +
+            "AND (:creditRisk IS NULL OR c.creditRisk = :creditRisk)")
+    Page<CompanyInfo> findByIdInAndRisk(@Param("ids") Collection<Long> ids,
+                                        @Param("riskLevel") String riskLevel,
+                                        @Param("lawRisk") String lawRisk,
+                                        @Param("financeRisk") String financeRisk,
+                                        @Param("creditRisk") String creditRisk,
+                                        Pageable pageable);
 
     /**
-     * 统计指定行业中的公司总数。
-     * @param industry 行业关键字
-     * @return 公司总数
+     * 按关键词（公司名称或行业，忽略大小写）和写入时计算的风险等级列筛选公司，并分页返回结果。
+     * 为 null 的条件不参与筛选；排序由分页参数指定。
+     * @param keyword 公司名称或行业关键词
+     * @param riskLevel 综合风险等级
+     * @param lawRisk 法律风险等级
+     * @param financeRisk 财务风险等级
+     * @param creditRisk 信用风险等级
+     * @param pageable 分页及排序参数
+     * @return 匹配的公司信息分页结果
      */
-    @Query("SELECT count(c) FROM CompanyInfo c WHERE c.industry LIKE %:industry%")
-    long countByIndustry(@Param("industry") String industry);
-
-    // 用于风险分析
+    @Query("SELECT c FROM CompanyInfo c WHERE " +
+            "(:keyword IS NULL OR LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(c.industry) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+            "AND (:riskLevel IS NULL OR c.riskLevel = :riskLevel) " +
+            "AND (:lawRisk IS NULL OR c.lawRisk = :lawRisk) " +
+            "AND (:financeRisk IS NULL OR c.financeRisk = :financeRisk) " +
+            "AND (:creditRisk IS NULL OR c.creditRisk = :creditRisk)")
+    Page<CompanyInfo> searchByRisk(@Param("keyword") String keyword,
+                                   @Param("riskLevel") String riskLevel,
+                                   @Param("lawRisk") String lawRisk,
+                                   @Param("financeRisk") String financeRisk,
+                                   @Param("creditRisk") String creditRisk,
+                                   Pageable pageable);
+
+    // 用于风险快照
 
     /**
-     * 查询高风险公司（法律纠纷数超过100，或营收/利润为0或为空）并分页返回。
-     * @param pageable 分页参数
-     * @return 高风险公司分页结果
+     * 查询所有公司计算风险等级所需的字段。
+     * @return 所有公司的风险字段投影列表
      */
-    @Query("SELECT c FROM CompanyInfo c WHERE c.legalDisputeCount > 100 OR c.revenue = '0' OR c.profit = '0' OR c.revenue IS NULL OR c.profit IS NULL")
-    Page<CompanyInfo> findHighRiskCompanies(Pageable pageable);
-
-    // 用于风险地图
+    @Query("SELECT c.id AS id, c.name AS name, c.legalDisputeCount AS legalDisputeCount, c.lawRisk AS lawRisk, " +
+            "c.riskLevel AS riskLevel, c.highRisk AS highRisk, c.latitude AS latitude, c.longitude AS longitude FROM CompanyInfo c")
+    List<CompanyRiskProjection> findAllRiskFields();
 
     /**
-     * 查询所有具有经纬度坐标的公司信息。
-     * @return 具有坐标的公司列表
+     * 查询单个公司计算风险等级所需的字段。
+     * @param id 公司ID
+     * @return 该公司的风险字段投影（Optional包装）
      */
-    @Query("SELECT c FROM CompanyInfo c WHERE c.latitude IS NOT NULL AND c.longitude IS NOT NULL")
-    List<CompanyInfo> findAllWithCoordinates();
-
-    // 用于供应链搜索
+    @Query("SELECT c.id AS id, c.name AS name, c.legalDisputeCount AS legalDisputeCount, c.lawRisk AS lawRisk, " +
+            "c.riskLevel AS riskLevel, c.highRisk AS highRisk, c.latitude AS latitude, c.longitude AS longitude FROM CompanyInfo c WHERE c.id = :id")
+    Optional<CompanyRiskProjection> findRiskFieldsById(@Param("id") Long id);
 
-    /**
-     * 根据公司名称或行业名称进行模糊查询并分页返回结果。
-     * 忽略大小写。
-     * @param name 公司名称关键词
-     * @param industry 行业名称关键词
-     * @param pageable 分页参数
-     * @return 匹配的公司信息分页结果
-     */
-    Page<CompanyInfo> findByNameContainingIgnoreCaseOrIndustryContainingIgnoreCase(String name, String industry, Pageable pageable);
+    // 用于公司关系增量维护
 
     /**
-     * 根据公司名称进行模糊查询，用于知识图谱的搜索功能。
-     * @param name 公司名称关键词
-     * @return 匹配的公司信息列表
+     * 查询主营产品（主要产品1或主要产品2）属于给定产品集合的所有公司。
+     * 只投影公司ID及主营产品字段，用于增量推断公司关系。
+     * @param productNames 产品名称集合
+     * @return 生产这些产品的公司投影列表
      */
-    List<CompanyInfo> findByNameContainingIgnoreCase(String name);
+    @Query("SELECT c.id AS id, c.majorProduct1 AS majorProduct1, c.majorProduct2 AS majorProduct2 FROM CompanyInfo c WHERE c.majorProduct1 IN :productNames OR c.majorProduct2 IN :productNames")
+    List<CompanyProductProjection> findProducersByProductNames(@Param("productNames") Collection<String> productNames);
 
     /**
-     * 根据公司名称进行模糊查询，并分页返回结果。
-     * @param name 公司名称关键词
-     * @param pageable 分页参数
-     * @return 匹配的公司信息分页结果
+     * 查询所有公司的主营产品，只投影公司ID及主营产品字段，用于全量推断公司关系。
+     * @return 所有公司的主营产品投影列表
      */
-    Page<CompanyInfo> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    @Query("SELECT c.id AS id, c.majorProduct1 AS majorProduct1, c.majorProduct2 AS majorProduct2 FROM CompanyInfo c")
+    List<CompanyProductProjection> findAllProductAssignments();
 }
@@ -0,0 +1,25 @@
+package org.example.riskwarningsystembackend.repository.company;
+
+/**
+ * CompanyProductProjection 接口用于投影公司的主营产品信息。
+ * 仅包含推断公司关系所需的字段，避免加载完整的 CompanyInfo 实体。
+ */
+public interface CompanyProductProjection {
+    /**
+     * 获取公司ID
+     * @return 公司ID
+     */
+    Long getId();
+
+    /**
+     * 获取主要产品1
+     * @return 主要产品1名称，可能为空
+     */
+    String getMajorProduct1();
+
+    /**
+     * 获取主要产品2
+     * @return 主要产品2名称，可能为空
+     */
+    String getMajorProduct2();
+}
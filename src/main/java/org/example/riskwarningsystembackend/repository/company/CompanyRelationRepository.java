@@ -2,6 +2,7 @@ package org.example.riskwarningsystembackend.repository.company;
 
 import org.example.riskwarningsystembackend.entity.CompanyRelation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
@@ -40,4 +41,14 @@ public interface CompanyRelationRepository extends JpaRepository<CompanyRelation
      */
     @Query("SELECT r FROM CompanyRelation r WHERE r.companyOneId IN :companyIds OR r.companyTwoId IN :companyIds")
     List<CompanyRelation> findAllByCompanyIds(@Param("companyIds") Set<Long> companyIds);
+
+    /**
+     * 删除与指定公司相关的所有关系（无论其作为 companyOneId 还是 companyTwoId）。
+     * 用于公司被删除时的增量维护。
+     * @param companyId 公司ID
+     * @return 被删除的关系条数
+     */
+    @Modifying
+    @Query("DELETE FROM CompanyRelation r WHERE r.companyOneId = :companyId OR r.companyTwoId = :companyId")
+    int deleteAllByCompanyId(@Param("companyId") Long companyId);
 }
@@ -0,0 +1,161 @@
+package org.example.riskwarningsystembackend.repository.company;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.repository.BulkCopyRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 公司关系影子表数据访问类。
+ * <p>
+ * 全量重建时，新的关系（company_relations）和产品分组成员（product_group_members）先写入对应的影子表，
+ * 读者仍然访问旧表；写入完成后在一个极短的事务中通过表重命名同时切换两张表，旧版本随后被删除。
+ * 这样重建期间读者既不会被阻塞，也不会看到空表或两张表版本不一致的状态。
+ * <p>
+ * 影子表的主键、唯一约束和索引按 {@link #INDEXES} 显式创建，切换时重命名为固定的正式名称，
+ * 因此无论重建多少次，正式表上的索引名始终与迁移脚本中的一致。
+ */
+@Slf4j
+@Repository
+public class CompanyRelationStagingRepository {
+
+    public static final String RELATION_TABLE = "company_relations";
+    public static final String GROUP_MEMBER_TABLE = "product_group_members";
+    private static final List<String> LIVE_TABLES = List.of(RELATION_TABLE, GROUP_MEMBER_TABLE);
+    private static final String STAGING_SUFFIX = "_staging";
+    private static final String RETIRED_SUFFIX = "_retired";
+
+    /**
+     * 正式表上的主键、唯一约束和索引，名称即迁移脚本中使用的正式名称
+     */
+    private static final List<IndexSpec> INDEXES = List.of(
+            new IndexSpec(RELATION_TABLE, "company_relations_pkey", IndexKind.PRIMARY_KEY, "id"),
+            new IndexSpec(RELATION_TABLE, "uk_company_relations_relation", IndexKind.UNIQUE,
+                    "company_one_id, company_two_id, shared_product_name, relation_name, relation_type"),
+            new IndexSpec(RELATION_TABLE, "idx_company_relations_company_one_id", IndexKind.INDEX, "company_one_id"),
+            new IndexSpec(RELATION_TABLE, "idx_company_relations_company_two_id", IndexKind.INDEX, "company_two_id"),
+            new IndexSpec(GROUP_MEMBER_TABLE, "product_group_members_pkey", IndexKind.PRIMARY_KEY, "product_name, company_id"),
+            new IndexSpec(GROUP_MEMBER_TABLE, "idx_product_group_members_company_id", IndexKind.INDEX, "company_id"));
+    private static final String RELATION_ID_SEQUENCE = "company_relations_seq";
+    private static final List<String> RELATION_COLUMNS = List.of(
+            "company_one_id", "company_two_id", "shared_product_name", "relation_name", "relation_type");
+    private static final List<String> GROUP_MEMBER_COLUMNS = List.of("product_name", "company_id");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BulkCopyRepository bulkCopyRepository;
+
+    private enum IndexKind {
+        PRIMARY_KEY, UNIQUE, INDEX
+    }
+
+    /**
+     * 一个主键、唯一约束或普通索引的定义。
+     */
+    private record IndexSpec(String table, String name, IndexKind kind, String columns) {
+
+        private String stagingName() {
+            return name + STAGING_SUFFIX;
+        }
+    }
+
+    /**
+     * 构造函数，注入 JdbcTemplate 及批量导入数据访问类。
+     *
+     * @param jdbcTemplate       JDBC 操作模板
+     * @param bulkCopyRepository 批量导入数据访问类
+     */
+    public CompanyRelationStagingRepository(JdbcTemplate jdbcTemplate, BulkCopyRepository bulkCopyRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bulkCopyRepository = bulkCopyRepository;
+    }
+
+    /**
+     * 为每张正式表创建一个结构（含默认值和检查约束）相同的空影子表，并以影子名称创建主键、唯一约束和索引。
+     * 若上次重建残留了影子表或旧版本表，会先将其删除。
+     */
+    @Transactional
+    public void prepareStagingTables() {
+        for (String table : LIVE_TABLES) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table + RETIRED_SUFFIX);
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table + STAGING_SUFFIX);
+            // 不复制索引：LIKE 复制的索引名由数据库自动生成，每次重建都会不同
+            jdbcTemplate.execute("CREATE TABLE " + table + STAGING_SUFFIX + " (LIKE " + table + " INCLUDING ALL EXCLUDING INDEXES)");
+        }
+        for (IndexSpec index : INDEXES) {
+            String stagingTable = index.table() + STAGING_SUFFIX;
+            switch (index.kind()) {
+                case PRIMARY_KEY -> jdbcTemplate.execute("ALTER TABLE " + stagingTable + " ADD CONSTRAINT "
+                        + index.stagingName() + " PRIMARY KEY (" + index.columns() + ")");
+                case UNIQUE -> jdbcTemplate.execute("ALTER TABLE " + stagingTable + " ADD CONSTRAINT "
+                        + index.stagingName() + " UNIQUE (" + index.columns() + ")");
+                case INDEX -> jdbcTemplate.execute("CREATE INDEX " + index.stagingName() + " ON " + stagingTable
+                        + " (" + index.columns() + ")");
+            }
+        }
+    }
+
+    /**
+     * 将关系批量写入关系影子表（PostgreSQL 上使用 COPY 流式导入）。
+     * 每行的值依次为 company_one_id、company_two_id、shared_product_name、relation_name、relation_type。
+     *
+     * @param rows 关系数据行的生产方
+     */
+    @Transactional
+    public void insertRelations(BulkCopyRepository.RowProducer rows) {
+        copyIntoStaging(RELATION_TABLE, RELATION_COLUMNS, rows);
+    }
+
+    /**
+     * 将产品分组成员批量写入分组影子表（PostgreSQL 上使用 COPY 流式导入）。
+     * 每行的值依次为 product_name、company_id。
+     *
+     * @param rows 分组成员数据行的生产方
+     */
+    @Transactional
+    public void insertGroupMembers(BulkCopyRepository.RowProducer rows) {
+        copyIntoStaging(GROUP_MEMBER_TABLE, GROUP_MEMBER_COLUMNS, rows);
+    }
+
+    /**
+     * 原子地用影子表替换全部正式表。
+     * 整个切换只包含几条重命名语句，持有排他锁的时间极短；关系表主键序列的归属随之转移到新表，
+     * 以免删除旧版本表时序列被一并删除。旧表的索引让出正式名称，影子表的索引（连同其约束）随后改用正式名称。
+     */
+    @Transactional
+    public void swapStagingIntoLive() {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+        jdbcTemplate.execute("ALTER SEQUENCE " + RELATION_ID_SEQUENCE + " OWNED BY NONE");
+        for (String table : LIVE_TABLES) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + table + RETIRED_SUFFIX);
+            jdbcTemplate.execute("ALTER TABLE " + table + STAGING_SUFFIX + " RENAME TO " + table);
+        }
+        for (IndexSpec index : INDEXES) {
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS " + index.name() + " RENAME TO " + index.name() + RETIRED_SUFFIX);
+            jdbcTemplate.execute("ALTER INDEX " + index.stagingName() + " RENAME TO " + index.name());
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE " + RELATION_ID_SEQUENCE + " OWNED BY " + RELATION_TABLE + ".id");
+    }
+
+    /**
+     * 删除切换后遗留的旧版本表。
+     * 在切换事务提交之后单独执行，避免删除大表的开销延长切换时的锁持有时间。
+     */
+    @Transactional
+    public void dropRetiredTables() {
+        for (String table : LIVE_TABLES) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table + RETIRED_SUFFIX);
+        }
+    }
+
+    private void copyIntoStaging(String liveTable, List<String> columns, BulkCopyRepository.RowProducer rows) {
+        try {
+            long count = bulkCopyRepository.copyIn(liveTable + STAGING_SUFFIX, columns, rows);
+            log.info("影子表 {} 写入了 {} 条记录。", liveTable + STAGING_SUFFIX, count);
+        } catch (Exception e) {
+            throw new IllegalStateException("写入影子表 " + liveTable + STAGING_SUFFIX + " 失败", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.riskwarningsystembackend.repository.company;
+
+/**
+ * CompanyRiskProjection 接口用于投影计算公司风险等级所需的字段。
+ * 避免为风险统计加载完整的 CompanyInfo 实体。
+ */
+public interface CompanyRiskProjection {
+    /**
+     * 获取公司ID
+     * @return 公司ID
+     */
+    Long getId();
+
+    /**
+     * 获取公司名称
+     * @return 公司名称
+     */
+    String getName();
+
+    /**
+     * 获取法务纠纷数量
+     * @return 法务纠纷数量，可能为空
+     */
+    Integer getLegalDisputeCount();
+
+    /**
+     * 获取写入时计算的法律风险等级
+     * @return 法律风险等级（高/中/低）
+     */
+    String getLawRisk();
+
+    /**
+     * 获取写入时计算的综合风险等级
+     * @return 综合风险等级（高/中/低）
+     */
+    String getRiskLevel();
+
+    /**
+     * 获取写入时计算的高风险标记
+     * @return 是否为高风险公司，可能为空
+     */
+    Boolean getHighRisk();
+
+    /**
+     * 获取纬度
+     * @return 纬度，可能为空
+     */
+    Double getLatitude();
+
+    /**
+     * 获取经度
+     * @return 经度，可能为空
+     */
+    Double getLongitude();
+}
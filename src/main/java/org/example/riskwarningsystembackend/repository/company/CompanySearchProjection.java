@@ -0,0 +1,25 @@
+package org.example.riskwarningsystembackend.repository.company;
+
+/**
+ * CompanySearchProjection 接口用于投影公司的检索字段。
+ * 仅包含构建公司名称与行业检索索引所需的字段，避免加载完整的 CompanyInfo 实体。
+ */
+public interface CompanySearchProjection {
+    /**
+     * 获取公司ID
+     * @return 公司ID
+     */
+    Long getId();
+
+    /**
+     * 获取公司名称
+     * @return 公司名称，可能为空
+     */
+    String getName();
+
+    /**
+     * 获取所属行业
+     * @return 所属行业，可能为空
+     */
+    String getIndustry();
+}
@@ -0,0 +1,43 @@
+package org.example.riskwarningsystembackend.repository.company;
+
+/**
+ * 按行业分组的公司聚合结果投影。
+ * 只包含可以跨行业再次累加的量（计数与求和），平均值由调用方按需计算。
+ */
+public interface IndustryAggregateProjection {
+
+    /**
+     * @return 行业名称，可能为 null 或空字符串
+     */
+    String getIndustry();
+
+    /**
+     * @return 该行业的公司数量
+     */
+    Long getCompanyCount();
+
+    /**
+     * @return 法律纠纷数之和（忽略空值），无数据时为 null
+     */
+    Long getLegalDisputeSum();
+
+    /**
+     * @return 法律纠纷数非空的公司数量
+     */
+    Long getLegalDisputeCount();
+
+    /**
+     * @return 舆情数之和（忽略空值），无数据时为 null
+     */
+    Long getPublicOpinionSum();
+
+    /**
+     * @return 舆情数非空的公司数量
+     */
+    Long getPublicOpinionCount();
+
+    /**
+     * @return 财务风险公司数量（营收或利润为0或为空）
+     */
+    Long getFinancialRiskCount();
+}
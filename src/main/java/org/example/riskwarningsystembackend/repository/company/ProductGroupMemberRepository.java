@@ -0,0 +1,56 @@
+package org.example.riskwarningsystembackend.repository.company;
+
+import org.example.riskwarningsystembackend.entity.CompanyRelation;
+import org.example.riskwarningsystembackend.entity.ProductGroupMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 产品分组成员数据访问接口。
+ * 提供分组成员的维护操作，以及在查询时将分组展开为“竞争”关系的功能。
+ */
+public interface ProductGroupMemberRepository extends JpaRepository<ProductGroupMember, ProductGroupMember.Key> {
+
+    /**
+     * 查询指定公司所属的全部分组成员记录。
+     * @param companyId 公司ID
+     * @return 该公司的分组成员记录
+     */
+    List<ProductGroupMember> findByCompanyId(Long companyId);
+
+    /**
+     * 删除指定公司的全部分组成员记录。
+     * @param companyId 公司ID
+     * @return 被删除的记录条数
+     */
+    @Modifying
+    @Query("DELETE FROM ProductGroupMember m WHERE m.companyId = :companyId")
+    int deleteAllByCompanyId(@Param("companyId") Long companyId);
+
+    /**
+     * 将指定公司所在的分组展开为“竞争”关系：该公司与同组的每一家其他公司之间各一条关系。
+     * 返回的关系为非持久化对象，不对应 company_relations 表中的记录。
+     * @param companyId 公司ID
+     * @return 展开后的“竞争”关系列表
+     */
+    @Query("SELECT new org.example.riskwarningsystembackend.entity.CompanyRelation(m1.companyId, m2.companyId, m1.productName, '竞争', 'supplier') " +
+            "FROM ProductGroupMember m1, ProductGroupMember m2 " +
+            "WHERE m1.productName = m2.productName AND m1.companyId = :companyId AND m2.companyId <> m1.companyId")
+    List<CompanyRelation> expandCompetitorRelations(@Param("companyId") Long companyId);
+
+    /**
+     * 将一组公司所在的分组展开为“竞争”关系。
+     * 两家公司都在给定集合中时，同一关系会以相反的方向各返回一次，调用方需要去重。
+     * @param companyIds 公司ID集合
+     * @return 展开后的“竞争”关系列表
+     */
+    @Query("SELECT new org.example.riskwarningsystembackend.entity.CompanyRelation(m1.companyId, m2.companyId, m1.productName, '竞争', 'supplier') " +
+            "FROM ProductGroupMember m1, ProductGroupMember m2 " +
+            "WHERE m1.productName = m2.productName AND m1.companyId IN :companyIds AND m2.companyId <> m1.companyId")
+    List<CompanyRelation> expandCompetitorRelations(@Param("companyIds") Collection<Long> companyIds);
+}
@@ -3,6 +3,9 @@ package org.example.riskwarningsystembackend.repository.product;
 import org.example.riskwarningsystembackend.entity.ProductEdge;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 产品边关系数据访问接口
  * /p
@@ -10,5 +13,14 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * 包括保存、删除、查询等数据库操作方法
  */
 public interface ProductEdgeRepository extends JpaRepository<ProductEdge, Long> {
+
+    /**
+     * 查找父节点或子节点属于给定节点集合的所有产品边
+     *
+     * @param parentIds 父节点ID集合
+     * @param childIds  子节点ID集合
+     * @return 与这些节点直接相连的产品边列表
+     */
+    List<ProductEdge> findByParentIdInOrChildIdIn(Collection<Long> parentIds, Collection<Long> childIds);
 }
 
@@ -3,6 +3,8 @@ package org.example.riskwarningsystembackend.repository.product;
 import org.example.riskwarningsystembackend.entity.ProductNode;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -20,5 +22,12 @@ public interface ProductNodeRepository extends JpaRepository<ProductNode, Long>
      * @return 返回包含ProductNode的Optional对象，如果找不到对应名称的产品节点则返回空Optional
      */
     Optional<ProductNode> findByName(String name);
-}
 
+    /**
+     * 根据一组产品节点名称批量查找产品节点
+     *
+     * @param names 产品节点名称集合
+     * @return 名称存在于集合中的产品节点列表
+     */
+    List<ProductNode> findByNameIn(Collection<String> names);
+}
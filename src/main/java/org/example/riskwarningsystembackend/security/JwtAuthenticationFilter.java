@@ -24,6 +24,9 @@ import java.io.IOException;
  * 该过滤器继承自OncePerRequestFilter，确保每个请求只执行一次。
  * 它会从请求头中提取JWT，验证其有效性，并加载对应的用户信息进行认证。
  * 同时，它会检查令牌是否在黑名单中，以防止已注销的令牌继续使用。
+ * <p>
+ * 浏览器的 EventSource 无法设置请求头，因此仪表盘推送接口额外接受 access_token 查询参数，
+ * 但只接受由 /api/dashboard/stream-token 签发的短期推送令牌；推送令牌也不能用于其他接口。
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -34,6 +37,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    private static final String STREAM_PATH = "/api/dashboard/stream";
+    private static final String STREAM_TOKEN_PARAM = "access_token";
+
     /**
      * 构造函数，注入所需的依赖组件。
      *
@@ -68,11 +74,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
         try {
-            // 提取JWT
+            // 提取JWT，推送接口在没有请求头时从查询参数中提取
             String jwt = getJwtFromRequest(request);
+            boolean fromQuery = false;
+            if (jwt == null && isStreamRequest(request)) {
+                jwt = request.getParameter(STREAM_TOKEN_PARAM);
+                fromQuery = true;
+            }
 
-            // 验证JWT有效性并检查是否在黑名单中
-            if (StringUtils.hasText(jwt) && !tokenBlacklistService.isTokenBlacklisted(jwt) && tokenProvider.validateToken(jwt)) {
+            // 验证JWT有效性并检查是否在黑名单中；查询参数中只接受推送令牌，请求头中只接受登录令牌
+            if (StringUtils.hasText(jwt) && !tokenBlacklistService.isTokenBlacklisted(jwt) && tokenProvider.validateToken(jwt)
+                    && hasExpectedScope(jwt, fromQuery)) {
                 // 从JWT中获取用户名
                 String username = tokenProvider.getUsernameFromJWT(jwt);
 
@@ -93,6 +105,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * 判断请求是否为仪表盘推送接口。
+     *
+     * @param request HTTP请求对象
+     * @return 是推送接口时返回 true
+     */
+    private boolean isStreamRequest(HttpServletRequest request) {
+        return "GET".equals(request.getMethod())
+                && (request.getContextPath() + STREAM_PATH).equals(request.getRequestURI());
+    }
+
+    /**
+     * 检查令牌的用途与其来源是否相符。
+     *
+     * @param jwt       已验证的令牌
+     * @param fromQuery 令牌是否来自查询参数
+     * @return 来自查询参数的推送令牌或来自请求头的登录令牌时返回 true
+     */
+    private boolean hasExpectedScope(String jwt, boolean fromQuery) {
+        String scope = tokenProvider.getScopeFromJWT(jwt);
+        return fromQuery ? JwtTokenProvider.STREAM_SCOPE.equals(scope) : scope == null;
+    }
+
     /**
      * 从HTTP请求头中提取JWT字符串。
      * <p>
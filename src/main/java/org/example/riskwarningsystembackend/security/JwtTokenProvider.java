@@ -24,12 +24,22 @@ public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    /**
+     * 仪表盘推送令牌的用途，写入令牌的 scope 声明
+     */
+    public static final String STREAM_SCOPE = "dashboard-stream";
+
+    private static final String SCOPE_CLAIM = "scope";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration-seconds}")
     private long jwtExpirationInSeconds;
 
+    @Value("${jwt.stream-token-seconds:60}")
+    private long streamTokenSeconds;
+
     private Key key;
 
     /**
@@ -62,6 +72,50 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * 生成仪表盘推送（SSE）专用的短期令牌。
+     * 浏览器的 EventSource 无法设置请求头，只能把令牌放在查询参数中；查询参数可能出现在访问日志里，
+     * 因此这里签发只能用于推送接口、有效期很短的令牌，而不是直接使用登录令牌。
+     *
+     * @param username 用户名
+     * @return 推送令牌字符串
+     */
+    public String generateStreamToken(String username) {
+        Date now = new Date();
+        return Jwts.builder()
+                .setSubject(username)
+                .claim(SCOPE_CLAIM, STREAM_SCOPE)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + streamTokenSeconds * 1000))
+                .signWith(key, SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    /**
+     * 获取推送令牌的有效期。
+     *
+     * @return 有效期（秒）
+     */
+    public long getStreamTokenSeconds() {
+        return streamTokenSeconds;
+    }
+
+    /**
+     * 从 JWT Token 中提取用途声明。
+     *
+     * @param token JWT Token 字符串
+     * @return 用途，登录令牌没有该声明时为 null
+     */
+    public String getScopeFromJWT(String token) {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+
+        return claims.get(SCOPE_CLAIM, String.class);
+    }
+
     /**
      * 从 JWT Token 中提取用户名。
      *
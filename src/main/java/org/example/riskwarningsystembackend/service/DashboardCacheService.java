@@ -0,0 +1,121 @@
+package org.example.riskwarningsystembackend.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.config.CacheConfig;
+import org.example.riskwarningsystembackend.dto.dashboard.CacheStatsDTO;
+import org.example.riskwarningsystembackend.event.CompanyDataChangedEvent;
+import org.example.riskwarningsystembackend.event.CompanyRelationsChangedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 仪表盘缓存服务。
+ * <p>
+ * 在数据变更提交后精确地清除受影响的仪表盘缓存：公司数据变更清除全部仪表盘缓存，
+ * 公司关系图刷新只清除知识图谱缓存。同时汇总各缓存的命中、未命中及淘汰统计。
+ * <p>
+ * 单靠清除无法阻止变更前开始的请求在清除之后写入基于旧数据的结果。因此缓存键包含数据版本
+ * （{@link #getDataVersion()}、{@link #getGraphVersion()}），版本在清除前递增：
+ * 变更前开始的请求以旧版本为键写入，之后的请求使用新版本的键，不会读到旧结果。
+ * 监听器使用默认的最低优先级，保证在风险快照等内存数据更新之后才递增版本。
+ */
+@Slf4j
+@Service
+public class DashboardCacheService {
+
+    private final CacheManager cacheManager;
+    private final Map<String, AtomicLong> invalidationCounts = new ConcurrentHashMap<>();
+    private final AtomicLong dataVersion = new AtomicLong();
+    private final AtomicLong graphVersion = new AtomicLong();
+
+    /**
+     * 构造函数，注入缓存管理器。
+     *
+     * @param cacheManager 缓存管理器
+     */
+    public DashboardCacheService(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * 公司数据变更后清除全部仪表盘缓存。
+     *
+     * @param event 公司数据变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyDataChanged(CompanyDataChangedEvent event) {
+        dataVersion.incrementAndGet();
+        graphVersion.incrementAndGet();
+        CacheConfig.DASHBOARD_CACHES.forEach(this::clear);
+        log.debug("公司数据已变更 ({})，已清除全部仪表盘缓存。", event.getChangeType());
+    }
+
+    /**
+     * 公司关系图刷新后清除知识图谱缓存。
+     *
+     * @param event 公司关系变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyRelationsChanged(CompanyRelationsChangedEvent event) {
+        graphVersion.incrementAndGet();
+        clear(CacheConfig.COMPANY_GRAPH_CACHE);
+        log.debug("公司关系图已刷新，已清除知识图谱缓存。");
+    }
+
+    /**
+     * 获取公司数据版本，作为依赖公司数据的仪表盘缓存的键，每次公司数据变更后递增。
+     *
+     * @return 公司数据版本
+     */
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    /**
+     * 获取知识图谱版本，作为知识图谱缓存键的一部分，公司数据变更或关系图刷新后递增。
+     *
+     * @return 知识图谱版本
+     */
+    public long getGraphVersion() {
+        return graphVersion.get();
+    }
+
+    /**
+     * 获取全部仪表盘缓存的统计信息。
+     *
+     * @return 各缓存的统计信息列表
+     */
+    public List<CacheStatsDTO> getStats() {
+        List<CacheStatsDTO> stats = new ArrayList<>();
+        for (String name : CacheConfig.DASHBOARD_CACHES) {
+            Cache cache = cacheManager.getCache(name);
+            if (!(cache instanceof CaffeineCache caffeineCache)) {
+                continue;
+            }
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+            CacheStats cacheStats = nativeCache.stats();
+            stats.add(new CacheStatsDTO(name, nativeCache.estimatedSize(), cacheStats.hitCount(), cacheStats.missCount(),
+                    cacheStats.hitRate(), cacheStats.evictionCount(),
+                    invalidationCounts.getOrDefault(name, new AtomicLong()).get()));
+        }
+        return stats;
+    }
+
+    private void clear(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+            invalidationCounts.computeIfAbsent(name, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.riskwarningsystembackend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.dto.dashboard.DashboardOverviewDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 仪表盘总览服务。
+ * <p>
+ * 将前端首屏需要的多个仪表盘组件合并为一次请求：每个组件在独立的虚拟线程上并发计算，
+ * 总耗时取决于最慢的组件而不是各组件之和。每个组件有单独的超时时间，
+ * 某个组件失败或超时只影响该组件，其余组件照常返回，并分别记录状态和耗时。
+ * 组件通过 {@link DashboardService} 的代理调用，因此仍然命中仪表盘缓存。
+ */
+@Slf4j
+@Service
+public class DashboardOverviewService {
+
+    /**
+     * 未指定组件时默认返回的组件，与前端首屏一致。
+     * 地图使用按视口聚合的 riskMapViewport，而不是返回全部公司的 riskMap
+     */
+    public static final List<String> DEFAULT_WIDGETS = List.of(
+            "keyMetrics", "riskDistribution", "industryHealth", "supplyChainRisk", "riskAnalysis", "riskMapViewport");
+
+    private static final String STATUS_OK = "ok";
+    private static final String STATUS_ERROR = "error";
+    private static final String STATUS_TIMEOUT = "timeout";
+    private static final int RISK_ANALYSIS_PAGE_SIZE = 20;
+    private static final int REVENUE_RANKING_SIZE = 10;
+    // 首屏地图的默认视口，与 /risk-map/viewport 的参数默认值一致
+    private static final double DEFAULT_WEST = -180;
+    private static final double DEFAULT_SOUTH = -85;
+    private static final double DEFAULT_EAST = 180;
+    private static final double DEFAULT_NORTH = 85;
+    private static final int DEFAULT_ZOOM = 4;
+
+    private final Map<String, Supplier<Object>> widgets = new LinkedHashMap<>();
+    private final long widgetTimeoutMillis;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dashboard-widget-", 0).factory());
+
+    /**
+     * 组件计算结果或失败原因，以及在组件线程内测得的耗时。
+     */
+    private record Timed(Object data, Throwable error, long durationMs) {
+    }
+
+    /**
+     * 构造函数，注册可用的组件。
+     *
+     * @param dashboardService    仪表盘服务
+     * @param riskMapService      风险地图服务，提供按视口聚合的地图数据
+     * @param widgetTimeoutMillis 单个组件的超时时间（毫秒）
+     */
+    public DashboardOverviewService(DashboardService dashboardService, RiskMapService riskMapService,
+                                    @Value("${dashboard.overview.widget-timeout-ms:5000}") long widgetTimeoutMillis) {
+        this.widgetTimeoutMillis = widgetTimeoutMillis;
+        widgets.put("keyMetrics", dashboardService::getKeyMetrics);
+        widgets.put("riskDistribution", dashboardService::getRiskDistribution);
+        widgets.put("industryHealth", dashboardService::getIndustryHealth);
+        widgets.put("supplyChainRisk", dashboardService::getSupplyChainRisk);
+        widgets.put("riskAnalysis", () -> dashboardService.getRiskAnalysis(PageRequest.of(0, RISK_ANALYSIS_PAGE_SIZE)));
+        widgets.put("riskMap", dashboardService::getRiskMap);
+        widgets.put("riskMapViewport", () -> riskMapService.getViewport(DEFAULT_WEST, DEFAULT_SOUTH, DEFAULT_EAST, DEFAULT_NORTH, DEFAULT_ZOOM));
+        widgets.put("revenueRanking", () -> dashboardService.getRevenueRanking(REVENUE_RANKING_SIZE));
+        widgets.put("capitalDistribution", dashboardService::getCapitalDistribution);
+    }
+
+    /**
+     * 并发计算指定的组件，并在所有组件完成或超时后返回。
+     *
+     * @param requested 组件名称列表，为空时使用 {@link #DEFAULT_WIDGETS}
+     * @return 仪表盘总览数据，组件按请求顺序排列
+     * @throws IllegalArgumentException 请求了不存在的组件时抛出
+     */
+    public DashboardOverviewDTO getOverview(List<String> requested) {
+        long startTime = System.nanoTime();
+        Set<String> names = new LinkedHashSet<>(requested == null || requested.isEmpty() ? DEFAULT_WIDGETS : requested);
+        List<String> unknown = names.stream().filter(name -> !widgets.containsKey(name)).toList();
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("未知的仪表盘组件: " + String.join(", ", unknown) + "，可用组件: " + String.join(", ", widgets.keySet()));
+        }
+
+        Map<String, Future<Timed>> futures = new LinkedHashMap<>();
+        for (String name : names) {
+            Supplier<Object> widget = widgets.get(name);
+            futures.put(name, executor.submit(() -> {
+                long widgetStart = System.nanoTime();
+                Object data = null;
+                Throwable error = null;
+                try {
+                    data = widget.get();
+                } catch (Throwable e) {
+                    error = e;
+                }
+                // 耗时在组件线程内测量，不包含等待其他组件的时间
+                return new Timed(data, error, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - widgetStart));
+            }));
+        }
+
+        // 所有组件同时开始，因此共用同一个截止时间
+        long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(widgetTimeoutMillis);
+        Map<String, DashboardOverviewDTO.Widget> results = new LinkedHashMap<>();
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, Future<Timed>> entry : futures.entrySet()) {
+            String name = entry.getKey();
+            Future<Timed> future = entry.getValue();
+            try {
+                Timed timed = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (timed.error() == null) {
+                    results.put(name, new DashboardOverviewDTO.Widget(STATUS_OK, timed.durationMs(), timed.data(), null));
+                } else {
+                    log.error("仪表盘组件 {} 计算失败: ", name, timed.error());
+                    failed.add(name);
+                    results.put(name, new DashboardOverviewDTO.Widget(STATUS_ERROR, timed.durationMs(), null, timed.error().getMessage()));
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                failed.add(name);
+                results.put(name, new DashboardOverviewDTO.Widget(STATUS_TIMEOUT, widgetTimeoutMillis, null,
+                        "组件计算超过 " + widgetTimeoutMillis + " 毫秒"));
+            } catch (ExecutionException e) {
+                // 组件内的异常已在任务中捕获，这里只会是任务本身未能执行
+                log.error("仪表盘组件 {} 执行失败: ", name, e.getCause());
+                failed.add(name);
+                results.put(name, new DashboardOverviewDTO.Widget(STATUS_ERROR, 0, null, e.getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(pending -> pending.cancel(true));
+                throw new IllegalStateException("仪表盘总览请求被中断", e);
+            }
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        if (!failed.isEmpty()) {
+            log.warn("仪表盘总览部分组件未能返回: {}，总耗时 {} 毫秒。", failed, durationMs);
+        }
+        return new DashboardOverviewDTO(durationMs, results);
+    }
+
+    /**
+     * 应用关闭时停止执行器。
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,22 +1,27 @@
 package org.example.riskwarningsystembackend.service;
 
+import org.example.riskwarningsystembackend.config.CacheConfig;
 import org.example.riskwarningsystembackend.dto.*;
 import org.example.riskwarningsystembackend.dto.dashboard.RiskMapDTO;
 import org.example.riskwarningsystembackend.dto.dashboard.*;
 import org.example.riskwarningsystembackend.dto.supplychain.SupplyChainRiskDTO;
 import org.example.riskwarningsystembackend.entity.CompanyInfo;
-import org.example.riskwarningsystembackend.entity.CompanyRelation;
+import org.example.riskwarningsystembackend.exception.ResourceNotFoundException;
 import org.example.riskwarningsystembackend.repository.company.CompanyInfoRepository;
-import org.example.riskwarningsystembackend.repository.company.CompanyRelationRepository;
 import org.example.riskwarningsystembackend.repository.product.ProductNodeRepository;
+import org.example.riskwarningsystembackend.service.graph.CompanyNeighborhoodExpander;
+import org.example.riskwarningsystembackend.service.graph.CompanyRelationGraph;
+import org.example.riskwarningsystembackend.service.graph.CompanyRelationGraphStore;
+import org.example.riskwarningsystembackend.service.search.CompanySearchService;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * 风险预警系统仪表盘服务类，提供各类风险数据统计与分析功能。
@@ -26,21 +31,51 @@ public class DashboardService {
 
     private final CompanyInfoRepository companyInfoRepository;
     private final ProductNodeRepository productNodeRepository;
-    private final CompanyRelationRepository companyRelationRepository;
+    private static final int GRAPH_SEED_LIMIT = 60;
+    private static final int GRAPH_SEARCH_LIMIT = 50;
+    private static final int GRAPH_EDGE_LIMIT = 60;
+    private static final int MAX_EXPANSION_DEPTH = 4;
+    private static final int MAX_EXPANSION_NODES = 1000;
+    private static final int MAX_EXPANSION_EDGES = 5000;
+    private static final int MAX_REVENUE_RANKING_SIZE = 100;
+    // 与 CompanyInfoRepository#countByRegisteredCapitalBucket 的分段下标一一对应
+    private static final List<String> CAPITAL_BUCKET_LABELS =
+            List.of("100万以下", "100-500万", "500-1000万", "1000-5000万", "5000万-1亿", "1亿及以上");
+    // 缓存键包含数据版本，变更前开始的请求即使在缓存清除后才写入，也只会写到不再被读取的旧版本键下
+    private static final String DATA_VERSION_KEY = "@dashboardCacheService.getDataVersion()";
+    private static final String GRAPH_VERSION_KEY = "{@dashboardCacheService.getGraphVersion(), #companyId, #keyword}";
+
+    private final IndustryAggregateService industryAggregateService;
+    private final RiskSnapshotService riskSnapshotService;
+    private final CompanyRelationGraphStore companyRelationGraphStore;
+    private final CompanyNeighborhoodExpander neighborhoodExpander;
+    private final CompanySearchService companySearchService;
 
     /**
      * 构造函数，注入所需的 Repository 依赖。
      *
      * @param companyInfoRepository 公司信息数据访问接口
      * @param productNodeRepository 产品节点数据访问接口
-     * @param companyRelationRepository 公司关系数据访问接口
+     * @param industryAggregateService 行业聚合服务
+     * @param riskSnapshotService 风险快照服务
+     * @param companyRelationGraphStore 公司关系图内存存储
+     * @param neighborhoodExpander 公司关系图多跳邻域展开器
+     * @param companySearchService 公司检索服务
      */
     public DashboardService(CompanyInfoRepository companyInfoRepository,
                             ProductNodeRepository productNodeRepository,
-                            CompanyRelationRepository companyRelationRepository) {
+                            IndustryAggregateService industryAggregateService,
+                            RiskSnapshotService riskSnapshotService,
+                            CompanyRelationGraphStore companyRelationGraphStore,
+                            CompanyNeighborhoodExpander neighborhoodExpander,
+                            CompanySearchService companySearchService) {
         this.companyInfoRepository = companyInfoRepository;
         this.productNodeRepository = productNodeRepository;
-        this.companyRelationRepository = companyRelationRepository;
+        this.industryAggregateService = industryAggregateService;
+        this.riskSnapshotService = riskSnapshotService;
+        this.companyRelationGraphStore = companyRelationGraphStore;
+        this.neighborhoodExpander = neighborhoodExpander;
+        this.companySearchService = companySearchService;
     }
 
     /**
@@ -48,10 +83,11 @@ public class DashboardService {
      *
      * @return 关键指标列表，每个元素包含指标名称、数值和图标路径
      */
+    @Cacheable(cacheNames = CacheConfig.KEY_METRICS_CACHE, key = DATA_VERSION_KEY)
     public List<KeyMetricDTO> getKeyMetrics() {
-        long companyCount = companyInfoRepository.count();
+        long companyCount = industryAggregateService.getTotalCompanyCount();
         long productCount = productNodeRepository.count();
-        long industryCount = companyInfoRepository.countDistinctIndustry();
+        long industryCount = industryAggregateService.getIndustryCount();
 
         return Arrays.asList(
                 new KeyMetricDTO("涵盖行业数", industryCount, "M13 10V3L4 14h7v7l9-11h-7z"),
@@ -65,15 +101,14 @@ public class DashboardService {
      *
      * @return 风险分布列表，包含高、中、低风险企业的数量及标签
      */
+    @Cacheable(cacheNames = CacheConfig.RISK_DISTRIBUTION_CACHE, key = DATA_VERSION_KEY)
     public List<RiskDistributionDTO> getRiskDistribution() {
-        long highRiskCount = companyInfoRepository.countByLegalDisputeCountGreaterThanEqual(500);
-        long mediumRiskCount = companyInfoRepository.countByLegalDisputeCountBetween(101, 499);
-        long lowRiskCount = companyInfoRepository.countByLegalDisputeCountLessThanEqual(100);
+        RiskSnapshotService.RiskCounts counts = riskSnapshotService.getCounts();
 
         return Arrays.asList(
-                new RiskDistributionDTO(highRiskCount, "高风险企业"),
-                new RiskDistributionDTO(mediumRiskCount, "中风险企业"),
-                new RiskDistributionDTO(lowRiskCount, "低风险企业")
+                new RiskDistributionDTO(counts.high(), "高风险企业"),
+                new RiskDistributionDTO(counts.medium(), "中风险企业"),
+                new RiskDistributionDTO(counts.low(), "低风险企业")
         );
     }
 
@@ -82,11 +117,13 @@ public class DashboardService {
      *
      * @return 行业健康评分数据对象，包含行业名称列表和对应的评分列表
      */
+    @Cacheable(cacheNames = CacheConfig.INDUSTRY_HEALTH_CACHE, key = DATA_VERSION_KEY)
     public IndustryHealthDTO getIndustryHealth() {
-        List<String> categories = companyInfoRepository.findTop15IndustriesByCompanyCount();
+        List<String> categories = new ArrayList<>();
         List<Integer> values = new ArrayList<>();
-        for (String industry : categories) {
-            Double avgDisputes = companyInfoRepository.findAverageLegalDisputesByIndustry(industry);
+        for (IndustryAggregateService.IndustryAggregate industry : industryAggregateService.getTopIndustries(15)) {
+            categories.add(industry.industry());
+            Double avgDisputes = industry.averageLegalDisputes();
             if (avgDisputes == null) {
                 avgDisputes = 0.0;
             }
@@ -101,6 +138,7 @@ public class DashboardService {
      *
      * @return 供应链风险数据传输对象，包含指标列表和具体行业链数据
      */
+    @Cacheable(cacheNames = CacheConfig.SUPPLY_CHAIN_RISK_CACHE, key = DATA_VERSION_KEY)
     public SupplyChainRiskDTO getSupplyChainRisk() {
         List<SupplyChainRiskDTO.Indicator> indicators = Arrays.asList(
                 new SupplyChainRiskDTO.Indicator("技术风险", 100),
@@ -112,10 +150,13 @@ public class DashboardService {
         );
 
         String windIndustryName = "";
-        Double avgLegal = companyInfoRepository.findAverageLegalDisputesByIndustry(windIndustryName);
-        Double avgPublicOpinion = companyInfoRepository.findAveragePublicOpinionByIndustry(windIndustryName);
-        long financialRiskCompanies = companyInfoRepository.countFinancialRiskCompaniesByIndustry(windIndustryName);
-        long totalCompanies = companyInfoRepository.countByIndustry(windIndustryName);
+        Double avgLegal = industryAggregateService.getIndustry(windIndustryName)
+                .map(IndustryAggregateService.IndustryAggregate::averageLegalDisputes)
+                .orElse(null);
+        IndustryAggregateService.IndustryAggregate windIndustry = industryAggregateService.sumIndustriesContaining(windIndustryName);
+        Double avgPublicOpinion = windIndustry.averagePublicOpinion();
+        long financialRiskCompanies = windIndustry.financialRiskCount();
+        long totalCompanies = windIndustry.companyCount();
 
         int legalRiskScore = (avgLegal == null) ? 80 : Math.max(10, 100 - (int)(avgLegal / 5));
         int publicOpinionScore = (avgPublicOpinion == null) ? 85 : Math.max(10, 100 - (int)(avgPublicOpinion / 2));
@@ -134,56 +175,53 @@ public class DashboardService {
      * @return 包含风险分析数据的分页响应对象
      */
     public PaginatedResponseDTO<RiskAnalysisDTO> getRiskAnalysis(PageRequest pageRequest) {
-        Page<CompanyInfo> highRiskCompanies = companyInfoRepository.findHighRiskCompanies(pageRequest);
-        Page<RiskAnalysisDTO> riskAnalysisDtoPage = highRiskCompanies.map(company -> {
-            String riskLevel;
-            String reason = "";
-            int legalDisputes = company.getLegalDisputeCount() != null ? company.getLegalDisputeCount() : 0;
-
-            if (legalDisputes > 500) {
-                riskLevel = "高";
-                reason = "存在 " + legalDisputes + " 起法律诉讼";
-            } else if (legalDisputes > 100) {
-                riskLevel = "中";
-                reason = "存在 " + legalDisputes + " 起法律诉讼";
-            } else {
-                riskLevel = "低";
-            }
-
-            if ("0".equals(company.getRevenue()) || "0".equals(company.getProfit()) || !StringUtils.hasText(company.getRevenue()) || !StringUtils.hasText(company.getProfit())) {
-                riskLevel = "高";
-                String financialReason = "关键财务数据缺失";
-                reason = reason.isEmpty() ? financialReason : reason + "；" + financialReason;
-            }
-
-            String levelClass = "risk-" + (riskLevel.equals("高") ? "high" : (riskLevel.equals("中") ? "medium" : "low"));
-            return new RiskAnalysisDTO(company.getName(), riskLevel, levelClass, reason);
+        // 风险等级、高风险标记和原因均为写入时计算的列，按ID排序可走 high_risk 部分索引
+        PageRequest byId = PageRequest.of(pageRequest.getPageNumber(), pageRequest.getPageSize(), Sort.by("id"));
+        Page<RiskAnalysisDTO> riskAnalysisDtoPage = companyInfoRepository.findHighRiskCompanies(byId).map(company -> {
+            RiskSnapshotService.RiskLevel riskLevel = RiskSnapshotService.RiskLevel.fromLabel(company.getRiskLevel());
+            return new RiskAnalysisDTO(company.getName(), riskLevel.getLabel(), riskLevel.getLevelClass(), company.getHighRiskReason());
         });
         return new PaginatedResponseDTO<>(riskAnalysisDtoPage);
     }
 
+    /**
+     * 获取营业额最高的若干家公司，排序在数据库中按换算为元的营业额完成。
+     *
+     * @param limit 返回的公司数量上限
+     * @return 营业额排名列表
+     */
+    public List<RevenueRankingDTO> getRevenueRanking(int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_REVENUE_RANKING_SIZE));
+        return companyInfoRepository.findByRevenueAmountIsNotNullOrderByRevenueAmountDescIdAsc(PageRequest.of(0, size))
+                .map(company -> new RevenueRankingDTO(company.getId(), company.getName(), company.getIndustry(),
+                        company.getRevenueAmount(), company.getRevenue()))
+                .getContent();
+    }
+
+    /**
+     * 获取注册资本（人民币）分段的公司数量分布，分段统计在数据库中完成。
+     *
+     * @return 注册资本分布数据对象，包含分段名称列表和对应的公司数量列表
+     */
+    public CapitalDistributionDTO getCapitalDistribution() {
+        Long[] counts = new Long[CAPITAL_BUCKET_LABELS.size()];
+        Arrays.fill(counts, 0L);
+        companyInfoRepository.countByRegisteredCapitalBucket().forEach(bucket -> counts[bucket.getBucket()] = bucket.getCompanyCount());
+        return new CapitalDistributionDTO(CAPITAL_BUCKET_LABELS, Arrays.asList(counts));
+    }
+
     /**
      * 获取企业地理分布风险地图数据。
      *
      * @return 风险地图数据列表，每个元素包含企业名称、坐标和风险等级
      */
+    @Cacheable(cacheNames = CacheConfig.RISK_MAP_CACHE, key = DATA_VERSION_KEY)
     public List<RiskMapDTO> getRiskMap() {
-        List<CompanyInfo> companies = companyInfoRepository.findAllWithCoordinates();
-        return companies.stream()
-                .filter(company -> company.getLongitude() != null && company.getLatitude() != null && company.getLongitude() != 0 && company.getLatitude() != 0) // 过滤无效坐标
+        return riskSnapshotService.getMappableCompanies().stream()
                 .map(company -> {
-                    String riskLevel;
-                    int legalDisputes = company.getLegalDisputeCount() != null ? company.getLegalDisputeCount() : 0;
-                    if (legalDisputes > 500) {
-                        riskLevel = "高";
-                    } else if (legalDisputes > 100) {
-                        riskLevel = "中";
-                    } else {
-                        riskLevel = "低";
-                    }
                     // 修正经纬度顺序：[经度, 纬度, 数值]
-                    List<Object> value = Arrays.asList(company.getLongitude(), company.getLatitude(), 40);
-                    return new RiskMapDTO(company.getName(), value, riskLevel);
+                    List<Object> value = Arrays.asList(company.longitude(), company.latitude(), 40);
+                    return new RiskMapDTO(company.name(), value, company.lawRiskLevel().getLabel());
                 }).collect(Collectors.toList());
     }
 
@@ -194,6 +232,7 @@ public class DashboardService {
      * @param keyword 搜索关键词（可为空）
      * @return 企业知识图谱数据对象，包含节点和边信息
      */
+    @Cacheable(cacheNames = CacheConfig.COMPANY_GRAPH_CACHE, key = GRAPH_VERSION_KEY)
     public CompanyGraphDTO getCompanyKnowledgeGraph(Long companyId, String keyword) {
         if (companyId != null) {
             return getSubgraphForCompany(companyId);
@@ -205,111 +244,164 @@ public class DashboardService {
     }
 
     /**
-     * 构建初始知识图谱数据。
+     * 构建初始知识图谱数据：ID 最小的前 60 家公司及其关系。
      *
      * @return 初始图谱数据对象
      */
     private CompanyGraphDTO getInitialGraph() {
-        PageRequest pageRequest = PageRequest.of(0, 60);
-        Page<CompanyInfo> companyPage = companyInfoRepository.findAll(pageRequest);
-        List<CompanyInfo> initialCompanies = companyPage.getContent();
-        if (initialCompanies.isEmpty()) {
-            return new CompanyGraphDTO(Collections.emptyList(), Collections.emptyList());
+        CompanyRelationGraph graph = companyRelationGraphStore.getGraph();
+        int count = Math.min(GRAPH_SEED_LIMIT, graph.companyCount());
+        int[] seeds = new int[count];
+        for (int i = 0; i < count; i++) {
+            seeds[i] = i;
         }
-
-        Set<Long> initialCompanyIds = initialCompanies.stream().map(CompanyInfo::getId).collect(Collectors.toSet());
-        List<CompanyRelation> relations = companyRelationRepository.findAllByCompanyIds(initialCompanyIds);
-        if (relations.size() > 60) {
-            relations = relations.subList(0, 60);
-        }
-
-        Set<Long> allCompanyIdsInGraph = relations.stream()
-                .flatMap(relation -> Stream.of(relation.getCompanyOneId(), relation.getCompanyTwoId()))
-                .collect(Collectors.toSet());
-        allCompanyIdsInGraph.addAll(initialCompanyIds);
-
-        List<CompanyInfo> allCompanies = companyInfoRepository.findAllById(allCompanyIdsInGraph);
-
-        return buildGraphDTO(allCompanies, relations);
+        return buildGraphForSeeds(graph, seeds);
     }
 
     /**
-     * 根据指定公司ID构建子图谱数据。
+     * 根据指定公司ID构建子图谱数据：该公司及其全部直接关系。
      *
      * @param companyId 指定公司的ID
      * @return 子图谱数据对象
      */
     private CompanyGraphDTO getSubgraphForCompany(Long companyId) {
-        if (!companyInfoRepository.existsById(companyId)) {
+        CompanyRelationGraph graph = companyRelationGraphStore.getGraph();
+        int center = graph.indexOf(companyId);
+        if (center < 0) {
             return new CompanyGraphDTO(Collections.emptyList(), Collections.emptyList());
         }
 
-        List<CompanyRelation> relations = companyRelationRepository.findAllByCompanyId(companyId);
-        Set<Long> relatedCompanyIds = relations.stream()
-                .flatMap(relation -> Stream.of(relation.getCompanyOneId(), relation.getCompanyTwoId()))
-                .collect(Collectors.toSet());
-        relatedCompanyIds.add(companyId);
-
-        List<CompanyInfo> companies = companyInfoRepository.findAllById(relatedCompanyIds);
-
-        return buildGraphDTO(companies, relations);
+        Set<Integer> nodeIndexes = new LinkedHashSet<>();
+        nodeIndexes.add(center);
+        List<CompanyGraphDTO.Edge> edges = new ArrayList<>();
+        graph.forEachRelation(center, (neighbor, product, label) -> {
+            nodeIndexes.add(neighbor);
+            edges.add(toGraphEdge(graph, center, neighbor, product, label));
+        });
+        return new CompanyGraphDTO(toGraphNodes(graph, nodeIndexes), edges);
     }
 
     /**
-     * 根据关键词搜索匹配的企业并构建图谱数据。
+     * 根据关键词搜索名称匹配的企业并构建图谱数据，取匹配质量最高的前 50 家公司作为起点。
      *
      * @param keyword 搜索关键词
      * @return 匹配结果的图谱数据对象
      */
     private CompanyGraphDTO getGraphBySearch(String keyword) {
-        Page<CompanyInfo> matchedCompaniesPage = companyInfoRepository.findByNameContainingIgnoreCase(keyword, PageRequest.of(0, 50));
-        List<CompanyInfo> matchedCompanies = matchedCompaniesPage.getContent();
-        if (matchedCompanies.isEmpty()) {
+        CompanyRelationGraph graph = companyRelationGraphStore.getGraph();
+        // 检索索引与关系图各自刷新，可能短暂包含关系图中尚不存在的公司，这些公司被忽略
+        int[] matched = Arrays.stream(companySearchService.searchByName(keyword, GRAPH_SEARCH_LIMIT))
+                .mapToInt(graph::indexOf)
+                .filter(index -> index >= 0)
+                .toArray();
+        if (matched.length == 0) {
             return new CompanyGraphDTO(Collections.emptyList(), Collections.emptyList());
         }
-        Set<Long> matchedCompanyIds = matchedCompanies.stream().map(CompanyInfo::getId).collect(Collectors.toSet());
-
-        List<CompanyRelation> relations = companyRelationRepository.findAllByCompanyIds(matchedCompanyIds);
-        if (relations.size() > 60) {
-            relations = relations.subList(0, 60);
-        }
-
-        Set<Long> allCompanyIdsInGraph = relations.stream()
-                .flatMap(relation -> Stream.of(relation.getCompanyOneId(), relation.getCompanyTwoId()))
-                .collect(Collectors.toSet());
-        allCompanyIdsInGraph.addAll(matchedCompanyIds);
+        return buildGraphForSeeds(graph, matched);
+    }
 
-        List<CompanyInfo> allCompanies = companyInfoRepository.findAllById(allCompanyIdsInGraph);
+    /**
+     * 以一组公司为起点构建图谱：包含这些公司、按优先级选出的最多 60 条直接关系以及关系另一端的公司。
+     * 关系按类型（“合作”优先）、对端公司关系数和ID排序后截取，结果是确定的。
+     *
+     * @param graph 关系图快照
+     * @param seeds 起点公司的下标
+     * @return 图谱数据对象
+     */
+    private CompanyGraphDTO buildGraphForSeeds(CompanyRelationGraph graph, int[] seeds) {
+        CompanyNeighborhoodExpander.Subgraph subgraph =
+                neighborhoodExpander.expand(graph, seeds, 1, Integer.MAX_VALUE, GRAPH_EDGE_LIMIT, null);
+        List<Integer> nodeIndexes = Arrays.stream(subgraph.nodes()).boxed().toList();
+        return new CompanyGraphDTO(toGraphNodes(graph, nodeIndexes), toGraphEdges(graph, subgraph));
+    }
 
-        return buildGraphDTO(allCompanies, relations);
+    /**
+     * 以指定公司为中心，按跳数展开关系子图。
+     * 展开在内存关系图上进行有界广度优先搜索，各项上限均会被限制在服务端允许的范围内。
+     *
+     * @param companyId     中心公司ID
+     * @param depth         最大跳数
+     * @param maxNodes      最多返回的节点数
+     * @param maxEdges      最多返回的边数
+     * @param relationTypes 允许的关系类型（如 partner、supplier），按优先级排列；为空时不限类型
+     * @return 邻域子图及截断信息
+     * @throws ResourceNotFoundException 公司不存在时抛出
+     */
+    public CompanyNeighborhoodDTO expandCompanyNeighborhood(Long companyId, int depth, int maxNodes, int maxEdges,
+                                                            List<String> relationTypes) {
+        CompanyRelationGraph graph = companyRelationGraphStore.getGraph();
+        int center = graph.indexOf(companyId);
+        if (center < 0) {
+            throw new ResourceNotFoundException("Company not found: " + companyId);
+        }
+        int boundedDepth = Math.max(0, Math.min(depth, MAX_EXPANSION_DEPTH));
+        int boundedNodes = Math.max(1, Math.min(maxNodes, MAX_EXPANSION_NODES));
+        int boundedEdges = Math.max(0, Math.min(maxEdges, MAX_EXPANSION_EDGES));
+
+        CompanyNeighborhoodExpander.Subgraph subgraph = neighborhoodExpander.expand(
+                graph, new int[]{center}, boundedDepth, boundedNodes, boundedEdges, relationTypes);
+
+        List<CompanyNeighborhoodDTO.Node> nodes = new ArrayList<>(subgraph.nodes().length);
+        for (int i = 0; i < subgraph.nodes().length; i++) {
+            int index = subgraph.nodes()[i];
+            nodes.add(new CompanyNeighborhoodDTO.Node(
+                    String.valueOf(graph.companyId(index)),
+                    graph.companyName(index),
+                    20,
+                    subgraph.depths()[i],
+                    subgraph.degrees()[i],
+                    subgraph.hiddenRelations()[i],
+                    subgraph.hiddenRelations()[i] > 0
+            ));
+        }
+        return new CompanyNeighborhoodDTO(String.valueOf(companyId), boundedDepth, boundedNodes, boundedEdges,
+                subgraph.truncated(), nodes, toGraphEdges(graph, subgraph));
     }
 
     /**
-     * 构建图谱数据传输对象。
+     * 将展开结果中的边转换为图谱边。
      *
-     * @param companies 公司信息列表
-     * @param relations 公司关系列表
-     * @return 图谱数据对象，包含节点和边信息
+     * @param graph    关系图快照
+     * @param subgraph 展开结果
+     * @return 图谱边列表
      */
-    private CompanyGraphDTO buildGraphDTO(List<CompanyInfo> companies, List<CompanyRelation> relations) {
-        List<CompanyGraphDTO.Node> nodes = companies.stream()
-                .map(company -> new CompanyGraphDTO.Node(
-                        String.valueOf(company.getId()),
-                        company.getName(),
-                        20
-                ))
+    private List<CompanyGraphDTO.Edge> toGraphEdges(CompanyRelationGraph graph, CompanyNeighborhoodExpander.Subgraph subgraph) {
+        return subgraph.edges().stream()
+                .map(edge -> toGraphEdge(graph, edge[0], edge[1], edge[2], edge[3]))
                 .collect(Collectors.toList());
+    }
 
-        List<CompanyGraphDTO.Edge> edges = relations.stream()
-                .map(relation -> new CompanyGraphDTO.Edge(
-                        String.valueOf(relation.getCompanyOneId()),
-                        String.valueOf(relation.getCompanyTwoId()),
-                        relation.getRelationName() + "(" + relation.getSharedProductName() + ")",
-                        String.valueOf(relation.getRelationType())
-                ))
+    /**
+     * 将公司下标转换为图谱节点。
+     *
+     * @param graph   关系图快照
+     * @param indexes 公司下标
+     * @return 图谱节点列表
+     */
+    private List<CompanyGraphDTO.Node> toGraphNodes(CompanyRelationGraph graph, Collection<Integer> indexes) {
+        return indexes.stream()
+                .map(index -> new CompanyGraphDTO.Node(String.valueOf(graph.companyId(index)), graph.companyName(index), 20))
                 .collect(Collectors.toList());
+    }
 
-        return new CompanyGraphDTO(nodes, edges);
+    /**
+     * 将一条关系转换为图谱边，起点始终为ID较小的公司，与数据库中关系的存储方向一致。
+     *
+     * @param graph    关系图快照
+     * @param company  公司下标
+     * @param neighbor 关系另一端公司的下标
+     * @param product  共享产品下标
+     * @param label    关系标签下标
+     * @return 图谱边
+     */
+    private CompanyGraphDTO.Edge toGraphEdge(CompanyRelationGraph graph, int company, int neighbor, int product, int label) {
+        long companyId = graph.companyId(company);
+        long neighborId = graph.companyId(neighbor);
+        return new CompanyGraphDTO.Edge(
+                String.valueOf(Math.min(companyId, neighborId)),
+                String.valueOf(Math.max(companyId, neighborId)),
+                graph.relationName(label) + "(" + graph.productName(product) + ")",
+                graph.relationType(label)
+        );
     }
 }
-
@@ -0,0 +1,279 @@
+package org.example.riskwarningsystembackend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.dto.dashboard.DashboardDeltaDTO;
+import org.example.riskwarningsystembackend.event.CompanyDataChangedEvent;
+import org.example.riskwarningsystembackend.event.CompanyRelationsChangedEvent;
+import org.example.riskwarningsystembackend.event.RiskArticleSavedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 仪表盘增量推送服务。
+ * <p>
+ * 通过 SSE 向所有在线的仪表盘广播紧凑的增量变更，取代各屏幕对读接口的轮询：
+ * 1. 公司被创建、更新、删除或批量导入，新的风险文章被保存，公司关系重建完成时，各生成一条带单调递增ID的事件，
+ * 每次启动的事件ID从启动时间（秒）左移 20 位开始编号，与上次运行的ID不会重叠；
+ * 2. 最近的事件保存在环形缓冲区中，客户端断线重连时携带 Last-Event-ID 即可补发其后的事件，
+ * 缓冲区已不包含所需事件或ID属于上次运行（服务已重启）时发送 resync 事件，提示客户端重新拉取全量数据；
+ * 3. 每个客户端有独立的有界队列和发送线程（虚拟线程），慢客户端的队列满时清空并改发 resync 事件，
+ * 不会阻塞事件发布方或拖慢其他客户端；队列空闲时定期发送心跳，及时发现已断开的连接。
+ */
+@Slf4j
+@Service
+public class DashboardStreamService {
+
+    /**
+     * 公司变更事件类型
+     */
+    public static final String TYPE_COMPANY = "company";
+
+    /**
+     * 新风险文章事件类型
+     */
+    public static final String TYPE_RISK_ARTICLE = "riskArticle";
+
+    /**
+     * 关系重建完成事件类型
+     */
+    public static final String TYPE_RELATIONS = "relations";
+
+    /**
+     * 需要重新拉取全量数据的事件类型
+     */
+    public static final String TYPE_RESYNC = "resync";
+
+    private final RiskSnapshotService riskSnapshotService;
+    private final int clientQueueSize;
+    private final int maxClients;
+    private final long emitterTimeoutMillis;
+    private final long heartbeatMillis;
+
+    private final Object lock = new Object();
+    private final DashboardDeltaDTO[] replayBuffer;
+    /**
+     * 本次启动的起始事件ID，小于等于它的ID来自上次运行
+     */
+    private final long epochStartId;
+    private long lastEventId;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dashboard-stream-", 0).factory());
+
+    /**
+     * 构造函数，注入风险快照服务及推送配置。
+     *
+     * @param riskSnapshotService  风险快照服务，用于生成公司变更的风险信息
+     * @param replaySize           环形缓冲区保存的最近事件数
+     * @param clientQueueSize      每个客户端待发送队列的容量
+     * @param maxClients           同时在线的客户端数上限
+     * @param emitterTimeoutMillis 单个 SSE 连接的最长保持时间（毫秒），到期后客户端应携带 Last-Event-ID 重连
+     * @param heartbeatMillis      队列空闲时发送心跳的间隔（毫秒）
+     */
+    public DashboardStreamService(RiskSnapshotService riskSnapshotService,
+                                  @Value("${dashboard.stream.replay-size:512}") int replaySize,
+                                  @Value("${dashboard.stream.client-queue-size:128}") int clientQueueSize,
+                                  @Value("${dashboard.stream.max-clients:200}") int maxClients,
+                                  @Value("${dashboard.stream.timeout-ms:1800000}") long emitterTimeoutMillis,
+                                  @Value("${dashboard.stream.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.riskSnapshotService = riskSnapshotService;
+        this.replayBuffer = new DashboardDeltaDTO[Math.max(1, replaySize)];
+        // 按秒而非毫秒编号，使ID不超过 2^53，前端解析 JSON 时不丢失精度
+        this.epochStartId = (System.currentTimeMillis() / 1000) << 20;
+        this.lastEventId = epochStartId;
+        this.clientQueueSize = Math.max(1, clientQueueSize);
+        this.maxClients = maxClients;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.heartbeatMillis = Math.max(1000, heartbeatMillis);
+    }
+
+    /**
+     * 一个在线客户端：有界的待发送队列及其发送循环。
+     */
+    private final class Client {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<DashboardDeltaDTO> queue = new ArrayBlockingQueue<>(clientQueueSize);
+        private volatile boolean closed;
+
+        private Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * 将事件放入队列；队列已满时清空并改为一条 resync 事件。
+         */
+        private synchronized void offer(DashboardDeltaDTO delta) {
+            if (!queue.offer(delta)) {
+                queue.clear();
+                queue.offer(resync(delta.getId()));
+                log.warn("仪表盘推送客户端处理过慢，已丢弃积压的事件并要求其重新同步。");
+            }
+        }
+
+        /**
+         * 发送循环：逐条发送队列中的事件，空闲时发送心跳，发送失败即关闭连接。
+         */
+        private void run() {
+            try {
+                emitter.send(SseEmitter.event().comment("connected"));
+                while (!closed) {
+                    DashboardDeltaDTO delta = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    if (delta == null) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(delta.getId()))
+                                .name(delta.getType())
+                                .data(delta, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("仪表盘推送连接已断开: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            clients.remove(this);
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // 连接已结束
+            }
+        }
+    }
+
+    /**
+     * 建立一个新的推送连接。
+     * 携带 {@code lastEventId} 时先补发其后的事件；所需事件已不在缓冲区中或属于上次运行时先发送 resync 事件。
+     *
+     * @param lastEventId 客户端收到的最后一个事件ID，首次连接时为空
+     * @return SSE 连接
+     * @throws IllegalStateException 在线客户端数已达上限时抛出
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        if (clients.size() >= maxClients) {
+            throw new IllegalStateException("仪表盘推送连接数已达上限 " + maxClients + "，请稍后重试");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Client client = new Client(emitter);
+        emitter.onCompletion(client::close);
+        emitter.onTimeout(client::close);
+        emitter.onError(error -> client.close());
+
+        synchronized (lock) {
+            if (lastEventId != null && lastEventId != this.lastEventId) {
+                long oldestAvailable = Math.max(epochStartId + 1, this.lastEventId - replayBuffer.length + 1);
+                if (lastEventId < epochStartId || lastEventId > this.lastEventId || lastEventId + 1 < oldestAvailable) {
+                    client.offer(resync(this.lastEventId));
+                } else {
+                    for (long id = lastEventId + 1; id <= this.lastEventId; id++) {
+                        client.offer(replayBuffer[(int) (id % replayBuffer.length)]);
+                    }
+                }
+            }
+            clients.add(client);
+        }
+        senders.submit(client::run);
+        log.info("仪表盘推送客户端已连接，当前在线 {} 个。", clients.size());
+        return emitter;
+    }
+
+    /**
+     * 公司数据变更后推送公司变更事件，在风险快照更新之后执行，因此携带的是变更后的风险信息。
+     *
+     * @param event 公司数据变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyDataChanged(CompanyDataChangedEvent event) {
+        RiskSnapshotService.RiskCounts counts = riskSnapshotService.getCounts();
+        Long companyId = event.getCompanyId();
+        RiskSnapshotService.CompanyRisk company = companyId == null || event.getChangeType() == CompanyDataChangedEvent.ChangeType.DELETED
+                ? null
+                : riskSnapshotService.getCompanyRisk(companyId).orElse(null);
+        publish(TYPE_COMPANY, new DashboardDeltaDTO.CompanyChange(
+                event.getChangeType().name(),
+                companyId != null ? String.valueOf(companyId) : null,
+                company != null ? company.name() : null,
+                company != null ? company.overallLevel().getLabel() : null,
+                company != null && company.highRisk(),
+                counts.version(), counts.high(), counts.medium(), counts.low()));
+    }
+
+    /**
+     * 新风险文章保存后推送风险文章事件。
+     *
+     * @param event 风险文章保存事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRiskArticleSaved(RiskArticleSavedEvent event) {
+        publish(TYPE_RISK_ARTICLE, new DashboardDeltaDTO.RiskArticle(event.getArticleId(), event.getTitle(), event.getDate(),
+                event.getRiskSource(), event.getRelatedCompany(), event.getRelatedProduct()));
+    }
+
+    /**
+     * 公司关系图刷新后推送关系重建完成事件。
+     *
+     * @param event 公司关系变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyRelationsChanged(CompanyRelationsChangedEvent event) {
+        publish(TYPE_RELATIONS, new DashboardDeltaDTO.RelationsRebuilt(event.getCompanyCount(), event.getStoredRelationCount()));
+    }
+
+    /**
+     * 生成一条新事件，写入环形缓冲区并放入每个在线客户端的队列，不会因客户端发送缓慢而阻塞。
+     *
+     * @param type    事件类型
+     * @param payload 事件内容
+     */
+    private void publish(String type, Object payload) {
+        synchronized (lock) {
+            long id = ++lastEventId;
+            DashboardDeltaDTO delta = new DashboardDeltaDTO(id, type, LocalDateTime.now(), payload);
+            replayBuffer[(int) (id % replayBuffer.length)] = delta;
+            for (Client client : clients) {
+                client.offer(delta);
+            }
+        }
+    }
+
+    /**
+     * resync 事件不占用新的事件ID，而是使用当前最新的ID，客户端重新拉取全量数据后从该ID继续接收。
+     */
+    private static DashboardDeltaDTO resync(long currentId) {
+        return new DashboardDeltaDTO(currentId, TYPE_RESYNC, LocalDateTime.now(), null);
+    }
+
+    /**
+     * 应用关闭时断开所有客户端并停止发送线程。
+     */
+    @PreDestroy
+    public void shutdown() {
+        clients.forEach(Client::close);
+        senders.shutdownNow();
+    }
+}
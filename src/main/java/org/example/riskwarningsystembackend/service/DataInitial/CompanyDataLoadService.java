@@ -1,113 +1,180 @@
 package org.example.riskwarningsystembackend.service.DataInitial;
 
 import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
-import org.example.riskwarningsystembackend.entity.CompanyInfo;
-import org.example.riskwarningsystembackend.entity.ProductInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.common.CompanyRiskScorer;
+import org.example.riskwarningsystembackend.common.FinancialValueParser;
+import org.example.riskwarningsystembackend.event.CompanyDataChangedEvent;
+import org.example.riskwarningsystembackend.repository.BulkCopyRepository;
 import org.example.riskwarningsystembackend.repository.company.CompanyInfoRepository;
 import org.example.riskwarningsystembackend.repository.product.ProductInfoRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
 import java.io.InputStreamReader;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 服务类，用于从CSV文件加载公司和产品数据到数据库中。
  */
+@Slf4j
 @Service
 public class CompanyDataLoadService {
 
+    private static final String COMPANY_CSV_PATH = "data/风电行业公司基础信息v1.6.csv";
+    private static final String PRODUCT_CSV_PATH = "data/风电产品基本信息表v1.6.csv";
+
+    /**
+     * company_info 表的导入列，顺序与 {@link #toCompanyRow(String[])} 的返回值一致。
+     */
+    private static final List<String> COMPANY_COLUMNS = List.of(
+            "name", "major_product1", "major_product2", "company_type", "is_diversified", "is_well_known",
+            "main_products_summary", "related_products", "registered_capital", "paid_in_capital", "company_size",
+            "employee_count", "qualification_certificate_count", "tax_rating", "public_opinion_count",
+            "legal_dispute_count", "industry", "stock_price_index", "revenue", "assets", "profit",
+            "registered_address", "latitude", "longitude",
+            "registered_capital_amount", "registered_capital_currency", "paid_in_capital_amount",
+            "paid_in_capital_currency", "revenue_amount", "assets_amount", "profit_amount",
+            "employee_count_value", "stock_price_index_value",
+            "law_risk", "finance_risk", "credit_risk", "risk_level", "risk_rank", "risk_reason", "high_risk",
+            "high_risk_reason");
+
+    /**
+     * product_info 表的导入列。
+     */
+    private static final List<String> PRODUCT_COLUMNS = List.of("level1", "level2", "level3", "level4", "level5");
+
     private final CompanyInfoRepository companyInfoRepository;
     private final ProductInfoRepository productInfoRepository;
+    private final BulkCopyRepository bulkCopyRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 构造函数，注入所需的Repository依赖。
      *
      * @param companyInfoRepository 公司信息数据访问接口
      * @param productInfoRepository 产品信息数据访问接口
+     * @param bulkCopyRepository    批量导入数据访问类
+     * @param eventPublisher        事件发布器，导入完成后发布公司数据变更事件
      */
-    public CompanyDataLoadService(CompanyInfoRepository companyInfoRepository, ProductInfoRepository productInfoRepository) {
+    public CompanyDataLoadService(CompanyInfoRepository companyInfoRepository,
+                                  ProductInfoRepository productInfoRepository,
+                                  BulkCopyRepository bulkCopyRepository,
+                                  ApplicationEventPublisher eventPublisher) {
         this.companyInfoRepository = companyInfoRepository;
         this.productInfoRepository = productInfoRepository;
+        this.bulkCopyRepository = bulkCopyRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * 从指定的CSV文件中读取公司基础信息，并保存到数据库中。
+     * 从指定的CSV文件中读取公司基础信息，并批量导入数据库。
+     * CSV 行被直接流式写入 company_info 表（PostgreSQL 上使用 COPY），不创建 JPA 实体。
      * 使用REQUIRES_NEW事务传播机制确保独立提交。
      *
-     * @throws IOException            当读取CSV文件时发生IO异常
-     * @throws CsvValidationException 当CSV格式不合法时抛出
+     * @throws Exception 当读取CSV文件或写入数据库失败时抛出
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void loadCompanyData() throws IOException, CsvValidationException {
-        List<CompanyInfo> companies = new ArrayList<>();
-        try (var inputStream = new ClassPathResource("data/风电行业公司基础信息v1.6.csv").getInputStream(); var reader = new CSVReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+    public void loadCompanyData() throws Exception {
+        long startTime = System.currentTimeMillis();
+        long count;
+        try (var inputStream = new ClassPathResource(COMPANY_CSV_PATH).getInputStream(); var reader = new CSVReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
             reader.readNext(); // 跳过标题行
-            String[] line;
-            while ((line = reader.readNext()) != null) {
-                if (line.length < 24) continue;
-                CompanyInfo company = new CompanyInfo();
-                company.setName(line[0]);
-                company.setMajorProduct1(line[1]);
-                company.setMajorProduct2(line[2]);
-                company.setCompanyType(line[3]);
-                company.setIsDiversified(line[4]);
-                company.setIsWellKnown(line[5]);
-                company.setMainProductsSummary(line[6]);
-                company.setRelatedProducts(line[7]);
-                company.setRegisteredCapital(line[8]);
-                company.setPaidInCapital(line[9]);
-                company.setCompanySize(line[10]);
-                company.setEmployeeCount(line[11]);
-                company.setQualificationCertificateCount(safeParseInt(line[12]));
-                company.setTaxRating(line[13]);
-                company.setPublicOpinionCount(safeParseInt(line[14]));
-                company.setLegalDisputeCount(safeParseInt(line[15]));
-                company.setIndustry(line[16]);
-                company.setStockPriceIndex(line[17]);
-                company.setRevenue(line[18]);
-                company.setAssets(line[19]);
-                company.setProfit(line[20]);
-                company.setRegisteredAddress(line[21]);
-                company.setLatitude(safeParseDouble(line[22]));
-                company.setLongitude(safeParseDouble(line[23]));
-                companies.add(company);
-            }
+            count = bulkCopyRepository.copyIn("company_info", COMPANY_COLUMNS, sink -> {
+                String[] line;
+                while ((line = reader.readNext()) != null) {
+                    if (line.length < 24) continue;
+                    sink.accept(toCompanyRow(line));
+                }
+            });
         }
-        companyInfoRepository.saveAll(companies);
+        log.info("公司信息表 (company_info) 导入了 {} 条记录，耗时 {} ms", count, System.currentTimeMillis() - startTime);
+        eventPublisher.publishEvent(CompanyDataChangedEvent.bulkLoaded());
     }
 
     /**
-     * 从指定的CSV文件中读取产品基本信息，并保存到数据库中。
+     * 从指定的CSV文件中读取产品基本信息，并批量导入数据库。
+     * CSV 行被直接流式写入 product_info 表（PostgreSQL 上使用 COPY），不创建 JPA 实体。
      * 使用REQUIRES_NEW事务传播机制确保独立提交。
      *
-     * @throws IOException            当读取CSV文件时发生IO异常
-     * @throws CsvValidationException 当CSV格式不合法时抛出
+     * @throws Exception 当读取CSV文件或写入数据库失败时抛出
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void loadProductData() throws IOException, CsvValidationException {
-        List<ProductInfo> products = new ArrayList<>();
-        try (var inputStream = new ClassPathResource("data/风电产品基本信息表v1.6.csv").getInputStream(); var reader = new CSVReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+    public void loadProductData() throws Exception {
+        long count;
+        try (var inputStream = new ClassPathResource(PRODUCT_CSV_PATH).getInputStream(); var reader = new CSVReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
             reader.readNext(); // 跳过标题行
-            String[] line;
-            while ((line = reader.readNext()) != null) {
-                if (line.length < 5) continue;
-                ProductInfo product = new ProductInfo();
-                product.setLevel1(line[0]);
-                product.setLevel2(line[1]);
-                product.setLevel3(line[2]);
-                product.setLevel4(line[3]);
-                product.setLevel5(line[4]);
-                products.add(product);
-            }
+            count = bulkCopyRepository.copyIn("product_info", PRODUCT_COLUMNS, sink -> {
+                String[] line;
+                while ((line = reader.readNext()) != null) {
+                    if (line.length < 5) continue;
+                    sink.accept(line[0], line[1], line[2], line[3], line[4]);
+                }
+            });
         }
-        productInfoRepository.saveAll(products);
+        log.info("产品信息表 (product_info) 导入了 {} 条记录", count);
+    }
+
+    /**
+     * 将公司CSV中的一行转换为 company_info 表的一行，值的顺序与 {@link #COMPANY_COLUMNS} 一致。
+     * 与 JPA 保存时一样，数值化财务列由 {@link FinancialValueParser} 解析（万/亿换算为元），派生风险列由 {@link CompanyRiskScorer} 计算。
+     *
+     * @param line CSV 行
+     * @return 各列的值
+     */
+    private Object[] toCompanyRow(String[] line) {
+        Integer legalDisputeCount = safeParseInt(line[15]);
+        BigDecimal revenueAmount = FinancialValueParser.parseAmount(line[18]);
+        BigDecimal profitAmount = FinancialValueParser.parseAmount(line[20]);
+        CompanyRiskScorer.Assessment risk = CompanyRiskScorer.assess(legalDisputeCount, revenueAmount, profitAmount, line[13]);
+        return new Object[]{
+                line[0], // name
+                line[1], // major_product1
+                line[2], // major_product2
+                line[3], // company_type
+                line[4], // is_diversified
+                line[5], // is_well_known
+                line[6], // main_products_summary
+                line[7], // related_products
+                line[8], // registered_capital
+                line[9], // paid_in_capital
+                line[10], // company_size
+                line[11], // employee_count
+                safeParseInt(line[12]), // qualification_certificate_count
+                line[13], // tax_rating
+                safeParseInt(line[14]), // public_opinion_count
+                legalDisputeCount, // legal_dispute_count
+                line[16], // industry
+                line[17], // stock_price_index
+                line[18], // revenue
+                line[19], // assets
+                line[20], // profit
+                line[21], // registered_address
+                safeParseDouble(line[22]), // latitude
+                safeParseDouble(line[23]), // longitude
+                FinancialValueParser.parseAmount(line[8]), // registered_capital_amount
+                FinancialValueParser.parseCurrency(line[8]), // registered_capital_currency
+                FinancialValueParser.parseAmount(line[9]), // paid_in_capital_amount
+                FinancialValueParser.parseCurrency(line[9]), // paid_in_capital_currency
+                revenueAmount, // revenue_amount
+                FinancialValueParser.parseAmount(line[19]), // assets_amount
+                profitAmount, // profit_amount
+                FinancialValueParser.parseCount(line[11]), // employee_count_value
+                FinancialValueParser.parseDecimal(line[17]), // stock_price_index_value
+                risk.lawRisk(), // law_risk
+                risk.financeRisk(), // finance_risk
+                risk.creditRisk(), // credit_risk
+                risk.riskLevel(), // risk_level
+                risk.riskRank(), // risk_rank
+                risk.riskReason(), // risk_reason
+                risk.highRisk(), // high_risk
+                risk.highRiskReason() // high_risk_reason
+        };
     }
 
     /**
@@ -0,0 +1,401 @@
+package org.example.riskwarningsystembackend.service.DataInitial;
+
+import jakarta.annotation.PreDestroy;
+import org.example.riskwarningsystembackend.entity.ProductEdge;
+import org.example.riskwarningsystembackend.entity.ProductNode;
+import org.example.riskwarningsystembackend.repository.company.CompanyProductProjection;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 公司关系推断引擎。
+ * <p>
+ * 与逐对创建 "id-id-product" 字符串键和 CompanyInfo 引用的做法不同，该引擎：
+ * 1. 将公司和产品字典编码为连续的 int 下标，产品到公司的映射以压缩稀疏行（CSR）int 数组存储；
+ * 2. 按产品划分任务，在 ForkJoin 线程池上并行推断，每个产品的结果天然不重复，无需全局去重表；
+ * 3. 推断结果以打包的 long 公司对和 int 产品下标存储，整个过程中不为任何公司对创建对象。
+ * <p>
+ * 推断规则与原有实现一致：若公司A生产产品C、公司B生产C的上游产品P，则A与B在C上为“合作”关系；
+ * 生产同一产品的公司之间为“竞争”关系，且“竞争”覆盖同一公司对、同一产品上的“合作”关系。
+ * “竞争”关系不逐对输出，而是以产品分组成员（产品 -> 生产公司）的形式输出，查询时再展开。
+ */
+@Component
+public class CompanyRelationInferenceEngine {
+
+    /**
+     * 每个叶子任务处理的产品数量上限。
+     */
+    private static final int PRODUCTS_PER_TASK = 8;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * 推断次数，用于识别工作线程的标记数组是否属于本次推断
+     */
+    private final AtomicLong runs = new AtomicLong();
+
+    /**
+     * 每个工作线程复用的标记数组，同一次推断的各个任务之间无需清空
+     */
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * “合作”关系的访问者，按行接收推断结果。
+     */
+    @FunctionalInterface
+    public interface RelationVisitor {
+        /**
+         * 接收一条推断出的“合作”关系。
+         *
+         * @param companyOneId 较小的公司ID
+         * @param companyTwoId 较大的公司ID
+         * @param productName  共享的产品名称
+         * @throws SQLException 访问者写入数据库失败时抛出
+         */
+        void visit(long companyOneId, long companyTwoId, String productName) throws SQLException;
+    }
+
+    /**
+     * 产品分组成员的访问者。
+     */
+    @FunctionalInterface
+    public interface GroupMemberVisitor {
+        /**
+         * 接收一条产品分组成员记录。
+         *
+         * @param productName 产品名称
+         * @param companyId   生产该产品的公司ID
+         * @throws SQLException 访问者写入数据库失败时抛出
+         */
+        void visit(String productName, long companyId) throws SQLException;
+    }
+
+    /**
+     * 根据公司主营产品和产品链路推断全部公司关系。
+     *
+     * @param producers 所有公司的主营产品投影
+     * @param nodes     所有产品节点
+     * @param edges     所有产品边
+     * @return 推断结果
+     */
+    public InferenceResult infer(Collection<? extends CompanyProductProjection> producers,
+                                 Collection<ProductNode> nodes,
+                                 Collection<ProductEdge> edges) {
+        // 步骤 1: 公司按ID升序编码，保证下标顺序与ID顺序一致
+        long[] companyIds = producers.stream().mapToLong(CompanyProductProjection::getId).sorted().distinct().toArray();
+
+        // 步骤 2: 产品名称字典编码
+        Map<String, Integer> productIndex = new HashMap<>();
+        List<String> productNames = new ArrayList<>();
+        for (CompanyProductProjection producer : producers) {
+            encodeProduct(productIndex, productNames, producer.getMajorProduct1());
+            encodeProduct(productIndex, productNames, producer.getMajorProduct2());
+        }
+        Map<Long, Integer> nodeProduct = new HashMap<>();
+        for (ProductNode node : nodes) {
+            Integer index = encodeProduct(productIndex, productNames, node.getName());
+            if (index != null) nodeProduct.put(node.getId(), index);
+        }
+        int productCount = productNames.size();
+
+        // 步骤 3: 产品 -> 生产公司 的 CSR 结构（每个产品的公司下标有序且去重）
+        int[] producerCounts = new int[productCount + 1];
+        int[] assignProduct = new int[producers.size() * 2];
+        int[] assignCompany = new int[producers.size() * 2];
+        int assignments = 0;
+        for (CompanyProductProjection producer : producers) {
+            int company = Arrays.binarySearch(companyIds, producer.getId());
+            for (String product : new String[]{producer.getMajorProduct1(), producer.getMajorProduct2()}) {
+                if (!StringUtils.hasText(product)) continue;
+                int p = productIndex.get(product);
+                assignProduct[assignments] = p;
+                assignCompany[assignments++] = company;
+                producerCounts[p + 1]++;
+            }
+        }
+        int[] producerOffsets = prefixSum(producerCounts);
+        int[] producerCompanies = new int[assignments];
+        int[] cursor = Arrays.copyOf(producerOffsets, productCount);
+        for (int i = 0; i < assignments; i++) {
+            producerCompanies[cursor[assignProduct[i]]++] = assignCompany[i];
+        }
+        producerOffsets = sortAndDeduplicateSegments(producerOffsets, producerCompanies);
+        producerCompanies = Arrays.copyOf(producerCompanies, producerOffsets[productCount]);
+
+        // 步骤 4: 子产品 -> 上游产品 的 CSR 结构
+        int[] parentCounts = new int[productCount + 1];
+        int[] edgeParent = new int[edges.size()];
+        int[] edgeChild = new int[edges.size()];
+        int edgeCount = 0;
+        for (ProductEdge edge : edges) {
+            Integer parent = nodeProduct.get(edge.getParentId());
+            Integer child = nodeProduct.get(edge.getChildId());
+            if (parent == null || child == null) continue;
+            edgeParent[edgeCount] = parent;
+            edgeChild[edgeCount++] = child;
+            parentCounts[child + 1]++;
+        }
+        int[] parentOffsets = prefixSum(parentCounts);
+        int[] parentProducts = new int[edgeCount];
+        cursor = Arrays.copyOf(parentOffsets, productCount);
+        for (int i = 0; i < edgeCount; i++) {
+            parentProducts[cursor[edgeChild[i]]++] = edgeParent[i];
+        }
+
+        // 步骤 5: 按产品并行推断
+        Graph graph = new Graph(runs.incrementAndGet(), companyIds.length, producerOffsets, producerCompanies,
+                parentOffsets, parentProducts);
+        List<RelationChunk> chunks = pool.invoke(new InferenceTask(graph, scratch, 0, productCount));
+        return new InferenceResult(companyIds, productNames.toArray(new String[0]), producerOffsets, producerCompanies, chunks);
+    }
+
+    private Integer encodeProduct(Map<String, Integer> productIndex, List<String> productNames, String name) {
+        if (!StringUtils.hasText(name)) return null;
+        return productIndex.computeIfAbsent(name, key -> {
+            productNames.add(key);
+            return productNames.size() - 1;
+        });
+    }
+
+    private static int[] prefixSum(int[] counts) {
+        int[] offsets = counts.clone();
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        return offsets;
+    }
+
+    /**
+     * 对 CSR 的每一段排序并去重（同一公司的两个主营产品相同时会出现重复），原地压缩并返回新的偏移数组。
+     */
+    private static int[] sortAndDeduplicateSegments(int[] offsets, int[] values) {
+        int[] newOffsets = new int[offsets.length];
+        int write = 0;
+        for (int p = 0; p < offsets.length - 1; p++) {
+            int from = offsets[p];
+            int to = offsets[p + 1];
+            Arrays.sort(values, from, to);
+            newOffsets[p] = write;
+            for (int i = from; i < to; i++) {
+                if (i == from || values[i] != values[i - 1]) {
+                    values[write++] = values[i];
+                }
+            }
+        }
+        newOffsets[offsets.length - 1] = write;
+        return newOffsets;
+    }
+
+    /**
+     * 应用关闭时释放线程池。
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * 推断所需的只读图结构。
+     */
+    private record Graph(long run, int companyCount, int[] producerOffsets, int[] producerCompanies,
+                         int[] parentOffsets, int[] parentProducts) {
+    }
+
+    /**
+     * 工作线程的标记数组。标记值按产品区分，同一次推断内复用无需清空；
+     * 换到新的推断时只清空本次用到的前 companyCount 项，因为上次推断留下的标记值在本次可能有不同含义。
+     */
+    private static final class Scratch {
+        private int[] mark = new int[0];
+        private int[] upstream = new int[0];
+        private long run;
+
+        void prepare(Graph graph) {
+            if (run == graph.run()) {
+                return;
+            }
+            run = graph.run();
+            int companyCount = graph.companyCount();
+            if (mark.length < companyCount) {
+                mark = new int[companyCount];
+                upstream = new int[companyCount];
+            } else {
+                Arrays.fill(mark, 0, companyCount, 0);
+            }
+        }
+    }
+
+    /**
+     * 按产品区间划分的推断任务。
+     */
+    private static final class InferenceTask extends RecursiveTask<List<RelationChunk>> {
+        private final Graph graph;
+        private final ThreadLocal<Scratch> scratch;
+        private final int from;
+        private final int to;
+
+        InferenceTask(Graph graph, ThreadLocal<Scratch> scratch, int from, int to) {
+            this.graph = graph;
+            this.scratch = scratch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<RelationChunk> compute() {
+            if (to - from <= PRODUCTS_PER_TASK) {
+                RelationChunk chunk = new RelationChunk();
+                inferRange(chunk);
+                return chunk.size == 0 ? List.of() : List.of(chunk);
+            }
+            int mid = (from + to) >>> 1;
+            InferenceTask left = new InferenceTask(graph, scratch, from, mid);
+            left.fork();
+            List<RelationChunk> right = new InferenceTask(graph, scratch, mid, to).compute();
+            List<RelationChunk> result = new ArrayList<>(left.join());
+            result.addAll(right);
+            return result;
+        }
+
+        private void inferRange(RelationChunk chunk) {
+            int[] producers = graph.producerCompanies();
+            int[] producerOffsets = graph.producerOffsets();
+            // 标记数组：记录公司是否生产当前产品(-2*c-1)或其上游产品(-2*c-2)，避免为每个产品分配集合；
+            // 数组由工作线程复用，不同产品的标记值互不相同，因此无需在任务之间清空
+            Scratch buffers = scratch.get();
+            buffers.prepare(graph);
+            int[] mark = buffers.mark;
+            int[] upstream = buffers.upstream;
+
+            for (int c = from; c < to; c++) {
+                int start = producerOffsets[c];
+                int end = producerOffsets[c + 1];
+                if (start == end) continue;
+                int producerStamp = -2 * c - 1;
+                int upstreamStamp = -2 * c - 2;
+
+                // “竞争”关系由产品分组表示，这里只标记生产当前产品的公司
+                for (int i = start; i < end; i++) {
+                    mark[producers[i]] = producerStamp;
+                }
+
+                // “合作”关系：生产C的公司与生产C的上游产品的公司之间；双方都生产C时已由“竞争”覆盖
+                int upstreamCount = 0;
+                for (int e = graph.parentOffsets()[c]; e < graph.parentOffsets()[c + 1]; e++) {
+                    int parent = graph.parentProducts()[e];
+                    for (int i = producerOffsets[parent]; i < producerOffsets[parent + 1]; i++) {
+                        int company = producers[i];
+                        if (mark[company] != producerStamp && mark[company] != upstreamStamp) {
+                            mark[company] = upstreamStamp;
+                            upstream[upstreamCount++] = company;
+                        }
+                    }
+                }
+                for (int i = start; i < end; i++) {
+                    for (int u = 0; u < upstreamCount; u++) {
+                        chunk.add(producers[i], upstream[u], c);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 一个叶子任务产生的“合作”关系，按列存储在可增长的基本类型数组中。
+     */
+    private static final class RelationChunk {
+        private long[] pairs = new long[1024];
+        private int[] products = new int[1024];
+        private int size;
+
+        void add(int companyA, int companyB, int product) {
+            if (size == pairs.length) {
+                int capacity = size * 2;
+                pairs = Arrays.copyOf(pairs, capacity);
+                products = Arrays.copyOf(products, capacity);
+            }
+            int low = Math.min(companyA, companyB);
+            int high = Math.max(companyA, companyB);
+            pairs[size] = ((long) low << 32) | (high & 0xFFFFFFFFL);
+            products[size++] = product;
+        }
+    }
+
+    /**
+     * 推断结果。公司以下标表示，只有在遍历时才转换回公司ID和产品名称。
+     */
+    public static final class InferenceResult {
+        private final long[] companyIds;
+        private final String[] productNames;
+        private final int[] producerOffsets;
+        private final int[] producerCompanies;
+        private final List<RelationChunk> chunks;
+
+        private InferenceResult(long[] companyIds, String[] productNames, int[] producerOffsets,
+                                int[] producerCompanies, List<RelationChunk> chunks) {
+            this.companyIds = companyIds;
+            this.productNames = productNames;
+            this.producerOffsets = producerOffsets;
+            this.producerCompanies = producerCompanies;
+            this.chunks = chunks;
+        }
+
+        /**
+         * 依次访问所有推断出的“合作”关系。
+         *
+         * @param visitor 关系访问者
+         * @throws SQLException 访问者写入失败时抛出
+         */
+        public void forEachPartnerRelation(RelationVisitor visitor) throws SQLException {
+            for (RelationChunk chunk : chunks) {
+                for (int i = 0; i < chunk.size; i++) {
+                    long pair = chunk.pairs[i];
+                    visitor.visit(companyIds[(int) (pair >>> 32)], companyIds[(int) pair], productNames[chunk.products[i]]);
+                }
+            }
+        }
+
+        /**
+         * 依次访问所有产品分组成员（即“竞争”分组）。
+         *
+         * @param visitor 分组成员访问者
+         * @throws SQLException 访问者写入失败时抛出
+         */
+        public void forEachGroupMember(GroupMemberVisitor visitor) throws SQLException {
+            for (int p = 0; p < productNames.length; p++) {
+                for (int i = producerOffsets[p]; i < producerOffsets[p + 1]; i++) {
+                    visitor.visit(productNames[p], companyIds[producerCompanies[i]]);
+                }
+            }
+        }
+
+        /**
+         * 统计“合作”关系总数。
+         *
+         * @return “合作”关系总数
+         */
+        public long partnerCount() {
+            return chunks.stream().mapToLong(chunk -> chunk.size).sum();
+        }
+
+        /**
+         * 统计产品分组成员总数。
+         *
+         * @return 分组成员总数
+         */
+        public long groupMemberCount() {
+            return producerCompanies.length;
+        }
+    }
+}
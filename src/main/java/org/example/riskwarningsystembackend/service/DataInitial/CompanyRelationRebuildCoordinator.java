@@ -0,0 +1,258 @@
+package org.example.riskwarningsystembackend.service.DataInitial;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.dto.supplychain.RelationRebuildStatusDTO;
+import org.example.riskwarningsystembackend.service.graph.CompanyRelationGraphStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 公司关系重建调度器。
+ * <p>
+ * 负责接收全量重建请求，并在专用的单线程执行器上异步执行 {@link CompanyRelationService#rebuildCompanyRelations()}：
+ * 1. 防抖合并：在防抖窗口内连续到达的多个请求只会触发一次重建；
+ * 2. 最大延迟：持续不断的请求最多被推迟 maxDelay，避免重建被无限推后；
+ * 3. 串行执行：单线程执行器保证任意时刻最多只有一个重建在运行；
+ * 4. 状态查询：记录最近一次运行的时间、耗时、是否有待执行请求等信息。
+ * <p>
+ * 单个公司增删改后，关系表已由增量更新维护，只需重新加载内存中的关系图。这类刷新请求同样经过防抖合并，
+ * 在同一执行器上运行；若窗口内还有全量重建请求，则并入重建（重建完成后本身会刷新关系图）。
+ */
+@Service
+@Slf4j
+public class CompanyRelationRebuildCoordinator {
+
+    private final CompanyRelationService companyRelationService;
+    private final CompanyRelationGraphStore companyRelationGraphStore;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "relation-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+    private ScheduledFuture<?> scheduledRebuild;
+    private long firstPendingAtMillis;
+    private boolean pendingRebuild;
+    private volatile boolean running;
+    private LocalDateTime lastRequestedAt;
+    private LocalDateTime lastStartedAt;
+    private LocalDateTime lastFinishedAt;
+    private Long lastDurationMs;
+    private String lastTrigger;
+    private String pendingTrigger;
+    private String lastError;
+    private long requestCount;
+    private long coalescedCount;
+    private long startedCount;
+    private long completedCount;
+    private long failedCount;
+
+    /**
+     * 构造函数，注入关系服务及防抖配置。
+     *
+     * @param companyRelationService    公司关系服务
+     * @param companyRelationGraphStore 公司关系图内存存储，公司信息变更后经防抖合并刷新
+     * @param debounceMillis            防抖窗口（毫秒），窗口内的请求会被合并
+     * @param maxDelayMillis            第一次请求到实际执行之间允许的最大延迟（毫秒）
+     */
+    public CompanyRelationRebuildCoordinator(CompanyRelationService companyRelationService,
+                                             CompanyRelationGraphStore companyRelationGraphStore,
+                                             @Value("${relation.rebuild.debounce-ms:3000}") long debounceMillis,
+                                             @Value("${relation.rebuild.max-delay-ms:30000}") long maxDelayMillis) {
+        this.companyRelationService = companyRelationService;
+        this.companyRelationGraphStore = companyRelationGraphStore;
+        this.debounceMillis = debounceMillis;
+        this.maxDelayMillis = Math.max(maxDelayMillis, debounceMillis);
+    }
+
+    /**
+     * 提交一次异步重建请求。
+     * 若已有待执行的重建，则重置防抖计时并与之合并；若重建正在运行，则在其完成后再执行一次。
+     *
+     * @param trigger 触发重建的原因描述
+     */
+    public void requestRebuild(String trigger) {
+        synchronized (lock) {
+            requestCount++;
+            lastRequestedAt = LocalDateTime.now();
+            pendingTrigger = trigger;
+            pendingRebuild = true;
+            long delay = schedulePending();
+            log.info("收到公司关系重建请求: {}，将在 {} 毫秒后执行。", trigger, delay);
+        }
+    }
+
+    /**
+     * 提交一次异步的关系图刷新请求，用于单个公司变更之后：只重新加载内存中的关系图，不重新推断关系。
+     * 与重建请求共用防抖窗口，窗口内的多次刷新只会加载一次；已有待执行的重建时直接并入重建。
+     *
+     * @param trigger 触发刷新的原因描述
+     */
+    public void requestGraphRefresh(String trigger) {
+        synchronized (lock) {
+            if (!pendingRebuild) {
+                pendingTrigger = trigger;
+            }
+            long delay = schedulePending();
+            log.debug("收到公司关系图刷新请求: {}，将在 {} 毫秒后执行。", trigger, delay);
+        }
+    }
+
+    /**
+     * 重置防抖计时并重新安排待执行的任务。调用方需持有 lock。
+     *
+     * @return 距离执行的毫秒数
+     */
+    private long schedulePending() {
+        long now = System.currentTimeMillis();
+        long delay = debounceMillis;
+        if (scheduledRebuild != null && scheduledRebuild.cancel(false)) {
+            coalescedCount++;
+            // 防止持续的请求将执行无限推后
+            delay = Math.max(0, Math.min(debounceMillis, firstPendingAtMillis + maxDelayMillis - now));
+        } else {
+            firstPendingAtMillis = now;
+        }
+        scheduledRebuild = executor.schedule(this::runPending, delay, TimeUnit.MILLISECONDS);
+        return delay;
+    }
+
+    /**
+     * 立即执行一次重建并等待其完成，用于应用启动等需要同步结果的场景。
+     * 该重建同样在专用执行器上运行，因此不会与其他重建并发执行；已排队的请求会被合并进本次重建。
+     *
+     * @param trigger 触发重建的原因描述
+     */
+    public void rebuildNow(String trigger) {
+        synchronized (lock) {
+            requestCount++;
+            lastRequestedAt = LocalDateTime.now();
+            pendingTrigger = trigger;
+            pendingRebuild = true;
+            if (scheduledRebuild != null && scheduledRebuild.cancel(false)) {
+                coalescedCount++;
+            }
+            scheduledRebuild = null;
+        }
+        try {
+            executor.submit(this::runPending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待公司关系重建时被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("公司关系重建失败", e.getCause());
+        }
+    }
+
+    /**
+     * 获取当前的重建状态。
+     *
+     * @return 重建状态 DTO
+     */
+    public RelationRebuildStatusDTO getStatus() {
+        synchronized (lock) {
+            return new RelationRebuildStatusDTO(running, pendingRebuild, lastRequestedAt, lastStartedAt, lastFinishedAt,
+                    lastDurationMs, lastTrigger, lastError, requestCount, coalescedCount, completedCount, failedCount);
+        }
+    }
+
+    /**
+     * 判断当前是否有重建正在运行。
+     *
+     * @return 正在运行时返回 true
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 获取已开始执行的重建次数。增量更新前后各取一次，若有变化（或更新前已有重建在运行），
+     * 说明有重建可能在更新提交前读取了快照，切换后会覆盖更新结果。
+     *
+     * @return 已开始执行的重建次数
+     */
+    public long getStartedCount() {
+        synchronized (lock) {
+            return startedCount;
+        }
+    }
+
+    /**
+     * 在执行器线程上执行待执行的任务：有重建请求时执行全量重建，否则只刷新关系图。
+     */
+    private void runPending() {
+        String trigger;
+        boolean rebuild;
+        synchronized (lock) {
+            trigger = pendingTrigger;
+            rebuild = pendingRebuild;
+            pendingRebuild = false;
+        }
+        if (rebuild) {
+            runRebuild(trigger);
+        } else {
+            log.info("公司信息已变更，刷新公司关系图，触发原因: {}", trigger);
+            companyRelationGraphStore.refresh();
+        }
+    }
+
+    /**
+     * 执行一次重建，并记录运行状态。
+     *
+     * @param trigger 触发重建的原因描述
+     */
+    private void runRebuild(String trigger) {
+        synchronized (lock) {
+            running = true;
+            startedCount++;
+            lastStartedAt = LocalDateTime.now();
+            lastTrigger = trigger;
+        }
+        long startTime = System.currentTimeMillis();
+        String error = null;
+        boolean succeeded = false;
+        try {
+            log.info("开始执行公司关系重建，触发原因: {}", trigger);
+            companyRelationService.rebuildCompanyRelations();
+            succeeded = true;
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            log.error("公司关系重建失败，触发原因: {}", trigger, e);
+            throw e;
+        } finally {
+            long duration = System.currentTimeMillis() - startTime;
+            synchronized (lock) {
+                running = false;
+                lastFinishedAt = LocalDateTime.now();
+                lastDurationMs = duration;
+                lastError = error;
+                if (succeeded) {
+                    completedCount++;
+                } else {
+                    failedCount++;
+                }
+            }
+            log.info("公司关系重建结束，耗时 {} 毫秒。", duration);
+        }
+    }
+
+    /**
+     * 应用关闭时停止执行器。
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
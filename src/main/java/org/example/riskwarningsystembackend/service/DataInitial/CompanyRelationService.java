@@ -2,23 +2,32 @@ package org.example.riskwarningsystembackend.service.DataInitial;
 
 import lombok.extern.slf4j.Slf4j;
 import org.example.riskwarningsystembackend.entity.ProductEdge;
-import org.example.riskwarningsystembackend.entity.ProductNode;
 import org.example.riskwarningsystembackend.entity.CompanyInfo;
 import org.example.riskwarningsystembackend.entity.CompanyRelation;
+import org.example.riskwarningsystembackend.entity.ProductGroupMember;
+import org.example.riskwarningsystembackend.entity.ProductNode;
 import org.example.riskwarningsystembackend.repository.company.CompanyInfoRepository;
+import org.example.riskwarningsystembackend.repository.company.CompanyProductProjection;
 import org.example.riskwarningsystembackend.repository.company.CompanyRelationRepository;
+import org.example.riskwarningsystembackend.repository.company.CompanyRelationStagingRepository;
+import org.example.riskwarningsystembackend.repository.company.ProductGroupMemberRepository;
 import org.example.riskwarningsystembackend.repository.product.ProductEdgeRepository;
 import org.example.riskwarningsystembackend.repository.product.ProductNodeRepository;
+import org.example.riskwarningsystembackend.service.graph.CompanyRelationGraphStore;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * CompanyRelationService 类用于处理公司之间的关系重建逻辑。
@@ -31,107 +40,235 @@ public class CompanyRelationService {
 
     private final CompanyInfoRepository companyInfoRepository;
     private final CompanyRelationRepository companyRelationRepository;
+    private final ProductGroupMemberRepository productGroupMemberRepository;
     private final ProductNodeRepository productNodeRepository;
     private final ProductEdgeRepository productEdgeRepository;
+    private final CompanyRelationStagingRepository companyRelationStagingRepository;
+    private final CompanyRelationInferenceEngine inferenceEngine;
+    private final CompanyRelationGraphStore companyRelationGraphStore;
 
     /**
      * 构造函数，注入所需的 Repository 依赖。
      *
-     * @param companyInfoRepository     公司信息数据访问接口
-     * @param companyRelationRepository 公司关系数据访问接口
-     * @param productNodeRepository     产品节点数据访问接口
-     * @param productEdgeRepository     产品边数据访问接口
+     * @param companyInfoRepository            公司信息数据访问接口
+     * @param companyRelationRepository        公司关系数据访问接口
+     * @param productGroupMemberRepository     产品分组成员数据访问接口
+     * @param productNodeRepository            产品节点数据访问接口
+     * @param productEdgeRepository            产品边数据访问接口
+     * @param companyRelationStagingRepository 公司关系影子表数据访问类
+     * @param inferenceEngine                  公司关系推断引擎
+     * @param companyRelationGraphStore        公司关系图内存存储，重建完成后刷新
      */
     public CompanyRelationService(CompanyInfoRepository companyInfoRepository,
                                   CompanyRelationRepository companyRelationRepository,
+                                  ProductGroupMemberRepository productGroupMemberRepository,
                                   ProductNodeRepository productNodeRepository,
-                                  ProductEdgeRepository productEdgeRepository) {
+                                  ProductEdgeRepository productEdgeRepository,
+                                  CompanyRelationStagingRepository companyRelationStagingRepository,
+                                  CompanyRelationInferenceEngine inferenceEngine,
+                                  CompanyRelationGraphStore companyRelationGraphStore) {
         this.companyInfoRepository = companyInfoRepository;
         this.companyRelationRepository = companyRelationRepository;
+        this.productGroupMemberRepository = productGroupMemberRepository;
         this.productNodeRepository = productNodeRepository;
         this.productEdgeRepository = productEdgeRepository;
+        this.companyRelationStagingRepository = companyRelationStagingRepository;
+        this.inferenceEngine = inferenceEngine;
+        this.companyRelationGraphStore = companyRelationGraphStore;
     }
 
     /**
      * 重建公司之间的关联关系。
-     * 该方法会先清空现有的公司关系数据，然后根据公司主营产品和产品链路推断新的合作关系和竞争关系，
-     * 最后将这些关系保存到数据库中。
+     * 该方法根据公司主营产品和产品链路推断新的合作关系和竞争关系，先写入影子表，
+     * 再通过表重命名原子地替换正式表，最后删除旧版本。重建期间读者始终能读到完整的旧关系。
      * <p>
      * 推断逻辑包括：
      * 1. 合作关系：如果公司A生产产品X，公司B生产产品Y，且X是Y的上游产品，则A和B存在合作关系；
      * 2. 竞争关系：如果多个公司生产相同的产品，则它们之间存在竞争关系。
+     * 竞争关系以产品分组成员（product_group_members）的形式存储，在查询时再展开为公司对。
      */
-    @Transactional
     public void rebuildCompanyRelations() {
         log.info("开始重建公司间关联关系...");
 
-        // 步骤 1: 清空旧的关系
-        companyRelationRepository.deleteAllInBatch();
-        log.info("已清空所有旧的公司关系。");
+        // 步骤 1: 只加载推断所需的字段，并行推断关系
+        CompanyRelationInferenceEngine.InferenceResult result = inferenceEngine.infer(
+                companyInfoRepository.findAllProductAssignments(),
+                productNodeRepository.findAll(),
+                productEdgeRepository.findAll());
+        log.info("推断出 {} 条潜在的'合作'关系, {} 条产品分组成员记录.", result.partnerCount(), result.groupMemberCount());
 
-        // 步骤 2: 重新加载和推断关系
-        List<CompanyInfo> allCompanies = companyInfoRepository.findAll();
-        Map<String, List<CompanyInfo>> productToCompanyMap = new HashMap<>();
+        // 步骤 2: 写入影子表，再原子切换为正式表
+        companyRelationStagingRepository.prepareStagingTables();
+        companyRelationStagingRepository.insertRelations(sink -> result.forEachPartnerRelation((companyOneId, companyTwoId, productName) ->
+                sink.accept(companyOneId, companyTwoId, productName, "合作", "partner")));
+        companyRelationStagingRepository.insertGroupMembers(sink -> result.forEachGroupMember(sink::accept));
+        companyRelationStagingRepository.swapStagingIntoLive();
+        log.info("公司关系表 (company_relations) 及产品分组表 (product_group_members) 重建完毕，已切换到新版本.");
 
-        // 构建产品-公司映射
-        for (CompanyInfo company : allCompanies) {
-            if (StringUtils.hasText(company.getMajorProduct1())) {
-                productToCompanyMap.computeIfAbsent(company.getMajorProduct1(), k -> new ArrayList<>()).add(company);
-            }
-            if (StringUtils.hasText(company.getMajorProduct2())) {
-                productToCompanyMap.computeIfAbsent(company.getMajorProduct2(), k -> new ArrayList<>()).add(company);
-            }
+        // 步骤 3: 刷新内存中的关系图，并回收旧版本
+        companyRelationGraphStore.refresh();
+        companyRelationStagingRepository.dropRetiredTables();
+    }
+
+    /**
+     * 增量维护单个公司的关联关系。
+     * <p>
+     * 公司间的关系只取决于双方的主营产品，因此当某个公司的主营产品发生变化时，
+     * 只有与该公司相关的关系需要调整。该方法按照与 {@link #rebuildCompanyRelations()} 相同的规则，
+     * 仅针对该公司重新推断“合作”关系，并与数据库中现有的关系比较，
+     * 只插入新出现的关系、删除已消失的关系；“竞争”关系则通过替换该公司的产品分组成员记录来维护。
+     * 代价与公司总数无关。
+     *
+     * @param companyId   发生变更的公司ID（变更须已保存）
+     * @param oldProducts 变更前的主营产品集合，新建公司时为空
+     * @param newProducts 变更后的主营产品集合
+     */
+    @Transactional
+    public void applyCompanyProductChange(Long companyId, Collection<String> oldProducts, Collection<String> newProducts) {
+        Set<String> before = normalizeProducts(oldProducts);
+        Set<String> after = normalizeProducts(newProducts);
+        if (before.equals(after)) {
+            log.debug("公司 {} 的主营产品未变化，无需更新关系。", companyId);
+            return;
         }
+        if (after.isEmpty()) {
+            int removed = companyRelationRepository.deleteAllByCompanyId(companyId);
+            productGroupMemberRepository.deleteAllByCompanyId(companyId);
+            log.info("公司 {} 已无主营产品，删除了 {} 条关系及其产品分组。", companyId, removed);
+            return;
+        }
+
+        // “竞争”关系：替换该公司的产品分组成员记录
+        productGroupMemberRepository.deleteAllByCompanyId(companyId);
+        productGroupMemberRepository.saveAll(after.stream().map(product -> new ProductGroupMember(product, companyId)).toList());
+
+        // “合作”关系：与现有关系比较，只写入差异
+        Set<CompanyRelation> expected = inferRelationsForCompany(companyId, after);
+        Set<CompanyRelation> current = new HashSet<>(companyRelationRepository.findAllByCompanyId(companyId));
 
-        Map<String, CompanyRelation> finalRelations = new HashMap<>();
-
-        // 推断“合作”关系：基于产品链路（父子节点）
-        List<ProductEdge> productEdges = productEdgeRepository.findAll();
-        Map<Long, ProductNode> idToNodeMap = productNodeRepository.findAll().stream()
-                .collect(Collectors.toMap(ProductNode::getId, Function.identity()));
-
-        for (ProductEdge edge : productEdges) {
-            ProductNode parentNode = idToNodeMap.get(edge.getParentId());
-            ProductNode childNode = idToNodeMap.get(edge.getChildId());
-
-            if (parentNode != null && childNode != null) {
-                List<CompanyInfo> parentCompanies = productToCompanyMap.get(parentNode.getName());
-                List<CompanyInfo> childCompanies = productToCompanyMap.get(childNode.getName());
-
-                if (parentCompanies != null && childCompanies != null) {
-                    for (CompanyInfo childCompany : childCompanies) {
-                        for (CompanyInfo parentCompany : parentCompanies) {
-                            if (!childCompany.getId().equals(parentCompany.getId())) {
-                                CompanyRelation relation = new CompanyRelation(childCompany.getId(), parentCompany.getId(), childNode.getName(), "合作", "partner");
-                                String key = relation.getCompanyOneId() + "-" + relation.getCompanyTwoId() + "-" + relation.getSharedProductName();
-                                finalRelations.putIfAbsent(key, relation);
-                            }
-                        }
-                    }
+        List<CompanyRelation> toDelete = current.stream().filter(r -> !expected.contains(r)).toList();
+        List<CompanyRelation> toInsert = expected.stream().filter(r -> !current.contains(r)).toList();
+
+        if (!toDelete.isEmpty()) {
+            companyRelationRepository.deleteAllInBatch(toDelete);
+        }
+        if (!toInsert.isEmpty()) {
+            companyRelationRepository.saveAll(toInsert);
+        }
+        log.info("公司 {} 的关系增量更新完成：新增 {} 条，删除 {} 条。", companyId, toInsert.size(), toDelete.size());
+    }
+
+    /**
+     * 删除指定公司的所有关联关系，用于公司被删除后的增量维护。
+     *
+     * @param companyId 被删除的公司ID
+     */
+    @Transactional
+    public void removeRelationsForCompany(Long companyId) {
+        int removed = companyRelationRepository.deleteAllByCompanyId(companyId);
+        productGroupMemberRepository.deleteAllByCompanyId(companyId);
+        log.info("公司 {} 已删除，同时删除了 {} 条关系及其产品分组。", companyId, removed);
+    }
+
+    /**
+     * 提取公司的主营产品集合（主要产品1与主要产品2，忽略空值）。
+     *
+     * @param company 公司信息实体
+     * @return 主营产品名称集合
+     */
+    public Set<String> collectMajorProducts(CompanyInfo company) {
+        if (company == null) {
+            return Set.of();
+        }
+        return normalizeProducts(Arrays.asList(company.getMajorProduct1(), company.getMajorProduct2()));
+    }
+
+    /**
+     * 仅针对单个公司推断其应当拥有的全部“合作”关系。
+     * 取出该公司主营产品的上下游产品边及相关产品的全部生产公司组成子图，交给与全量重建相同的
+     * {@link CompanyRelationInferenceEngine} 推断，再保留与该公司有关的关系，推断规则只有一份实现。
+     *
+     * @param companyId 公司ID
+     * @param products  该公司当前的主营产品集合
+     * @return 该公司应当拥有的“合作”关系集合
+     */
+    private Set<CompanyRelation> inferRelationsForCompany(Long companyId, Set<String> products) {
+        // 步骤 1: 找出与该公司主营产品直接相连的产品边及其两端的产品节点
+        Map<Long, ProductNode> nodes = new HashMap<>();
+        productNodeRepository.findByNameIn(products).forEach(node -> nodes.put(node.getId(), node));
+        List<ProductEdge> edges = nodes.isEmpty()
+                ? List.of()
+                : productEdgeRepository.findByParentIdInOrChildIdIn(nodes.keySet(), nodes.keySet());
+
+        Set<Long> missingNodeIds = new HashSet<>();
+        for (ProductEdge edge : edges) {
+            if (!nodes.containsKey(edge.getParentId())) missingNodeIds.add(edge.getParentId());
+            if (!nodes.containsKey(edge.getChildId())) missingNodeIds.add(edge.getChildId());
+        }
+        productNodeRepository.findAllById(missingNodeIds).forEach(node -> nodes.put(node.getId(), node));
+
+        // 步骤 2: 通过产品->公司索引查询相关产品的生产公司，该公司本身以传入的主营产品为准
+        Set<String> relevantProducts = new HashSet<>(products);
+        nodes.values().forEach(node -> relevantProducts.add(node.getName()));
+        List<CompanyProductProjection> producers = new ArrayList<>();
+        for (CompanyProductProjection producer : companyInfoRepository.findProducersByProductNames(relevantProducts)) {
+            if (!producer.getId().equals(companyId)) producers.add(producer);
+        }
+        Iterator<String> ownProducts = products.iterator();
+        producers.add(new ProductAssignment(companyId, ownProducts.next(), ownProducts.hasNext() ? ownProducts.next() : null));
+
+        // 步骤 3: 在子图上推断，只保留与该公司有关的“合作”关系
+        CompanyRelationInferenceEngine.InferenceResult result = inferenceEngine.infer(producers, nodes.values(), edges);
+        Set<CompanyRelation> relations = new HashSet<>();
+        try {
+            result.forEachPartnerRelation((companyOneId, companyTwoId, productName) -> {
+                if (companyOneId == companyId || companyTwoId == companyId) {
+                    relations.add(new CompanyRelation(companyOneId, companyTwoId, productName, "合作", "partner"));
                 }
-            }
+            });
+        } catch (SQLException e) {
+            // 访问者只写入内存集合，不会抛出
+            throw new IllegalStateException(e);
+        }
+        return relations;
+    }
+
+    /**
+     * 增量推断时该公司自身的主营产品。
+     */
+    private record ProductAssignment(Long id, String majorProduct1, String majorProduct2) implements CompanyProductProjection {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getMajorProduct1() {
+            return majorProduct1;
+        }
+
+        @Override
+        public String getMajorProduct2() {
+            return majorProduct2;
         }
-        log.info("推断出 {} 条潜在的'合作'关系.", finalRelations.values().stream().filter(r -> r.getRelationType().equals("partner")).count());
-
-        // 推断“竞争”关系：多个公司生产同一产品
-        for (Map.Entry<String, List<CompanyInfo>> entry : productToCompanyMap.entrySet()) {
-            String sharedProduct = entry.getKey();
-            List<CompanyInfo> companies = entry.getValue();
-
-            if (companies.size() > 1) {
-                for (int i = 0; i < companies.size(); i++) {
-                    for (int j = i + 1; j < companies.size(); j++) {
-                        CompanyInfo company1 = companies.get(i);
-                        CompanyInfo company2 = companies.get(j);
-                        CompanyRelation relation = new CompanyRelation(company1.getId(), company2.getId(), sharedProduct, "竞争", "supplier");
-                        String key = relation.getCompanyOneId() + "-" + relation.getCompanyTwoId() + "-" + relation.getSharedProductName();
-                        finalRelations.put(key, relation);
-                    }
+    }
+
+    /**
+     * 过滤掉空的产品名称并去重。
+     *
+     * @param products 产品名称集合，可为 null
+     * @return 去除空值后的产品名称集合
+     */
+    private Set<String> normalizeProducts(Collection<String> products) {
+        Set<String> result = new HashSet<>();
+        if (products != null) {
+            for (String product : products) {
+                if (StringUtils.hasText(product)) {
+                    result.add(product);
                 }
             }
         }
-
-        companyRelationRepository.saveAll(finalRelations.values());
-        log.info("公司关系表 (company_relations) 重建完毕，加载了 {} 条新记录.", finalRelations.size());
+        return result;
     }
 }
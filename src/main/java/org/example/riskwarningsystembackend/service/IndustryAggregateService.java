@@ -0,0 +1,195 @@
+package org.example.riskwarningsystembackend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.event.CompanyDataChangedEvent;
+import org.example.riskwarningsystembackend.repository.company.CompanyInfoRepository;
+import org.example.riskwarningsystembackend.repository.company.IndustryAggregateProjection;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 行业聚合服务。
+ * <p>
+ * 通过一次按行业分组的查询得到每个行业的公司数量、法律纠纷与舆情的总和、财务风险公司数量，
+ * 并将结果保存在内存中，供行业健康度、供应链风险和关键指标等接口直接读取，避免逐行业发起查询。
+ * 公司数据发生变更后结果被标记为过期，下次读取时重新查询。
+ */
+@Slf4j
+@Service
+public class IndustryAggregateService {
+
+    private final CompanyInfoRepository companyInfoRepository;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    /**
+     * 单个行业的聚合数据。
+     *
+     * @param industry           行业名称，可能为 null 或空字符串
+     * @param companyCount       公司数量
+     * @param legalDisputeSum    法律纠纷数之和
+     * @param legalDisputeCount  法律纠纷数非空的公司数量
+     * @param publicOpinionSum   舆情数之和
+     * @param publicOpinionCount 舆情数非空的公司数量
+     * @param financialRiskCount 财务风险公司数量
+     */
+    public record IndustryAggregate(String industry, long companyCount, long legalDisputeSum, long legalDisputeCount,
+                                    long publicOpinionSum, long publicOpinionCount, long financialRiskCount) {
+
+        /**
+         * 平均法律纠纷数，没有非空数据时返回 null（与 SQL AVG 一致）。
+         *
+         * @return 平均法律纠纷数
+         */
+        public Double averageLegalDisputes() {
+            return legalDisputeCount == 0 ? null : (double) legalDisputeSum / legalDisputeCount;
+        }
+
+        /**
+         * 平均舆情数，没有非空数据时返回 null（与 SQL AVG 一致）。
+         *
+         * @return 平均舆情数
+         */
+        public Double averagePublicOpinion() {
+            return publicOpinionCount == 0 ? null : (double) publicOpinionSum / publicOpinionCount;
+        }
+
+        private IndustryAggregate plus(IndustryAggregate other) {
+            return new IndustryAggregate(industry, companyCount + other.companyCount,
+                    legalDisputeSum + other.legalDisputeSum, legalDisputeCount + other.legalDisputeCount,
+                    publicOpinionSum + other.publicOpinionSum, publicOpinionCount + other.publicOpinionCount,
+                    financialRiskCount + other.financialRiskCount);
+        }
+    }
+
+    /**
+     * 某一时刻的全部行业聚合数据，按公司数量降序、行业名称升序排列。
+     */
+    private record Snapshot(List<IndustryAggregate> industries, long totalCompanies) {
+    }
+
+    /**
+     * 构造函数，注入公司信息数据访问接口。
+     *
+     * @param companyInfoRepository 公司信息数据访问接口
+     */
+    public IndustryAggregateService(CompanyInfoRepository companyInfoRepository) {
+        this.companyInfoRepository = companyInfoRepository;
+    }
+
+    /**
+     * 获取公司数量最多的若干行业（忽略行业为空的公司）。
+     *
+     * @param limit 返回的行业数量上限
+     * @return 行业聚合数据列表，按公司数量降序排列
+     */
+    public List<IndustryAggregate> getTopIndustries(int limit) {
+        return getSnapshot().industries().stream()
+                .filter(aggregate -> StringUtils.hasLength(aggregate.industry()))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * 获取名称与给定值完全相同的行业的聚合数据。
+     *
+     * @param industry 行业名称
+     * @return 行业聚合数据，不存在时为空
+     */
+    public Optional<IndustryAggregate> getIndustry(String industry) {
+        return getSnapshot().industries().stream()
+                .filter(aggregate -> industry.equals(aggregate.industry()))
+                .findFirst();
+    }
+
+    /**
+     * 汇总行业名称包含给定关键字的所有行业（行业为 null 的公司不参与），口径与 {@code industry LIKE %keyword%} 一致。
+     *
+     * @param keyword 行业关键字
+     * @return 汇总后的聚合数据
+     */
+    public IndustryAggregate sumIndustriesContaining(String keyword) {
+        IndustryAggregate total = new IndustryAggregate(keyword, 0, 0, 0, 0, 0, 0);
+        for (IndustryAggregate aggregate : getSnapshot().industries()) {
+            if (aggregate.industry() != null && aggregate.industry().contains(keyword)) {
+                total = total.plus(aggregate);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 公司总数。
+     *
+     * @return 公司总数
+     */
+    public long getTotalCompanyCount() {
+        return getSnapshot().totalCompanies();
+    }
+
+    /**
+     * 行业数量（忽略行业为空的公司）。
+     *
+     * @return 不重复的行业数量
+     */
+    public long getIndustryCount() {
+        return getSnapshot().industries().stream()
+                .filter(aggregate -> StringUtils.hasLength(aggregate.industry()))
+                .count();
+    }
+
+    /**
+     * 公司数据变更后将聚合结果标记为过期，在事务提交后、仪表盘缓存清除之前执行。
+     *
+     * @param event 公司数据变更事件
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyDataChanged(CompanyDataChangedEvent event) {
+        generation.incrementAndGet();
+        snapshot = null;
+        log.debug("公司数据已变更 ({})，行业聚合结果将在下次读取时重新计算。", event.getChangeType());
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            long loadedGeneration = generation.get();
+            current = load();
+            // 加载期间若数据再次变更，本次结果可能已过期，只返回给当前调用方而不缓存
+            if (generation.get() == loadedGeneration) {
+                snapshot = current;
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        List<IndustryAggregate> industries = companyInfoRepository.aggregateByIndustry().stream()
+                .map(IndustryAggregateService::toAggregate)
+                .sorted(Comparator.comparingLong(IndustryAggregate::companyCount).reversed()
+                        .thenComparing(IndustryAggregate::industry, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        long totalCompanies = industries.stream().mapToLong(IndustryAggregate::companyCount).sum();
+        return new Snapshot(industries, totalCompanies);
+    }
+
+    private static IndustryAggregate toAggregate(IndustryAggregateProjection row) {
+        return new IndustryAggregate(row.getIndustry(), valueOf(row.getCompanyCount()),
+                valueOf(row.getLegalDisputeSum()), valueOf(row.getLegalDisputeCount()),
+                valueOf(row.getPublicOpinionSum()), valueOf(row.getPublicOpinionCount()),
+                valueOf(row.getFinancialRiskCount()));
+    }
+
+    private static long valueOf(Long value) {
+        return value == null ? 0 : value;
+    }
+}
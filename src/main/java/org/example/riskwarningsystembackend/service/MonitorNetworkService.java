@@ -1,223 +1,282 @@
 package org.example.riskwarningsystembackend.service;
 
-import jakarta.annotation.PostConstruct;
-import org.example.riskwarningsystembackend.dto.monitoring.MonitorRiskIdentificationResult;
-import org.example.riskwarningsystembackend.entity.CompanyInfo;
+import jakarta.annotation.PreDestroy;
+import org.example.riskwarningsystembackend.config.NewsSourceProperties;
+import org.example.riskwarningsystembackend.entity.CrawlWatermark;
 import org.example.riskwarningsystembackend.entity.MonitoringArticle;
-import org.example.riskwarningsystembackend.entity.ProductNode;
+import org.example.riskwarningsystembackend.repository.CrawlWatermarkRepository;
 import org.example.riskwarningsystembackend.repository.MonitoringArticleRepository;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.example.riskwarningsystembackend.service.crawler.ArticleCrawlPipeline;
+import org.example.riskwarningsystembackend.service.crawler.ArticleLink;
+import org.example.riskwarningsystembackend.service.crawler.CrawlPageCache;
+import org.example.riskwarningsystembackend.service.crawler.NewsSource;
+import org.example.riskwarningsystembackend.service.crawler.SelectorNewsSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
 import java.io.IOException;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.cert.X509Certificate;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.Arrays;
+import java.time.OffsetDateTime;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
- * 网络信息监测服务，用于定时爬取指定网站的新闻信息，进行风险识别并存入数据库。
+ * 网络信息监测服务，用于定时爬取各新闻来源的新闻信息，进行风险识别并存入数据库。
+ * <p>
+ * 新闻来源以插件形式登记（{@link NewsSource}）：只需选择器的站点在配置 {@code monitor.sources.<标识>.*} 中登记，
+ * 特殊站点以 Spring Bean 实现。每个来源有自己的 Cron 表达式和抓取并发配额，到点后在虚拟线程上独立爬取，
+ * 互不阻塞；所有来源共用同一个抓取器、页面缓存、去重查询和爬取流水线。
+ * <p>
+ * 本类负责翻阅列表页、筛选出尚未保存的文章；抓取、解析、风险识别和保存由 {@link ArticleCrawlPipeline} 分阶段并发完成。
+ * 爬取是增量的：从第一页开始翻页，直到遇到上次完整爬取时记录的水位线（当时列表中最新的文章），
+ * 因此停机期间滚出第一页的文章也能补齐，平时只需抓取一两页列表。每页文章按链接哈希一次查询判断是否已存在。
+ * 同一来源同一时间只有一次爬取（从翻页到保存完毕），重叠的触发（如启动时爬取与定时爬取）直接跳过，
+ * 避免两次爬取筛选出同一批文章后重复保存；链接哈希上的唯一索引是最后一道防线。
  */
 @Service
-public class MonitorNetworkService {
+public class MonitorNetworkService implements SchedulingConfigurer {
 
     private static final Logger logger = LoggerFactory.getLogger(MonitorNetworkService.class);
-    private static final String BASE_URL = "https://fd.bjx.com.cn/yw/";
     private final MonitoringArticleRepository monitoringArticleRepository;
-    private final MonitorRiskIdentificationService monitorRiskIdentificationService;
+    private final CrawlWatermarkRepository crawlWatermarkRepository;
+    private final ArticleCrawlPipeline crawlPipeline;
+    private final CrawlPageCache pageCache;
+    private final NewsSourceProperties properties;
+    private final Map<String, NewsSource> sources = new LinkedHashMap<>();
+    private final Set<String> runningSources = ConcurrentHashMap.newKeySet();
+    private final ExecutorService crawlExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("monitor-crawl-", 0).factory());
 
     /**
-     * 构造函数，注入所需的服务实例。
+     * 翻页的结果。
+     *
+     * @param pending  尚未保存的文章，按列表顺序（新的在前）
+     * @param newest   列表中最新的文章，列表为空时为 null
+     * @param complete 是否翻到了水位线或页数上限，中途列表页获取失败时为 false
+     */
+    private record CrawlPlan(List<ArticleLink> pending, ArticleLink newest, boolean complete) {
+    }
+
+    /**
+     * 构造函数，注入所需的服务实例并登记新闻来源。
+     * 以 Spring Bean 实现的来源优先；其余启用的配置项按选择器规则创建来源。
      *
      * @param monitoringArticleRepository 用于操作 MonitoringArticle 实体的数据访问层组件
-     * @param monitorRiskIdentificationService   用于进行风险识别的服务
+     * @param crawlWatermarkRepository    爬取水位线数据访问接口
+     * @param crawlPipeline               文章爬取流水线
+     * @param pageCache                   爬取页面缓存，列表页通过它以条件请求获取
+     * @param properties                  新闻来源配置
+     * @param pluginSources               以 Spring Bean 实现的新闻来源
+     * @throws IllegalStateException 来源标识重复或来源配置不完整时抛出
      */
-    public MonitorNetworkService(MonitoringArticleRepository monitoringArticleRepository, MonitorRiskIdentificationService monitorRiskIdentificationService) {
+    public MonitorNetworkService(MonitoringArticleRepository monitoringArticleRepository,
+                                 CrawlWatermarkRepository crawlWatermarkRepository,
+                                 ArticleCrawlPipeline crawlPipeline, CrawlPageCache pageCache,
+                                 NewsSourceProperties properties, List<NewsSource> pluginSources) {
         this.monitoringArticleRepository = monitoringArticleRepository;
-        this.monitorRiskIdentificationService = monitorRiskIdentificationService;
+        this.crawlWatermarkRepository = crawlWatermarkRepository;
+        this.crawlPipeline = crawlPipeline;
+        this.pageCache = pageCache;
+        this.properties = properties;
+
+        for (NewsSource source : pluginSources) {
+            if (sources.putIfAbsent(source.id(), source) != null) {
+                throw new IllegalStateException("新闻来源标识重复: " + source.id());
+            }
+        }
+        properties.getSources().forEach((id, config) -> {
+            if (!sources.containsKey(id) && config.isEnabled()) {
+                sources.put(id, new SelectorNewsSource(id, config));
+            }
+        });
+        sources.values().removeIf(source -> !settingsOf(source).isEnabled());
+        logger.info("已登记新闻来源: {}", sources.keySet());
     }
 
     /**
-     * 项目启动后立即执行一次爬取任务，之后每天凌晨2点执行。
+     * 按各来源的 Cron 表达式登记定时爬取任务。
      * Cron Expression: second, minute, hour, day of month, month, day(s) of week
      * "0 0 2 * * ?" = 每天凌晨2点
+     *
+     * @param registrar 定时任务登记器
      */
-    @PostConstruct
-    @Scheduled(cron = "0 0 2 * * ?")
-    @Transactional
-    public void scrapeAndSaveArticles() {
-        logger.info("开始执行网络信息爬取和风险识别任务...");
-        try {
-            // 创建信任所有证书的SSL上下文
-            SSLContext sslContext = createTrustAllSslContext();
-
-            // 1. 获取新闻列表页面
-            Document doc = Jsoup.connect(BASE_URL)
-                    .sslSocketFactory(sslContext.getSocketFactory())
-                    .get();
-            Elements newsItems = doc.select("div.cc-list-content ul li");
-
-            // 2. 遍历新闻列表
-            for (Element item : newsItems) {
-                Element link = item.select("a").first();
-                if (link == null) continue;
-
-                String articleUrl = link.attr("href");
-                String title = link.attr("title");
-
-                Element spanElement = item.select("span").first();
-                if (spanElement == null) continue;
-
-                String dateString = spanElement.text();
-
-                if (articleUrl.isEmpty() || title.isEmpty() || dateString.isEmpty()) {
-                    logger.warn("文章信息不完整，跳过处理: {}", title);
-                    continue;
-                }
-
-                LocalDate publishDate;
-                try {
-                    publishDate = LocalDate.parse(dateString, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                } catch (DateTimeParseException e) {
-                    logger.warn("日期解析失败: {}, 文章: {}", dateString, title);
-                    continue;
-                }
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        for (NewsSource source : sources.values()) {
+            String cron = settingsOf(source).getCron();
+            if (cron != null && !cron.isBlank() && !Scheduled.CRON_DISABLED.equals(cron)) {
+                registrar.addCronTask(() -> submit(source), cron);
+            }
+        }
+    }
 
-                if (monitoringArticleRepository.findByTitleAndDate(title, publishDate).isPresent()) {
-                    logger.info("文章已存在，跳过: {} - {}", title, publishDate);
-                    continue;
-                }
+    /**
+     * 应用启动完成后，对配置了启动时爬取的来源各爬取一次。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void crawlOnStartup() {
+        for (NewsSource source : sources.values()) {
+            if (settingsOf(source).isRunOnStartup()) {
+                submit(source);
+            }
+        }
+    }
 
-                // 3. 二次爬取文章详情页
-                logger.info("正在爬取文章: {}", articleUrl);
-                Document articleDoc = Jsoup.connect(articleUrl)
-                        .sslSocketFactory(sslContext.getSocketFactory())
-                        .get();
-
-                // 4. 解析文章详情
-                String keywordsMeta = articleDoc.select("meta[name=Keywords]").attr("content");
-                Element articleContentElement = articleDoc.select("div.cc-article").first();
-                String articleContentText = articleContentElement != null ? articleContentElement.text() : "";
-                String articleContentHtml = articleContentElement != null ? articleContentElement.html() : "";
-
-                if (articleContentText.isEmpty()) {
-                    logger.warn("文章内容为空，跳过风险分析: {}", title);
-                    continue;
-                }
+    /**
+     * 获取已登记的新闻来源标识。
+     *
+     * @return 来源标识，按登记顺序排列
+     */
+    public Set<String> getSourceIds() {
+        return Collections.unmodifiableSet(sources.keySet());
+    }
 
-                String imageUrl = extractFirstImage(articleDoc);
-
-                // 5. 创建实体
-                MonitoringArticle article = new MonitoringArticle();
-                article.setTitle(title);
-                article.setDate(publishDate);
-                article.setUrl(articleUrl);
-                article.setAuthor("北极星风力发电网");
-                article.setContent(articleContentHtml);
-                article.setImage(imageUrl);
-
-                // 6. 调用风险识别服务
-                MonitorRiskIdentificationResult riskResult = monitorRiskIdentificationService.identifyRisk(articleContentText);
-
-                if (riskResult.isRisk()) {
-                    logger.info("发现风险文章: {}", title);
-                    article.setType("risk");
-                    article.setRiskSource(String.join(", ", riskResult.getMatchedRiskKeywords()));
-                    article.setRelatedCompany(riskResult.getMatchedCompanies().stream().map(CompanyInfo::getName).collect(Collectors.joining(", ")));
-                    article.setRelatedProduct(riskResult.getMatchedProducts().stream().map(ProductNode::getName).collect(Collectors.joining(", ")));
-                } else {
-                    article.setType("news");
-                }
+    /**
+     * 在爬取线程上异步爬取一个来源，不占用定时任务线程，各来源互不阻塞。
+     */
+    private void submit(NewsSource source) {
+        crawlExecutor.execute(() -> scrapeAndSaveArticles(source));
+    }
 
-                // 处理元数据关键字作为标签
-                if (!keywordsMeta.isEmpty()) {
-                    List<String> tags = Arrays.stream(keywordsMeta.split("[，,]"))
-                            .map(String::trim)
-                            .filter(tag -> !tag.isEmpty())
-                            .collect(Collectors.toList());
-                    article.setTags(tags);
-                } else {
-                    article.setTags(Collections.emptyList());
-                }
+    /**
+     * 爬取一个来源的新文章，进行风险识别并保存。
+     *
+     * @param source 新闻来源
+     */
+    public void scrapeAndSaveArticles(NewsSource source) {
+        if (!runningSources.add(source.id())) {
+            logger.warn("网络信息爬取任务跳过：新闻来源 {} 已有爬取任务正在运行", source.id());
+            return;
+        }
+        logger.info("开始执行网络信息爬取和风险识别任务: {}", source.id());
+        NewsSourceProperties.Source settings = settingsOf(source);
+        try {
+            // 1. 从第一页开始翻页直到水位线，筛选出尚未保存的文章
+            CrawlPlan plan = collectPendingArticles(source, settings,
+                    crawlWatermarkRepository.findById(source.id()).orElse(null));
 
-                // 7. 保存实体
-                monitoringArticleRepository.save(article);
-                logger.info("成功保存文章: {} (类型: {})", article.getTitle(), article.getType());
+            // 2. 交给流水线抓取、解析、识别并分批保存
+            ArticleCrawlPipeline.Result result = crawlPipeline.run(source.id(), plan.pending(), source::extractArticle,
+                    settings.getFetchWorkers());
+            logger.info("网络信息爬取和风险识别任务执行完毕（{}）：新文章 {} 篇，保存 {} 篇，跳过 {} 篇，失败 {} 篇，耗时 {} 毫秒。",
+                    source.id(), result.submitted(), result.saved(), result.dropped(), result.failed(), result.durationMs());
 
+            // 3. 全部文章处理成功才推进水位线；否则下次仍翻到旧水位线，已保存的文章会被过滤，失败的文章得以重试
+            if (plan.newest() != null && plan.complete() && result.isComplete()) {
+                saveWatermark(source, plan.newest());
             }
         } catch (IOException e) {
-            logger.error("网络信息爬取任务失败", e);
+            logger.error("网络信息爬取任务失败（{}）：新闻列表页获取失败", source.id(), e);
+        } catch (IllegalStateException e) {
+            logger.warn("网络信息爬取任务跳过：{}", e.getMessage());
         } catch (Exception e) {
-            logger.error("处理文章时发生未知错误", e);
+            logger.error("处理文章时发生未知错误（{}）", source.id(), e);
+        } finally {
+            runningSources.remove(source.id());
         }
-        logger.info("网络信息爬取和风险识别任务执行完毕。");
     }
 
     /**
-     * 从文章中提取第一张图片的URL
-     * @param doc 文章页面Document对象
-     * @return 第一张图片的URL，如果没有找到则返回null
+     * 从第一页开始翻阅列表页，收集尚未保存的文章。
+     * 有水位线时翻到包含水位线文章（或出现更早日期）的那一页为止；
+     * 没有水位线时最多翻 {@code initialListPages} 页，遇到整页都已保存时提前停止。
+     *
+     * @param source    新闻来源
+     * @param settings  来源配置
+     * @param watermark 水位线，首次爬取时为 null
+     * @return 翻页结果
+     * @throws IOException 第一页获取失败时抛出
      */
-    private String extractFirstImage(Document doc) {
-        try {
-            // 查找文章内容中的第一张图片
-            Element articleElement = doc.select("div.cc-article").first();
-            if (articleElement != null) {
-                Element firstImage = articleElement.select("img").first();
-                if (firstImage != null) {
-                    String imageUrl = firstImage.attr("src");
-                    if (imageUrl.startsWith("//")) {
-                        imageUrl = "https:" + imageUrl;
-                    } else if (imageUrl.startsWith("/")) {
-                        imageUrl = "https://news.bjx.com.cn" + imageUrl;
-                    }
-                    return imageUrl;
+    private CrawlPlan collectPendingArticles(NewsSource source, NewsSourceProperties.Source settings,
+                                             CrawlWatermark watermark) throws IOException {
+        int maxPages = Math.max(1, watermark == null ? settings.getInitialListPages() : settings.getMaxListPages());
+        Map<String, ArticleLink> pending = new LinkedHashMap<>();
+        ArticleLink newest = null;
+        int page = 1;
+        for (; page <= maxPages; page++) {
+            String pageUrl = source.listPageUrl(page);
+            if (pageUrl == null) {
+                break;
+            }
+            List<ArticleLink> links;
+            try {
+                links = source.extractList(pageCache.fetch(pageUrl).toDocument());
+            } catch (IOException e) {
+                if (page == 1) {
+                    throw e;
                 }
+                logger.warn("{} 第 {} 页列表获取失败，本次只处理前 {} 页，水位线不推进: {}", source.id(), page, page - 1, e.getMessage());
+                return new CrawlPlan(List.copyOf(pending.values()), newest, false);
+            }
+            if (links.isEmpty()) {
+                break;
+            }
+            if (newest == null) {
+                newest = links.get(0);
+            }
+
+            // 整页文章按链接哈希一次查询判断是否已存在
+            Map<String, ArticleLink> pageLinks = new LinkedHashMap<>();
+            links.forEach(link -> pageLinks.putIfAbsent(MonitoringArticle.hashUrl(link.url()), link));
+            Set<String> existing = monitoringArticleRepository.findExistingUrlHashes(pageLinks.keySet());
+            pageLinks.forEach((hash, link) -> {
+                if (!existing.contains(hash)) {
+                    pending.putIfAbsent(hash, link);
+                }
+            });
+
+            boolean reachedEnd = watermark != null
+                    ? links.stream().anyMatch(link -> isAtOrBeyondWatermark(link, watermark))
+                    : existing.size() == pageLinks.size();
+            if (reachedEnd) {
+                break;
+            }
+            if (page == maxPages && watermark != null) {
+                logger.warn("{} 翻阅 {} 页列表仍未到达水位线（{}），更早的文章本次不再补爬。", source.id(), maxPages, watermark.getLastUrl());
             }
-        } catch (Exception e) {
-            logger.warn("提取文章图片时出错", e);
         }
-        return null;
+        logger.info("{} 列表页共翻阅 {} 页，新文章 {} 篇。", source.id(), Math.min(page, maxPages), pending.size());
+        return new CrawlPlan(List.copyOf(pending.values()), newest, true);
+    }
+
+    private static boolean isAtOrBeyondWatermark(ArticleLink link, CrawlWatermark watermark) {
+        return link.url().equals(watermark.getLastUrl())
+                || (watermark.getLastDate() != null && link.date().isBefore(watermark.getLastDate()));
+    }
+
+    private void saveWatermark(NewsSource source, ArticleLink newest) {
+        CrawlWatermark watermark = new CrawlWatermark();
+        watermark.setSource(source.id());
+        watermark.setLastUrl(newest.url());
+        watermark.setLastDate(newest.date());
+        watermark.setUpdatedAt(OffsetDateTime.now());
+        crawlWatermarkRepository.save(watermark);
     }
 
     /**
-     * 创建一个信任所有证书的 SSL 上下文，用于绕过 HTTPS 证书验证。
-     *
-     * @return SSLContext 实例
-     * @throws NoSuchAlgorithmException 当请求的算法不存在时抛出
-     * @throws KeyManagementException 当密钥管理异常时抛出
+     * 来源的调度与并发配置；以 Spring Bean 实现且未在配置中登记的来源使用默认值。
      */
-    private SSLContext createTrustAllSslContext() throws NoSuchAlgorithmException, KeyManagementException {
-        TrustManager[] trustAllCerts = new TrustManager[] {
-            new X509TrustManager() {
-                public X509Certificate[] getAcceptedIssuers() {
-                    return new X509Certificate[0];
-                }
-                public void checkClientTrusted(X509Certificate[] certs, String authType) {
-                }
-                public void checkServerTrusted(X509Certificate[] certs, String authType) {
-                }
-            }
-        };
+    private NewsSourceProperties.Source settingsOf(NewsSource source) {
+        NewsSourceProperties.Source settings = properties.getSources().get(source.id());
+        return settings != null ? settings : new NewsSourceProperties.Source();
+    }
 
-        SSLContext sslContext = SSLContext.getInstance("TLS");
-        sslContext.init(null, trustAllCerts, new java.security.SecureRandom());
-        return sslContext;
+    /**
+     * 应用关闭时停止爬取线程。
+     */
+    @PreDestroy
+    public void shutdown() {
+        crawlExecutor.shutdownNow();
     }
 }
@@ -3,8 +3,10 @@ package org.example.riskwarningsystembackend.service;
 import jakarta.persistence.criteria.Predicate;
 import org.example.riskwarningsystembackend.dto.monitoring.ArticleDTO;
 import org.example.riskwarningsystembackend.entity.MonitoringArticle;
+import org.example.riskwarningsystembackend.event.RiskArticleSavedEvent;
 import org.example.riskwarningsystembackend.exception.ResourceNotFoundException;
 import org.example.riskwarningsystembackend.repository.MonitoringArticleRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -24,10 +26,14 @@ import java.util.Optional;
 @Service
 public class MonitoringService {
 
+    private static final String RISK_ARTICLE_TYPE = "risk";
+
     private final MonitoringArticleRepository monitoringArticleRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public MonitoringService(MonitoringArticleRepository monitoringArticleRepository) {
+    public MonitoringService(MonitoringArticleRepository monitoringArticleRepository, ApplicationEventPublisher eventPublisher) {
         this.monitoringArticleRepository = monitoringArticleRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -96,7 +102,12 @@ public class MonitoringService {
         article.setRelatedProduct(articleDto.getRelatedProduct());
         article.setContent(articleDto.getContent());
 
-        return monitoringArticleRepository.save(article);
+        MonitoringArticle saved = monitoringArticleRepository.save(article);
+        if (RISK_ARTICLE_TYPE.equals(saved.getType())) {
+            eventPublisher.publishEvent(new RiskArticleSavedEvent(saved.getId(), saved.getTitle(), saved.getDate(),
+                    saved.getRiskSource(), saved.getRelatedCompany(), saved.getRelatedProduct()));
+        }
+        return saved;
     }
 
     /**
@@ -0,0 +1,262 @@
+package org.example.riskwarningsystembackend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.dto.dashboard.RegionQueryDTO;
+import org.example.riskwarningsystembackend.dto.dashboard.RiskMapViewportDTO;
+import org.example.riskwarningsystembackend.dto.dashboard.SpatialImpactDTO;
+import org.example.riskwarningsystembackend.service.geo.CompanyGeoIndex;
+import org.example.riskwarningsystembackend.service.geo.CompanyGeoIndex.BoundingBox;
+import org.example.riskwarningsystembackend.service.graph.CompanyRelationGraph;
+import org.example.riskwarningsystembackend.service.graph.CompanyRelationGraphStore;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 风险地图服务。
+ * <p>
+ * 基于风险快照构建 {@link CompanyGeoIndex} 空间索引，按视口（经纬度范围 + 缩放级别）返回地图数据：
+ * 低缩放级别按网格返回各格子的公司数量及风险等级分布，高缩放级别或视口内公司较少时返回单个公司，
+ * 返回数据量只取决于视口大小和上限，不随公司总数增长。
+ * 同一索引还支持按圆形（中心点 + 半径）或多边形区域查找公司，并结合内存中的公司关系图返回这些公司的直接关系，
+ * 用于评估台风、电网故障等区域性事件对产业链的影响。
+ * 索引与风险快照的版本号绑定，公司数据变更使快照更新后，在下次读取时重建。
+ */
+@Slf4j
+@Service
+public class RiskMapService {
+
+    /**
+     * 支持的最大缩放级别
+     */
+    public static final int MAX_ZOOM = 18;
+
+    private static final String MODE_CLUSTERS = "clusters";
+    private static final String MODE_POINTS = "points";
+    // 网格级别比缩放级别高 3 级，即 256 像素的瓦片被划分为 8×8 个格子
+    private static final int GRID_LEVEL_OFFSET = 3;
+    private static final int MAX_CELLS = 1024;
+    private static final int MAX_POINTS = 500;
+    private static final int POINT_ZOOM = 12;
+    private static final double MAX_RADIUS_KM = 2000;
+    private static final int MAX_POLYGON_VERTICES = 1000;
+    private static final int DEFAULT_IMPACT_LIMIT = 200;
+    private static final int MAX_IMPACT_COMPANIES = 1000;
+    private static final int MAX_RELATIONS_PER_COMPANY = 50;
+    private static final int MAX_IMPACT_RELATIONS = 5000;
+
+    private final RiskSnapshotService riskSnapshotService;
+    private final CompanyRelationGraphStore companyRelationGraphStore;
+    private volatile CompanyGeoIndex index;
+
+    /**
+     * 区域查询命中的公司。
+     *
+     * @param index      公司在空间索引中的下标
+     * @param distanceKm 距中心点的距离（公里），多边形查询时为 null
+     */
+    private record Match(int index, Double distanceKm) {
+    }
+
+    /**
+     * 构造函数，注入风险快照服务和公司关系图存储。
+     *
+     * @param riskSnapshotService       风险快照服务
+     * @param companyRelationGraphStore 公司关系图内存存储，用于查找区域内公司的直接关系
+     */
+    public RiskMapService(RiskSnapshotService riskSnapshotService, CompanyRelationGraphStore companyRelationGraphStore) {
+        this.riskSnapshotService = riskSnapshotService;
+        this.companyRelationGraphStore = companyRelationGraphStore;
+    }
+
+    /**
+     * 获取视口内的风险地图数据。
+     * 缩放级别不低于 {@value #POINT_ZOOM}，或视口内公司不超过 {@value #MAX_POINTS} 家时返回单个公司，否则返回网格聚合结果。
+     *
+     * @param west  视口西边界经度
+     * @param south 视口南边界纬度
+     * @param east  视口东边界经度
+     * @param north 视口北边界纬度
+     * @param zoom  缩放级别，范围 0 ~ {@value #MAX_ZOOM}
+     * @return 风险地图视口数据
+     */
+    public RiskMapViewportDTO getViewport(double west, double south, double east, double north, int zoom) {
+        CompanyGeoIndex current = getIndex();
+        BoundingBox box = new BoundingBox(west, south, east, north).normalized();
+        int effectiveZoom = Math.max(0, Math.min(zoom, MAX_ZOOM));
+        int level = CompanyGeoIndex.levelFor(box, effectiveZoom + GRID_LEVEL_OFFSET, MAX_CELLS);
+
+        if (effectiveZoom >= POINT_ZOOM || current.countInCells(box, level) <= MAX_POINTS) {
+            List<RiskMapViewportDTO.Point> points = new ArrayList<>();
+            current.forEachInBox(box, i -> {
+                if (points.size() == MAX_POINTS) {
+                    points.add(null); // 超出上限的标记，随后改为返回聚合结果
+                    return false;
+                }
+                RiskSnapshotService.RiskLevel riskLevel = current.riskLevel(i);
+                points.add(new RiskMapViewportDTO.Point(String.valueOf(current.companyId(i)), current.companyName(i),
+                        current.longitude(i), current.latitude(i), riskLevel.getLabel(), riskLevel.getLevelClass()));
+                return true;
+            });
+            if (points.size() <= MAX_POINTS) {
+                return new RiskMapViewportDTO(MODE_POINTS, effectiveZoom, level, current.version(), points.size(),
+                        List.of(), points);
+            }
+        }
+
+        List<RiskMapViewportDTO.Cluster> clusters = current.cluster(box, level).stream()
+                .map(cluster -> new RiskMapViewportDTO.Cluster(cluster.longitude(), cluster.latitude(), cluster.count(),
+                        cluster.high(), cluster.medium(), cluster.low()))
+                .toList();
+        int total = clusters.stream().mapToInt(RiskMapViewportDTO.Cluster::getCount).sum();
+        return new RiskMapViewportDTO(MODE_CLUSTERS, effectiveZoom, level, current.version(), total, clusters, List.of());
+    }
+
+    /**
+     * 查找距中心点不超过给定半径的公司及其直接关系，公司按距离由近到远排列。
+     *
+     * @param latitude      中心点纬度
+     * @param longitude     中心点经度
+     * @param radiusKm      半径（公里），不超过 {@value #MAX_RADIUS_KM}
+     * @param limit         最多返回的公司数量，不超过 {@value #MAX_IMPACT_COMPANIES}
+     * @param relationTypes 返回关系的类型筛选，为空时返回所有类型
+     * @return 区域影响分析结果
+     */
+    public SpatialImpactDTO findWithinRadius(double latitude, double longitude, double radiusKm, int limit,
+                                             Collection<String> relationTypes) {
+        if (!Double.isFinite(latitude) || !Double.isFinite(longitude) || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            throw new IllegalArgumentException("中心点坐标无效");
+        }
+        if (!(radiusKm > 0) || radiusKm > MAX_RADIUS_KM) {
+            throw new IllegalArgumentException("半径必须大于 0 且不超过 " + (int) MAX_RADIUS_KM + " 公里");
+        }
+        CompanyGeoIndex current = getIndex();
+        List<Match> matches = new ArrayList<>();
+        current.forEachWithinRadius(latitude, longitude, radiusKm, (i, distance) -> matches.add(new Match(i, distance)));
+        matches.sort(Comparator.comparingDouble(Match::distanceKm).thenComparingLong(match -> current.companyId(match.index())));
+        return buildImpact(current, matches, limit, relationTypes);
+    }
+
+    /**
+     * 查找位于多边形区域内的公司及其直接关系，公司按ID升序排列。
+     *
+     * @param query 多边形区域查询请求
+     * @return 区域影响分析结果
+     */
+    public SpatialImpactDTO findWithinRegion(RegionQueryDTO query) {
+        List<List<Double>> polygon = query.getPolygon();
+        if (polygon == null || polygon.size() < 3 || polygon.size() > MAX_POLYGON_VERTICES) {
+            throw new IllegalArgumentException("多边形顶点数必须在 3 到 " + MAX_POLYGON_VERTICES + " 之间");
+        }
+        double[] longitudes = new double[polygon.size()];
+        double[] latitudes = new double[polygon.size()];
+        for (int i = 0; i < polygon.size(); i++) {
+            List<Double> vertex = polygon.get(i);
+            if (vertex == null || vertex.size() != 2 || vertex.get(0) == null || vertex.get(1) == null
+                    || !Double.isFinite(vertex.get(0)) || !Double.isFinite(vertex.get(1))) {
+                throw new IllegalArgumentException("多边形第 " + (i + 1) + " 个顶点无效，应为 [经度, 纬度]");
+            }
+            longitudes[i] = vertex.get(0);
+            latitudes[i] = vertex.get(1);
+        }
+        CompanyGeoIndex current = getIndex();
+        List<Match> matches = new ArrayList<>();
+        current.forEachInPolygon(longitudes, latitudes, i -> matches.add(new Match(i, null)));
+        matches.sort(Comparator.comparingLong(match -> current.companyId(match.index())));
+        int limit = query.getLimit() != null ? query.getLimit() : DEFAULT_IMPACT_LIMIT;
+        return buildImpact(current, matches, limit, query.getRelationTypes());
+    }
+
+    /**
+     * 汇总区域内公司的风险等级，并为前 {@code limit} 家公司附上直接关系。
+     * 每家公司最多返回 {@value #MAX_RELATIONS_PER_COMPANY} 条关系（已存储的关系优先于“竞争”关系），总数不超过 {@value #MAX_IMPACT_RELATIONS} 条。
+     */
+    private SpatialImpactDTO buildImpact(CompanyGeoIndex current, List<Match> matches, int limit, Collection<String> relationTypes) {
+        int size = Math.min(matches.size(), Math.max(1, Math.min(limit, MAX_IMPACT_COMPANIES)));
+        Set<String> types = relationTypes == null || relationTypes.isEmpty() ? null : Set.copyOf(relationTypes);
+
+        int high = 0, medium = 0, low = 0;
+        Set<Long> inRegion = new HashSet<>();
+        for (Match match : matches) {
+            inRegion.add(current.companyId(match.index()));
+            switch (current.riskLevel(match.index())) {
+                case HIGH -> high++;
+                case MEDIUM -> medium++;
+                case LOW -> low++;
+            }
+        }
+
+        CompanyRelationGraph graph = companyRelationGraphStore.getGraph();
+        List<SpatialImpactDTO.Company> companies = new ArrayList<>(size);
+        List<SpatialImpactDTO.Relation> relations = new ArrayList<>();
+        Set<Long> affectedOutside = new HashSet<>();
+        boolean[] truncated = {matches.size() > size};
+        for (Match match : matches.subList(0, size)) {
+            long companyId = current.companyId(match.index());
+            String source = String.valueOf(companyId);
+            int node = graph.indexOf(companyId);
+            int[] relationCount = {0};
+            if (node >= 0) {
+                graph.forEachRelation(node, (neighbor, product, label) -> {
+                    if (types != null && !types.contains(graph.relationType(label))) {
+                        return;
+                    }
+                    relationCount[0]++;
+                    long targetId = graph.companyId(neighbor);
+                    boolean targetInRegion = inRegion.contains(targetId);
+                    if (!targetInRegion) {
+                        affectedOutside.add(targetId);
+                    }
+                    if (relationCount[0] > MAX_RELATIONS_PER_COMPANY || relations.size() >= MAX_IMPACT_RELATIONS) {
+                        truncated[0] = true;
+                        return;
+                    }
+                    relations.add(new SpatialImpactDTO.Relation(source, String.valueOf(targetId), graph.companyName(neighbor),
+                            graph.productName(product), graph.relationName(label), graph.relationType(label), targetInRegion));
+                });
+            }
+            companies.add(new SpatialImpactDTO.Company(source, current.companyName(match.index()),
+                    current.longitude(match.index()), current.latitude(match.index()), match.distanceKm(),
+                    current.riskLevel(match.index()).getLabel(), relationCount[0]));
+        }
+        return new SpatialImpactDTO(matches.size(), truncated[0], high, medium, low, affectedOutside.size(), companies, relations);
+    }
+
+    /**
+     * 获取与当前风险快照版本一致的空间索引，版本变化时重建。
+     *
+     * @return 空间索引
+     */
+    CompanyGeoIndex getIndex() {
+        long version = riskSnapshotService.getVersion();
+        CompanyGeoIndex current = index;
+        if (current != null && current.version() == version) {
+            return current;
+        }
+        synchronized (this) {
+            current = index;
+            if (current == null || current.version() != version) {
+                current = buildIndex(version);
+                index = current;
+            }
+            return current;
+        }
+    }
+
+    private CompanyGeoIndex buildIndex(long version) {
+        long startTime = System.currentTimeMillis();
+        List<CompanyGeoIndex.Entry> entries = riskSnapshotService.getMappableCompanies().stream()
+                .map(company -> new CompanyGeoIndex.Entry(company.id(), company.name(), company.latitude(),
+                        company.longitude(), company.lawRiskLevel()))
+                .toList();
+        CompanyGeoIndex built = CompanyGeoIndex.build(version, entries);
+        log.info("风险地图空间索引构建完成：{} 家公司（共 {} 家有坐标），版本 {}，耗时 {} 毫秒。",
+                built.size(), entries.size(), version, System.currentTimeMillis() - startTime);
+        return built;
+    }
+}
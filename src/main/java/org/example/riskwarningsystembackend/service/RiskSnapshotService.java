@@ -0,0 +1,258 @@
+package org.example.riskwarningsystembackend.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.event.CompanyDataChangedEvent;
+import org.example.riskwarningsystembackend.repository.company.CompanyInfoRepository;
+import org.example.riskwarningsystembackend.repository.company.CompanyRiskProjection;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 风险快照服务。
+ * <p>
+ * 在内存中维护每家公司的风险字段（风险等级取自写入时计算的列），以及按法律纠纷数划分的高/中/低风险公司数量，
+ * 供风险分布、供应链摘要、风险地图和实时推送等接口直接读取，不再每次请求都执行全表统计。
+ * 快照在首次访问时加载，之后根据 {@link CompanyDataChangedEvent} 逐个公司增量更新，每次更新版本号加一。
+ */
+@Slf4j
+@Service
+public class RiskSnapshotService {
+
+    private final CompanyInfoRepository companyInfoRepository;
+
+    private final Map<Long, CompanyRisk> companies = new HashMap<>();
+    private volatile RiskCounts counts;
+    private volatile RiskLists lists;
+
+    /**
+     * 风险等级
+     */
+    @Getter
+    public enum RiskLevel {
+        HIGH("高", "risk-high"),
+        MEDIUM("中", "risk-medium"),
+        LOW("低", "risk-low");
+
+        private final String label; // 等级名称
+        private final String levelClass; // 等级对应的样式类
+
+        RiskLevel(String label, String levelClass) {
+            this.label = label;
+            this.levelClass = levelClass;
+        }
+
+        /**
+         * 根据等级名称（写入时计算的风险等级列）获取风险等级。
+         *
+         * @param label 等级名称
+         * @return 风险等级，无法识别时为低
+         */
+        public static RiskLevel fromLabel(String label) {
+            for (RiskLevel level : values()) {
+                if (level.label.equals(label)) return level;
+            }
+            return LOW;
+        }
+    }
+
+    /**
+     * 单个公司的风险字段。法律风险等级、综合风险等级和高风险标记均为写入时由 CompanyRiskScorer 计算的列，这里不再重复推导。
+     *
+     * @param id                公司ID
+     * @param name              公司名称
+     * @param legalDisputeCount 法律纠纷数，可能为 null
+     * @param lawRiskLevel      法律风险等级
+     * @param overallLevel      综合风险等级
+     * @param highRisk          是否为高风险公司
+     * @param latitude          纬度
+     * @param longitude         经度
+     */
+    public record CompanyRisk(long id, String name, Integer legalDisputeCount, RiskLevel lawRiskLevel,
+                              RiskLevel overallLevel, boolean highRisk, Double latitude, Double longitude) {
+
+        /**
+         * 风险分布口径的等级：≥500 为高，101~499 为中，≤100 为低；法律纠纷数为空时不参与统计。
+         *
+         * @return 风险等级，法律纠纷数为空时为 null
+         */
+        public RiskLevel distributionLevel() {
+            if (legalDisputeCount == null) return null;
+            if (legalDisputeCount >= 500) return RiskLevel.HIGH;
+            if (legalDisputeCount > 100) return RiskLevel.MEDIUM;
+            return RiskLevel.LOW;
+        }
+
+        /**
+         * 是否具有有效（非空且非零）的坐标。
+         *
+         * @return 坐标有效时返回 true
+         */
+        public boolean hasValidCoordinates() {
+            return latitude != null && longitude != null && latitude != 0 && longitude != 0;
+        }
+    }
+
+    /**
+     * 某一版本的风险分布统计。
+     *
+     * @param version 快照版本号
+     * @param high    高风险公司数量
+     * @param medium  中风险公司数量
+     * @param low     低风险公司数量
+     */
+    public record RiskCounts(long version, long high, long medium, long low) {
+
+        private RiskCounts adjust(RiskLevel level, int delta) {
+            return new RiskCounts(version,
+                    high + (level == RiskLevel.HIGH ? delta : 0),
+                    medium + (level == RiskLevel.MEDIUM ? delta : 0),
+                    low + (level == RiskLevel.LOW ? delta : 0));
+        }
+    }
+
+    /**
+     * 某一版本派生出的公司列表，按公司ID升序排列，在首次读取时生成。
+     */
+    private record RiskLists(long version, List<CompanyRisk> mappableCompanies) {
+    }
+
+    /**
+     * 构造函数，注入公司信息数据访问接口。
+     *
+     * @param companyInfoRepository 公司信息数据访问接口
+     */
+    public RiskSnapshotService(CompanyInfoRepository companyInfoRepository) {
+        this.companyInfoRepository = companyInfoRepository;
+    }
+
+    /**
+     * 获取当前的风险分布统计。
+     *
+     * @return 风险分布统计，包含版本号
+     */
+    public RiskCounts getCounts() {
+        RiskCounts current = counts;
+        return current != null ? current : load();
+    }
+
+    /**
+     * 获取当前快照的版本号，每次公司数据变更后加一。
+     *
+     * @return 快照版本号
+     */
+    public long getVersion() {
+        return getCounts().version();
+    }
+
+    /**
+     * 获取单个公司的风险信息。
+     *
+     * @param companyId 公司ID
+     * @return 公司风险信息，不存在时为空
+     */
+    public Optional<CompanyRisk> getCompanyRisk(long companyId) {
+        getCounts();
+        synchronized (this) {
+            return Optional.ofNullable(companies.get(companyId));
+        }
+    }
+
+    /**
+     * 获取所有具有有效坐标的公司，按公司ID升序排列。
+     *
+     * @return 具有有效坐标的公司列表
+     */
+    public List<CompanyRisk> getMappableCompanies() {
+        return getLists().mappableCompanies();
+    }
+
+    /**
+     * 公司数据变更后增量更新快照，在事务提交后、仪表盘缓存清除之前执行。
+     * 单个公司的变更只重新读取该公司；批量导入时重新加载全部公司。
+     *
+     * @param event 公司数据变更事件
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyDataChanged(CompanyDataChangedEvent event) {
+        if (counts == null) {
+            return; // 尚未加载，首次读取时会加载最新数据
+        }
+        if (event.getChangeType() == CompanyDataChangedEvent.ChangeType.BULK_LOADED || event.getCompanyId() == null) {
+            load();
+            return;
+        }
+        CompanyRisk updated = event.getChangeType() == CompanyDataChangedEvent.ChangeType.DELETED
+                ? null
+                : companyInfoRepository.findRiskFieldsById(event.getCompanyId()).map(RiskSnapshotService::toCompanyRisk).orElse(null);
+        synchronized (this) {
+            RiskCounts current = counts;
+            long version = current.version() + 1;
+            CompanyRisk previous = updated == null ? companies.remove(event.getCompanyId()) : companies.put(updated.id(), updated);
+            if (previous != null && previous.distributionLevel() != null) {
+                current = current.adjust(previous.distributionLevel(), -1);
+            }
+            if (updated != null && updated.distributionLevel() != null) {
+                current = current.adjust(updated.distributionLevel(), 1);
+            }
+            counts = new RiskCounts(version, current.high(), current.medium(), current.low());
+        }
+        log.debug("风险快照已更新：公司 {} ({})", event.getCompanyId(), event.getChangeType());
+    }
+
+    /**
+     * 从数据库加载全部公司的风险字段并重建快照。
+     *
+     * @return 新的风险分布统计
+     */
+    private synchronized RiskCounts load() {
+        List<CompanyRisk> loaded = companyInfoRepository.findAllRiskFields().stream()
+                .map(RiskSnapshotService::toCompanyRisk)
+                .toList();
+        companies.clear();
+        long high = 0, medium = 0, low = 0;
+        for (CompanyRisk company : loaded) {
+            companies.put(company.id(), company);
+            RiskLevel level = company.distributionLevel();
+            if (level == RiskLevel.HIGH) high++;
+            else if (level == RiskLevel.MEDIUM) medium++;
+            else if (level == RiskLevel.LOW) low++;
+        }
+        long version = counts == null ? 1 : counts.version() + 1;
+        counts = new RiskCounts(version, high, medium, low);
+        log.info("风险快照加载完成：{} 家公司，版本 {}", loaded.size(), version);
+        return counts;
+    }
+
+    private RiskLists getLists() {
+        RiskCounts current = getCounts();
+        RiskLists currentLists = lists;
+        if (currentLists != null && currentLists.version() == current.version()) {
+            return currentLists;
+        }
+        synchronized (this) {
+            List<CompanyRisk> sorted = new ArrayList<>(companies.values());
+            sorted.sort(Comparator.comparingLong(CompanyRisk::id));
+            currentLists = new RiskLists(counts.version(),
+                    sorted.stream().filter(CompanyRisk::hasValidCoordinates).toList());
+            lists = currentLists;
+            return currentLists;
+        }
+    }
+
+    private static CompanyRisk toCompanyRisk(CompanyRiskProjection row) {
+        return new CompanyRisk(row.getId(), row.getName(), row.getLegalDisputeCount(),
+                RiskLevel.fromLabel(row.getLawRisk()), RiskLevel.fromLabel(row.getRiskLevel()),
+                Boolean.TRUE.equals(row.getHighRisk()), row.getLatitude(), row.getLongitude());
+    }
+}
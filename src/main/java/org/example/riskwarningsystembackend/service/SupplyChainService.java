@@ -4,14 +4,26 @@ import org.example.riskwarningsystembackend.dto.supplychain.CompanyListDTO;
 import org.example.riskwarningsystembackend.dto.PaginatedResponseDTO;
 import org.example.riskwarningsystembackend.dto.supplychain.SupplyChainSummaryDTO;
 import org.example.riskwarningsystembackend.entity.CompanyInfo;
+import org.example.riskwarningsystembackend.event.CompanyDataChangedEvent;
 import org.example.riskwarningsystembackend.repository.company.CompanyInfoRepository;
+import org.example.riskwarningsystembackend.service.search.CompanySearchService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 供应链相关业务逻辑服务类。
@@ -20,15 +32,30 @@ import java.util.List;
 @Service
 public class SupplyChainService {
 
+    /**
+     * 关键词检索的候选公司数上限，超过时改由数据库匹配，避免过长的 IN 列表
+     */
+    private static final int MAX_SEARCH_CANDIDATES = 10000;
+
     private final CompanyInfoRepository companyInfoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RiskSnapshotService riskSnapshotService;
+    private final CompanySearchService companySearchService;
 
     /**
      * 构造方法，注入公司信息数据访问层。
      *
      * @param companyInfoRepository 公司信息数据访问接口
+     * @param eventPublisher        事件发布器，公司信息变更后发布公司数据变更事件
+     * @param riskSnapshotService   风险快照服务
+     * @param companySearchService  公司检索服务，提供按名称和行业的关键词检索
      */
-    public SupplyChainService(CompanyInfoRepository companyInfoRepository) {
+    public SupplyChainService(CompanyInfoRepository companyInfoRepository, ApplicationEventPublisher eventPublisher,
+                              RiskSnapshotService riskSnapshotService, CompanySearchService companySearchService) {
         this.companyInfoRepository = companyInfoRepository;
+        this.eventPublisher = eventPublisher;
+        this.riskSnapshotService = riskSnapshotService;
+        this.companySearchService = companySearchService;
     }
 
     /**
@@ -42,38 +69,86 @@ public class SupplyChainService {
 
     /**
      * 获取供应链整体风险摘要信息。
-     * 根据法律纠纷数量统计高、中、低风险公司数量，并判断整体网络风险等级。
+     * 根据风险快照中按法律纠纷数量统计的高、中、低风险公司数量，判断整体网络风险等级。
      *
      * @return 包含整体风险等级和各类风险公司数量的摘要对象
      */
     public SupplyChainSummaryDTO getSummary() {
-        long highRiskCount = companyInfoRepository.countByLegalDisputeCountGreaterThanEqual(500);
-        long mediumRiskCount = companyInfoRepository.countByLegalDisputeCountBetween(101, 499);
-        long lowRiskCount = companyInfoRepository.countByLegalDisputeCountLessThanEqual(100);
+        RiskSnapshotService.RiskCounts counts = riskSnapshotService.getCounts();
+        long highRiskCount = counts.high();
+        long mediumRiskCount = counts.medium();
+        long lowRiskCount = counts.low();
         String networkRisk = highRiskCount > 50 ? "高" : (mediumRiskCount > 100 ? "中" : "低");
         return new SupplyChainSummaryDTO(networkRisk, highRiskCount, mediumRiskCount, lowRiskCount);
     }
 
     /**
-     * 分页获取公司列表，支持关键词搜索。
-     * 搜索字段包括公司名称和所属行业。
+     * 分页获取公司列表，支持关键词搜索及按风险等级筛选。
+     * 关键词在公司名称和所属行业中检索，由内存检索索引给出按匹配质量排序的候选公司；
+     * 风险等级为写入时计算并建有索引的列，筛选在数据库中完成。
+     * 分页参数未指定排序时，有关键词按匹配质量排序，否则按ID排序。
      *
-     * @param keyword  搜索关键词（可为空）
-     * @param pageable 分页参数
+     * @param keyword     搜索关键词（可为空）
+     * @param riskLevel   综合风险等级（高/中/低，可为空）
+     * @param lawRisk     法律风险等级（可为空）
+     * @param financeRisk 财务风险等级（可为空）
+     * @param creditRisk  信用风险等级（可为空）
+     * @param pageable    分页及排序参数
      * @return 分页封装后的公司列表 DTO
      */
-    public PaginatedResponseDTO<CompanyListDTO> getCompanies(String keyword, Pageable pageable) {
+    public PaginatedResponseDTO<CompanyListDTO> getCompanies(String keyword, String riskLevel, String lawRisk,
+                                                             String financeRisk, String creditRisk, Pageable pageable) {
+        boolean filtered = riskLevel != null || lawRisk != null || financeRisk != null || creditRisk != null;
         Page<CompanyInfo> companyPage;
         if (StringUtils.hasText(keyword)) {
-            companyPage = companyInfoRepository.findByNameContainingIgnoreCaseOrIndustryContainingIgnoreCase(keyword, keyword, pageable);
+            long[] ranked = companySearchService.search(keyword, MAX_SEARCH_CANDIDATES + 1);
+            if (ranked.length <= MAX_SEARCH_CANDIDATES) {
+                companyPage = getCompaniesByRank(ranked, riskLevel, lawRisk, financeRisk, creditRisk, pageable);
+            } else {
+                // 关键词过于宽泛，候选过多时不再以 IN 列表传入，改由数据库直接匹配
+                companyPage = companyInfoRepository.searchByRisk(keyword.strip(), riskLevel, lawRisk, financeRisk, creditRisk,
+                        sortedOrById(pageable));
+            }
+        } else if (filtered) {
+            companyPage = companyInfoRepository.searchByRisk(null, riskLevel, lawRisk, financeRisk, creditRisk, sortedOrById(pageable));
         } else {
-            companyPage = companyInfoRepository.findAll(pageable);
+            companyPage = companyInfoRepository.findAll(sortedOrById(pageable));
         }
 
         Page<CompanyListDTO> dtoPage = companyPage.map(this::mapToCompanyListDTO);
         return new PaginatedResponseDTO<>(dtoPage);
     }
 
+    /**
+     * 在检索索引给出的候选公司中筛选并分页。指定了排序时由数据库排序，否则保持候选的匹配质量顺序。
+     */
+    private Page<CompanyInfo> getCompaniesByRank(long[] ranked, String riskLevel, String lawRisk, String financeRisk,
+                                                 String creditRisk, Pageable pageable) {
+        List<Long> ids = Arrays.stream(ranked).boxed().toList();
+        if (ids.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        if (pageable.getSort().isSorted()) {
+            return companyInfoRepository.findByIdInAndRisk(ids, riskLevel, lawRisk, financeRisk, creditRisk, pageable);
+        }
+
+        if (riskLevel != null || lawRisk != null || financeRisk != null || creditRisk != null) {
+            Set<Long> matched = new HashSet<>(companyInfoRepository.filterIdsByRisk(ids, riskLevel, lawRisk, financeRisk, creditRisk));
+            ids = ids.stream().filter(matched::contains).toList();
+        }
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        List<Long> pageIds = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+        Map<Long, CompanyInfo> companies = companyInfoRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(CompanyInfo::getId, Function.identity()));
+        List<CompanyInfo> content = pageIds.stream().map(companies::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, ids.size());
+    }
+
+    private static Pageable sortedOrById(Pageable pageable) {
+        return pageable.getSort().isSorted() ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+    }
+
     /**
      * 根据 ID 获取单个公司信息。
      *
@@ -92,7 +167,9 @@ public class SupplyChainService {
      */
     public CompanyInfo createCompany(CompanyInfo companyInfo) {
         // 在实际应用中，我们可能希望使用 DTO 并进行字段映射，但目前这样处理即可。
-        return companyInfoRepository.save(companyInfo);
+        CompanyInfo created = companyInfoRepository.save(companyInfo);
+        eventPublisher.publishEvent(new CompanyDataChangedEvent(CompanyDataChangedEvent.ChangeType.CREATED, created.getId()));
+        return created;
     }
 
     /**
@@ -114,7 +191,9 @@ public class SupplyChainService {
             company.setMajorProduct1(companyDetails.getMajorProduct1());
             company.setMajorProduct2(companyDetails.getMajorProduct2());
             company.setRegisteredAddress(companyDetails.getRegisteredAddress());
-            return companyInfoRepository.save(company);
+            CompanyInfo updated = companyInfoRepository.save(company);
+            eventPublisher.publishEvent(new CompanyDataChangedEvent(CompanyDataChangedEvent.ChangeType.UPDATED, id));
+            return updated;
         }).orElse(null);
     }
 
@@ -125,81 +204,27 @@ public class SupplyChainService {
      */
     public void deleteCompany(Long id) {
         companyInfoRepository.deleteById(id);
+        eventPublisher.publishEvent(new CompanyDataChangedEvent(CompanyDataChangedEvent.ChangeType.DELETED, id));
     }
 
     /**
      * 将 CompanyInfo 实体映射为 CompanyListDTO 对象。
-     * 同时根据公司信息计算法律、财务、信用等风险等级，并生成风险原因说明。
+     * 法律、财务、信用风险等级及风险原因均读取写入时计算的列。
      *
      * @param company 公司信息实体
      * @return 映射后的公司列表 DTO
      */
     private CompanyListDTO mapToCompanyListDTO(CompanyInfo company) {
-        String lawRisk = getLawRisk(company);
-        String financeRisk = getFinanceRisk(company);
-        String creditRisk = getCreditRisk(company);
         String techRisk = "低"; // 占位符，因无直接数据可用
-
-        List<String> reasons = new ArrayList<>();
-        if ("高".equals(lawRisk) || "中".equals(lawRisk)) {
-            reasons.add("存在 " + (company.getLegalDisputeCount() != null ? company.getLegalDisputeCount() : 0) + " 起法律诉讼");
-        }
-        if ("高".equals(financeRisk)) {
-            reasons.add("关键财务数据缺失");
-        }
-        if ("中".equals(creditRisk)) {
-            reasons.add("税务评级非A级");
-        }
-
-        String reason = reasons.isEmpty() ? "无明显风险" : String.join("，", reasons);
-
         return new CompanyListDTO(
                 company.getId(),
                 company.getName(),
                 company.getIndustry(),
                 techRisk,
-                financeRisk,
-                lawRisk,
-                creditRisk,
-                reason
+                company.getFinanceRisk(),
+                company.getLawRisk(),
+                company.getCreditRisk(),
+                company.getRiskReason()
         );
     }
-
-    /**
-     * 计算公司的法律风险等级。
-     * 判断依据为法律纠纷数量。
-     *
-     * @param company 公司信息实体
-     * @return 法律风险等级（高/中/低）
-     */
-    private String getLawRisk(CompanyInfo company) {
-        if (company.getLegalDisputeCount() == null) return "低";
-        if (company.getLegalDisputeCount() > 500) return "高";
-        if (company.getLegalDisputeCount() > 100) return "中";
-        return "低";
-    }
-
-    /**
-     * 计算公司的财务风险等级。
-     * 判断依据为营收和利润是否非空且非零。
-     *
-     * @param company 公司信息实体
-     * @return 财务风险等级（高/低）
-     */
-    private String getFinanceRisk(CompanyInfo company) {
-        boolean hasRevenue = StringUtils.hasText(company.getRevenue()) && !"0".equals(company.getRevenue());
-        boolean hasProfit = StringUtils.hasText(company.getProfit()) && !"0".equals(company.getProfit());
-        return (hasRevenue && hasProfit) ? "低" : "高";
-    }
-
-    /**
-     * 计算公司的信用风险等级。
-     * 判断依据为税务评级是否为 A 级。
-     *
-     * @param company 公司信息实体
-     * @return 信用风险等级（中/低）
-     */
-    private String getCreditRisk(CompanyInfo company) {
-        return "A".equals(company.getTaxRating()) ? "低" : "中"; // 假设非A为中等风险。
-    }
 }
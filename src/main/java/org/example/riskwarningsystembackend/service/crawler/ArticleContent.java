@@ -0,0 +1,12 @@
+package org.example.riskwarningsystembackend.service.crawler;
+
+/**
+ * 从文章详情页解析出的内容。
+ *
+ * @param keywords 页面 Keywords 元数据，可能为空字符串
+ * @param text     正文纯文本，用于风险识别
+ * @param html     正文 HTML，用于保存和展示
+ * @param imageUrl 正文中第一张图片的地址，可能为 null
+ */
+public record ArticleContent(String keywords, String text, String html, String imageUrl) {
+}
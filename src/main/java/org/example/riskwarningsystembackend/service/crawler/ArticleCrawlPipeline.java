@@ -0,0 +1,493 @@
+package org.example.riskwarningsystembackend.service.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.dto.monitoring.CrawlPipelineStatusDTO;
+import org.example.riskwarningsystembackend.dto.monitoring.MonitorRiskIdentificationResult;
+import org.example.riskwarningsystembackend.entity.CompanyInfo;
+import org.example.riskwarningsystembackend.entity.MonitoringArticle;
+import org.example.riskwarningsystembackend.entity.ProductNode;
+import org.example.riskwarningsystembackend.event.RiskArticleSavedEvent;
+import org.example.riskwarningsystembackend.repository.MonitoringArticleRepository;
+import org.example.riskwarningsystembackend.service.MonitorRiskIdentificationService;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 新闻文章爬取流水线。
+ * <p>
+ * 一次爬取分为四个相互独立的阶段，阶段之间以有界队列相连，下游处理不过来时上游自然阻塞：
+ * 1. fetch：在虚拟线程上抓取详情页（并发和礼貌约束由 {@link PoliteFetcher} 负责，网络失败在其中重试），
+ * 经由 {@link CrawlPageCache} 发送条件请求，内容未变化且上次已有定论（正文为空、解析或识别失败）的页面直接跳过；
+ * 2. parse：解析 HTML，提取正文、标签和图片；
+ * 3. identify：在平台线程池上进行 CPU 密集的风险识别，生成待保存的文章；
+ * 4. persist：单个写线程把文章攒成小批次，每批在一个短事务中保存，批次失败时逐篇重试。
+ * <p>
+ * 任一阶段处理某篇文章失败时，只有这篇文章被记入死信，其余文章照常处理。
+ * 详情页返回 404、410 等不会重试的客户端错误时，文章同样记入死信，但视为已处理（丢弃），不会阻止水位线前进。
+ * <p>
+ * 不同新闻来源的爬取可以同时运行，每个来源同一时间只有一次爬取，抓取线程数按来源配置；
+ * 各来源共用同一个抓取器（连接池与每主机限流）、页面缓存和风险识别的 CPU 配额。
+ * 每个来源各阶段的处理量、队列深度和吞吐量以及最近的死信可通过 {@link #getStatus()} 查看。
+ */
+@Slf4j
+@Component
+public class ArticleCrawlPipeline {
+
+    public static final String STAGE_FETCH = "fetch";
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_IDENTIFY = "identify";
+    public static final String STAGE_PERSIST = "persist";
+
+    private static final Object END = new Object();
+
+    private final CrawlPageCache pageCache;
+    private final MonitorRiskIdentificationService monitorRiskIdentificationService;
+    private final MonitoringArticleRepository monitoringArticleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int fetchWorkers;
+    private final int parseWorkers;
+    private final int identifyWorkers;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long batchWaitMillis;
+    private final int deadLetterSize;
+
+    /**
+     * 所有来源同时进行风险识别的线程数上限
+     */
+    private final Semaphore identifyPermits;
+    private final Map<String, SourceState> sources = new ConcurrentHashMap<>();
+
+    /**
+     * 从详情页文档中解析文章内容，不同新闻站点的页面结构不同。
+     */
+    @FunctionalInterface
+    public interface PageParser {
+        /**
+         * 解析文章详情页。
+         *
+         * @param document 详情页文档
+         * @return 文章内容，页面中没有正文时返回 null
+         */
+        ArticleContent parse(Document document);
+    }
+
+    /**
+     * 一次爬取的结果汇总。
+     *
+     * @param submitted  提交的文章数
+     * @param saved      保存的文章数
+     * @param dropped    无需保存的文章数（如正文为空）
+     * @param failed     记入死信的文章数
+     * @param durationMs 耗时（毫秒）
+     */
+    public record Result(int submitted, long saved, long dropped, long failed, long durationMs) {
+
+        /**
+         * 是否每篇文章都已保存或确认无需保存（没有失败，也没有因中断而未处理的文章）。
+         *
+         * @return 全部处理完成时返回 true
+         */
+        public boolean isComplete() {
+            return saved + dropped == submitted;
+        }
+    }
+
+    /**
+     * 单个来源的运行标记、最近一次爬取和最近的死信。
+     */
+    private static final class SourceState {
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final Deque<CrawlPipelineStatusDTO.DeadLetter> deadLetters = new ArrayDeque<>();
+        private volatile Run lastRun;
+    }
+
+    /**
+     * 在各阶段之间流转的一篇文章，每个阶段补充自己的产出。
+     */
+    private record CrawlItem(ArticleLink link, Document document, ArticleContent content, MonitoringArticle article,
+                             boolean risk) {
+
+        private CrawlItem withDocument(Document document) {
+            return new CrawlItem(link, document, null, null, false);
+        }
+
+        private CrawlItem withContent(ArticleContent content) {
+            return new CrawlItem(link, null, content, null, false);
+        }
+
+        private CrawlItem withArticle(MonitoringArticle article, boolean risk) {
+            return new CrawlItem(link, null, null, article, risk);
+        }
+    }
+
+    /**
+     * 构造函数，注入依赖并读取流水线配置。
+     *
+     * @param pageCache                        爬取页面缓存，通过它抓取详情页
+     * @param monitorRiskIdentificationService 风险识别服务
+     * @param monitoringArticleRepository      监控文章数据访问接口
+     * @param transactionTemplate              事务模板，每个保存批次一个事务
+     * @param eventPublisher                   事件发布器，风险文章保存后发布风险文章保存事件
+     * @param fetchWorkers                     来源未单独配置时，抓取阶段的虚拟线程数
+     * @param parseWorkers                     解析阶段的线程数
+     * @param identifyWorkers                  所有来源同时进行风险识别的线程数上限，为 0 时使用 CPU 核数
+     * @param queueCapacity                    各阶段输入队列的容量
+     * @param batchSize                        每个保存批次的最大文章数
+     * @param batchWaitMillis                  批次未满时最多等待的时间（毫秒），超时即保存
+     * @param deadLetterSize                   保留的最近死信条数
+     */
+    public ArticleCrawlPipeline(CrawlPageCache pageCache,
+                                MonitorRiskIdentificationService monitorRiskIdentificationService,
+                                MonitoringArticleRepository monitoringArticleRepository,
+                                TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${monitor.pipeline.fetch-workers:8}") int fetchWorkers,
+                                @Value("${monitor.pipeline.parse-workers:2}") int parseWorkers,
+                                @Value("${monitor.pipeline.identify-workers:0}") int identifyWorkers,
+                                @Value("${monitor.pipeline.queue-capacity:32}") int queueCapacity,
+                                @Value("${monitor.pipeline.batch-size:20}") int batchSize,
+                                @Value("${monitor.pipeline.batch-wait-ms:500}") long batchWaitMillis,
+                                @Value("${monitor.pipeline.dead-letter-size:200}") int deadLetterSize) {
+        this.pageCache = pageCache;
+        this.monitorRiskIdentificationService = monitorRiskIdentificationService;
+        this.monitoringArticleRepository = monitoringArticleRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.fetchWorkers = Math.max(1, fetchWorkers);
+        this.parseWorkers = Math.max(1, parseWorkers);
+        this.identifyWorkers = identifyWorkers > 0 ? identifyWorkers : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.batchWaitMillis = Math.max(0, batchWaitMillis);
+        this.deadLetterSize = Math.max(1, deadLetterSize);
+        this.identifyPermits = new Semaphore(this.identifyWorkers);
+    }
+
+    /**
+     * 运行一次爬取，所有文章处理完毕（或被记入死信）后返回。
+     *
+     * @param source       来源标识
+     * @param links        待抓取的文章
+     * @param parser       详情页解析逻辑
+     * @param fetchWorkers 抓取阶段的虚拟线程数，不大于 0 时使用默认配置
+     * @return 结果汇总
+     * @throws IllegalStateException 该来源已有爬取正在运行时抛出
+     */
+    public Result run(String source, List<ArticleLink> links, PageParser parser, int fetchWorkers) {
+        SourceState state = sources.computeIfAbsent(source, key -> new SourceState());
+        if (!state.running.compareAndSet(false, true)) {
+            throw new IllegalStateException("新闻来源 " + source + " 已有爬取任务正在运行");
+        }
+        try {
+            PipelineStage.FailureHandler<CrawlItem> failureHandler = (stage, item, error) -> deadLetter(state, stage, item, error);
+            BatchWriter writer = new BatchWriter(state, "crawl-" + source + "-persist");
+            PipelineStage<CrawlItem> identify = new PipelineStage<>(STAGE_IDENTIFY, identifyWorkers, queueCapacity,
+                    Thread.ofPlatform().daemon(true).name("crawl-" + source + "-identify-", 0).factory(),
+                    this::identify, writer::submit, failureHandler);
+            PipelineStage<CrawlItem> parse = new PipelineStage<>(STAGE_PARSE, parseWorkers, queueCapacity,
+                    Thread.ofPlatform().daemon(true).name("crawl-" + source + "-parse-", 0).factory(),
+                    item -> parse(item, parser), identify::submit, failureHandler);
+            PipelineStage<CrawlItem> fetch = new PipelineStage<>(STAGE_FETCH, fetchWorkers > 0 ? fetchWorkers : this.fetchWorkers,
+                    queueCapacity, Thread.ofVirtual().name("crawl-" + source + "-fetch-", 0).factory(),
+                    item -> fetch(state, item), parse::submit, failureHandler);
+            Run run = new Run(links.size(), List.of(fetch, parse, identify), writer);
+            state.lastRun = run;
+
+            fetch.start();
+            parse.start();
+            identify.start();
+            writer.start();
+            try {
+                for (ArticleLink link : links) {
+                    fetch.submit(new CrawlItem(link, null, null, null, false));
+                }
+                // 上游结束后依次关闭下游，保证每个阶段都处理完剩余数据
+                fetch.finish();
+                parse.finish();
+                identify.finish();
+                writer.finish();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fetch.abort();
+                parse.abort();
+                identify.abort();
+                writer.abort();
+                log.warn("新闻来源 {} 的爬取流水线被中断。", source);
+            }
+            run.finishNanos = System.nanoTime();
+
+            long dropped = run.stages.stream().mapToLong(stage -> stage.counters().dropped()).sum();
+            long failed = run.stages.stream().mapToLong(stage -> stage.counters().failed()).sum() + writer.counters.failed();
+            return new Result(links.size(), writer.counters.processed(), dropped, failed,
+                    TimeUnit.NANOSECONDS.toMillis(run.finishNanos - run.startNanos));
+        } finally {
+            state.running.set(false);
+        }
+    }
+
+    /**
+     * 获取每个来源当前（或最近一次）爬取的状态。
+     *
+     * @return 各来源的流水线状态，按来源标识排序
+     */
+    public List<CrawlPipelineStatusDTO> getStatus() {
+        return sources.keySet().stream().sorted().map(this::getStatus).toList();
+    }
+
+    /**
+     * 获取某个来源当前（或最近一次）爬取的状态。
+     *
+     * @param source 来源标识
+     * @return 流水线状态，该来源从未运行时各项统计为空
+     */
+    public CrawlPipelineStatusDTO getStatus(String source) {
+        SourceState state = sources.get(source);
+        if (state == null) {
+            return new CrawlPipelineStatusDTO(source, false, null, 0, 0, List.of(), List.of());
+        }
+        List<CrawlPipelineStatusDTO.DeadLetter> recentDeadLetters;
+        synchronized (state.deadLetters) {
+            recentDeadLetters = List.copyOf(state.deadLetters);
+        }
+        Run run = state.lastRun;
+        if (run == null) {
+            return new CrawlPipelineStatusDTO(source, false, null, 0, 0, List.of(), recentDeadLetters);
+        }
+        long endNanos = run.finishNanos != 0 ? run.finishNanos : System.nanoTime();
+        long elapsedNanos = Math.max(1, endNanos - run.startNanos);
+        List<CrawlPipelineStatusDTO.Stage> stages = new ArrayList<>();
+        for (PipelineStage<CrawlItem> stage : run.stages) {
+            stages.add(toStageStatus(stage.name(), stage.workerCount(), stage.queueDepth(), stage.counters(), elapsedNanos));
+        }
+        stages.add(toStageStatus(STAGE_PERSIST, 1, run.writer.queue.size(), run.writer.counters, elapsedNanos));
+        return new CrawlPipelineStatusDTO(source, run.finishNanos == 0, run.startedAt,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), run.submitted, stages, recentDeadLetters);
+    }
+
+    private CrawlItem fetch(SourceState state, CrawlItem item) throws Exception {
+        log.info("正在爬取文章: {}", item.link().url());
+        CrawlPageCache.Page page;
+        try {
+            page = pageCache.fetch(item.link().url());
+        } catch (PoliteFetcher.HttpStatusException e) {
+            if (!e.isPermanent()) {
+                throw e;
+            }
+            // 页面已不存在或无权访问，下次爬取也不会成功：记入死信以便排查，但按已处理计入丢弃
+            deadLetter(state, STAGE_FETCH, item, e);
+            return null;
+        }
+        if (page.settled()) {
+            log.info("文章页面未变化，沿用上次的处理结果跳过: {}", item.link().title());
+            return null;
+        }
+        return item.withDocument(page.toDocument());
+    }
+
+    private CrawlItem parse(CrawlItem item, PageParser parser) {
+        ArticleContent content = parser.parse(item.document());
+        if (content == null || content.text().isEmpty()) {
+            log.warn("文章内容为空，跳过风险分析: {}", item.link().title());
+            pageCache.markSettled(item.link().url());
+            return null;
+        }
+        return item.withContent(content);
+    }
+
+    private CrawlItem identify(CrawlItem item) throws InterruptedException {
+        identifyPermits.acquire();
+        try {
+            return identifyArticle(item);
+        } finally {
+            identifyPermits.release();
+        }
+    }
+
+    private CrawlItem identifyArticle(CrawlItem item) {
+        ArticleLink link = item.link();
+        ArticleContent content = item.content();
+        MonitoringArticle article = new MonitoringArticle();
+        article.setTitle(link.title());
+        article.setDate(link.date());
+        article.setUrl(link.url());
+        article.setAuthor(link.author());
+        article.setContent(content.html());
+        article.setImage(content.imageUrl());
+
+        MonitorRiskIdentificationResult riskResult = monitorRiskIdentificationService.identifyRisk(content.text());
+        if (riskResult.isRisk()) {
+            log.info("发现风险文章: {}", link.title());
+            article.setType("risk");
+            article.setRiskSource(String.join(", ", riskResult.getMatchedRiskKeywords()));
+            article.setRelatedCompany(riskResult.getMatchedCompanies().stream().map(CompanyInfo::getName).collect(Collectors.joining(", ")));
+            article.setRelatedProduct(riskResult.getMatchedProducts().stream().map(ProductNode::getName).collect(Collectors.joining(", ")));
+        } else {
+            article.setType("news");
+        }
+
+        // 处理元数据关键字作为标签
+        article.setTags(content.keywords().isEmpty() ? List.of() : Arrays.stream(content.keywords().split("[，,]"))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .collect(Collectors.toList()));
+        return item.withArticle(article, riskResult.isRisk());
+    }
+
+    /**
+     * 在当前事务中保存一批文章；风险文章的保存事件在事务提交后才会送达监听方。
+     */
+    private void save(List<CrawlItem> batch) {
+        monitoringArticleRepository.saveAll(batch.stream().map(CrawlItem::article).toList());
+        for (CrawlItem item : batch) {
+            MonitoringArticle article = item.article();
+            log.info("成功保存文章: {} (类型: {})", article.getTitle(), article.getType());
+            if (item.risk()) {
+                eventPublisher.publishEvent(new RiskArticleSavedEvent(article.getId(), article.getTitle(), article.getDate(),
+                        article.getRiskSource(), article.getRelatedCompany(), article.getRelatedProduct()));
+            }
+        }
+    }
+
+    private void deadLetter(SourceState state, String stage, CrawlItem item, Throwable error) {
+        // StackOverflowError 等错误通常没有消息，以类型名代替
+        String reason = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        log.warn("文章在 {} 阶段处理失败，已记入死信: {} ({})", stage, item.link().url(), reason);
+        if (STAGE_PARSE.equals(stage) || STAGE_IDENTIFY.equals(stage)) {
+            // 解析和识别的失败由页面内容决定，内容不变时重试也会失败
+            pageCache.markSettled(item.link().url());
+        }
+        CrawlPipelineStatusDTO.DeadLetter deadLetter = new CrawlPipelineStatusDTO.DeadLetter(LocalDateTime.now(), stage,
+                item.link().url(), item.link().title(), reason);
+        synchronized (state.deadLetters) {
+            state.deadLetters.addFirst(deadLetter);
+            while (state.deadLetters.size() > deadLetterSize) {
+                state.deadLetters.removeLast();
+            }
+        }
+    }
+
+    private static CrawlPipelineStatusDTO.Stage toStageStatus(String name, int workers, int queueDepth,
+                                                             PipelineStage.Counters counters, long elapsedNanos) {
+        return new CrawlPipelineStatusDTO.Stage(name, workers, counters.processed(), counters.dropped(), counters.failed(),
+                queueDepth, counters.maxQueueDepth(), TimeUnit.NANOSECONDS.toMillis(counters.busyNanos()),
+                counters.processed() * 1e9 / elapsedNanos);
+    }
+
+    /**
+     * 一次爬取的阶段及起止时间。
+     */
+    private static final class Run {
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private volatile long finishNanos;
+        private final int submitted;
+        private final List<PipelineStage<CrawlItem>> stages;
+        private final BatchWriter writer;
+
+        private Run(int submitted, List<PipelineStage<CrawlItem>> stages, BatchWriter writer) {
+            this.submitted = submitted;
+            this.stages = stages;
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * 保存阶段：单个写线程把文章攒成批次，批次已满、等待超时或上游结束时保存。
+     */
+    private final class BatchWriter {
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final PipelineStage.Counters counters = new PipelineStage.Counters();
+        private final SourceState state;
+        private final Thread thread;
+
+        private BatchWriter(SourceState state, String threadName) {
+            this.state = state;
+            this.thread = Thread.ofPlatform().daemon(true).name(threadName).unstarted(this::work);
+        }
+
+        private void start() {
+            thread.start();
+        }
+
+        private void submit(CrawlItem item) throws InterruptedException {
+            queue.put(item);
+            counters.recordQueueDepth(queue.size());
+        }
+
+        private void finish() throws InterruptedException {
+            queue.put(END);
+            thread.join();
+        }
+
+        private void abort() {
+            thread.interrupt();
+        }
+
+        private void work() {
+            List<CrawlItem> batch = new ArrayList<>(batchSize);
+            try {
+                boolean ended = false;
+                while (!ended) {
+                    Object next = batch.isEmpty() ? queue.take() : queue.poll(batchWaitMillis, TimeUnit.MILLISECONDS);
+                    if (next == END) {
+                        ended = true;
+                    } else if (next != null) {
+                        batch.add((CrawlItem) next);
+                    }
+                    if (!batch.isEmpty() && (ended || next == null || batch.size() >= batchSize)) {
+                        flush(batch);
+                        batch.clear();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * 在一个事务中保存整批文章；失败时逐篇单独重试，仍失败的文章记入死信，不影响同批其他文章。
+         */
+        private void flush(List<CrawlItem> batch) {
+            long startNanos = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status -> save(batch));
+                counters.recordProcessed(batch.size(), startNanos);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("批量保存 {} 篇文章失败，逐篇重试: {}", batch.size(), e.getMessage());
+            }
+            for (CrawlItem item : batch) {
+                long itemStartNanos = System.nanoTime();
+                // 回滚后实体上残留的自增ID已无效
+                item.article().setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> save(List.of(item)));
+                    counters.recordProcessed(1, itemStartNanos);
+                } catch (RuntimeException e) {
+                    counters.recordFailed();
+                    deadLetter(state, STAGE_PERSIST, item, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.riskwarningsystembackend.service.crawler;
+
+import java.time.LocalDate;
+
+/**
+ * 新闻列表页中的一篇文章。
+ *
+ * @param url    文章详情页地址
+ * @param title  文章标题
+ * @param date   发布日期
+ * @param author 文章来源（作者）
+ */
+public record ArticleLink(String url, String title, LocalDate date, String author) {
+}
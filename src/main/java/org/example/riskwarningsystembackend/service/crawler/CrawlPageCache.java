@@ -0,0 +1,320 @@
+package org.example.riskwarningsystembackend.service.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 爬取页面的磁盘缓存，位于 {@link PoliteFetcher} 之上，使频繁的爬取不必重复下载和处理未变化的页面。
+ * <p>
+ * 1. 每个地址缓存最近一次的响应体、ETag、Last-Modified 和响应体哈希，再次抓取时发送条件请求，
+ * 服务端返回 304 时直接使用缓存的响应体；服务端不支持条件请求时，以响应体哈希判断内容是否变化；
+ * 2. 页面被处理过且处理结果只取决于页面内容（正文为空、解析或识别失败）时，调用方可将其标记为“已定论”，
+ * 内容未变化时调用方据此跳过解析和风险识别；内容变化后标记自动清除；
+ * 3. 缓存总大小受限，超出时按最近最少使用的顺序删除。每个地址对应一个文件，先写临时文件再原子替换，
+ * 文件的修改时间记录最近使用时间，重启后据此恢复淘汰顺序。
+ */
+@Slf4j
+@Component
+public class CrawlPageCache {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String ENTRY_SUFFIX = ".page";
+    private static final String TEMP_SUFFIX = ".page.tmp";
+
+    private final PoliteFetcher fetcher;
+    private final Path directory;
+    private final long maxBytes;
+    private final boolean enabled;
+
+    /**
+     * 缓存文件名 → 文件大小，按访问顺序排列，最久未使用的在前
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * 抓取结果。
+     *
+     * @param body        响应体
+     * @param contentType Content-Type 响应头，没有时为空字符串
+     * @param baseUri     重定向后的最终地址，用于解析相对链接
+     * @param unchanged   内容与上次抓取时相同（304 或响应体哈希一致）
+     * @param settled     内容未变化且已被标记为已定论，调用方可跳过后续处理
+     */
+    public record Page(byte[] body, String contentType, String baseUri, boolean unchanged, boolean settled) {
+
+        /**
+         * 把响应体解析为 HTML 文档。
+         *
+         * @return 解析后的文档
+         * @throws IOException 解析失败时抛出
+         */
+        public Document toDocument() throws IOException {
+            return PoliteFetcher.parseDocument(body, contentType, baseUri);
+        }
+    }
+
+    /**
+     * 缓存文件的内容。
+     */
+    private record Entry(String url, String etag, String lastModified, String contentType, String baseUri,
+                         byte[] bodyHash, boolean settled, byte[] body) {
+    }
+
+    /**
+     * 构造函数，读取缓存配置并扫描已有的缓存文件。
+     *
+     * @param fetcher   网页抓取器
+     * @param enabled   是否启用缓存，关闭时每次都完整下载
+     * @param directory 缓存目录
+     * @param maxSizeMb 缓存总大小上限（MB）
+     */
+    public CrawlPageCache(PoliteFetcher fetcher,
+                          @Value("${monitor.crawler.cache.enabled:true}") boolean enabled,
+                          @Value("${monitor.crawler.cache.dir:${java.io.tmpdir}/risk-warning-crawl-cache}") String directory,
+                          @Value("${monitor.crawler.cache.max-size-mb:256}") long maxSizeMb) {
+        this.fetcher = fetcher;
+        this.directory = Path.of(directory);
+        this.maxBytes = Math.max(1, maxSizeMb) * 1024 * 1024;
+        this.enabled = enabled && loadIndex();
+    }
+
+    /**
+     * 抓取页面，有缓存时发送条件请求。
+     *
+     * @param url 页面地址
+     * @return 抓取结果
+     * @throws IOException 抓取失败时抛出
+     */
+    public Page fetch(String url) throws IOException {
+        if (!enabled) {
+            HttpResponse<byte[]> response = fetcher.fetch(url);
+            return new Page(response.body(), contentTypeOf(response), response.uri().toString(), false, false);
+        }
+        String key = keyOf(url);
+        Entry cached = read(key, url);
+        Map<String, String> headers = new HashMap<>();
+        if (cached != null) {
+            if (!cached.etag().isEmpty()) {
+                headers.put("If-None-Match", cached.etag());
+            }
+            if (!cached.lastModified().isEmpty()) {
+                headers.put("If-Modified-Since", cached.lastModified());
+            }
+        }
+
+        HttpResponse<byte[]> response = fetcher.fetch(url, headers);
+        if (response.statusCode() == 304) {
+            if (cached == null) {
+                throw new PoliteFetcher.HttpStatusException(304, url);
+            }
+            touch(key);
+            return new Page(cached.body(), cached.contentType(), cached.baseUri(), true, cached.settled());
+        }
+
+        byte[] body = response.body();
+        byte[] bodyHash = sha256(body);
+        boolean unchanged = cached != null && Arrays.equals(bodyHash, cached.bodyHash());
+        boolean settled = unchanged && cached.settled();
+        Entry entry = new Entry(url,
+                response.headers().firstValue("ETag").orElse(""),
+                response.headers().firstValue("Last-Modified").orElse(""),
+                contentTypeOf(response), response.uri().toString(), bodyHash, settled, body);
+        write(key, entry);
+        return new Page(body, entry.contentType(), entry.baseUri(), unchanged, settled);
+    }
+
+    /**
+     * 将页面标记为已定论：只要内容不变，再次处理也会得到同样的结果。
+     *
+     * @param url 页面地址
+     */
+    public void markSettled(String url) {
+        if (!enabled) {
+            return;
+        }
+        String key = keyOf(url);
+        Entry cached = read(key, url);
+        if (cached != null && !cached.settled()) {
+            write(key, new Entry(cached.url(), cached.etag(), cached.lastModified(), cached.contentType(),
+                    cached.baseUri(), cached.bodyHash(), true, cached.body()));
+        }
+    }
+
+    /**
+     * 扫描缓存目录，按文件修改时间恢复访问顺序，并删除超出上限的部分。
+     *
+     * @return 缓存目录可用时返回 true
+     */
+    private boolean loadIndex() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(directory)) {
+                files = stream.sorted(Comparator.comparing(CrawlPageCache::lastModifiedTime)).toList();
+            }
+            synchronized (entries) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(TEMP_SUFFIX)) {
+                        // 上次异常退出时残留的临时文件
+                        Files.deleteIfExists(file);
+                    }
+                    if (!name.endsWith(ENTRY_SUFFIX)) {
+                        continue;
+                    }
+                    long size = Files.size(file);
+                    entries.put(file.getFileName().toString(), size);
+                    totalBytes += size;
+                }
+                evict();
+            }
+            log.info("爬取页面缓存已加载，共 {} 个页面，{} KB，目录: {}", entries.size(), totalBytes / 1024, directory);
+            return true;
+        } catch (IOException e) {
+            log.warn("爬取页面缓存目录不可用，缓存已关闭: {} ({})", directory, e.getMessage());
+            return false;
+        }
+    }
+
+    private Entry read(String key, String url) {
+        Path file = directory.resolve(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            Entry entry = new Entry(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+                    in.readNBytes(in.readInt()), in.readBoolean(), in.readNBytes(in.readInt()));
+            // 哈希碰撞几乎不可能，仍以完整地址确认
+            return url.equals(entry.url()) ? entry : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.debug("爬取页面缓存文件损坏，忽略: {} ({})", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, Entry entry) {
+        Path file = directory.resolve(key);
+        Path temp = directory.resolve(key.substring(0, key.length() - ENTRY_SUFFIX.length())
+                + "." + Thread.currentThread().threadId() + TEMP_SUFFIX);
+        try {
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(entry.url());
+                out.writeUTF(entry.etag());
+                out.writeUTF(entry.lastModified());
+                out.writeUTF(entry.contentType());
+                out.writeUTF(entry.baseUri());
+                out.writeInt(entry.bodyHash().length);
+                out.write(entry.bodyHash());
+                out.writeBoolean(entry.settled());
+                out.writeInt(entry.body().length);
+                out.write(entry.body());
+            }
+            long size = Files.size(temp);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            synchronized (entries) {
+                Long previous = entries.put(key, size);
+                totalBytes += size - (previous != null ? previous : 0);
+                evict();
+            }
+        } catch (IOException e) {
+            log.warn("写入爬取页面缓存失败: {} ({})", entry.url(), e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // 临时文件删除失败不影响使用，下次写入同一地址时会被覆盖
+            }
+        }
+    }
+
+    /**
+     * 记录一次缓存命中：更新内存中的访问顺序和文件的修改时间。
+     */
+    private void touch(String key) {
+        synchronized (entries) {
+            entries.get(key);
+        }
+        try {
+            Files.setLastModifiedTime(directory.resolve(key), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("更新爬取页面缓存访问时间失败: {} ({})", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 删除最久未使用的缓存文件，直到总大小不超过上限。调用方需持有 entries 的锁。
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            try {
+                Files.deleteIfExists(directory.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                log.debug("删除爬取页面缓存文件失败: {} ({})", eldest.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private static String contentTypeOf(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Type").orElse("");
+    }
+
+    private static String keyOf(String url) {
+        return HexFormat.of().formatHex(sha256(url.getBytes(StandardCharsets.UTF_8))) + ENTRY_SUFFIX;
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前运行环境不支持 SHA-256", e);
+        }
+    }
+
+    private static FileTime lastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.riskwarningsystembackend.service.crawler;
+
+import org.jsoup.nodes.Document;
+
+import java.util.List;
+
+/**
+ * 新闻来源插件。
+ * <p>
+ * 每个来源只负责自己站点的页面结构：列表页地址、从列表页提取文章、从详情页提取正文。
+ * 抓取（连接池与每主机限流）、页面缓存、去重、风险识别与保存由各来源共用。
+ * <p>
+ * 只靠 CSS 选择器即可描述的站点直接在配置 {@code monitor.sources.<标识>.*} 中登记（见 {@link SelectorNewsSource}）；
+ * 需要特殊处理的站点实现本接口并注册为 Spring Bean，调度和并发配置仍按标识从同一配置项读取。
+ */
+public interface NewsSource {
+
+    /**
+     * 来源标识，用于配置、水位线和运行状态，全局唯一。
+     *
+     * @return 来源标识
+     */
+    String id();
+
+    /**
+     * 来源名称，作为文章作者保存。
+     *
+     * @return 来源名称
+     */
+    String name();
+
+    /**
+     * 列表页地址。
+     *
+     * @param page 页码，从 1 开始
+     * @return 列表页地址，该来源没有这一页（如不支持翻页）时返回 null
+     */
+    String listPageUrl(int page);
+
+    /**
+     * 从列表页提取文章。
+     *
+     * @param listPage 列表页文档
+     * @return 信息完整的文章，按页面顺序（新的在前）
+     */
+    List<ArticleLink> extractList(Document listPage);
+
+    /**
+     * 从详情页提取文章内容，在爬取流水线的解析线程上调用。
+     *
+     * @param articlePage 详情页文档
+     * @return 文章内容，页面中没有正文时返回 null
+     */
+    ArticleContent extractArticle(Document articlePage);
+}
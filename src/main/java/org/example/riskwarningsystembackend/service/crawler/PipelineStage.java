@@ -0,0 +1,264 @@
+package org.example.riskwarningsystembackend.service.crawler;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 流水线中的一个处理阶段：一个有界输入队列和若干工作线程。
+ * <p>
+ * 上游通过 {@link #submit} 放入数据，队列满时阻塞上游，形成背压；工作线程逐条处理后交给下游。
+ * 单条数据处理失败（包括 Jsoup 解析嵌套过深的页面时抛出的 {@link StackOverflowError} 等错误）只影响这一条，
+ * 交给失败回调（重试或记入死信），工作线程继续处理后续数据，不会因工作线程退出而使上游永久阻塞。
+ * 上游全部提交后调用 {@link #finish}，工作线程处理完队列中剩余的数据后退出。
+ *
+ * @param <T> 流经该阶段的数据类型
+ */
+public final class PipelineStage<T> {
+
+    /**
+     * 队列结束标记，每个工作线程取到一个后退出
+     */
+    private static final Object END = new Object();
+
+    /**
+     * 单条数据的处理逻辑。
+     *
+     * @param <T> 数据类型
+     */
+    @FunctionalInterface
+    public interface Handler<T> {
+        /**
+         * 处理一条数据。
+         *
+         * @param item 输入数据
+         * @return 交给下游的数据，返回 null 表示该数据无需继续处理
+         * @throws Exception 处理失败时抛出
+         */
+        T handle(T item) throws Exception;
+    }
+
+    /**
+     * 接收数据的下游，放入有界队列时可能阻塞。
+     *
+     * @param <T> 数据类型
+     */
+    @FunctionalInterface
+    public interface Sink<T> {
+        /**
+         * 接收一条数据。
+         *
+         * @param item 数据
+         * @throws InterruptedException 等待队列空间时被中断
+         */
+        void accept(T item) throws InterruptedException;
+    }
+
+    /**
+     * 单条数据处理失败时的回调。
+     *
+     * @param <T> 数据类型
+     */
+    @FunctionalInterface
+    public interface FailureHandler<T> {
+        /**
+         * 处理失败的数据。
+         *
+         * @param stage 阶段名称
+         * @param item  失败的数据
+         * @param error 失败原因，可能是异常或错误
+         */
+        void onFailure(String stage, T item, Throwable error);
+    }
+
+    /**
+     * 阶段的运行统计，可在运行期间并发读取。
+     */
+    public static final class Counters {
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+        /**
+         * 记录一次处理。
+         *
+         * @param items      本次处理的数据条数
+         * @param startNanos 开始处理时的 {@link System#nanoTime()}
+         */
+        public void recordProcessed(int items, long startNanos) {
+            processed.addAndGet(items);
+            busyNanos.addAndGet(System.nanoTime() - startNanos);
+        }
+
+        /**
+         * 记录一条无需继续处理的数据。
+         */
+        public void recordDropped() {
+            dropped.incrementAndGet();
+        }
+
+        /**
+         * 记录一条处理失败的数据。
+         */
+        public void recordFailed() {
+            failed.incrementAndGet();
+        }
+
+        /**
+         * 记录当前的队列深度，保留最大值。
+         *
+         * @param depth 队列深度
+         */
+        public void recordQueueDepth(int depth) {
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+        }
+
+        public long processed() {
+            return processed.get();
+        }
+
+        public long dropped() {
+            return dropped.get();
+        }
+
+        public long failed() {
+            return failed.get();
+        }
+
+        public long busyNanos() {
+            return busyNanos.get();
+        }
+
+        public int maxQueueDepth() {
+            return maxQueueDepth.get();
+        }
+    }
+
+    private final String name;
+    private final BlockingQueue<Object> queue;
+    private final Thread[] workers;
+    private final Handler<T> handler;
+    private final Sink<T> downstream;
+    private final FailureHandler<T> failureHandler;
+    private final Counters counters = new Counters();
+
+    /**
+     * 创建阶段，工作线程在 {@link #start} 时启动。
+     *
+     * @param name           阶段名称
+     * @param workerCount    工作线程数
+     * @param queueCapacity  输入队列容量
+     * @param threadFactory  工作线程工厂
+     * @param handler        处理逻辑
+     * @param downstream     下游
+     * @param failureHandler 失败回调
+     */
+    public PipelineStage(String name, int workerCount, int queueCapacity, ThreadFactory threadFactory,
+                         Handler<T> handler, Sink<T> downstream, FailureHandler<T> failureHandler) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.handler = handler;
+        this.downstream = downstream;
+        this.failureHandler = failureHandler;
+        this.workers = new Thread[Math.max(1, workerCount)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = threadFactory.newThread(this::work);
+        }
+    }
+
+    /**
+     * 启动工作线程。
+     */
+    public void start() {
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * 放入一条数据，队列满时阻塞直到有空间。
+     *
+     * @param item 数据
+     * @throws InterruptedException 等待时被中断
+     */
+    public void submit(T item) throws InterruptedException {
+        queue.put(item);
+        counters.recordQueueDepth(queue.size());
+    }
+
+    /**
+     * 通知不再有新数据，并等待工作线程处理完剩余数据后退出。
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    public void finish() throws InterruptedException {
+        for (int i = 0; i < workers.length; i++) {
+            queue.put(END);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    /**
+     * 中断所有工作线程，丢弃未处理的数据。
+     */
+    public void abort() {
+        queue.clear();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int workerCount() {
+        return workers.length;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public Counters counters() {
+        return counters;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void work() {
+        try {
+            while (true) {
+                Object next = queue.take();
+                if (next == END) {
+                    return;
+                }
+                T item = (T) next;
+                long startNanos = System.nanoTime();
+                T result;
+                try {
+                    result = handler.handle(item);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    counters.recordFailed();
+                    failureHandler.onFailure(name, item, e);
+                    continue;
+                }
+                counters.recordProcessed(1, startNanos);
+                if (result == null) {
+                    counters.recordDropped();
+                } else {
+                    downstream.accept(result);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
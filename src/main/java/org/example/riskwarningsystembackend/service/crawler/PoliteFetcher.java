@@ -0,0 +1,370 @@
+package org.example.riskwarningsystembackend.service.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 遵守站点礼貌约束的网页抓取器，供新闻爬虫等任务在多个（虚拟）线程上并发调用。
+ * <p>
+ * 1. 每个主机同时进行的请求数受信号量限制，同一主机相邻两次请求的发起时间至少间隔 {@code requestIntervalMillis}；
+ * 2. 连接超时与读取超时分别配置，不会因对方不响应而无限等待；
+ * 3. 网络异常、429 和 5xx 响应按指数退避（带随机抖动）重试，服务端给出 Retry-After 时取两者中较大的值；
+ * 其他 4xx 响应直接失败，不再重试。
+ * <p>
+ * HTTPS 证书默认正常校验；只有配置为信任所有证书的主机（证书链不完整的新闻站点）跳过证书链校验，主机名仍然校验。
+ */
+@Slf4j
+@Component
+public class PoliteFetcher {
+
+    /**
+     * Retry-After 指定的等待时间上限，避免被异常的响应头长时间阻塞
+     */
+    private static final long MAX_RETRY_AFTER_MILLIS = 30_000;
+
+    private final HttpClient httpClient;
+    private final HttpClient trustAllHttpClient;
+    private final boolean trustAllCertificates;
+    private final Set<String> trustAllHosts;
+    private final int perHostConcurrency;
+    private final long requestIntervalNanos;
+    private final Duration readTimeout;
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+    private final String userAgent;
+    private final Map<String, HostGate> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * 服务端返回了非 2xx 状态码。
+     */
+    public static class HttpStatusException extends IOException {
+
+        private final int statusCode;
+
+        /**
+         * 构造函数。
+         *
+         * @param statusCode HTTP 状态码
+         * @param url        请求地址
+         */
+        public HttpStatusException(int statusCode, String url) {
+            super("HTTP " + statusCode + ": " + url);
+            this.statusCode = statusCode;
+        }
+
+        /**
+         * 获取 HTTP 状态码。
+         *
+         * @return HTTP 状态码
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * 是否为不会重试的客户端错误（4xx，429 除外），如页面已被删除（404、410）。
+         *
+         * @return 重试也不会成功时返回 true
+         */
+        public boolean isPermanent() {
+            return statusCode >= 400 && statusCode < 500 && statusCode != 429;
+        }
+    }
+
+    /**
+     * 单个主机的并发许可和下一次允许发起请求的时间。
+     */
+    private static final class HostGate {
+        private final Semaphore permits;
+        private long nextRequestNanos;
+
+        private HostGate(int permits) {
+            this.permits = new Semaphore(permits, true);
+        }
+
+        /**
+         * 预约下一次请求的发起时间，返回需要等待的纳秒数。
+         */
+        private synchronized long reserve(long intervalNanos) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextRequestNanos);
+            nextRequestNanos = start + intervalNanos;
+            return start - now;
+        }
+    }
+
+    /**
+     * 构造函数，读取抓取配置。
+     *
+     * @param perHostConcurrency    每个主机同时进行的请求数上限
+     * @param requestIntervalMillis 同一主机相邻两次请求的最小间隔（毫秒）
+     * @param connectTimeoutMillis  连接超时（毫秒）
+     * @param readTimeoutMillis     读取超时（毫秒），从发出请求到收到响应头的最长时间
+     * @param maxRetries            失败后的最大重试次数
+     * @param retryBackoffMillis    第一次重试前的等待时间（毫秒），之后每次翻倍
+     * @param userAgent             请求使用的 User-Agent
+     * @param trustAllCertificates  是否对所有主机信任所有 HTTPS 证书，仅用于调试
+     * @param trustAllHosts         逗号分隔的主机列表（含子域名），只对这些主机信任所有 HTTPS 证书（部分新闻站点的证书链不完整）
+     */
+    public PoliteFetcher(@Value("${monitor.crawler.per-host-concurrency:4}") int perHostConcurrency,
+                         @Value("${monitor.crawler.request-interval-ms:200}") long requestIntervalMillis,
+                         @Value("${monitor.crawler.connect-timeout-ms:5000}") long connectTimeoutMillis,
+                         @Value("${monitor.crawler.read-timeout-ms:15000}") long readTimeoutMillis,
+                         @Value("${monitor.crawler.max-retries:2}") int maxRetries,
+                         @Value("${monitor.crawler.retry-backoff-ms:500}") long retryBackoffMillis,
+                         @Value("${monitor.crawler.user-agent:Mozilla/5.0 (compatible; RiskWarningSystem/1.0)}") String userAgent,
+                         @Value("${monitor.crawler.trust-all-certificates:false}") boolean trustAllCertificates,
+                         @Value("${monitor.crawler.trust-all-certificates-hosts:}") String trustAllHosts) {
+        this.perHostConcurrency = Math.max(1, perHostConcurrency);
+        this.requestIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, requestIntervalMillis));
+        this.readTimeout = Duration.ofMillis(readTimeoutMillis);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryBackoffMillis = Math.max(0, retryBackoffMillis);
+        this.userAgent = userAgent;
+        this.trustAllCertificates = trustAllCertificates;
+        this.trustAllHosts = Arrays.stream(trustAllHosts.split(","))
+                .map(host -> host.strip().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.httpClient = newHttpClient(connectTimeoutMillis).build();
+        this.trustAllHttpClient = trustAllCertificates || !this.trustAllHosts.isEmpty()
+                ? newHttpClient(connectTimeoutMillis).sslContext(createTrustAllSslContext()).build()
+                : null;
+    }
+
+    private static HttpClient.Builder newHttpClient(long connectTimeoutMillis) {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NORMAL);
+    }
+
+    /**
+     * 抓取网页并解析为 HTML 文档，失败时按配置重试。
+     *
+     * @param url 网页地址
+     * @return 解析后的文档，相对链接以最终地址为基准
+     * @throws IOException 重试用尽仍失败，或服务端返回不可重试的状态码时抛出
+     */
+    public Document fetchDocument(String url) throws IOException {
+        HttpResponse<byte[]> response = fetch(url);
+        return parseDocument(response.body(), response.headers().firstValue("Content-Type").orElse(null),
+                response.uri().toString());
+    }
+
+    /**
+     * 发起 GET 请求，返回状态码为 2xx 的响应。
+     *
+     * @param url 请求地址
+     * @return 响应
+     * @throws IOException 重试用尽仍失败，或服务端返回不可重试的状态码时抛出
+     */
+    public HttpResponse<byte[]> fetch(String url) throws IOException {
+        return fetch(url, Map.of());
+    }
+
+    /**
+     * 携带额外请求头发起 GET 请求，用于条件请求（If-None-Match / If-Modified-Since）。
+     *
+     * @param url     请求地址
+     * @param headers 额外的请求头
+     * @return 状态码为 2xx 或 304（内容未修改）的响应
+     * @throws IOException 重试用尽仍失败，或服务端返回不可重试的状态码时抛出
+     */
+    public HttpResponse<byte[]> fetch(String url, Map<String, String> headers) throws IOException {
+        URI uri = URI.create(url);
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header("User-Agent", userAgent)
+                .GET();
+        headers.forEach(requestBuilder::header);
+        HttpRequest request = requestBuilder.build();
+        HostGate gate = hosts.computeIfAbsent(hostOf(uri), host -> new HostGate(perHostConcurrency));
+
+        for (int attempt = 0; ; attempt++) {
+            long retryAfterMillis = 0;
+            IOException failure;
+            try {
+                HttpResponse<byte[]> response = send(gate, request);
+                int status = response.statusCode();
+                if ((status >= 200 && status < 300) || status == 304) {
+                    return response;
+                }
+                HttpStatusException statusFailure = new HttpStatusException(status, url);
+                if (statusFailure.isPermanent() || status < 400) {
+                    throw statusFailure;
+                }
+                failure = statusFailure;
+                retryAfterMillis = retryAfterOf(response);
+            } catch (HttpStatusException e) {
+                throw e;
+            } catch (IOException e) {
+                // 线程被中断时立即停止，其余网络异常（含超时）均可重试
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                failure = e;
+            }
+
+            if (attempt >= maxRetries) {
+                throw failure;
+            }
+            long backoff = Math.max(retryAfterMillis, (retryBackoffMillis << attempt)
+                    + ThreadLocalRandom.current().nextLong(retryBackoffMillis / 2 + 1));
+            log.debug("抓取失败，{} 毫秒后第 {} 次重试: {} ({})", backoff, attempt + 1, url, failure.getMessage());
+            sleep(backoff);
+        }
+    }
+
+    /**
+     * 在主机许可和请求间隔的约束下发送一次请求。
+     */
+    private HttpResponse<byte[]> send(HostGate gate, HttpRequest request) throws IOException {
+        try {
+            gate.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待抓取许可时被中断");
+        }
+        try {
+            long waitNanos = gate.reserve(requestIntervalNanos);
+            if (waitNanos > 0) {
+                sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            }
+            return clientFor(request.uri()).send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("抓取被中断: " + request.uri());
+        } finally {
+            gate.permits.release();
+        }
+    }
+
+    /**
+     * 选择请求使用的客户端：配置为信任所有证书的主机及其子域名使用不校验证书链的客户端，其余主机正常校验。
+     */
+    private HttpClient clientFor(URI uri) {
+        if (trustAllHttpClient == null) {
+            return httpClient;
+        }
+        if (trustAllCertificates) {
+            return trustAllHttpClient;
+        }
+        // 依次匹配主机本身和各级上级域名，如 fd.bjx.com.cn、bjx.com.cn、com.cn、cn
+        String domain = uri.getHost().toLowerCase(Locale.ROOT);
+        while (!trustAllHosts.contains(domain)) {
+            int dot = domain.indexOf('.');
+            if (dot < 0) {
+                return httpClient;
+            }
+            domain = domain.substring(dot + 1);
+        }
+        return trustAllHttpClient;
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("抓取等待时被中断");
+        }
+    }
+
+    private static long retryAfterOf(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+                .map(value -> {
+                    try {
+                        return Math.min(MAX_RETRY_AFTER_MILLIS, TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim())));
+                    } catch (NumberFormatException e) {
+                        return 0L;
+                    }
+                })
+                .orElse(0L);
+    }
+
+    private static String hostOf(URI uri) {
+        String host = uri.getHost();
+        if (host == null) {
+            throw new IllegalArgumentException("无效的抓取地址: " + uri);
+        }
+        return host.toLowerCase(Locale.ROOT) + ":" + uri.getPort();
+    }
+
+    /**
+     * 按 Content-Type 中声明的字符集把响应体解析为 HTML 文档，未声明时由 Jsoup 根据页面内容判断。
+     *
+     * @param body        响应体
+     * @param contentType Content-Type 响应头，可能为 null
+     * @param baseUri     解析相对链接的基准地址
+     * @return 解析后的文档
+     * @throws IOException 解析失败时抛出
+     */
+    public static Document parseDocument(byte[] body, String contentType, String baseUri) throws IOException {
+        String charset = contentType != null ? charsetOf(contentType) : null;
+        return Jsoup.parse(new ByteArrayInputStream(body), charset, baseUri);
+    }
+
+    private static String charsetOf(String contentType) {
+        for (String part : contentType.split(";")) {
+            String trimmed = part.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                return trimmed.substring(8).replace("\"", "").trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 创建一个信任所有证书链的 SSL 上下文。
+     * 使用普通的 {@link X509TrustManager}，JDK 会在其外层保留主机名校验。
+     */
+    private static SSLContext createTrustAllSslContext() {
+        TrustManager[] trustAll = new TrustManager[]{
+                new X509TrustManager() {
+                    public X509Certificate[] getAcceptedIssuers() {
+                        return new X509Certificate[0];
+                    }
+
+                    public void checkClientTrusted(X509Certificate[] certs, String authType) {
+                    }
+
+                    public void checkServerTrusted(X509Certificate[] certs, String authType) {
+                    }
+                }
+        };
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, trustAll, new SecureRandom());
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法创建 SSL 上下文", e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.riskwarningsystembackend.service.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.config.NewsSourceProperties;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按配置中的 CSS 选择器提取页面的新闻来源，适用于列表项为“链接 + 日期”、详情页正文在单个元素中的常见新闻站点。
+ */
+@Slf4j
+public class SelectorNewsSource implements NewsSource {
+
+    private final String id;
+    private final NewsSourceProperties.Source config;
+    private final DateTimeFormatter dateFormat;
+
+    /**
+     * 构造函数，校验必填的配置项。
+     *
+     * @param id     来源标识
+     * @param config 来源配置
+     * @throws IllegalStateException 缺少列表页地址、列表项选择器或正文选择器时抛出
+     */
+    public SelectorNewsSource(String id, NewsSourceProperties.Source config) {
+        requireConfigured(id, "list-url", config.getListUrl());
+        requireConfigured(id, "list-item-selector", config.getListItemSelector());
+        requireConfigured(id, "content-selector", config.getContentSelector());
+        this.id = id;
+        this.config = config;
+        this.dateFormat = DateTimeFormatter.ofPattern(config.getDateFormat());
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    @Override
+    public String name() {
+        return config.getName() != null && !config.getName().isBlank() ? config.getName() : id;
+    }
+
+    @Override
+    public String listPageUrl(int page) {
+        if (page == 1) {
+            return config.getListUrl();
+        }
+        String template = config.getListPageUrl();
+        return template == null || template.isBlank() ? null : template.replace("{page}", String.valueOf(page));
+    }
+
+    @Override
+    public List<ArticleLink> extractList(Document listPage) {
+        Elements newsItems = listPage.select(config.getListItemSelector());
+        List<ArticleLink> articles = new ArrayList<>(newsItems.size());
+        for (Element item : newsItems) {
+            Element link = item.select(config.getLinkSelector()).first();
+            if (link == null) continue;
+
+            String articleUrl = link.attr("abs:href");
+            String title = link.attr(config.getTitleAttribute());
+            if (title.isEmpty()) {
+                title = link.text();
+            }
+
+            Element dateElement = item.select(config.getDateSelector()).first();
+            if (dateElement == null) continue;
+
+            String dateString = dateElement.text();
+
+            if (articleUrl.isEmpty() || title.isEmpty() || dateString.isEmpty()) {
+                log.warn("文章信息不完整，跳过处理: {}", title);
+                continue;
+            }
+
+            try {
+                articles.add(new ArticleLink(articleUrl, title, LocalDate.parse(dateString, dateFormat), name()));
+            } catch (DateTimeParseException e) {
+                log.warn("日期解析失败: {}, 文章: {}", dateString, title);
+            }
+        }
+        return articles;
+    }
+
+    @Override
+    public ArticleContent extractArticle(Document articlePage) {
+        String keywordsMeta = articlePage.select(config.getKeywordsSelector()).attr("content");
+        Element contentElement = articlePage.select(config.getContentSelector()).first();
+        if (contentElement == null) {
+            return null;
+        }
+        return new ArticleContent(keywordsMeta, contentElement.text(), contentElement.html(), extractFirstImage(contentElement));
+    }
+
+    /**
+     * 提取正文中第一张图片的地址。
+     *
+     * @param contentElement 正文元素
+     * @return 第一张图片的地址，没有图片时返回 null
+     */
+    private String extractFirstImage(Element contentElement) {
+        Element firstImage = contentElement.select("img").first();
+        if (firstImage == null) {
+            return null;
+        }
+        String imageUrl = firstImage.attr("src");
+        if (imageUrl.startsWith("//")) {
+            return "https:" + imageUrl;
+        }
+        if (imageUrl.startsWith("/") && config.getImageBaseUrl() != null && !config.getImageBaseUrl().isBlank()) {
+            return config.getImageBaseUrl() + imageUrl;
+        }
+        String absoluteUrl = firstImage.absUrl("src");
+        return absoluteUrl.isEmpty() ? imageUrl : absoluteUrl;
+    }
+
+    private static void requireConfigured(String id, String key, String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("新闻来源 " + id + " 缺少配置项 monitor.sources." + id + "." + key);
+        }
+    }
+}
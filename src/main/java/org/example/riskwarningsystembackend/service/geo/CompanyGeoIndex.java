@@ -0,0 +1,511 @@
+package org.example.riskwarningsystembackend.service.geo;
+
+import org.example.riskwarningsystembackend.service.RiskSnapshotService.RiskLevel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * 公司坐标的只读内存空间索引。
+ * <p>
+ * 坐标先投影到 Web 墨卡托平面（x、y 取值 [0, 1)），再按 {@link #MAX_LEVEL} 级网格编码为 Morton（Z 序）码并排序：
+ * 1. 任意一级网格中的一个格子，对应排序数组中的一段连续区间，可用二分查找定位；
+ * 2. 按风险等级的计数及 x、y 坐标之和都保存为前缀和，因此一个格子内的公司数量、各风险等级数量和重心都能在 O(log n) 内得到，
+ * 聚合结果的大小只取决于视口内的格子数，与公司数量无关。
+ * <p>
+ * 数据中部分公司的经纬度是颠倒存放的（纬度字段中是 104 这样的经度值），构建时通过 {@link #normalize(Double, Double)} 自动纠正。
+ * 快照构建完成后不再修改，可被任意多个线程并发读取。
+ */
+public final class CompanyGeoIndex {
+
+    /**
+     * 索引网格的最大级别，每个方向 2^MAX_LEVEL 个格子
+     */
+    public static final int MAX_LEVEL = 20;
+
+    /**
+     * Web 墨卡托投影可表示的最大纬度
+     */
+    public static final double MAX_LATITUDE = 85.05112878;
+
+    /**
+     * 地球平均半径（公里）
+     */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final int GRID_SIZE = 1 << MAX_LEVEL;
+    private static final RiskLevel[] LEVELS = RiskLevel.values();
+
+    private final long version;
+    private final long[] codes;
+    private final long[] companyIds;
+    private final String[] companyNames;
+    private final double[] longitudes;
+    private final double[] latitudes;
+    private final RiskLevel[] levels;
+    private final int[][] levelPrefix;
+    private final double[] xPrefix;
+    private final double[] yPrefix;
+
+    /**
+     * 一个待索引的公司。
+     *
+     * @param id        公司ID
+     * @param name      公司名称
+     * @param latitude  数据库中的纬度字段
+     * @param longitude 数据库中的经度字段
+     * @param level     风险等级
+     */
+    public record Entry(long id, String name, Double latitude, Double longitude, RiskLevel level) {
+    }
+
+    /**
+     * 一个网格格子内公司的聚合结果。
+     *
+     * @param longitude 格子内公司的重心经度
+     * @param latitude  格子内公司的重心纬度
+     * @param count     公司数量
+     * @param high      高风险公司数量
+     * @param medium    中风险公司数量
+     * @param low       低风险公司数量
+     */
+    public record Cluster(double longitude, double latitude, int count, int high, int medium, int low) {
+    }
+
+    /**
+     * 经纬度范围（单位：度），西、南、东、北边界均包含在内。
+     *
+     * @param west  最小经度
+     * @param south 最小纬度
+     * @param east  最大经度
+     * @param north 最大纬度
+     */
+    public record BoundingBox(double west, double south, double east, double north) {
+
+        /**
+         * 全球范围。
+         */
+        public static final BoundingBox WORLD = new BoundingBox(-180, -MAX_LATITUDE, 180, MAX_LATITUDE);
+
+        /**
+         * 将边界裁剪到合法范围，并在西东或南北颠倒时交换。
+         *
+         * @return 规范化后的范围
+         */
+        public BoundingBox normalized() {
+            double w = clamp(Math.min(west, east), -180, 180);
+            double e = clamp(Math.max(west, east), -180, 180);
+            double s = clamp(Math.min(south, north), -MAX_LATITUDE, MAX_LATITUDE);
+            double n = clamp(Math.max(south, north), -MAX_LATITUDE, MAX_LATITUDE);
+            return new BoundingBox(w, s, e, n);
+        }
+
+        /**
+         * 判断坐标是否在范围内。
+         *
+         * @param longitude 经度
+         * @param latitude  纬度
+         * @return 在范围内时返回 true
+         */
+        public boolean contains(double longitude, double latitude) {
+            return longitude >= west && longitude <= east && latitude >= south && latitude <= north;
+        }
+    }
+
+    private CompanyGeoIndex(long version, long[] codes, long[] companyIds, String[] companyNames, double[] longitudes,
+                            double[] latitudes, RiskLevel[] levels) {
+        this.version = version;
+        this.codes = codes;
+        this.companyIds = companyIds;
+        this.companyNames = companyNames;
+        this.longitudes = longitudes;
+        this.latitudes = latitudes;
+        this.levels = levels;
+
+        int size = codes.length;
+        this.levelPrefix = new int[LEVELS.length][size + 1];
+        this.xPrefix = new double[size + 1];
+        this.yPrefix = new double[size + 1];
+        for (int i = 0; i < size; i++) {
+            for (int l = 0; l < LEVELS.length; l++) {
+                levelPrefix[l][i + 1] = levelPrefix[l][i] + (levels[i] == LEVELS[l] ? 1 : 0);
+            }
+            xPrefix[i + 1] = xPrefix[i] + projectX(longitudes[i]);
+            yPrefix[i + 1] = yPrefix[i] + projectY(latitudes[i]);
+        }
+    }
+
+    /**
+     * 构建索引，坐标无效（为空、为 0 或纠正后仍超出范围）的公司被忽略。
+     *
+     * @param version 数据版本号
+     * @param entries 待索引的公司
+     * @return 空间索引
+     */
+    public static CompanyGeoIndex build(long version, List<Entry> entries) {
+        record Located(long code, Entry entry, double longitude, double latitude) {
+        }
+        List<Located> located = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            double[] coordinates = normalize(entry.latitude(), entry.longitude());
+            if (coordinates == null) {
+                continue;
+            }
+            located.add(new Located(encode(cell(projectX(coordinates[1])), cell(projectY(coordinates[0]))),
+                    entry, coordinates[1], coordinates[0]));
+        }
+        located.sort((a, b) -> a.code() != b.code() ? Long.compare(a.code(), b.code()) : Long.compare(a.entry().id(), b.entry().id()));
+
+        int size = located.size();
+        long[] codes = new long[size];
+        long[] ids = new long[size];
+        String[] names = new String[size];
+        double[] longitudes = new double[size];
+        double[] latitudes = new double[size];
+        RiskLevel[] levels = new RiskLevel[size];
+        for (int i = 0; i < size; i++) {
+            Located item = located.get(i);
+            codes[i] = item.code();
+            ids[i] = item.entry().id();
+            names[i] = item.entry().name();
+            longitudes[i] = item.longitude();
+            latitudes[i] = item.latitude();
+            levels[i] = item.entry().level();
+        }
+        return new CompanyGeoIndex(version, codes, ids, names, longitudes, latitudes, levels);
+    }
+
+    /**
+     * 纠正并校验一对坐标。
+     * 纬度字段超出墨卡托投影的纬度范围而经度字段在该范围内时，认为两者被颠倒存放并交换；
+     * 任一值为空或为 0、纠正后超出合法范围或超出墨卡托投影范围时视为无效。
+     *
+     * @param latitude  纬度字段
+     * @param longitude 经度字段
+     * @return {纬度, 经度}，无效时为 null
+     */
+    public static double[] normalize(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null || latitude == 0 || longitude == 0
+                || !Double.isFinite(latitude) || !Double.isFinite(longitude)) {
+            return null;
+        }
+        double lat = latitude;
+        double lng = longitude;
+        if (Math.abs(lat) > MAX_LATITUDE && Math.abs(lng) <= MAX_LATITUDE) {
+            lat = longitude;
+            lng = latitude;
+        }
+        if (Math.abs(lat) > MAX_LATITUDE || Math.abs(lng) > 180) {
+            return null;
+        }
+        return new double[]{lat, lng};
+    }
+
+    /**
+     * @return 数据版本号
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return 已索引的公司数量
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * 获取指定下标公司的公司ID。
+     *
+     * @param index 公司在索引中的下标
+     * @return 公司ID
+     */
+    public long companyId(int index) {
+        return companyIds[index];
+    }
+
+    /**
+     * 获取指定下标公司的公司名称。
+     *
+     * @param index 公司在索引中的下标
+     * @return 公司名称
+     */
+    public String companyName(int index) {
+        return companyNames[index];
+    }
+
+    /**
+     * 获取指定下标公司的纠正后的经度。
+     *
+     * @param index 公司在索引中的下标
+     * @return 经度
+     */
+    public double longitude(int index) {
+        return longitudes[index];
+    }
+
+    /**
+     * 获取指定下标公司的纠正后的纬度。
+     *
+     * @param index 公司在索引中的下标
+     * @return 纬度
+     */
+    public double latitude(int index) {
+        return latitudes[index];
+    }
+
+    /**
+     * 获取指定下标公司的风险等级。
+     *
+     * @param index 公司在索引中的下标
+     * @return 风险等级
+     */
+    public RiskLevel riskLevel(int index) {
+        return levels[index];
+    }
+
+    /**
+     * 计算覆盖给定范围所需的网格级别：不超过 {@code preferredLevel}，且覆盖范围的格子数不超过 {@code maxCells}。
+     *
+     * @param box            经纬度范围
+     * @param preferredLevel 期望的网格级别
+     * @param maxCells       格子数上限
+     * @return 网格级别
+     */
+    public static int levelFor(BoundingBox box, int preferredLevel, int maxCells) {
+        int level = Math.max(0, Math.min(preferredLevel, MAX_LEVEL));
+        while (level > 0 && cellCount(box, level) > maxCells) {
+            level--;
+        }
+        return level;
+    }
+
+    /**
+     * 统计给定级别下与范围相交的格子内的公司数量（格子可能超出范围边界，因此是上界）。
+     *
+     * @param box   经纬度范围
+     * @param level 网格级别
+     * @return 公司数量上界
+     */
+    public int countInCells(BoundingBox box, int level) {
+        int[] count = {0};
+        forEachCellRange(box, level, (from, to) -> count[0] += to - from);
+        return count[0];
+    }
+
+    /**
+     * 按给定级别的网格聚合与范围相交的格子内的公司，没有公司的格子不出现在结果中。
+     *
+     * @param box   经纬度范围
+     * @param level 网格级别
+     * @return 聚合结果
+     */
+    public List<Cluster> cluster(BoundingBox box, int level) {
+        List<Cluster> clusters = new ArrayList<>();
+        forEachCellRange(box, level, (from, to) -> {
+            int count = to - from;
+            double x = (xPrefix[to] - xPrefix[from]) / count;
+            double y = (yPrefix[to] - yPrefix[from]) / count;
+            clusters.add(new Cluster(unprojectX(x), unprojectY(y), count,
+                    countLevel(RiskLevel.HIGH, from, to), countLevel(RiskLevel.MEDIUM, from, to), countLevel(RiskLevel.LOW, from, to)));
+        });
+        return clusters;
+    }
+
+    /**
+     * 按 Morton 码顺序遍历范围内的公司。
+     *
+     * @param box     经纬度范围
+     * @param visitor 接收公司下标，返回 false 时停止遍历
+     */
+    public void forEachInBox(BoundingBox box, IntPredicate visitor) {
+        int level = levelFor(box, MAX_LEVEL, 64);
+        boolean[] stopped = {false};
+        forEachCellRange(box, level, (from, to) -> {
+            for (int i = from; i < to && !stopped[0]; i++) {
+                if (box.contains(longitudes[i], latitudes[i]) && !visitor.test(i)) {
+                    stopped[0] = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * 遍历与给定中心点的大圆距离不超过半径的公司。
+     * 先按半径换算出经纬度范围缩小候选集，再逐个计算距离。
+     *
+     * @param latitude  中心点纬度
+     * @param longitude 中心点经度
+     * @param radiusKm  半径（公里）
+     * @param visitor   接收公司下标及其距中心点的距离（公里），返回 false 时停止遍历
+     */
+    public void forEachWithinRadius(double latitude, double longitude, double radiusKm, DistanceVisitor visitor) {
+        double angularRadius = radiusKm / EARTH_RADIUS_KM;
+        double latitudeDelta = Math.toDegrees(angularRadius);
+        // 圆在经度方向上的最大跨度：asin(sin(r) / cos(纬度))，圆覆盖极点时取整个经度范围
+        double ratio = Math.sin(Math.min(angularRadius, Math.PI / 2)) / Math.cos(Math.toRadians(latitude));
+        double longitudeDelta = ratio >= 1 || Math.abs(latitude) + latitudeDelta >= 90 ? 180 : Math.toDegrees(Math.asin(ratio));
+        BoundingBox box = new BoundingBox(longitude - longitudeDelta, latitude - latitudeDelta,
+                longitude + longitudeDelta, latitude + latitudeDelta).normalized();
+        forEachInBox(box, i -> {
+            double distance = distanceKm(latitude, longitude, latitudes[i], longitudes[i]);
+            return distance > radiusKm || visitor.visit(i, distance);
+        });
+    }
+
+    /**
+     * 遍历位于多边形内的公司（射线法判断，多边形自动闭合，边界上的点可能被判为任一侧）。
+     *
+     * @param longitudes 多边形各顶点的经度
+     * @param latitudes  多边形各顶点的纬度，长度与经度数组相同
+     * @param visitor    接收公司下标，返回 false 时停止遍历
+     */
+    public void forEachInPolygon(double[] longitudes, double[] latitudes, IntPredicate visitor) {
+        double west = Arrays.stream(longitudes).min().orElse(0);
+        double east = Arrays.stream(longitudes).max().orElse(0);
+        double south = Arrays.stream(latitudes).min().orElse(0);
+        double north = Arrays.stream(latitudes).max().orElse(0);
+        BoundingBox box = new BoundingBox(west, south, east, north).normalized();
+        forEachInBox(box, i -> !containsPoint(longitudes, latitudes, this.longitudes[i], this.latitudes[i]) || visitor.test(i));
+    }
+
+    /**
+     * 计算两点之间的大圆距离（haversine 公式）。
+     *
+     * @param lat1 第一个点的纬度
+     * @param lng1 第一个点的经度
+     * @param lat2 第二个点的纬度
+     * @param lng2 第二个点的经度
+     * @return 距离（公里）
+     */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static boolean containsPoint(double[] xs, double[] ys, double x, double y) {
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if ((ys[i] > y) != (ys[j] > y) && x < (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private int countLevel(RiskLevel level, int from, int to) {
+        int[] prefix = levelPrefix[level.ordinal()];
+        return prefix[to] - prefix[from];
+    }
+
+    /**
+     * 按距离遍历公司时的回调。
+     */
+    @FunctionalInterface
+    public interface DistanceVisitor {
+        /**
+         * 接收一家公司。
+         *
+         * @param index      公司在索引中的下标
+         * @param distanceKm 距中心点的距离（公里）
+         * @return 返回 false 时停止遍历
+         */
+        boolean visit(int index, double distanceKm);
+    }
+
+    @FunctionalInterface
+    private interface RangeVisitor {
+        void visit(int from, int to);
+    }
+
+    /**
+     * 遍历给定级别下与范围相交的每个非空格子，回调其在排序数组中的区间 [from, to)。
+     */
+    private void forEachCellRange(BoundingBox box, int level, RangeVisitor visitor) {
+        int shift = MAX_LEVEL - level;
+        int x0 = cell(projectX(box.west())) >>> shift;
+        int x1 = cell(projectX(box.east())) >>> shift;
+        int y0 = cell(projectY(box.north())) >>> shift;
+        int y1 = cell(projectY(box.south())) >>> shift;
+        for (int cy = y0; cy <= y1; cy++) {
+            for (int cx = x0; cx <= x1; cx++) {
+                long start = encode(cx, cy) << (2 * shift);
+                long end = (encode(cx, cy) + 1) << (2 * shift);
+                int from = lowerBound(start);
+                int to = lowerBound(end);
+                if (to > from) {
+                    visitor.visit(from, to);
+                }
+            }
+        }
+    }
+
+    private static long cellCount(BoundingBox box, int level) {
+        int shift = MAX_LEVEL - level;
+        long width = (cell(projectX(box.east())) >>> shift) - (cell(projectX(box.west())) >>> shift) + 1L;
+        long height = (cell(projectY(box.south())) >>> shift) - (cell(projectY(box.north())) >>> shift) + 1L;
+        return width * height;
+    }
+
+    private int lowerBound(long code) {
+        int low = 0;
+        int high = codes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (codes[middle] < code) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static double projectX(double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    private static double projectY(double latitude) {
+        double sin = Math.sin(Math.toRadians(clamp(latitude, -MAX_LATITUDE, MAX_LATITUDE)));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    private static double unprojectX(double x) {
+        return x * 360 - 180;
+    }
+
+    private static double unprojectY(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+    }
+
+    private static int cell(double projected) {
+        return (int) clamp(Math.floor(projected * GRID_SIZE), 0, GRID_SIZE - 1);
+    }
+
+    /**
+     * 交错 x、y 的各位得到 Morton 码，x 占偶数位、y 占奇数位。
+     */
+    private static long encode(int x, int y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static long spread(int value) {
+        long v = value & 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,252 @@
+package org.example.riskwarningsystembackend.service.graph;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 公司关系图的多跳邻域展开器。
+ * <p>
+ * 在 {@link CompanyRelationGraph} 快照上按层进行有界广度优先搜索：
+ * 1. 每一层先收集当前层所有公司的候选关系，按 关系类型优先级 → 对端公司关系数（降序）→ 对端公司ID → 产品名称 排序，
+ * 因此同样的参数和数据总是得到同样的子图；
+ * 2. 每一层最多接纳剩余边数预算条关系，因此收集时只在有界堆中保留排序最靠前的这么多条候选，
+ * 高度数公司的其余关系在收集时即被丢弃，不会整体排序；仅当部分候选因节点数上限被跳过时才继续收集其后的候选；
+ * 3. 依次接纳候选关系，节点数或边数达到上限后停止扩展；
+ * 4. 对每个返回的节点统计未返回的关系数，便于前端提示“还有更多”。
+ */
+@Component
+public class CompanyNeighborhoodExpander {
+
+    /**
+     * 未指定关系类型时的默认优先级：“合作”优先于“竞争”，其余类型排在最后。
+     */
+    private static final List<String> DEFAULT_TYPE_PRIORITY =
+            List.of("partner", CompanyRelationGraph.COMPETITOR_RELATION_TYPE);
+
+    private static final Comparator<Candidate> CANDIDATE_ORDER = Comparator
+            .comparingInt(Candidate::rank)
+            .thenComparing(Comparator.comparingInt(Candidate::targetDegree).reversed())
+            .thenComparingLong(Candidate::targetId)
+            .thenComparingLong(Candidate::sourceId)
+            .thenComparing(Candidate::productName)
+            .thenComparingInt(Candidate::label);
+
+    /**
+     * 展开结果。节点按被接纳的顺序排列，边以 {起点下标, 终点下标, 产品下标, 标签下标} 表示。
+     *
+     * @param nodes           节点（公司下标）
+     * @param depths          每个节点距起点的跳数
+     * @param degrees         每个节点符合类型筛选的关系总数
+     * @param hiddenRelations 每个节点未被返回的关系数
+     * @param edges           边
+     * @param truncated       是否因节点数或边数上限而截断
+     */
+    public record Subgraph(int[] nodes, int[] depths, int[] degrees, int[] hiddenRelations, List<int[]> edges, boolean truncated) {
+    }
+
+    private record Candidate(int source, int target, int product, int label, int rank, int targetDegree,
+                             long sourceId, long targetId, String productName) {
+    }
+
+    private record EdgeKey(int low, int high, int product, int label) {
+    }
+
+    /**
+     * 有界的候选集合，只保留排序最靠前的 limit 条候选。
+     */
+    private static final class TopCandidates {
+        private final int limit;
+        /**
+         * 以逆序排列的堆，堆顶是当前保留的候选中排序最靠后的一条
+         */
+        private final PriorityQueue<Candidate> heap;
+        private boolean dropped;
+
+        TopCandidates(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 1024) + 1, CANDIDATE_ORDER.reversed());
+        }
+
+        void offer(Candidate candidate) {
+            if (heap.size() < limit) {
+                heap.add(candidate);
+                return;
+            }
+            dropped = true;
+            if (limit > 0 && CANDIDATE_ORDER.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        List<Candidate> sorted() {
+            List<Candidate> candidates = new ArrayList<>(heap);
+            candidates.sort(CANDIDATE_ORDER);
+            return candidates;
+        }
+    }
+
+    /**
+     * 从一组起点公司出发展开邻域。
+     *
+     * @param graph         关系图快照
+     * @param seeds         起点公司的下标
+     * @param maxDepth      最大跳数，0 表示只返回起点
+     * @param maxNodes      最多返回的节点数（不少于起点数）
+     * @param maxEdges      最多返回的边数
+     * @param relationTypes 允许的关系类型，按优先级排列；为空时不限类型并使用默认优先级
+     * @return 展开结果
+     */
+    public Subgraph expand(CompanyRelationGraph graph, int[] seeds, int maxDepth, int maxNodes, int maxEdges,
+                           Collection<String> relationTypes) {
+        Map<Integer, Integer> labelRanks = rankLabels(graph, relationTypes);
+
+        Map<Integer, Integer> depthByNode = new HashMap<>();
+        List<Integer> order = new ArrayList<>();
+        for (int seed : seeds) {
+            if (depthByNode.putIfAbsent(seed, 0) == null) {
+                order.add(seed);
+            }
+        }
+
+        Set<EdgeKey> edgeKeys = new HashSet<>();
+        List<int[]> edges = new ArrayList<>();
+        boolean truncated = false;
+        List<Integer> frontier = new ArrayList<>(order);
+
+        for (int depth = 0; depth < maxDepth && !frontier.isEmpty(); depth++) {
+            Set<Integer> frontierNodes = new HashSet<>(frontier);
+            if (edges.size() >= maxEdges) {
+                truncated |= collect(graph, frontier, frontierNodes, labelRanks, edgeKeys, null, 0).dropped;
+                break;
+            }
+
+            // 本层最多接纳剩余边数预算条关系，因此先只取排序最靠前的这么多条候选；
+            // 只有当其中一部分因节点数上限被跳过时，才继续取其后的候选（每轮数量翻倍）
+            List<Integer> nextFrontier = new ArrayList<>();
+            Candidate last = null;
+            int limit = maxEdges - edges.size();
+            boolean more = true;
+            while (more && edges.size() < maxEdges) {
+                TopCandidates candidates = collect(graph, frontier, frontierNodes, labelRanks, edgeKeys, last, limit);
+                for (Candidate candidate : candidates.sorted()) {
+                    last = candidate;
+                    EdgeKey key = edgeKey(candidate.source(), candidate.target(), candidate.product(), candidate.label());
+                    if (edgeKeys.contains(key)) {
+                        continue;
+                    }
+                    if (edges.size() >= maxEdges) {
+                        truncated = true;
+                        break;
+                    }
+                    if (!depthByNode.containsKey(candidate.target())) {
+                        if (order.size() >= maxNodes) {
+                            truncated = true;
+                            continue;
+                        }
+                        depthByNode.put(candidate.target(), depth + 1);
+                        order.add(candidate.target());
+                        nextFrontier.add(candidate.target());
+                    }
+                    edgeKeys.add(key);
+                    edges.add(new int[]{candidate.source(), candidate.target(), candidate.product(), candidate.label()});
+                }
+                more = candidates.dropped;
+                limit = (int) Math.min(Integer.MAX_VALUE, limit * 2L);
+            }
+            if (more) {
+                truncated = true;
+            }
+            frontier = nextFrontier;
+        }
+
+        int[] nodes = order.stream().mapToInt(Integer::intValue).toArray();
+        int[] depths = new int[nodes.length];
+        int[] degrees = new int[nodes.length];
+        int[] hidden = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            int node = nodes[i];
+            depths[i] = depthByNode.get(node);
+            int[] counts = {0, 0};
+            graph.forEachRelation(node, (target, product, label) -> {
+                if (labelRanks.containsKey(label)) {
+                    counts[0]++;
+                    if (!edgeKeys.contains(edgeKey(node, target, product, label))) {
+                        counts[1]++;
+                    }
+                }
+            });
+            degrees[i] = counts[0];
+            hidden[i] = counts[1];
+        }
+        return new Subgraph(nodes, depths, degrees, hidden, edges, truncated);
+    }
+
+    /**
+     * 收集当前层公司的候选关系，只保留排在 after 之后的前 limit 条。
+     *
+     * @param after 上一轮已处理的最后一条候选，第一轮为 null
+     */
+    private TopCandidates collect(CompanyRelationGraph graph, List<Integer> frontier, Set<Integer> frontierNodes,
+                                  Map<Integer, Integer> labelRanks, Set<EdgeKey> edgeKeys, Candidate after, int limit) {
+        TopCandidates candidates = new TopCandidates(limit);
+        for (int source : frontier) {
+            graph.forEachRelation(source, (target, product, label) -> {
+                Integer rank = labelRanks.get(label);
+                if (rank == null || edgeKeys.contains(edgeKey(source, target, product, label))) {
+                    return;
+                }
+                Candidate candidate = new Candidate(source, target, product, label, rank, graph.degree(target),
+                        graph.companyId(source), graph.companyId(target), graph.productName(product));
+                if (after != null && CANDIDATE_ORDER.compare(candidate, after) <= 0) {
+                    return;
+                }
+                // 两端都在当前层的关系会从两端各收集一次，只保留排序靠前的一次，以免重复占用预算
+                if (frontierNodes.contains(target) && CANDIDATE_ORDER.compare(mirror(graph, candidate), candidate) < 0) {
+                    return;
+                }
+                candidates.offer(candidate);
+            });
+        }
+        return candidates;
+    }
+
+    /**
+     * 为关系图中的每个标签计算优先级，不在允许范围内的标签不出现在结果中。
+     */
+    private Map<Integer, Integer> rankLabels(CompanyRelationGraph graph, Collection<String> relationTypes) {
+        boolean filtered = relationTypes != null && !relationTypes.isEmpty();
+        List<String> priority = filtered ? List.copyOf(relationTypes) : DEFAULT_TYPE_PRIORITY;
+        Map<Integer, Integer> ranks = new HashMap<>();
+        for (int label = 0; label < graph.labelCount(); label++) {
+            int rank = priority.indexOf(graph.relationType(label));
+            if (rank >= 0) {
+                ranks.put(label, rank);
+            } else if (!filtered) {
+                ranks.put(label, priority.size());
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * 同一条关系从另一端收集时得到的候选。
+     */
+    private static Candidate mirror(CompanyRelationGraph graph, Candidate candidate) {
+        return new Candidate(candidate.target(), candidate.source(), candidate.product(), candidate.label(), candidate.rank(),
+                graph.degree(candidate.source()), candidate.targetId(), candidate.sourceId(), candidate.productName());
+    }
+
+    private static EdgeKey edgeKey(int a, int b, int product, int label) {
+        return new EdgeKey(Math.min(a, b), Math.max(a, b), product, label);
+    }
+}
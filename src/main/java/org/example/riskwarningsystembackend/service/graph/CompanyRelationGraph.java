@@ -0,0 +1,399 @@
+package org.example.riskwarningsystembackend.service.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 公司关系图的只读内存快照。
+ * <p>
+ * 公司按ID升序编号为连续的 int 下标，公司名称、产品名称和关系标签均为字典编码后的数组：
+ * 1. “合作”等已存储的关系以压缩稀疏行（CSR）形式保存为无向邻接表，每条边记录邻居下标、产品下标和标签下标；
+ * 2. “竞争”关系以公司与产品分组之间的双向 CSR 保存，遍历时才展开为公司对，不占用平方级内存。
+ * <p>
+ * 快照构建完成后不再修改，可被任意多个线程并发读取；数据变化时由 {@link CompanyRelationGraphStore} 整体替换。
+ */
+public final class CompanyRelationGraph {
+
+    /**
+     * “竞争”关系的名称
+     */
+    public static final String COMPETITOR_RELATION_NAME = "竞争";
+
+    /**
+     * “竞争”关系的类型
+     */
+    public static final String COMPETITOR_RELATION_TYPE = "supplier";
+
+    private final long[] companyIds;
+    private final String[] companyNames;
+    private final String[] productNames;
+    private final String[] labelNames;
+    private final String[] labelTypes;
+    private final int competitorLabel;
+
+    private final int[] edgeOffsets;
+    private final int[] edgeTargets;
+    private final int[] edgeProducts;
+    private final int[] edgeLabels;
+
+    private final int[] companyGroupOffsets;
+    private final int[] companyGroups;
+    private final int[] groupOffsets;
+    private final int[] groupMembers;
+
+    /**
+     * 访问公司某条关系的回调。
+     */
+    @FunctionalInterface
+    public interface RelationVisitor {
+        /**
+         * 接收一条关系。
+         *
+         * @param neighbor 关系另一端公司的下标
+         * @param product  共享产品的下标
+         * @param label    关系标签的下标
+         */
+        void visit(int neighbor, int product, int label);
+    }
+
+    private CompanyRelationGraph(Builder builder, int[] edgeOffsets, int[] edgeTargets, int[] edgeProducts, int[] edgeLabels,
+                                 int[] companyGroupOffsets, int[] companyGroups, int[] groupOffsets, int[] groupMembers) {
+        this.companyIds = builder.companyIds;
+        this.companyNames = builder.companyNames;
+        this.productNames = builder.products.names();
+        this.labelNames = Arrays.copyOf(builder.labelNames, builder.labelCount);
+        this.labelTypes = Arrays.copyOf(builder.labelTypes, builder.labelCount);
+        this.competitorLabel = builder.competitorLabel;
+        this.edgeOffsets = edgeOffsets;
+        this.edgeTargets = edgeTargets;
+        this.edgeProducts = edgeProducts;
+        this.edgeLabels = edgeLabels;
+        this.companyGroupOffsets = companyGroupOffsets;
+        this.companyGroups = companyGroups;
+        this.groupOffsets = groupOffsets;
+        this.groupMembers = groupMembers;
+    }
+
+    /**
+     * 创建一个空的关系图。
+     *
+     * @return 不含任何公司的关系图
+     */
+    public static CompanyRelationGraph empty() {
+        return new Builder(new long[0], new String[0]).build();
+    }
+
+    /**
+     * 公司数量。
+     *
+     * @return 公司数量
+     */
+    public int companyCount() {
+        return companyIds.length;
+    }
+
+    /**
+     * 已存储关系（不含展开后的“竞争”关系）的数量。
+     *
+     * @return 已存储关系数量
+     */
+    public int storedRelationCount() {
+        return edgeTargets.length / 2;
+    }
+
+    /**
+     * 根据公司ID查找其下标。
+     *
+     * @param companyId 公司ID
+     * @return 公司下标，不存在时返回 -1
+     */
+    public int indexOf(long companyId) {
+        int index = Arrays.binarySearch(companyIds, companyId);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * 获取指定下标的公司ID。
+     *
+     * @param company 公司下标
+     * @return 公司ID
+     */
+    public long companyId(int company) {
+        return companyIds[company];
+    }
+
+    /**
+     * 获取指定下标的公司名称。
+     *
+     * @param company 公司下标
+     * @return 公司名称
+     */
+    public String companyName(int company) {
+        return companyNames[company];
+    }
+
+    /**
+     * 获取指定下标的产品名称。
+     *
+     * @param product 产品下标
+     * @return 产品名称
+     */
+    public String productName(int product) {
+        return productNames[product];
+    }
+
+    /**
+     * 关系标签数量，标签下标取值范围为 [0, labelCount)。
+     *
+     * @return 关系标签数量
+     */
+    public int labelCount() {
+        return labelNames.length;
+    }
+
+    /**
+     * 获取指定标签的关系名称，如“合作”“竞争”。
+     *
+     * @param label 标签下标
+     * @return 关系名称
+     */
+    public String relationName(int label) {
+        return labelNames[label];
+    }
+
+    /**
+     * 获取指定标签的关系类型，如 partner、supplier。
+     *
+     * @param label 标签下标
+     * @return 关系类型
+     */
+    public String relationType(int label) {
+        return labelTypes[label];
+    }
+
+    /**
+     * 公司的关系总数，即 {@link #forEachRelation} 将访问的关系条数。
+     *
+     * @param company 公司下标
+     * @return 关系总数
+     */
+    public int degree(int company) {
+        int degree = edgeOffsets[company + 1] - edgeOffsets[company];
+        for (int i = companyGroupOffsets[company]; i < companyGroupOffsets[company + 1]; i++) {
+            int group = companyGroups[i];
+            degree += groupOffsets[group + 1] - groupOffsets[group] - 1;
+        }
+        return degree;
+    }
+
+    /**
+     * 依次访问公司的全部关系：先是已存储的关系，再是由产品分组展开的“竞争”关系。
+     *
+     * @param company 公司下标
+     * @param visitor 关系访问者
+     */
+    public void forEachRelation(int company, RelationVisitor visitor) {
+        for (int i = edgeOffsets[company]; i < edgeOffsets[company + 1]; i++) {
+            visitor.visit(edgeTargets[i], edgeProducts[i], edgeLabels[i]);
+        }
+        for (int i = companyGroupOffsets[company]; i < companyGroupOffsets[company + 1]; i++) {
+            int group = companyGroups[i];
+            for (int j = groupOffsets[group]; j < groupOffsets[group + 1]; j++) {
+                if (groupMembers[j] != company) {
+                    visitor.visit(groupMembers[j], group, competitorLabel);
+                }
+            }
+        }
+    }
+
+    /**
+     * 关系图构建器。先确定公司集合，再逐条加入已存储的关系和产品分组成员，最后一次性生成 CSR 数组。
+     * 引用了不存在公司的关系或分组成员会被忽略。
+     */
+    public static final class Builder {
+        private final long[] companyIds;
+        private final String[] companyNames;
+        private final Dictionary products = new Dictionary();
+        private final Map<String, Integer> labelIndex = new HashMap<>();
+        private String[] labelNames = new String[4];
+        private String[] labelTypes = new String[4];
+        private int labelCount;
+        private final int competitorLabel;
+
+        private int[] edgeSources = new int[1024];
+        private int[] edgeTargets = new int[1024];
+        private int[] edgeProducts = new int[1024];
+        private int[] edgeLabels = new int[1024];
+        private int edgeCount;
+
+        private int[] memberProducts = new int[1024];
+        private int[] memberCompanies = new int[1024];
+        private int memberCount;
+
+        /**
+         * 创建构建器。
+         *
+         * @param companyIds   按升序排列的公司ID
+         * @param companyNames 与公司ID一一对应的公司名称
+         */
+        public Builder(long[] companyIds, String[] companyNames) {
+            this.companyIds = companyIds;
+            this.companyNames = companyNames;
+            this.competitorLabel = label(COMPETITOR_RELATION_NAME, COMPETITOR_RELATION_TYPE);
+        }
+
+        /**
+         * 加入一条已存储的关系。
+         *
+         * @param companyOneId 公司1的ID
+         * @param companyTwoId 公司2的ID
+         * @param productName  共享产品名称
+         * @param relationName 关系名称
+         * @param relationType 关系类型
+         */
+        public void addRelation(long companyOneId, long companyTwoId, String productName, String relationName, String relationType) {
+            int one = Arrays.binarySearch(companyIds, companyOneId);
+            int two = Arrays.binarySearch(companyIds, companyTwoId);
+            if (one < 0 || two < 0 || one == two) {
+                return;
+            }
+            if (edgeCount == edgeSources.length) {
+                int capacity = edgeCount * 2;
+                edgeSources = Arrays.copyOf(edgeSources, capacity);
+                edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+                edgeProducts = Arrays.copyOf(edgeProducts, capacity);
+                edgeLabels = Arrays.copyOf(edgeLabels, capacity);
+            }
+            edgeSources[edgeCount] = one;
+            edgeTargets[edgeCount] = two;
+            edgeProducts[edgeCount] = products.encode(productName);
+            edgeLabels[edgeCount++] = label(relationName, relationType);
+        }
+
+        /**
+         * 加入一条产品分组成员记录。
+         *
+         * @param productName 产品名称
+         * @param companyId   公司ID
+         */
+        public void addGroupMember(String productName, long companyId) {
+            int company = Arrays.binarySearch(companyIds, companyId);
+            if (company < 0) {
+                return;
+            }
+            if (memberCount == memberProducts.length) {
+                int capacity = memberCount * 2;
+                memberProducts = Arrays.copyOf(memberProducts, capacity);
+                memberCompanies = Arrays.copyOf(memberCompanies, capacity);
+            }
+            memberProducts[memberCount] = products.encode(productName);
+            memberCompanies[memberCount++] = company;
+        }
+
+        /**
+         * 生成关系图快照。
+         *
+         * @return 关系图
+         */
+        public CompanyRelationGraph build() {
+            int companies = companyIds.length;
+
+            // 已存储的关系：无向边在两个端点各存一份
+            int[] edgeOffsets = new int[companies + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                edgeOffsets[edgeSources[i] + 1]++;
+                edgeOffsets[edgeTargets[i] + 1]++;
+            }
+            prefixSum(edgeOffsets);
+            int[] cursor = Arrays.copyOf(edgeOffsets, companies);
+            int[] targets = new int[edgeCount * 2];
+            int[] edgeProductIds = new int[edgeCount * 2];
+            int[] edgeLabelIds = new int[edgeCount * 2];
+            for (int i = 0; i < edgeCount; i++) {
+                int forward = cursor[edgeSources[i]]++;
+                targets[forward] = edgeTargets[i];
+                edgeProductIds[forward] = edgeProducts[i];
+                edgeLabelIds[forward] = edgeLabels[i];
+                int backward = cursor[edgeTargets[i]]++;
+                targets[backward] = edgeSources[i];
+                edgeProductIds[backward] = edgeProducts[i];
+                edgeLabelIds[backward] = edgeLabels[i];
+            }
+
+            // 产品分组：公司 -> 分组 与 分组 -> 公司 两个方向
+            int groups = products.size();
+            int[] companyGroupOffsets = new int[companies + 1];
+            int[] groupOffsets = new int[groups + 1];
+            for (int i = 0; i < memberCount; i++) {
+                companyGroupOffsets[memberCompanies[i] + 1]++;
+                groupOffsets[memberProducts[i] + 1]++;
+            }
+            prefixSum(companyGroupOffsets);
+            prefixSum(groupOffsets);
+            int[] companyCursor = Arrays.copyOf(companyGroupOffsets, companies);
+            int[] groupCursor = Arrays.copyOf(groupOffsets, groups);
+            int[] companyGroups = new int[memberCount];
+            int[] groupMembers = new int[memberCount];
+            for (int i = 0; i < memberCount; i++) {
+                companyGroups[companyCursor[memberCompanies[i]]++] = memberProducts[i];
+                groupMembers[groupCursor[memberProducts[i]]++] = memberCompanies[i];
+            }
+
+            return new CompanyRelationGraph(this, edgeOffsets, targets, edgeProductIds, edgeLabelIds,
+                    companyGroupOffsets, companyGroups, groupOffsets, groupMembers);
+        }
+
+        private int label(String relationName, String relationType) {
+            String key = relationName + '\u0000' + relationType;
+            Integer existing = labelIndex.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if (labelCount == labelNames.length) {
+                labelNames = Arrays.copyOf(labelNames, labelCount * 2);
+                labelTypes = Arrays.copyOf(labelTypes, labelCount * 2);
+            }
+            labelNames[labelCount] = relationName;
+            labelTypes[labelCount] = relationType;
+            labelIndex.put(key, labelCount);
+            return labelCount++;
+        }
+
+        private static void prefixSum(int[] offsets) {
+            for (int i = 1; i < offsets.length; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+        }
+    }
+
+    /**
+     * 字符串字典，将字符串编码为连续的 int 下标。
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> index = new HashMap<>();
+        private String[] names = new String[256];
+
+        int encode(String name) {
+            Integer existing = index.get(name);
+            if (existing != null) {
+                return existing;
+            }
+            int id = index.size();
+            if (id == names.length) {
+                names = Arrays.copyOf(names, id * 2);
+            }
+            names[id] = name;
+            index.put(name, id);
+            return id;
+        }
+
+        int size() {
+            return index.size();
+        }
+
+        String[] names() {
+            return Arrays.copyOf(names, index.size());
+        }
+    }
+}
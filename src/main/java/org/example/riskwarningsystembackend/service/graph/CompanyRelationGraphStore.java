@@ -0,0 +1,126 @@
+package org.example.riskwarningsystembackend.service.graph;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.event.CompanyRelationsChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 公司关系图的内存存储。
+ * <p>
+ * 持有当前的 {@link CompanyRelationGraph} 快照，供知识图谱等读多写少的查询直接在内存中回答，而无需访问数据库。
+ * 快照在首次访问时加载，之后在关系全量重建完成，或公司信息变更（经重建调度器防抖合并）后，
+ * 通过 {@link #refresh()} 整体重新加载并原子替换，正在进行的查询继续使用旧快照，不受影响。
+ * 每次实际完成的重新加载发布一次变更事件，而不是每次公司写入都发布。
+ * 三次读取在同一个只读的可重复读事务中进行，保证快照中的公司、关系和分组成员来自同一时刻的数据。
+ */
+@Slf4j
+@Component
+public class CompanyRelationGraphStore {
+
+    private static final String COMPANY_SQL = "SELECT id, name FROM company_info ORDER BY id";
+    private static final String RELATION_SQL =
+            "SELECT company_one_id, company_two_id, shared_product_name, relation_name, relation_type FROM company_relations";
+    private static final String GROUP_MEMBER_SQL = "SELECT product_name, company_id FROM product_group_members";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readTemplate;
+    private volatile CompanyRelationGraph graph;
+
+    /**
+     * 构造函数，注入 JdbcTemplate、事件发布器及事务管理器。
+     *
+     * @param jdbcTemplate       JDBC 操作模板
+     * @param eventPublisher     事件发布器，关系图刷新后发布公司关系变更事件
+     * @param transactionManager 事务管理器，用于创建加载关系图的只读事务
+     */
+    public CompanyRelationGraphStore(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.readTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * 获取当前的关系图快照，首次调用时从数据库加载。
+     *
+     * @return 关系图快照
+     */
+    public CompanyRelationGraph getGraph() {
+        CompanyRelationGraph current = graph;
+        if (current == null) {
+            synchronized (this) {
+                current = graph;
+                if (current == null) {
+                    current = load();
+                    graph = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 从数据库重新加载关系图并替换当前快照，随后发布 {@link CompanyRelationsChangedEvent}。
+     * 加载失败时保留旧快照，仅记录日志。
+     */
+    public synchronized void refresh() {
+        try {
+            CompanyRelationGraph loaded = load();
+            graph = loaded;
+            eventPublisher.publishEvent(new CompanyRelationsChangedEvent(loaded.companyCount(), loaded.storedRelationCount()));
+        } catch (RuntimeException e) {
+            log.error("公司关系图刷新失败，继续使用旧版本。原因: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 在同一个只读的可重复读事务中依次读取公司、已存储的关系和产品分组成员，构建新的关系图快照。
+     * 否则在两次读取之间提交的重建或公司写入会使快照混合新旧两种状态（例如关系引用了尚未加载的公司）。
+     *
+     * @return 新的关系图快照
+     */
+    private CompanyRelationGraph load() {
+        return readTemplate.execute(status -> read());
+    }
+
+    private CompanyRelationGraph read() {
+        long startTime = System.currentTimeMillis();
+
+        long[][] ids = {new long[1024]};
+        List<String> names = new ArrayList<>();
+        jdbcTemplate.query(COMPANY_SQL, rs -> {
+            int index = names.size();
+            if (index == ids[0].length) {
+                ids[0] = Arrays.copyOf(ids[0], index * 2);
+            }
+            ids[0][index] = rs.getLong(1);
+            names.add(rs.getString(2));
+        });
+
+        CompanyRelationGraph.Builder builder = new CompanyRelationGraph.Builder(
+                Arrays.copyOf(ids[0], names.size()), names.toArray(new String[0]));
+        jdbcTemplate.query(RELATION_SQL, rs -> {
+            builder.addRelation(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4), rs.getString(5));
+        });
+        jdbcTemplate.query(GROUP_MEMBER_SQL, rs -> {
+            builder.addGroupMember(rs.getString(1), rs.getLong(2));
+        });
+        CompanyRelationGraph loaded = builder.build();
+
+        log.info("公司关系图加载完成：{} 家公司，{} 条已存储关系，耗时 {} 毫秒。",
+                loaded.companyCount(), loaded.storedRelationCount(), System.currentTimeMillis() - startTime);
+        return loaded;
+    }
+}
@@ -0,0 +1,434 @@
+package org.example.riskwarningsystembackend.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 公司名称与行业的只读内存检索快照。
+ * <p>
+ * 公司按ID升序编号为连续的 int 下标：
+ * 1. 公司名称（转为小写）按单字和相邻二字（bigram）建立倒排表，每个倒排表为升序的下标数组。
+ * 中文名称没有空格分词，二字切分对 2 个字的关键词同样有效；查询时对关键词的全部二字取倒排表交集，
+ * 再用 {@link String#contains} 校验候选，结果与 {@code LIKE '%keyword%'} 的匹配口径一致；
+ * 2. 行业的取值只有数百种，按字典编码保存，查询时只需扫描不重复的行业名称。
+ * <p>
+ * 结果按匹配质量排序：名称完全相同 > 名称前缀 > 名称包含（位置越靠前越好）> 行业完全相同 > 行业包含，
+ * 同分时名称较短者优先，再按公司ID升序。快照构建完成后不再修改，可被任意多个线程并发读取。
+ * <p>
+ * 单个公司的变更通过 {@link #with(Entry)} 和 {@link #without(long)} 生成新快照，只复制受影响的倒排表：
+ * 更新沿用原下标，ID大于现有全部公司的新公司追加在末尾，删除的公司只从倒排表中移除、下标留空，
+ * 因此存活公司的下标顺序始终与ID顺序一致。其余情况（插入到中间、空下标过多）在内存中按现有数据重新构建。
+ */
+public final class CompanySearchIndex {
+
+    private static final int SCORE_NAME_EXACT = 1000;
+    private static final int SCORE_NAME_PREFIX = 800;
+    private static final int SCORE_NAME_CONTAINS = 600;
+    private static final int SCORE_INDUSTRY_EXACT = 300;
+    private static final int SCORE_INDUSTRY_CONTAINS = 200;
+    private static final int MAX_POSITION_PENALTY = 100;
+    private static final int MAX_SCORE = 1023;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final long[] companyIds;
+    private final String[] names;
+    private final int[] industryOf;
+    private final int size;
+    private final Map<Character, int[]> unigrams;
+    private final Map<Integer, int[]> bigrams;
+    private final String[] industries;
+    private final int[][] industryMembers;
+
+    /**
+     * 参与检索的一家公司。
+     *
+     * @param id       公司ID
+     * @param name     公司名称，可能为 null
+     * @param industry 所属行业，可能为 null
+     */
+    public record Entry(long id, String name, String industry) {
+    }
+
+    private CompanySearchIndex(long[] companyIds, String[] names, int[] industryOf, int size, Map<Character, int[]> unigrams,
+                               Map<Integer, int[]> bigrams, String[] industries, int[][] industryMembers) {
+        this.companyIds = companyIds;
+        this.names = names;
+        this.industryOf = industryOf;
+        this.size = size;
+        this.unigrams = unigrams;
+        this.bigrams = bigrams;
+        this.industries = industries;
+        this.industryMembers = industryMembers;
+    }
+
+    /**
+     * 根据公司列表构建检索快照。
+     *
+     * @param entries 公司列表，顺序任意，ID不重复
+     * @return 检索快照
+     */
+    public static CompanySearchIndex build(List<Entry> entries) {
+        Entry[] sorted = entries.toArray(Entry[]::new);
+        Arrays.sort(sorted, (a, b) -> Long.compare(a.id(), b.id()));
+
+        int count = sorted.length;
+        long[] companyIds = new long[count];
+        String[] names = new String[count];
+        int[] industryOf = new int[count];
+        Map<Character, IntBuffer> unigramBuffers = new HashMap<>();
+        Map<Integer, IntBuffer> bigramBuffers = new HashMap<>();
+        Map<String, Integer> industryCodes = new HashMap<>();
+        List<String> industryNames = new ArrayList<>();
+        List<IntBuffer> industryBuffers = new ArrayList<>();
+
+        for (int doc = 0; doc < count; doc++) {
+            Entry entry = sorted[doc];
+            companyIds[doc] = entry.id();
+            String name = normalize(entry.name());
+            names[doc] = name;
+            for (int i = 0; i < name.length(); i++) {
+                unigramBuffers.computeIfAbsent(name.charAt(i), key -> new IntBuffer()).addDistinct(doc);
+                if (i + 1 < name.length()) {
+                    bigramBuffers.computeIfAbsent(bigram(name, i), key -> new IntBuffer()).addDistinct(doc);
+                }
+            }
+
+            String industry = normalize(entry.industry());
+            int code = industryCodes.computeIfAbsent(industry, key -> {
+                industryNames.add(key);
+                industryBuffers.add(new IntBuffer());
+                return industryNames.size() - 1;
+            });
+            industryOf[doc] = code;
+            industryBuffers.get(code).addDistinct(doc);
+        }
+
+        Map<Character, int[]> unigrams = new HashMap<>(unigramBuffers.size() * 2);
+        unigramBuffers.forEach((key, buffer) -> unigrams.put(key, buffer.toArray()));
+        Map<Integer, int[]> bigrams = new HashMap<>(bigramBuffers.size() * 2);
+        bigramBuffers.forEach((key, buffer) -> bigrams.put(key, buffer.toArray()));
+        int[][] industryMembers = industryBuffers.stream().map(IntBuffer::toArray).toArray(int[][]::new);
+        return new CompanySearchIndex(companyIds, names, industryOf, count, unigrams, bigrams,
+                industryNames.toArray(String[]::new), industryMembers);
+    }
+
+    /**
+     * 生成新增或更新了一家公司后的新快照，当前快照不变。
+     *
+     * @param entry 新增或更新的公司
+     * @return 新快照
+     */
+    public CompanySearchIndex with(Entry entry) {
+        int position = Arrays.binarySearch(companyIds, entry.id());
+        if (position >= 0) {
+            return patch(position, entry);
+        }
+        if (-position - 1 == companyIds.length) {
+            return patch(companyIds.length, entry);
+        }
+        // ID小于已有公司时无法追加在末尾而不打乱下标顺序，按现有数据重新构建
+        List<Entry> entries = liveEntries();
+        entries.add(entry);
+        return build(entries);
+    }
+
+    /**
+     * 生成移除了一家公司后的新快照，当前快照不变。
+     *
+     * @param id 公司ID
+     * @return 新快照，公司不存在时返回当前快照
+     */
+    public CompanySearchIndex without(long id) {
+        int position = Arrays.binarySearch(companyIds, id);
+        if (position < 0 || names[position] == null) {
+            return this;
+        }
+        // 空下标超过四分之一时重新构建，避免快照随删除不断膨胀
+        if ((companyIds.length - size + 1) * 4L > companyIds.length) {
+            List<Entry> entries = liveEntries();
+            entries.removeIf(entry -> entry.id() == id);
+            return build(entries);
+        }
+        return patch(position, null);
+    }
+
+    /**
+     * 替换一个下标上的公司并复制受影响的倒排表。
+     *
+     * @param doc   下标，等于当前下标数量时追加
+     * @param entry 新的公司数据，为 null 时移除该下标上的公司
+     */
+    private CompanySearchIndex patch(int doc, Entry entry) {
+        int length = Math.max(companyIds.length, doc + 1);
+        long[] newCompanyIds = Arrays.copyOf(companyIds, length);
+        String[] newNames = Arrays.copyOf(names, length);
+        int[] newIndustryOf = Arrays.copyOf(industryOf, length);
+        String oldName = doc < names.length ? names[doc] : null;
+        int oldIndustry = oldName == null ? -1 : industryOf[doc];
+        String newName = entry == null ? null : normalize(entry.name());
+        int newSize = size + (oldName == null ? 1 : 0) - (newName == null ? 1 : 0);
+
+        Map<Character, int[]> newUnigrams = new HashMap<>(unigrams);
+        Map<Integer, int[]> newBigrams = new HashMap<>(bigrams);
+        Set<Character> oldUnigrams = unigramsOf(oldName);
+        Set<Character> addedUnigrams = unigramsOf(newName);
+        Set<Integer> oldBigrams = bigramsOf(oldName);
+        Set<Integer> addedBigrams = bigramsOf(newName);
+        for (Character key : oldUnigrams) {
+            if (!addedUnigrams.remove(key)) {
+                removePosting(newUnigrams, key, doc);
+            }
+        }
+        addedUnigrams.forEach(key -> addPosting(newUnigrams, key, doc));
+        for (Integer key : oldBigrams) {
+            if (!addedBigrams.remove(key)) {
+                removePosting(newBigrams, key, doc);
+            }
+        }
+        addedBigrams.forEach(key -> addPosting(newBigrams, key, doc));
+
+        String[] newIndustries = industries;
+        int[][] newIndustryMembers = industryMembers.clone();
+        if (oldIndustry >= 0) {
+            newIndustryMembers[oldIndustry] = remove(newIndustryMembers[oldIndustry], doc);
+        }
+        if (entry == null) {
+            newNames[doc] = null;
+            newIndustryOf[doc] = -1;
+        } else {
+            String industry = normalize(entry.industry());
+            int code = Arrays.asList(industries).indexOf(industry);
+            if (code < 0) {
+                code = industries.length;
+                newIndustries = Arrays.copyOf(industries, code + 1);
+                newIndustries[code] = industry;
+                newIndustryMembers = Arrays.copyOf(newIndustryMembers, code + 1);
+                newIndustryMembers[code] = EMPTY;
+            }
+            newIndustryMembers[code] = insert(newIndustryMembers[code], doc);
+            newCompanyIds[doc] = entry.id();
+            newNames[doc] = newName;
+            newIndustryOf[doc] = code;
+        }
+        return new CompanySearchIndex(newCompanyIds, newNames, newIndustryOf, newSize, newUnigrams, newBigrams,
+                newIndustries, newIndustryMembers);
+    }
+
+    private List<Entry> liveEntries() {
+        List<Entry> entries = new ArrayList<>(size + 1);
+        for (int doc = 0; doc < companyIds.length; doc++) {
+            if (names[doc] != null) {
+                entries.add(new Entry(companyIds[doc], names[doc], industries[industryOf[doc]]));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 参与检索的公司数量。
+     *
+     * @return 公司数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按关键词（忽略大小写）检索公司，结果按匹配质量排序。
+     *
+     * @param keyword         关键词，首尾空白会被忽略
+     * @param includeIndustry 是否同时匹配所属行业
+     * @param limit           最多返回的公司数量
+     * @return 匹配公司的ID，按匹配质量从高到低排列
+     */
+    public long[] search(String keyword, boolean includeIndustry, int limit) {
+        String needle = normalize(keyword);
+        if (needle.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (int doc : nameCandidates(needle)) {
+            int position = names[doc].indexOf(needle);
+            if (position < 0) {
+                continue;
+            }
+            int score;
+            if (position == 0) {
+                score = names[doc].length() == needle.length() ? SCORE_NAME_EXACT : SCORE_NAME_PREFIX;
+            } else {
+                score = SCORE_NAME_CONTAINS - Math.min(position, MAX_POSITION_PENALTY);
+            }
+            scores.put(doc, score);
+        }
+        if (includeIndustry) {
+            for (int industry = 0; industry < industries.length; industry++) {
+                if (!industries[industry].contains(needle)) {
+                    continue;
+                }
+                int score = industries[industry].length() == needle.length() ? SCORE_INDUSTRY_EXACT : SCORE_INDUSTRY_CONTAINS;
+                for (int doc : industryMembers[industry]) {
+                    scores.merge(doc, score, Math::max);
+                }
+            }
+        }
+
+        // 每个候选的排序键：高位为 (MAX_SCORE - 分数)，其次为名称长度，低位为下标（即公司ID顺序）
+        long[] keys = new long[scores.size()];
+        int count = 0;
+        for (Map.Entry<Integer, Integer> entry : scores.entrySet()) {
+            int doc = entry.getKey();
+            keys[count++] = ((long) (MAX_SCORE - entry.getValue()) << 48)
+                    | ((long) Math.min(names[doc].length(), 0xFFFF) << 32)
+                    | doc;
+        }
+        Arrays.sort(keys);
+
+        long[] result = new long[Math.min(limit, count)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = companyIds[(int) keys[i]];
+        }
+        return result;
+    }
+
+    /**
+     * 名称可能包含关键词的候选下标：关键词全部二字（单字关键词则为该字）倒排表的交集，从最短的表开始求交。
+     */
+    private int[] nameCandidates(String needle) {
+        if (needle.length() == 1) {
+            return unigrams.getOrDefault(needle.charAt(0), EMPTY);
+        }
+        int[][] postings = new int[needle.length() - 1][];
+        for (int i = 0; i < postings.length; i++) {
+            postings[i] = bigrams.get(bigram(needle, i));
+            if (postings[i] == null) {
+                return EMPTY;
+            }
+        }
+        Arrays.sort(postings, (a, b) -> Integer.compare(a.length, b.length));
+        int[] candidates = postings[0];
+        for (int i = 1; i < postings.length && candidates.length > 0; i++) {
+            candidates = intersect(candidates, postings[i]);
+        }
+        return candidates;
+    }
+
+    private static int[] intersect(int[] small, int[] large) {
+        int[] result = new int[small.length];
+        int count = 0;
+        int from = 0;
+        for (int doc : small) {
+            int position = Arrays.binarySearch(large, from, large.length, doc);
+            if (position >= 0) {
+                result[count++] = doc;
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+            if (from >= large.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static Set<Character> unigramsOf(String name) {
+        Set<Character> keys = new LinkedHashSet<>();
+        if (name != null) {
+            for (int i = 0; i < name.length(); i++) {
+                keys.add(name.charAt(i));
+            }
+        }
+        return keys;
+    }
+
+    private static Set<Integer> bigramsOf(String name) {
+        Set<Integer> keys = new LinkedHashSet<>();
+        if (name != null) {
+            for (int i = 0; i + 1 < name.length(); i++) {
+                keys.add(bigram(name, i));
+            }
+        }
+        return keys;
+    }
+
+    private static <K> void addPosting(Map<K, int[]> postings, K key, int doc) {
+        postings.put(key, insert(postings.getOrDefault(key, EMPTY), doc));
+    }
+
+    private static <K> void removePosting(Map<K, int[]> postings, K key, int doc) {
+        int[] remaining = remove(postings.getOrDefault(key, EMPTY), doc);
+        if (remaining.length == 0) {
+            postings.remove(key);
+        } else {
+            postings.put(key, remaining);
+        }
+    }
+
+    /**
+     * 在升序数组中插入一个下标，返回新数组；已存在时返回原数组。
+     */
+    private static int[] insert(int[] sorted, int doc) {
+        int position = Arrays.binarySearch(sorted, doc);
+        if (position >= 0) {
+            return sorted;
+        }
+        position = -position - 1;
+        int[] result = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, result, 0, position);
+        result[position] = doc;
+        System.arraycopy(sorted, position, result, position + 1, sorted.length - position);
+        return result;
+    }
+
+    /**
+     * 从升序数组中移除一个下标，返回新数组；不存在时返回原数组。
+     */
+    private static int[] remove(int[] sorted, int doc) {
+        int position = Arrays.binarySearch(sorted, doc);
+        if (position < 0) {
+            return sorted;
+        }
+        int[] result = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, result, 0, position);
+        System.arraycopy(sorted, position + 1, result, position, sorted.length - position - 1);
+        return result;
+    }
+
+    private static int bigram(String text, int index) {
+        return (text.charAt(index) << 16) | text.charAt(index + 1);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 倒排表构建时使用的可增长 int 数组，同一下标只记录一次。
+     */
+    private static final class IntBuffer {
+        private int[] values = new int[4];
+        private int size;
+
+        private void addDistinct(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.riskwarningsystembackend.service.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.event.CompanyDataChangedEvent;
+import org.example.riskwarningsystembackend.repository.company.CompanyInfoRepository;
+import org.example.riskwarningsystembackend.repository.company.CompanySearchProjection;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 公司检索服务。
+ * <p>
+ * 在内存中维护公司名称与行业的二字倒排索引（{@link CompanySearchIndex}），替代 {@code LOWER(name) LIKE '%kw%'}
+ * 这类无法使用索引、每次输入都会全表扫描的查询。索引只加载ID、名称和行业三列；
+ * 单个公司变更后只按该公司的最新数据修补索引，批量导入后整体重新加载；更新期间检索继续使用旧快照。
+ */
+@Slf4j
+@Service
+public class CompanySearchService {
+
+    private final CompanyInfoRepository companyInfoRepository;
+    private volatile CompanySearchIndex index;
+
+    /**
+     * 构造函数，注入公司信息数据访问接口。
+     *
+     * @param companyInfoRepository 公司信息数据访问接口
+     */
+    public CompanySearchService(CompanyInfoRepository companyInfoRepository) {
+        this.companyInfoRepository = companyInfoRepository;
+    }
+
+    /**
+     * 按名称或行业检索公司，结果按匹配质量排序。
+     *
+     * @param keyword 关键词（忽略大小写）
+     * @param limit   最多返回的公司数量
+     * @return 匹配公司的ID，按匹配质量从高到低排列
+     */
+    public long[] search(String keyword, int limit) {
+        return getIndex().search(keyword, true, limit);
+    }
+
+    /**
+     * 只按名称检索公司，结果按匹配质量排序。
+     *
+     * @param keyword 关键词（忽略大小写）
+     * @param limit   最多返回的公司数量
+     * @return 匹配公司的ID，按匹配质量从高到低排列
+     */
+    public long[] searchByName(String keyword, int limit) {
+        return getIndex().search(keyword, false, limit);
+    }
+
+    /**
+     * 公司数据变更后更新检索索引：单个公司的变更只修补该公司，批量导入则整体重新加载。
+     * 在事务提交后、仪表盘缓存清除之前执行；尚未加载索引时不做处理，首次检索时会加载最新数据。
+     *
+     * @param event 公司数据变更事件
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCompanyDataChanged(CompanyDataChangedEvent event) {
+        CompanySearchIndex current = index;
+        if (current == null) {
+            return;
+        }
+        Long companyId = event.getCompanyId();
+        try {
+            if (companyId == null || event.getChangeType() == CompanyDataChangedEvent.ChangeType.BULK_LOADED) {
+                index = load();
+                return;
+            }
+            Optional<CompanySearchProjection> company = event.getChangeType() == CompanyDataChangedEvent.ChangeType.DELETED
+                    ? Optional.empty()
+                    : companyInfoRepository.findSearchFieldsById(companyId);
+            index = company
+                    .map(row -> current.with(new CompanySearchIndex.Entry(row.getId(), row.getName(), row.getIndustry())))
+                    .orElseGet(() -> current.without(companyId));
+        } catch (RuntimeException e) {
+            // 更新失败时丢弃索引，下次检索时重新加载，避免长期返回过期的结果
+            index = null;
+            log.error("公司检索索引更新失败，将在下次检索时重新加载。原因: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取当前索引，尚未加载时在锁内加载，并发的检索只会触发一次加载。
+     */
+    private CompanySearchIndex getIndex() {
+        CompanySearchIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = load();
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private CompanySearchIndex load() {
+        long startTime = System.currentTimeMillis();
+        List<CompanySearchIndex.Entry> entries = companyInfoRepository.findAllSearchFields().stream()
+                .map(row -> new CompanySearchIndex.Entry(row.getId(), row.getName(), row.getIndustry()))
+                .toList();
+        CompanySearchIndex built = CompanySearchIndex.build(entries);
+        log.info("公司检索索引构建完成，共 {} 家公司，耗时 {} 毫秒。", built.size(), System.currentTimeMillis() - startTime);
+        return built;
+    }
+}
@@ -0,0 +1,413 @@
+package org.example.riskwarningsystembackend.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 名称前缀联想（typeahead）的只读内存快照。
+ * <p>
+ * 每个名称及其别名转为小写后作为一个键，全部键按字典序保存在数组中，某个前缀的所有匹配正好是数组中的一段连续区间，
+ * 通过二分查找定位。匹配区间很大的短前缀（如“四川”）在构建时预先算好前若干条结果，
+ * 其余前缀在区间内最多扫描 {@link #MAX_SCAN} 个键，单次联想的耗时与公司总数无关。
+ * <p>
+ * 结果排序：键与前缀完全相同 > 名称本身 > 别名，其次名称较短者优先，再按ID升序；同一对象只返回一次。
+ * 快照构建完成后不再修改，可被任意多个线程并发读取；名称变化时通过 {@link #with} 和 {@link #without} 生成新快照。
+ */
+public final class TypeaheadIndex {
+
+    /**
+     * 单次联想最多返回的结果数
+     */
+    public static final int MAX_SUGGESTIONS = 20;
+
+    /**
+     * 未预先计算的前缀在匹配区间内最多扫描的键数
+     */
+    private static final int MAX_SCAN = 4096;
+
+    /**
+     * 预先计算结果的前缀的最大长度
+     */
+    private static final int MAX_PRECOMPUTED_PREFIX = 4;
+
+    /**
+     * 公司名称中的括号内容，多为地区或曾用名，如“（成都）”
+     */
+    private static final Pattern BRACKETED = Pattern.compile("[（(][^）)]*[）)]");
+
+    /**
+     * 公司名称开头的地区名，如“四川省”“成都市”“中国”
+     */
+    private static final Pattern REGION_PREFIX = Pattern.compile(
+            "^(中国|北京|天津|上海|重庆|河北|山西|辽宁|吉林|黑龙江|江苏|浙江|安徽|福建|江西|山东|河南|湖北|湖南|广东|海南|"
+                    + "四川|贵州|云南|陕西|甘肃|青海|台湾|内蒙古|广西|西藏|宁夏|新疆|香港|澳门)(省|市|自治区)?"
+                    + "|^[\\u4e00-\\u9fa5]{2,3}市");
+
+    /**
+     * 公司名称结尾的组织形式，按长度从长到短匹配
+     */
+    private static final List<String> LEGAL_FORM_SUFFIXES = List.of(
+            "股份有限公司", "有限责任公司", "集团有限公司", "有限公司", "股份公司", "集团公司", "公司");
+
+    private static final int MIN_ALIAS_LENGTH = 2;
+
+    private final long[] ids;
+    private final String[] names;
+    private final String[] keys;
+    private final int[] keyItems;
+    private final boolean[] keyAliases;
+    private final Map<String, Suggestion[]> precomputed;
+
+    /**
+     * 一条联想结果。
+     *
+     * @param id      对象ID
+     * @param name    对象名称
+     * @param matched 与前缀匹配的名称或别名（小写）
+     * @param rank    排序值，越小越靠前，可用于合并多个快照的结果
+     */
+    public record Suggestion(long id, String name, String matched, int rank) {
+    }
+
+    /**
+     * 一个键及其所属对象的下标，按键的字典序排序。
+     */
+    private record Key(String key, int item, boolean alias) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            return key.compareTo(other.key);
+        }
+    }
+
+    private TypeaheadIndex(long[] ids, String[] names, String[] keys, int[] keyItems, boolean[] keyAliases) {
+        this.ids = ids;
+        this.names = names;
+        this.keys = keys;
+        this.keyItems = keyItems;
+        this.keyAliases = keyAliases;
+        this.precomputed = precompute();
+    }
+
+    /**
+     * 根据对象名称构建联想快照。
+     *
+     * @param names       对象ID到名称的映射，名称为空的对象被忽略
+     * @param withAliases 是否为名称生成简称别名（适用于公司名称）
+     * @return 联想快照
+     */
+    public static TypeaheadIndex build(Map<Long, String> names, boolean withAliases) {
+        long[] ids = names.entrySet().stream()
+                .filter(entry -> entry.getValue() != null && !entry.getValue().isBlank())
+                .mapToLong(Map.Entry::getKey)
+                .sorted()
+                .toArray();
+        String[] itemNames = new String[ids.length];
+        List<Key> entries = new ArrayList<>(ids.length * (withAliases ? 3 : 1));
+        for (int item = 0; item < ids.length; item++) {
+            itemNames[item] = names.get(ids[item]).strip();
+            entries.addAll(keysOf(itemNames[item], item, withAliases));
+        }
+        entries.sort(null);
+
+        String[] keys = new String[entries.size()];
+        int[] keyItems = new int[entries.size()];
+        boolean[] keyAliases = new boolean[entries.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Key entry = entries.get(i);
+            keys[i] = entry.key();
+            keyItems[i] = entry.item();
+            keyAliases[i] = entry.alias();
+        }
+        return new TypeaheadIndex(ids, itemNames, keys, keyItems, keyAliases);
+    }
+
+    /**
+     * 生成新增或修改了一个对象名称后的新快照，当前快照不变。
+     * 只需把该对象的键合并进已排序的键数组，耗时与键数成线性关系，无需重新排序。
+     *
+     * @param id          对象ID
+     * @param name        新名称，为空时等同于 {@link #without}
+     * @param withAliases 是否为名称生成简称别名
+     * @return 新快照
+     */
+    public TypeaheadIndex with(long id, String name, boolean withAliases) {
+        if (name == null || name.isBlank()) {
+            return without(id, withAliases);
+        }
+        int position = Arrays.binarySearch(ids, id);
+        long[] newIds;
+        String[] newNames;
+        int item;
+        int[] itemMapping;
+        if (position >= 0) {
+            item = position;
+            newIds = ids;
+            newNames = names.clone();
+            itemMapping = null;
+        } else {
+            item = -position - 1;
+            newIds = new long[ids.length + 1];
+            newNames = new String[names.length + 1];
+            System.arraycopy(ids, 0, newIds, 0, item);
+            System.arraycopy(ids, item, newIds, item + 1, ids.length - item);
+            System.arraycopy(names, 0, newNames, 0, item);
+            System.arraycopy(names, item, newNames, item + 1, names.length - item);
+            newIds[item] = id;
+            // 插入位置之后的对象下标整体后移一位
+            itemMapping = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                itemMapping[i] = i < item ? i : i + 1;
+            }
+        }
+        newNames[item] = name.strip();
+        List<Key> added = keysOf(newNames[item], item, withAliases);
+        added.sort(null);
+        return merge(newIds, newNames, position >= 0 ? position : -1, itemMapping, added);
+    }
+
+    /**
+     * 生成移除了一个对象后的新快照，当前快照不变。
+     *
+     * @param id          对象ID
+     * @param withAliases 是否为名称生成简称别名
+     * @return 新快照
+     */
+    public TypeaheadIndex without(long id, boolean withAliases) {
+        int item = Arrays.binarySearch(ids, id);
+        if (item < 0) {
+            return this;
+        }
+        long[] newIds = new long[ids.length - 1];
+        String[] newNames = new String[names.length - 1];
+        System.arraycopy(ids, 0, newIds, 0, item);
+        System.arraycopy(ids, item + 1, newIds, item, ids.length - item - 1);
+        System.arraycopy(names, 0, newNames, 0, item);
+        System.arraycopy(names, item + 1, newNames, item, names.length - item - 1);
+        // 被移除对象之后的对象下标整体前移一位
+        int[] itemMapping = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            itemMapping[i] = i <= item ? i : i - 1;
+        }
+        return merge(newIds, newNames, item, itemMapping, List.of());
+    }
+
+    /**
+     * 去掉对象 {@code removedItem} 的全部键、按 {@code itemMapping} 调整其余键的对象下标，再并入已排序的新键。
+     */
+    private TypeaheadIndex merge(long[] newIds, String[] newNames, int removedItem, int[] itemMapping, List<Key> added) {
+        int removed = 0;
+        if (removedItem >= 0) {
+            for (int keyItem : keyItems) {
+                if (keyItem == removedItem) {
+                    removed++;
+                }
+            }
+        }
+        int size = keys.length - removed + added.size();
+        String[] newKeys = new String[size];
+        int[] newKeyItems = new int[size];
+        boolean[] newKeyAliases = new boolean[size];
+        int next = 0;
+        int addedIndex = 0;
+        for (int i = 0; i <= keys.length; i++) {
+            while (addedIndex < added.size() && (i == keys.length || added.get(addedIndex).key().compareTo(keys[i]) <= 0)) {
+                Key key = added.get(addedIndex++);
+                newKeys[next] = key.key();
+                newKeyItems[next] = key.item();
+                newKeyAliases[next++] = key.alias();
+            }
+            if (i == keys.length || keyItems[i] == removedItem) {
+                continue;
+            }
+            newKeys[next] = keys[i];
+            newKeyItems[next] = itemMapping == null ? keyItems[i] : itemMapping[keyItems[i]];
+            newKeyAliases[next++] = keyAliases[i];
+        }
+        return new TypeaheadIndex(newIds, newNames, newKeys, newKeyItems, newKeyAliases);
+    }
+
+    /**
+     * 参与联想的对象数量。
+     *
+     * @return 对象数量
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 返回名称或别名以给定前缀开头（忽略大小写）的对象。
+     *
+     * @param prefix 前缀，首尾空白会被忽略
+     * @param limit  最多返回的结果数，不超过 {@link #MAX_SUGGESTIONS}
+     * @return 联想结果，按排序值从小到大排列
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String needle = normalize(prefix);
+        int size = Math.min(limit, MAX_SUGGESTIONS);
+        if (needle.isEmpty() || size <= 0) {
+            return List.of();
+        }
+        Suggestion[] top = precomputed.get(needle);
+        if (top == null) {
+            int from = lowerBound(needle);
+            int to = from;
+            while (to < keys.length && to - from < MAX_SCAN && keys[to].startsWith(needle)) {
+                to++;
+            }
+            top = topSuggestions(needle.length(), from, to);
+        }
+        return List.of(Arrays.copyOf(top, Math.min(size, top.length)));
+    }
+
+    /**
+     * 为匹配区间超过 {@link #MAX_SCAN} 个键的短前缀预先计算结果。此类前缀的数量不超过 键数 × 前缀长度 / MAX_SCAN。
+     */
+    private Map<String, Suggestion[]> precompute() {
+        Map<String, Suggestion[]> result = new HashMap<>();
+        for (int length = 1; length <= MAX_PRECOMPUTED_PREFIX; length++) {
+            int from = 0;
+            while (from < keys.length) {
+                if (keys[from].length() < length) {
+                    from++;
+                    continue;
+                }
+                String prefix = keys[from].substring(0, length);
+                int to = from + 1;
+                while (to < keys.length && keys[to].startsWith(prefix)) {
+                    to++;
+                }
+                if (to - from > MAX_SCAN) {
+                    result.put(prefix, topSuggestions(length, from, to));
+                }
+                from = to;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 在键区间 [from, to) 中选出排序最靠前的 {@link #MAX_SUGGESTIONS} 个对象，同一对象只保留排序值最小的一个键。
+     * 候选保存在按排序键升序的定长数组中，大多数键与末位比较一次即被淘汰。
+     */
+    private Suggestion[] topSuggestions(int prefixLength, int from, int to) {
+        // 排序键：高位为排序值，低位为对象下标（即ID顺序）
+        long[] top = new long[MAX_SUGGESTIONS];
+        int[] topPositions = new int[MAX_SUGGESTIONS];
+        int count = 0;
+        for (int position = from; position < to; position++) {
+            int item = keyItems[position];
+            long order = ((long) rankOf(prefixLength, position) << 32) | item;
+            if (count == MAX_SUGGESTIONS && order >= top[count - 1]) {
+                continue;
+            }
+            int existing = -1;
+            for (int i = 0; i < count; i++) {
+                if ((int) top[i] == item) {
+                    existing = i;
+                    break;
+                }
+            }
+            if (existing >= 0) {
+                if (order >= top[existing]) {
+                    continue;
+                }
+                // 同一对象出现了更靠前的键，先移除旧的候选
+                System.arraycopy(top, existing + 1, top, existing, count - existing - 1);
+                System.arraycopy(topPositions, existing + 1, topPositions, existing, count - existing - 1);
+                count--;
+            }
+            int insertAt = count < MAX_SUGGESTIONS ? count : MAX_SUGGESTIONS - 1;
+            while (insertAt > 0 && top[insertAt - 1] > order) {
+                top[insertAt] = top[insertAt - 1];
+                topPositions[insertAt] = topPositions[insertAt - 1];
+                insertAt--;
+            }
+            top[insertAt] = order;
+            topPositions[insertAt] = position;
+            count = Math.min(count + 1, MAX_SUGGESTIONS);
+        }
+
+        Suggestion[] result = new Suggestion[count];
+        for (int i = 0; i < count; i++) {
+            int item = (int) top[i];
+            result[i] = new Suggestion(ids[item], names[item], keys[topPositions[i]], (int) (top[i] >>> 32));
+        }
+        return result;
+    }
+
+    /**
+     * 键的排序值：第 17 位表示不完全相同，第 16 位表示别名，低 16 位为名称长度。
+     */
+    private int rankOf(int prefixLength, int position) {
+        int notExact = keys[position].length() == prefixLength ? 0 : 1;
+        int alias = keyAliases[position] ? 1 : 0;
+        return (notExact << 17) | (alias << 16) | Math.min(names[keyItems[position]].length(), 0xFFFF);
+    }
+
+    /**
+     * 对象的全部键：小写的名称本身，以及（需要时）与之不同的简称别名。
+     */
+    private static List<Key> keysOf(String name, int item, boolean withAliases) {
+        Set<String> itemKeys = new LinkedHashSet<>();
+        itemKeys.add(normalize(name));
+        if (withAliases) {
+            itemKeys.addAll(aliases(name));
+        }
+        List<Key> result = new ArrayList<>(itemKeys.size());
+        boolean alias = false;
+        for (String key : itemKeys) {
+            result.add(new Key(key, item, alias));
+            alias = true;
+        }
+        return result;
+    }
+
+    private int lowerBound(String needle) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(needle) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 公司名称的简称别名：去掉括号内容和组织形式后缀，再去掉开头的地区名。
+     * 例如“四川长虹电器股份有限公司”的别名为“四川长虹电器”和“长虹电器”。
+     */
+    static List<String> aliases(String name) {
+        List<String> aliases = new ArrayList<>(2);
+        String shortName = BRACKETED.matcher(name.strip()).replaceAll("");
+        for (String suffix : LEGAL_FORM_SUFFIXES) {
+            if (shortName.endsWith(suffix)) {
+                shortName = shortName.substring(0, shortName.length() - suffix.length());
+                break;
+            }
+        }
+        if (shortName.length() >= MIN_ALIAS_LENGTH) {
+            aliases.add(normalize(shortName));
+            String withoutRegion = REGION_PREFIX.matcher(shortName).replaceFirst("");
+            if (withoutRegion.length() >= MIN_ALIAS_LENGTH && !withoutRegion.equals(shortName)) {
+                aliases.add(normalize(withoutRegion));
+            }
+        }
+        return aliases;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.riskwarningsystembackend.service.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.riskwarningsystembackend.dto.supplychain.SuggestionDTO;
+import org.example.riskwarningsystembackend.entity.ProductNode;
+import org.example.riskwarningsystembackend.event.CompanyDataChangedEvent;
+import org.example.riskwarningsystembackend.repository.company.CompanyInfoRepository;
+import org.example.riskwarningsystembackend.repository.company.CompanySearchProjection;
+import org.example.riskwarningsystembackend.repository.product.ProductNodeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 公司与产品名称联想服务。
+ * <p>
+ * 在内存中维护公司名称（含简称别名）和产品名称的前缀联想快照（{@link TypeaheadIndex}），
+ * 搜索框每次输入只做内存中的二分查找，不访问数据库，也不需要分页接口的计数查询。
+ * 快照在应用启动完成后加载；单个公司被创建、更新或删除后就地生成新快照，批量导入后整体重新加载。
+ */
+@Slf4j
+@Service
+public class TypeaheadService {
+
+    /**
+     * 公司类型
+     */
+    public static final String TYPE_COMPANY = "company";
+
+    /**
+     * 产品类型
+     */
+    public static final String TYPE_PRODUCT = "product";
+
+    private final CompanyInfoRepository companyInfoRepository;
+    private final ProductNodeRepository productNodeRepository;
+    private volatile Snapshot snapshot;
+
+    /**
+     * 公司和产品的联想快照。
+     */
+    private record Snapshot(TypeaheadIndex companies, TypeaheadIndex products) {
+    }
+
+    /**
+     * 同一类型内的一条联想结果。
+     */
+    private record Candidate(String type, TypeaheadIndex.Suggestion suggestion) {
+    }
+
+    /**
+     * 构造函数，注入公司信息及产品节点数据访问接口。
+     *
+     * @param companyInfoRepository 公司信息数据访问接口
+     * @param productNodeRepository 产品节点数据访问接口
+     */
+    public TypeaheadService(CompanyInfoRepository companyInfoRepository, ProductNodeRepository productNodeRepository) {
+        this.companyInfoRepository = companyInfoRepository;
+        this.productNodeRepository = productNodeRepository;
+    }
+
+    /**
+     * 返回名称或简称以给定前缀开头的公司和产品。
+     * 完全匹配优先，其次名称本身优先于简称、较短的名称优先；排序相同时公司排在产品之前。
+     *
+     * @param prefix 输入的前缀（忽略大小写）
+     * @param type   只返回某一类型（company 或 product），为空时两者都返回
+     * @param limit  最多返回的结果数，不超过 {@link TypeaheadIndex#MAX_SUGGESTIONS}
+     * @return 联想结果列表
+     * @throws IllegalArgumentException 类型不是 company 或 product 时抛出
+     */
+    public List<SuggestionDTO> suggest(String prefix, String type, int limit) {
+        if (type != null && !TYPE_COMPANY.equals(type) && !TYPE_PRODUCT.equals(type)) {
+            throw new IllegalArgumentException("不支持的联想类型: " + type + "，可选值为 company 或 product");
+        }
+        Snapshot current = getSnapshot();
+        List<Candidate> candidates = new ArrayList<>();
+        if (type == null || TYPE_COMPANY.equals(type)) {
+            current.companies().suggest(prefix, limit).forEach(suggestion -> candidates.add(new Candidate(TYPE_COMPANY, suggestion)));
+        }
+        if (type == null || TYPE_PRODUCT.equals(type)) {
+            current.products().suggest(prefix, limit).forEach(suggestion -> candidates.add(new Candidate(TYPE_PRODUCT, suggestion)));
+        }
+        // 两个快照各自已按排序值排好，列表排序是稳定的，因此排序值相同时公司在前
+        candidates.sort(Comparator.comparingInt(candidate -> candidate.suggestion().rank()));
+        return candidates.stream()
+                .limit(Math.min(limit, TypeaheadIndex.MAX_SUGGESTIONS))
+                .map(candidate -> new SuggestionDTO(candidate.type(), candidate.suggestion().id(),
+                        candidate.suggestion().name(), candidate.suggestion().matched()))
+                .toList();
+    }
+
+    /**
+     * 应用启动完成（初始数据导入之后）加载联想快照，使第一次输入无需等待加载。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            getSnapshot();
+        } catch (RuntimeException e) {
+            log.error("名称联想快照预加载失败，将在首次联想时重试。原因: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 公司数据变更后更新联想快照：单个公司的变更只替换该公司的名称，批量导入则整体重新加载。
+     * 尚未加载快照时不做处理，首次联想时会加载最新数据。
+     *
+     * @param event 公司数据变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCompanyDataChanged(CompanyDataChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Long companyId = event.getCompanyId();
+        try {
+            if (companyId == null || event.getChangeType() == CompanyDataChangedEvent.ChangeType.BULK_LOADED) {
+                snapshot = load();
+                return;
+            }
+            Optional<CompanySearchProjection> company = event.getChangeType() == CompanyDataChangedEvent.ChangeType.DELETED
+                    ? Optional.empty()
+                    : companyInfoRepository.findSearchFieldsById(companyId);
+            TypeaheadIndex companies = company.isPresent()
+                    ? current.companies().with(companyId, company.get().getName(), true)
+                    : current.companies().without(companyId, true);
+            snapshot = new Snapshot(companies, current.products());
+        } catch (RuntimeException e) {
+            // 更新失败时丢弃快照，下次联想时重新加载，避免长期返回过期的名称
+            snapshot = null;
+            log.error("名称联想快照更新失败，将在下次联想时重新加载。原因: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        long startTime = System.currentTimeMillis();
+        Map<Long, String> companyNames = new HashMap<>();
+        companyInfoRepository.findAllSearchFields().forEach(row -> companyNames.put(row.getId(), row.getName()));
+        Map<Long, String> productNames = new HashMap<>();
+        for (ProductNode node : productNodeRepository.findAll()) {
+            productNames.put(node.getId(), node.getName());
+        }
+        Snapshot loaded = new Snapshot(TypeaheadIndex.build(companyNames, true), TypeaheadIndex.build(productNames, false));
+        log.info("名称联想快照加载完成，公司 {} 家，产品 {} 个，耗时 {} 毫秒。",
+                loaded.companies().size(), loaded.products().size(), System.currentTimeMillis() - startTime);
+        return loaded;
+    }
+}
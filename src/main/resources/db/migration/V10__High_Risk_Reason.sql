@@ -0,0 +1,15 @@
+-- V10__High_Risk_Reason.sql
+-- The high-risk analysis list used to be served from the in-memory risk snapshot, which re-derived
+-- the overall level, the high-risk flag and the reason text in Java, a third copy of the rules.
+-- It is now read straight from company_info (high_risk, risk_level, partial index
+-- idx_company_info_high_risk). Its reason text differs from risk_reason: it lists only the law
+-- suit count and missing financial data, joined by '；', and is empty when neither applies.
+-- It is stored as its own column, computed by CompanyRiskScorer like the other risk columns.
+
+ALTER TABLE company_info
+    ADD COLUMN high_risk_reason VARCHAR(512);
+
+UPDATE company_info
+SET high_risk_reason = concat_ws('；',
+        CASE WHEN law_risk <> '低' THEN '存在 ' || COALESCE(legal_dispute_count, 0) || ' 起法律诉讼' END,
+        CASE WHEN finance_risk = '高' THEN '关键财务数据缺失' END);
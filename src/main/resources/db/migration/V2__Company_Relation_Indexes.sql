@@ -0,0 +1,12 @@
+-- V2__Company_Relation_Indexes.sql
+-- Indexes backing the incremental company-relation maintenance:
+-- product -> company lookups, product edge lookups and per-company relation lookups.
+
+CREATE INDEX IF NOT EXISTS idx_company_info_major_product1 ON company_info (major_product1);
+CREATE INDEX IF NOT EXISTS idx_company_info_major_product2 ON company_info (major_product2);
+
+CREATE INDEX IF NOT EXISTS idx_product_edges_parent_id ON product_edges (parent_id);
+CREATE INDEX IF NOT EXISTS idx_product_edges_child_id ON product_edges (child_id);
+
+CREATE INDEX IF NOT EXISTS idx_company_relations_company_one_id ON company_relations (company_one_id);
+CREATE INDEX IF NOT EXISTS idx_company_relations_company_two_id ON company_relations (company_two_id);
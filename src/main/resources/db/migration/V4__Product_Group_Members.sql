@@ -0,0 +1,20 @@
+-- V4__Product_Group_Members.sql
+-- Competitor relations are no longer materialized as every pair of companies sharing a
+-- major product (k producers -> k(k-1)/2 rows). Instead each (product, company) membership
+-- is stored once and competitor edges are expanded at query time.
+
+CREATE TABLE product_group_members
+(
+    product_name VARCHAR(512) NOT NULL,
+    company_id   BIGINT       NOT NULL,
+    PRIMARY KEY (product_name, company_id)
+);
+
+CREATE INDEX idx_product_group_members_company_id ON product_group_members (company_id);
+
+INSERT INTO product_group_members (product_name, company_id)
+SELECT major_product1, id FROM company_info WHERE major_product1 IS NOT NULL AND major_product1 <> ''
+UNION
+SELECT major_product2, id FROM company_info WHERE major_product2 IS NOT NULL AND major_product2 <> '';
+
+DELETE FROM company_relations WHERE relation_type = 'supplier';
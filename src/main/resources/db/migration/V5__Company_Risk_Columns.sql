@@ -0,0 +1,54 @@
+-- V5__Company_Risk_Columns.sql
+-- Law / finance / credit risk, the overall level and the reason text used to be recomputed in Java
+-- on every read. They are now computed when a company is written (JPA callbacks and the CSV COPY
+-- loader share CompanyRiskScorer) and stored in indexed columns so list filters and sorts run in SQL.
+
+ALTER TABLE company_info
+    ADD COLUMN law_risk     VARCHAR(8),
+    ADD COLUMN finance_risk VARCHAR(8),
+    ADD COLUMN credit_risk  VARCHAR(8),
+    ADD COLUMN risk_level   VARCHAR(8),
+    ADD COLUMN risk_rank    INTEGER,
+    ADD COLUMN risk_reason  VARCHAR(512),
+    ADD COLUMN high_risk    BOOLEAN;
+
+-- Back-fill existing rows with the same rules as CompanyRiskScorer.
+WITH scored AS (
+    SELECT id,
+           CASE WHEN COALESCE(legal_dispute_count, 0) > 500 THEN '高'
+                WHEN COALESCE(legal_dispute_count, 0) > 100 THEN '中'
+                ELSE '低' END AS law,
+           CASE WHEN btrim(COALESCE(revenue, '')) <> '' AND revenue <> '0'
+                 AND btrim(COALESCE(profit, '')) <> '' AND profit <> '0' THEN '低'
+                ELSE '高' END AS finance,
+           CASE WHEN tax_rating = 'A' THEN '低' ELSE '中' END AS credit,
+           COALESCE(legal_dispute_count, 0) AS disputes,
+           (COALESCE(legal_dispute_count, 0) > 100 OR revenue IS NULL OR profit IS NULL
+               OR revenue = '0' OR profit = '0') AS high
+    FROM company_info
+),
+leveled AS (
+    SELECT scored.*,
+           CASE WHEN finance = '高' THEN '高' ELSE law END AS level
+    FROM scored
+)
+UPDATE company_info c
+SET law_risk     = l.law,
+    finance_risk = l.finance,
+    credit_risk  = l.credit,
+    risk_level   = l.level,
+    risk_rank    = CASE l.level WHEN '高' THEN 3 WHEN '中' THEN 2 ELSE 1 END,
+    risk_reason  = COALESCE(NULLIF(concat_ws('，',
+                       CASE WHEN l.law <> '低' THEN '存在 ' || l.disputes || ' 起法律诉讼' END,
+                       CASE WHEN l.finance = '高' THEN '关键财务数据缺失' END,
+                       CASE WHEN l.credit = '中' THEN '税务评级非A级' END), ''), '无明显风险'),
+    high_risk    = l.high
+FROM leveled l
+WHERE c.id = l.id;
+
+CREATE INDEX idx_company_info_risk_level ON company_info (risk_level);
+CREATE INDEX idx_company_info_law_risk ON company_info (law_risk);
+CREATE INDEX idx_company_info_finance_risk ON company_info (finance_risk);
+CREATE INDEX idx_company_info_credit_risk ON company_info (credit_risk);
+CREATE INDEX idx_company_info_risk_rank ON company_info (risk_rank DESC, id);
+CREATE INDEX idx_company_info_high_risk ON company_info (id) WHERE high_risk;
@@ -0,0 +1,61 @@
+-- V6__Company_Numeric_Financials.sql
+-- Registered / paid-in capital, revenue, assets, profit, employee count and stock price index are
+-- stored as free text ("60000万人民币", "103.57亿", "#N/A"), so rankings, range filters and aggregates
+-- had to pull rows into Java. Typed copies are added next to the raw text (which is kept unchanged):
+-- amounts are normalised to yuan (万 = 1e4, 亿 = 1e8) and capital keeps its currency separately.
+-- New rows are filled by FinancialValueParser (JPA callbacks and the CSV COPY loader).
+
+ALTER TABLE company_info
+    ADD COLUMN registered_capital_amount   NUMERIC(20, 2),
+    ADD COLUMN registered_capital_currency VARCHAR(16),
+    ADD COLUMN paid_in_capital_amount      NUMERIC(20, 2),
+    ADD COLUMN paid_in_capital_currency    VARCHAR(16),
+    ADD COLUMN revenue_amount              NUMERIC(20, 2),
+    ADD COLUMN assets_amount               NUMERIC(20, 2),
+    ADD COLUMN profit_amount               NUMERIC(20, 2),
+    ADD COLUMN employee_count_value        INTEGER,
+    ADD COLUMN stock_price_index_value     DOUBLE PRECISION;
+
+-- Same grammar as FinancialValueParser: number, optional 万/亿 (optionally followed by 元), optional currency.
+-- Returns {number, unit, currency}, or NULL when the whole text does not match.
+CREATE FUNCTION tmp_parse_amount(raw TEXT) RETURNS TEXT[] AS
+$$
+SELECT regexp_match(btrim(raw, E' \t\r\n'), '^([-+]?[0-9]+(?:\.[0-9]+)?)\s*(万|亿)?元?\s*([^[:ascii:]]*)$')
+$$ LANGUAGE SQL IMMUTABLE;
+
+CREATE FUNCTION tmp_amount_in_yuan(parts TEXT[]) RETURNS NUMERIC AS
+$$
+SELECT CASE
+           WHEN parts IS NULL THEN NULL
+           ELSE round(parts[1]::NUMERIC * CASE parts[2] WHEN '万' THEN 10000 WHEN '亿' THEN 100000000 ELSE 1 END, 2)
+           END
+$$ LANGUAGE SQL IMMUTABLE;
+
+CREATE FUNCTION tmp_currency(parts TEXT[]) RETURNS TEXT AS
+$$
+SELECT CASE
+           WHEN parts IS NULL THEN NULL
+           WHEN COALESCE(parts[3], '') = '' THEN '人民币'
+           ELSE left(parts[3], 16)
+           END
+$$ LANGUAGE SQL IMMUTABLE;
+
+UPDATE company_info
+SET registered_capital_amount   = tmp_amount_in_yuan(tmp_parse_amount(registered_capital)),
+    registered_capital_currency = tmp_currency(tmp_parse_amount(registered_capital)),
+    paid_in_capital_amount      = tmp_amount_in_yuan(tmp_parse_amount(paid_in_capital)),
+    paid_in_capital_currency    = tmp_currency(tmp_parse_amount(paid_in_capital)),
+    revenue_amount              = tmp_amount_in_yuan(tmp_parse_amount(revenue)),
+    assets_amount               = tmp_amount_in_yuan(tmp_parse_amount(assets)),
+    profit_amount               = tmp_amount_in_yuan(tmp_parse_amount(profit)),
+    employee_count_value        = CASE WHEN btrim(employee_count, E' \t\r\n') ~ '^[-+]?[0-9]{1,9}$'
+                                       THEN btrim(employee_count, E' \t\r\n')::INTEGER END,
+    stock_price_index_value     = CASE WHEN btrim(stock_price_index, E' \t\r\n') ~ '^[-+]?[0-9]+(\.[0-9]+)?([eE][-+]?[0-9]+)?$'
+                                       THEN btrim(stock_price_index, E' \t\r\n')::DOUBLE PRECISION END;
+
+DROP FUNCTION tmp_currency(TEXT[]);
+DROP FUNCTION tmp_amount_in_yuan(TEXT[]);
+DROP FUNCTION tmp_parse_amount(TEXT);
+
+CREATE INDEX idx_company_info_revenue_amount ON company_info (revenue_amount DESC NULLS LAST, id);
+CREATE INDEX idx_company_info_registered_capital ON company_info (registered_capital_currency, registered_capital_amount);
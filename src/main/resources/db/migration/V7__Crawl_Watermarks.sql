@@ -0,0 +1,31 @@
+-- V7__Crawl_Watermarks.sql
+-- The news crawler used to read only the first list page and look up every listed article by
+-- (title, publish_date), which has no index. It now walks list pages back to a per-source watermark
+-- and checks a whole page at once against an indexed hash of the article URL.
+
+ALTER TABLE monitoring_articles
+    ADD COLUMN url_hash CHAR(32);
+
+-- Same value as MonitoringArticle.hashUrl: lower-case hex MD5 of the UTF-8 URL.
+UPDATE monitoring_articles
+SET url_hash = md5(url)
+WHERE url IS NOT NULL;
+
+-- The old title/date check could let the same article be saved twice; keep the earliest copy so the
+-- hash can be unique and overlapping crawls can never insert a duplicate.
+DELETE
+FROM monitoring_articles a
+    USING monitoring_articles b
+WHERE a.url_hash = b.url_hash
+  AND a.id > b.id;
+
+CREATE UNIQUE INDEX idx_monitoring_articles_url_hash ON monitoring_articles (url_hash);
+
+-- Newest article seen by the last complete crawl of each news source.
+CREATE TABLE crawl_watermarks
+(
+    source     VARCHAR(64) PRIMARY KEY,
+    last_url   VARCHAR(1024)            NOT NULL,
+    last_date  DATE,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,44 @@
+-- V8__Canonical_Relation_Index_Names.sql
+-- Full relation rebuilds swap in staging copies of company_relations and product_group_members.
+-- The staging tables used to copy their indexes with LIKE ... INCLUDING ALL, which gives them
+-- generated names, so after a rebuild the names from V1, V2 and V4 no longer existed.
+-- CompanyRelationStagingRepository now creates the staging indexes itself and renames them to the
+-- names below on every swap. This migration gives existing tables those names, whatever they are now.
+-- The unique relation constraint previously had a truncated generated name; it becomes
+-- uk_company_relations_relation.
+
+DO
+$$
+    DECLARE
+        spec         RECORD;
+        current_name TEXT;
+    BEGIN
+        FOR spec IN
+            SELECT *
+            FROM (VALUES ('company_relations', 'company_relations_pkey', 'id'),
+                         ('company_relations', 'uk_company_relations_relation',
+                          'company_one_id,company_two_id,shared_product_name,relation_name,relation_type'),
+                         ('company_relations', 'idx_company_relations_company_one_id', 'company_one_id'),
+                         ('company_relations', 'idx_company_relations_company_two_id', 'company_two_id'),
+                         ('product_group_members', 'product_group_members_pkey', 'product_name,company_id'),
+                         ('product_group_members', 'idx_product_group_members_company_id', 'company_id'))
+                     AS s(table_name, index_name, columns)
+            LOOP
+                SELECT i.relname
+                INTO current_name
+                FROM pg_index x
+                         JOIN pg_class i ON i.oid = x.indexrelid
+                         JOIN pg_class t ON t.oid = x.indrelid
+                WHERE t.relname = spec.table_name
+                  AND t.relnamespace = current_schema()::regnamespace
+                  AND (SELECT string_agg(a.attname, ',' ORDER BY k.ord)
+                       FROM unnest(x.indkey::int2[]) WITH ORDINALITY AS k(attnum, ord)
+                                JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = k.attnum) = spec.columns
+                LIMIT 1;
+
+                IF current_name IS NOT NULL AND current_name <> spec.index_name THEN
+                    EXECUTE format('ALTER INDEX %I RENAME TO %I', current_name, spec.index_name);
+                END IF;
+            END LOOP;
+    END
+$$;
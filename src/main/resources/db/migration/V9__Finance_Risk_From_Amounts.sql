@@ -0,0 +1,35 @@
+-- V9__Finance_Risk_From_Amounts.sql
+-- Finance risk and the high_risk flag used to treat revenue / profit as missing only when the raw
+-- text was empty or exactly '0'. The aggregate queries compared the parsed amounts instead, so values
+-- such as '0.00', '0万' or '#N/A' were classified differently depending on the code path.
+-- CompanyRiskScorer now decides from the parsed amounts (revenue_amount / profit_amount from V6):
+-- an amount that is zero or could not be parsed counts as missing. Recompute the stored columns
+-- with the same rules so existing rows agree with newly written ones.
+
+WITH scored AS (
+    SELECT id,
+           CASE WHEN COALESCE(legal_dispute_count, 0) > 500 THEN '高'
+                WHEN COALESCE(legal_dispute_count, 0) > 100 THEN '中'
+                ELSE '低' END AS law,
+           (COALESCE(revenue_amount, 0) = 0 OR COALESCE(profit_amount, 0) = 0) AS finance_missing,
+           CASE WHEN tax_rating = 'A' THEN '低' ELSE '中' END AS credit,
+           COALESCE(legal_dispute_count, 0) AS disputes
+    FROM company_info
+),
+leveled AS (
+    SELECT scored.*,
+           CASE WHEN finance_missing THEN '高' ELSE '低' END AS finance,
+           CASE WHEN finance_missing THEN '高' ELSE law END AS level
+    FROM scored
+)
+UPDATE company_info c
+SET finance_risk = l.finance,
+    risk_level   = l.level,
+    risk_rank    = CASE l.level WHEN '高' THEN 3 WHEN '中' THEN 2 ELSE 1 END,
+    risk_reason  = COALESCE(NULLIF(concat_ws('，',
+                       CASE WHEN l.law <> '低' THEN '存在 ' || l.disputes || ' 起法律诉讼' END,
+                       CASE WHEN l.finance_missing THEN '关键财务数据缺失' END,
+                       CASE WHEN l.credit = '中' THEN '税务评级非A级' END), ''), '无明显风险'),
+    high_risk    = (l.disputes > 100 OR l.finance_missing)
+FROM leveled l
+WHERE c.id = l.id;
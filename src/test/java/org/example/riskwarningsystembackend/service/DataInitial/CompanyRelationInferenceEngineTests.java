@@ -0,0 +1,206 @@
+package org.example.riskwarningsystembackend.service.DataInitial;
+
+import org.example.riskwarningsystembackend.entity.ProductEdge;
+import org.example.riskwarningsystembackend.entity.ProductNode;
+import org.example.riskwarningsystembackend.repository.company.CompanyProductProjection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StringUtils;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 校验并行推断引擎的结果与原有的逐对推断规则一致。
+ */
+class CompanyRelationInferenceEngineTests {
+
+    private final CompanyRelationInferenceEngine engine = new CompanyRelationInferenceEngine();
+
+    private record Producer(Long id, String majorProduct1, String majorProduct2) implements CompanyProductProjection {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getMajorProduct1() {
+            return majorProduct1;
+        }
+
+        @Override
+        public String getMajorProduct2() {
+            return majorProduct2;
+        }
+    }
+
+    @AfterEach
+    void shutdown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void fixtureMatchesPreviousRules() throws SQLException {
+        // 产品链路：硅料 -> 硅片 -> 电池片；"逆变器"没有产品节点，"组件"节点没有生产公司
+        List<ProductNode> nodes = List.of(node(1, "硅料"), node(2, "硅片"), node(3, "电池片"), node(4, "组件"));
+        List<ProductEdge> edges = List.of(new ProductEdge(1L, 2L), new ProductEdge(2L, 3L),
+                new ProductEdge(3L, 4L), new ProductEdge(99L, 3L));
+        List<Producer> producers = List.of(
+                new Producer(1L, "硅料", "硅片"),   // 同时生产上下游产品，不与自己合作
+                new Producer(2L, "硅片", null),
+                new Producer(3L, "电池片", "硅片"),
+                new Producer(4L, "硅料", "硅料"),   // 两个主营产品相同，原规则会产生与自己的竞争关系
+                new Producer(5L, "电池片", ""),
+                new Producer(6L, null, null),
+                new Producer(7L, "逆变器", null),
+                new Producer(8L, "逆变器", "电池片"));
+
+        Set<String> previous = previousRules(producers, nodes, edges);
+        assertThat(previous).contains("4-4-硅料-supplier");
+        assertThat(previous).contains("1-2-硅片-supplier", "2-4-硅片-partner", "2-3-电池片-partner", "7-8-逆变器-supplier");
+        // 公司1和3都生产硅片，“竞争”覆盖了原本的“合作”
+        assertThat(previous).contains("1-3-硅片-supplier").doesNotContain("1-3-硅片-partner");
+
+        assertThat(engineRelations(producers, nodes, edges)).isEqualTo(withoutSelfPairs(previous));
+    }
+
+    @Test
+    void randomGraphsMatchPreviousRules() throws SQLException {
+        Random random = new Random(20240601L);
+        for (int round = 0; round < 50; round++) {
+            int productCount = 2 + random.nextInt(30);
+            List<ProductNode> nodes = new ArrayList<>();
+            for (int p = 0; p < productCount; p++) {
+                // 少量产品没有节点，只参与“竞争”关系
+                if (random.nextInt(10) > 0) nodes.add(node(p, "P" + p));
+            }
+            List<ProductEdge> edges = new ArrayList<>();
+            int edgeCount = random.nextInt(productCount * 2);
+            for (int e = 0; e < edgeCount; e++) {
+                edges.add(new ProductEdge((long) random.nextInt(productCount), (long) random.nextInt(productCount)));
+            }
+            List<Producer> producers = new ArrayList<>();
+            int companyCount = 1 + random.nextInt(200);
+            for (int c = 0; c < companyCount; c++) {
+                producers.add(new Producer(1000L + c * 7L, randomProduct(random, productCount), randomProduct(random, productCount)));
+            }
+
+            assertThat(engineRelations(producers, nodes, edges))
+                    .as("round %d", round)
+                    .isEqualTo(withoutSelfPairs(previousRules(producers, nodes, edges)));
+        }
+    }
+
+    private static String randomProduct(Random random, int productCount) {
+        return random.nextInt(5) == 0 ? null : "P" + random.nextInt(productCount);
+    }
+
+    private static ProductNode node(long id, String name) {
+        ProductNode node = new ProductNode(name, 1);
+        node.setId(id);
+        return node;
+    }
+
+    /**
+     * 引擎输出的全部关系，“竞争”关系由产品分组成员两两展开。
+     */
+    private Set<String> engineRelations(List<Producer> producers, List<ProductNode> nodes, List<ProductEdge> edges)
+            throws SQLException {
+        CompanyRelationInferenceEngine.InferenceResult result = engine.infer(producers, nodes, edges);
+        Set<String> relations = new HashSet<>();
+        List<String> partners = new ArrayList<>();
+        result.forEachPartnerRelation((one, two, product) -> partners.add(key(one, two, product, "partner")));
+        relations.addAll(partners);
+        assertThat(partners).as("“合作”关系不应重复").hasSameSizeAs(relations);
+        assertThat(result.partnerCount()).isEqualTo(partners.size());
+
+        Map<String, List<Long>> groups = new HashMap<>();
+        result.forEachGroupMember((product, companyId) -> groups.computeIfAbsent(product, k -> new ArrayList<>()).add(companyId));
+        for (Map.Entry<String, List<Long>> group : groups.entrySet()) {
+            List<Long> members = group.getValue();
+            assertThat(members).as("分组成员不应重复").doesNotHaveDuplicates();
+            for (int i = 0; i < members.size(); i++) {
+                for (int j = i + 1; j < members.size(); j++) {
+                    String partner = key(members.get(i), members.get(j), group.getKey(), "partner");
+                    assertThat(relations).as("“竞争”应覆盖同一产品上的“合作”").doesNotContain(partner);
+                    relations.add(key(members.get(i), members.get(j), group.getKey(), "supplier"));
+                }
+            }
+        }
+        return relations;
+    }
+
+    /**
+     * 重写引擎之前 CompanyRelationService 中的推断规则，作为对照。
+     */
+    private static Set<String> previousRules(List<Producer> producers, List<ProductNode> nodes, List<ProductEdge> edges) {
+        Map<String, List<Long>> productToCompanies = new HashMap<>();
+        for (Producer producer : producers) {
+            if (StringUtils.hasText(producer.getMajorProduct1())) {
+                productToCompanies.computeIfAbsent(producer.getMajorProduct1(), k -> new ArrayList<>()).add(producer.getId());
+            }
+            if (StringUtils.hasText(producer.getMajorProduct2())) {
+                productToCompanies.computeIfAbsent(producer.getMajorProduct2(), k -> new ArrayList<>()).add(producer.getId());
+            }
+        }
+        Map<Long, String> nodeNames = new HashMap<>();
+        nodes.forEach(node -> nodeNames.put(node.getId(), node.getName()));
+
+        Map<String, String> relations = new HashMap<>();
+        for (ProductEdge edge : edges) {
+            String parent = nodeNames.get(edge.getParentId());
+            String child = nodeNames.get(edge.getChildId());
+            if (parent == null || child == null) continue;
+            List<Long> parentCompanies = productToCompanies.get(parent);
+            List<Long> childCompanies = productToCompanies.get(child);
+            if (parentCompanies == null || childCompanies == null) continue;
+            for (Long childCompany : childCompanies) {
+                for (Long parentCompany : parentCompanies) {
+                    if (!childCompany.equals(parentCompany)) {
+                        relations.putIfAbsent(pairKey(childCompany, parentCompany, child), "partner");
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, List<Long>> entry : productToCompanies.entrySet()) {
+            List<Long> companies = entry.getValue();
+            for (int i = 0; i < companies.size(); i++) {
+                for (int j = i + 1; j < companies.size(); j++) {
+                    relations.put(pairKey(companies.get(i), companies.get(j), entry.getKey()), "supplier");
+                }
+            }
+        }
+        Set<String> result = new HashSet<>();
+        relations.forEach((pair, type) -> result.add(pair + "-" + type));
+        return result;
+    }
+
+    /**
+     * 引擎不再输出公司与自身的“竞争”关系（同一公司两个主营产品相同时，原规则会产生这种关系）。
+     */
+    private static Set<String> withoutSelfPairs(Set<String> relations) {
+        Set<String> result = new HashSet<>();
+        for (String relation : relations) {
+            String[] parts = relation.split("-", 3);
+            if (!parts[0].equals(parts[1])) result.add(relation);
+        }
+        return result;
+    }
+
+    private static String pairKey(long a, long b, String product) {
+        return Math.min(a, b) + "-" + Math.max(a, b) + "-" + product;
+    }
+
+    private static String key(long a, long b, String product, String type) {
+        return pairKey(a, b, product) + "-" + type;
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.riskwarningsystembackend.service.crawler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 以本地 HTTP 桩服务校验抓取器的每主机并发上限、重试和超时行为。
+ */
+class PoliteFetcherTests {
+
+    private static final int PER_HOST_CONCURRENCY = 2;
+    private static final int MAX_RETRIES = 2;
+    private static final long READ_TIMEOUT_MILLIS = 300;
+
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private PoliteFetcher fetcher;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/slow", exchange -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                pause(100);
+                respond(exchange, 200, "ok");
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        server.createContext("/flaky", exchange -> {
+            // 前两次返回 503，之后恢复正常
+            respond(exchange, hit(exchange) <= 2 ? 503 : 200, "recovered");
+        });
+        server.createContext("/gone", exchange -> {
+            hit(exchange);
+            respond(exchange, 404, "not found");
+        });
+        server.createContext("/hang", exchange -> {
+            hit(exchange);
+            pause(READ_TIMEOUT_MILLIS * 10);
+            respond(exchange, 200, "too late");
+        });
+        server.start();
+
+        fetcher = fetcher(10_000);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void limitsConcurrentRequestsPerHost() throws Exception {
+        int requests = PER_HOST_CONCURRENCY * 4;
+        List<Future<HttpResponse<byte[]>>> futures = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                futures.add(clients.submit(() -> fetcher.fetch(url("/slow"))));
+            }
+            for (Future<HttpResponse<byte[]>> future : futures) {
+                assertThat(future.get().statusCode()).isEqualTo(200);
+            }
+        }
+
+        assertThat(maxInFlight.get()).isEqualTo(PER_HOST_CONCURRENCY);
+    }
+
+    @Test
+    void retriesServiceUnavailable() throws IOException {
+        HttpResponse<byte[]> response = fetcher.fetch(url("/flaky"));
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(new String(response.body(), StandardCharsets.UTF_8)).isEqualTo("recovered");
+        assertThat(hits.get("/flaky").get()).isEqualTo(3);
+    }
+
+    @Test
+    void doesNotRetryNotFound() {
+        assertThatThrownBy(() -> fetcher.fetch(url("/gone")))
+                .isInstanceOfSatisfying(PoliteFetcher.HttpStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(404);
+                    assertThat(e.isPermanent()).isTrue();
+                });
+        assertThat(hits.get("/gone").get()).isEqualTo(1);
+    }
+
+    @Test
+    void timesOutAndRetriesUnresponsiveServer() {
+        PoliteFetcher impatient = fetcher(READ_TIMEOUT_MILLIS);
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> impatient.fetch(url("/hang"))).isInstanceOf(HttpTimeoutException.class);
+
+        // 每次请求都在读取超时后放弃，而不是等到服务端响应
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertThat(elapsedMillis).isLessThan(READ_TIMEOUT_MILLIS * 10);
+        assertThat(hits.get("/hang").get()).isEqualTo(MAX_RETRIES + 1);
+    }
+
+    private static PoliteFetcher fetcher(long readTimeoutMillis) {
+        return new PoliteFetcher(PER_HOST_CONCURRENCY, 0, 5000, readTimeoutMillis, MAX_RETRIES, 10,
+                "PoliteFetcherTests", false, "");
+    }
+
+    private String url(String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path;
+    }
+
+    private int hit(HttpExchange exchange) {
+        return hits.computeIfAbsent(exchange.getRequestURI().getPath(), path -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.example.riskwarningsystembackend.service.geo;
+
+import org.example.riskwarningsystembackend.service.RiskSnapshotService.RiskLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 以逐个公司的线性扫描为参照，校验空间索引的聚合、范围、半径和多边形查询。
+ */
+class CompanyGeoIndexTests {
+
+    private static final RiskLevel[] LEVELS = RiskLevel.values();
+    private static final int GRID_SIZE = 1 << CompanyGeoIndex.MAX_LEVEL;
+
+    /**
+     * 线性扫描的参照数据：纠正后的坐标
+     */
+    private record Point(long id, double longitude, double latitude, RiskLevel level) {
+    }
+
+    @Test
+    void clustersMatchLinearScan() {
+        Random random = new Random(7L);
+        List<CompanyGeoIndex.Entry> entries = randomEntries(random, 5000);
+        CompanyGeoIndex index = CompanyGeoIndex.build(1L, entries);
+        List<Point> points = normalized(entries);
+        assertThat(index.size()).isEqualTo(points.size());
+
+        for (int round = 0; round < 200; round++) {
+            CompanyGeoIndex.BoundingBox box = round == 0 ? CompanyGeoIndex.BoundingBox.WORLD : randomBox(random, points);
+            int level = CompanyGeoIndex.levelFor(box, random.nextInt(CompanyGeoIndex.MAX_LEVEL + 1), 256);
+
+            // 参照：按格子分组与范围相交的格子内的公司
+            int x0 = cell(projectX(box.west())) >>> (CompanyGeoIndex.MAX_LEVEL - level);
+            int x1 = cell(projectX(box.east())) >>> (CompanyGeoIndex.MAX_LEVEL - level);
+            int y0 = cell(projectY(box.north())) >>> (CompanyGeoIndex.MAX_LEVEL - level);
+            int y1 = cell(projectY(box.south())) >>> (CompanyGeoIndex.MAX_LEVEL - level);
+            Map<Long, List<Point>> cells = new TreeMap<>();
+            for (Point point : points) {
+                int cx = cell(projectX(point.longitude())) >>> (CompanyGeoIndex.MAX_LEVEL - level);
+                int cy = cell(projectY(point.latitude())) >>> (CompanyGeoIndex.MAX_LEVEL - level);
+                if (cx >= x0 && cx <= x1 && cy >= y0 && cy <= y1) {
+                    cells.computeIfAbsent(((long) cy << 32) | cx, key -> new ArrayList<>()).add(point);
+                }
+            }
+            List<CompanyGeoIndex.Cluster> expected = new ArrayList<>();
+            int expectedCount = 0;
+            for (List<Point> members : cells.values()) {
+                double x = members.stream().mapToDouble(point -> projectX(point.longitude())).average().orElseThrow();
+                double y = members.stream().mapToDouble(point -> projectY(point.latitude())).average().orElseThrow();
+                expected.add(new CompanyGeoIndex.Cluster(x * 360 - 180, Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y)))),
+                        members.size(), countLevel(members, RiskLevel.HIGH), countLevel(members, RiskLevel.MEDIUM),
+                        countLevel(members, RiskLevel.LOW)));
+                expectedCount += members.size();
+            }
+
+            List<CompanyGeoIndex.Cluster> actual = new ArrayList<>(index.cluster(box, level));
+            Comparator<CompanyGeoIndex.Cluster> order = Comparator.comparingDouble(CompanyGeoIndex.Cluster::latitude)
+                    .thenComparingDouble(CompanyGeoIndex.Cluster::longitude);
+            actual.sort(order);
+            expected.sort(order);
+            assertThat(actual).as("box=%s, level=%d", box, level).hasSameSizeAs(expected);
+            for (int i = 0; i < expected.size(); i++) {
+                CompanyGeoIndex.Cluster a = actual.get(i);
+                CompanyGeoIndex.Cluster e = expected.get(i);
+                assertThat(List.of(a.count(), a.high(), a.medium(), a.low()))
+                        .isEqualTo(List.of(e.count(), e.high(), e.medium(), e.low()));
+                assertThat(a.longitude()).isCloseTo(e.longitude(), within(1e-6));
+                assertThat(a.latitude()).isCloseTo(e.latitude(), within(1e-6));
+            }
+            assertThat(index.countInCells(box, level)).isEqualTo(expectedCount);
+        }
+    }
+
+    @Test
+    void boxRadiusAndPolygonQueriesMatchLinearScan() {
+        Random random = new Random(11L);
+        List<CompanyGeoIndex.Entry> entries = randomEntries(random, 5000);
+        CompanyGeoIndex index = CompanyGeoIndex.build(1L, entries);
+        List<Point> points = normalized(entries);
+
+        for (int round = 0; round < 200; round++) {
+            CompanyGeoIndex.BoundingBox box = randomBox(random, points);
+            Set<Long> expected = new TreeSet<>();
+            points.stream().filter(point -> box.contains(point.longitude(), point.latitude()))
+                    .forEach(point -> expected.add(point.id()));
+            Set<Long> actual = new TreeSet<>();
+            index.forEachInBox(box, i -> actual.add(index.companyId(i)));
+            assertThat(actual).as("box=%s", box).isEqualTo(expected);
+
+            // 回调返回 false 时立即停止
+            int limit = 1 + random.nextInt(5);
+            int[] visited = {0};
+            index.forEachInBox(box, i -> ++visited[0] < limit);
+            assertThat(visited[0]).isEqualTo(Math.min(limit, expected.size()));
+
+            double centerLatitude = 20 + random.nextDouble() * 30;
+            double centerLongitude = 80 + random.nextDouble() * 45;
+            double radiusKm = Math.pow(10, random.nextDouble() * 3.5);
+            Map<Long, Double> expectedDistances = new TreeMap<>();
+            for (Point point : points) {
+                double distance = CompanyGeoIndex.distanceKm(centerLatitude, centerLongitude, point.latitude(), point.longitude());
+                if (distance <= radiusKm) {
+                    expectedDistances.put(point.id(), distance);
+                }
+            }
+            Map<Long, Double> actualDistances = new TreeMap<>();
+            index.forEachWithinRadius(centerLatitude, centerLongitude, radiusKm, (i, distance) -> {
+                actualDistances.put(index.companyId(i), distance);
+                return true;
+            });
+            assertThat(actualDistances).as("center=(%f, %f), radius=%f", centerLatitude, centerLongitude, radiusKm)
+                    .isEqualTo(expectedDistances);
+
+            double[][] polygon = randomPolygon(random, centerLongitude, centerLatitude);
+            Set<Long> expectedInPolygon = new TreeSet<>();
+            points.stream().filter(point -> containsPoint(polygon[0], polygon[1], point.longitude(), point.latitude()))
+                    .forEach(point -> expectedInPolygon.add(point.id()));
+            Set<Long> actualInPolygon = new TreeSet<>();
+            index.forEachInPolygon(polygon[0], polygon[1], i -> actualInPolygon.add(index.companyId(i)));
+            assertThat(actualInPolygon).isEqualTo(expectedInPolygon);
+        }
+    }
+
+    @Test
+    void normalizeSwapsAndRejectsCoordinates() {
+        assertThat(CompanyGeoIndex.normalize(104.06, 30.67)).containsExactly(30.67, 104.06);
+        assertThat(CompanyGeoIndex.normalize(30.67, 104.06)).containsExactly(30.67, 104.06);
+        assertThat(CompanyGeoIndex.normalize(null, 104.06)).isNull();
+        assertThat(CompanyGeoIndex.normalize(0.0, 104.06)).isNull();
+        assertThat(CompanyGeoIndex.normalize(120.0, 190.0)).isNull();
+        assertThat(CompanyGeoIndex.normalize(Double.NaN, 104.06)).isNull();
+    }
+
+    /**
+     * 随机公司：多数在中国境内，部分集中在少数几个完全相同的坐标（同一格子内有大量相同的编码），
+     * 部分经纬度颠倒或无效，少数分布在全球。
+     */
+    private static List<CompanyGeoIndex.Entry> randomEntries(Random random, int count) {
+        double[][] hotSpots = new double[20][];
+        for (int i = 0; i < hotSpots.length; i++) {
+            hotSpots[i] = new double[]{20 + random.nextDouble() * 30, 80 + random.nextDouble() * 45};
+        }
+        List<CompanyGeoIndex.Entry> entries = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            double latitude;
+            double longitude;
+            int kind = random.nextInt(20);
+            if (kind < 6) {
+                double[] spot = hotSpots[random.nextInt(hotSpots.length)];
+                latitude = spot[0];
+                longitude = spot[1];
+            } else if (kind < 8) {
+                latitude = -85 + random.nextDouble() * 170;
+                longitude = -179 + random.nextDouble() * 358;
+            } else {
+                latitude = 18 + random.nextDouble() * 35;
+                longitude = 73 + random.nextDouble() * 62;
+            }
+            Double storedLatitude = latitude;
+            Double storedLongitude = longitude;
+            if (kind == 19) {
+                storedLatitude = random.nextBoolean() ? null : 0.0;
+            } else if (random.nextInt(10) == 0 && Math.abs(longitude) > CompanyGeoIndex.MAX_LATITUDE) {
+                storedLatitude = longitude;
+                storedLongitude = latitude;
+            }
+            entries.add(new CompanyGeoIndex.Entry(id, "公司" + id, storedLatitude, storedLongitude,
+                    LEVELS[random.nextInt(LEVELS.length)]));
+        }
+        return entries;
+    }
+
+    private static List<Point> normalized(List<CompanyGeoIndex.Entry> entries) {
+        List<Point> points = new ArrayList<>();
+        for (CompanyGeoIndex.Entry entry : entries) {
+            double[] coordinates = CompanyGeoIndex.normalize(entry.latitude(), entry.longitude());
+            if (coordinates != null) {
+                points.add(new Point(entry.id(), coordinates[1], coordinates[0], entry.level()));
+            }
+        }
+        return points;
+    }
+
+    /**
+     * 随机范围，其中四分之一是围绕某家公司的极小范围，使查询用到最细一级的网格（每个编码都是格子的起点）。
+     */
+    private static CompanyGeoIndex.BoundingBox randomBox(Random random, List<Point> points) {
+        if (random.nextInt(4) == 0) {
+            Point point = points.get(random.nextInt(points.size()));
+            double half = Math.pow(10, -4 - random.nextDouble());
+            return new CompanyGeoIndex.BoundingBox(point.longitude() - half, point.latitude() - half,
+                    point.longitude() + half, point.latitude() + half).normalized();
+        }
+        double width = Math.pow(10, random.nextDouble() * 3.5 - 2);
+        double height = Math.pow(10, random.nextDouble() * 3.5 - 2);
+        double west = 70 + random.nextDouble() * 60 - width / 2;
+        double south = 15 + random.nextDouble() * 40 - height / 2;
+        return new CompanyGeoIndex.BoundingBox(west, south, west + width, south + height).normalized();
+    }
+
+    /**
+     * 以给定点为中心、各顶点按角度排列的星形多边形（简单多边形）。
+     */
+    private static double[][] randomPolygon(Random random, double centerLongitude, double centerLatitude) {
+        int vertices = 3 + random.nextInt(8);
+        double[] angles = new double[vertices];
+        for (int i = 0; i < vertices; i++) {
+            angles[i] = random.nextDouble() * 2 * Math.PI;
+        }
+        Arrays.sort(angles);
+        double[] longitudes = new double[vertices];
+        double[] latitudes = new double[vertices];
+        for (int i = 0; i < vertices; i++) {
+            double radius = 0.5 + random.nextDouble() * 10;
+            longitudes[i] = centerLongitude + radius * Math.cos(angles[i]);
+            latitudes[i] = centerLatitude + radius * Math.sin(angles[i]);
+        }
+        return new double[][]{longitudes, latitudes};
+    }
+
+    private static boolean containsPoint(double[] xs, double[] ys, double x, double y) {
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if ((ys[i] > y) != (ys[j] > y) && x < (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private static int countLevel(List<Point> points, RiskLevel level) {
+        return (int) points.stream().filter(point -> point.level() == level).count();
+    }
+
+    private static double projectX(double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    private static double projectY(double latitude) {
+        double sin = Math.sin(Math.toRadians(Math.max(-CompanyGeoIndex.MAX_LATITUDE, Math.min(CompanyGeoIndex.MAX_LATITUDE, latitude))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    private static int cell(double projected) {
+        return (int) Math.max(0, Math.min(GRID_SIZE - 1, Math.floor(projected * GRID_SIZE)));
+    }
+}
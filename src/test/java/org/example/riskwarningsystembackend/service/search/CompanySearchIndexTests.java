@@ -0,0 +1,96 @@
+package org.example.riskwarningsystembackend.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 校验公司检索索引的增量修补与完整重建结果一致。
+ */
+class CompanySearchIndexTests {
+
+    private static final String CORE_CHARS = "长虹电器光伏新能源科技通威晶硅材料天府智造云数据";
+    private static final List<String> SUFFIXES = List.of("股份有限公司", "有限公司", "Solar Tech", "");
+    private static final List<String> INDUSTRIES = List.of("光伏设备", "新能源", "电子器件", "软件和信息技术服务业", "");
+
+    @Test
+    void incrementalUpdatesMatchFullRebuild() {
+        Random random = new Random(20261017L);
+        Map<Long, CompanySearchIndex.Entry> entries = new TreeMap<>();
+        for (long id = 0; id < 200; id++) {
+            entries.put(id, randomEntry(random, id));
+        }
+        CompanySearchIndex index = CompanySearchIndex.build(new ArrayList<>(entries.values()));
+        long nextId = 200;
+        for (int step = 1; step <= 600; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 4) {
+                // 更新已有公司，或复用已删除公司的ID
+                long id = random.nextInt((int) nextId);
+                CompanySearchIndex.Entry entry = randomEntry(random, id);
+                index = index.with(entry);
+                entries.put(id, entry);
+            } else if (operation < 6) {
+                // 新公司通常取最大ID，偶尔插入到中间
+                long id = random.nextInt(4) == 0 ? -1 - random.nextInt(50) : nextId++;
+                CompanySearchIndex.Entry entry = randomEntry(random, id);
+                index = index.with(entry);
+                entries.put(id, entry);
+            } else {
+                long id = random.nextInt((int) nextId);
+                index = index.without(id);
+                entries.remove(id);
+            }
+            if (step % 20 == 0) {
+                CompanySearchIndex expected = CompanySearchIndex.build(new ArrayList<>(entries.values()));
+                assertThat(index.size()).isEqualTo(expected.size());
+                for (String keyword : keywordsOf(entries, random)) {
+                    for (boolean includeIndustry : new boolean[]{true, false}) {
+                        assertThat(index.search(keyword, includeIndustry, 50))
+                                .as("keyword=%s, industry=%s", keyword, includeIndustry)
+                                .isEqualTo(expected.search(keyword, includeIndustry, 50));
+                    }
+                }
+            }
+        }
+    }
+
+    private static CompanySearchIndex.Entry randomEntry(Random random, long id) {
+        StringBuilder name = new StringBuilder();
+        int length = 2 + random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            name.append(CORE_CHARS.charAt(random.nextInt(CORE_CHARS.length())));
+        }
+        name.append(SUFFIXES.get(random.nextInt(SUFFIXES.size())));
+        String industry = random.nextInt(8) == 0
+                ? "行业" + random.nextInt(20)
+                : INDUSTRIES.get(random.nextInt(INDUSTRIES.size()));
+        return new CompanySearchIndex.Entry(id, random.nextInt(30) == 0 ? null : name.toString(), industry);
+    }
+
+    /**
+     * 从现有名称和行业中截取关键词，另加几个不一定命中的关键词。
+     */
+    private static Set<String> keywordsOf(Map<Long, CompanySearchIndex.Entry> entries, Random random) {
+        Set<String> keywords = new LinkedHashSet<>(List.of("长", "光伏", "solar", "有限公司", "新能源", "行业1", "不存在"));
+        List<CompanySearchIndex.Entry> values = new ArrayList<>(entries.values());
+        for (int i = 0; i < 30 && !values.isEmpty(); i++) {
+            CompanySearchIndex.Entry entry = values.get(random.nextInt(values.size()));
+            String text = random.nextBoolean() || entry.name() == null ? entry.industry() : entry.name();
+            if (text.isEmpty()) {
+                continue;
+            }
+            int from = random.nextInt(text.length());
+            keywords.add(text.substring(from, Math.min(text.length(), from + 1 + random.nextInt(3))));
+        }
+        return keywords;
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.riskwarningsystembackend.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 校验联想快照的增量更新与完整重建一致，以及联想结果与暴力枚举的前若干条一致。
+ */
+class TypeaheadIndexTests {
+
+    private static final List<String> REGIONS = List.of("四川省", "四川", "四川省", "四川", "成都市", "北京", "");
+    private static final String CORE_CHARS = "长虹电器光伏新能源科技通威晶硅材料天府智造云数据安华信达";
+    private static final List<String> SUFFIXES = List.of("股份有限公司", "有限公司", "集团有限公司", "（成都）有限公司", "");
+    private static final List<String> LATIN_NAMES = List.of("Alpha Solar", "alpha tech", "ALPHA", "Beta Grid", "beta");
+
+    @Test
+    void incrementalUpdatesMatchFullRebuild() {
+        Random random = new Random(20261017L);
+        for (boolean withAliases : new boolean[]{true, false}) {
+            Map<Long, String> names = randomNames(random, 300);
+            TypeaheadIndex index = TypeaheadIndex.build(names, withAliases);
+            for (int step = 1; step <= 400; step++) {
+                long id = random.nextInt(400);
+                int operation = random.nextInt(10);
+                if (operation < 5) {
+                    String name = randomName(random);
+                    index = index.with(id, name, withAliases);
+                    names.put(id, name);
+                } else if (operation < 6) {
+                    // 空名称等同于移除
+                    index = index.with(id, random.nextBoolean() ? null : "  ", withAliases);
+                    names.remove(id);
+                } else {
+                    index = index.without(id, withAliases);
+                    names.remove(id);
+                }
+                if (step % 25 == 0) {
+                    assertSameSuggestions(index, TypeaheadIndex.build(names, withAliases), prefixesOf(names, random));
+                }
+            }
+        }
+    }
+
+    @Test
+    void topSuggestionsMatchBruteForce() {
+        Random random = new Random(42L);
+        // 数量足以让“四”“四川”“四川省”等短前缀的匹配区间超过扫描上限，走预先计算的结果
+        Map<Long, String> names = randomNames(random, 6000);
+        for (boolean withAliases : new boolean[]{true, false}) {
+            TypeaheadIndex index = TypeaheadIndex.build(names, withAliases);
+            assertThat(index.size()).isEqualTo((int) names.values().stream().filter(name -> !name.isBlank()).count());
+            for (String prefix : prefixesOf(names, random)) {
+                List<TypeaheadIndex.Suggestion> expected = bruteForce(names, withAliases, prefix);
+                for (int limit : new int[]{1, 5, TypeaheadIndex.MAX_SUGGESTIONS}) {
+                    assertThat(index.suggest(prefix, limit))
+                            .as("prefix=%s, limit=%d, aliases=%s", prefix, limit, withAliases)
+                            .isEqualTo(expected.subList(0, Math.min(limit, expected.size())));
+                }
+            }
+        }
+    }
+
+    private static void assertSameSuggestions(TypeaheadIndex actual, TypeaheadIndex expected, Set<String> prefixes) {
+        assertThat(actual.size()).isEqualTo(expected.size());
+        for (String prefix : prefixes) {
+            assertThat(actual.suggest(prefix, TypeaheadIndex.MAX_SUGGESTIONS))
+                    .as("prefix=%s", prefix)
+                    .isEqualTo(expected.suggest(prefix, TypeaheadIndex.MAX_SUGGESTIONS));
+        }
+    }
+
+    /**
+     * 逐个对象枚举全部键，按与索引相同的规则排序后返回全部匹配。
+     */
+    private static List<TypeaheadIndex.Suggestion> bruteForce(Map<Long, String> names, boolean withAliases,
+                                                             String prefix) {
+        String needle = prefix.strip().toLowerCase(Locale.ROOT);
+        List<TypeaheadIndex.Suggestion> matches = new ArrayList<>();
+        if (needle.isEmpty()) {
+            return matches;
+        }
+        for (Map.Entry<Long, String> entry : names.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().isBlank()) {
+                continue;
+            }
+            String name = entry.getValue().strip();
+            Set<String> keys = new LinkedHashSet<>();
+            keys.add(name.toLowerCase(Locale.ROOT));
+            if (withAliases) {
+                keys.addAll(TypeaheadIndex.aliases(name));
+            }
+            TypeaheadIndex.Suggestion best = null;
+            boolean alias = false;
+            for (String key : keys) {
+                if (key.startsWith(needle)) {
+                    int rank = ((key.length() == needle.length() ? 0 : 1) << 17) | ((alias ? 1 : 0) << 16) | name.length();
+                    // 同一对象的多个键排序值相同时，保留字典序较小的键
+                    if (best == null || rank < best.rank() || (rank == best.rank() && key.compareTo(best.matched()) < 0)) {
+                        best = new TypeaheadIndex.Suggestion(entry.getKey(), name, key, rank);
+                    }
+                }
+                alias = true;
+            }
+            if (best != null) {
+                matches.add(best);
+            }
+        }
+        matches.sort(Comparator.comparingInt(TypeaheadIndex.Suggestion::rank).thenComparingLong(TypeaheadIndex.Suggestion::id));
+        return matches;
+    }
+
+    /**
+     * 测试用的前缀：抽样名称的各级前缀（含大写和首尾空白的变体），以及不存在的前缀。
+     */
+    private static Set<String> prefixesOf(Map<Long, String> names, Random random) {
+        List<String> values = new ArrayList<>(names.values());
+        Set<String> prefixes = new TreeSet<>(List.of("四", "四川", "四川省", "成都市", "a", "ALP", " beta ", "不存在", "zz"));
+        for (int i = 0; i < 40 && !values.isEmpty(); i++) {
+            String name = values.get(random.nextInt(values.size())).strip();
+            List<String> keys = new ArrayList<>(TypeaheadIndex.aliases(name));
+            keys.add(name);
+            for (String key : keys) {
+                for (int length = 1; length <= Math.min(key.length(), 8); length++) {
+                    prefixes.add(key.substring(0, length));
+                }
+                prefixes.add(key.toUpperCase(Locale.ROOT));
+            }
+        }
+        return prefixes;
+    }
+
+    private static Map<Long, String> randomNames(Random random, int count) {
+        Map<Long, String> names = new HashMap<>();
+        for (long id = 1; id <= count; id++) {
+            names.put(id, random.nextInt(20) == 0 ? "" : randomName(random));
+        }
+        return names;
+    }
+
+    private static String randomName(Random random) {
+        if (random.nextInt(10) == 0) {
+            return LATIN_NAMES.get(random.nextInt(LATIN_NAMES.size())) + (random.nextBoolean() ? "" : " Co");
+        }
+        StringBuilder name = new StringBuilder(REGIONS.get(random.nextInt(REGIONS.size())));
+        int coreLength = 1 + random.nextInt(4);
+        for (int i = 0; i < coreLength; i++) {
+            name.append(CORE_CHARS.charAt(random.nextInt(CORE_CHARS.length())));
+        }
+        return name.append(SUFFIXES.get(random.nextInt(SUFFIXES.size()))).toString();
+    }
+}